@@ -25,6 +25,7 @@ import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.impl.builder.StAXOMBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.openbanking.cds.common.enums.DataPublishingOverflowPolicyEnum;
 import org.wso2.openbanking.cds.common.utils.CommonConstants;
 import org.wso2.securevault.SecretResolver;
 import org.wso2.securevault.SecretResolverFactory;
@@ -267,6 +268,31 @@ public class OpenBankingCDSConfigParser {
         return value == null ? "" : value;
     }
 
+    /**
+     * Get the maximum number of encrypted and decrypted resource ids cached for id permanence.
+     * Caching is disabled if the value is zero.
+     *
+     * @return int
+     */
+    public int getIdPermanenceCacheMaxSize() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.ID_PERMANENCE_CACHE_MAX_SIZE,
+                CommonConstants.DEFAULT_ID_PERMANENCE_CACHE_MAX_SIZE);
+    }
+
+    /**
+     * Get the id permanence cache expiry time in minutes.
+     *
+     * @return int
+     */
+    public int getIdPermanenceCacheExpiryInMinutes() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.ID_PERMANENCE_CACHE_EXPIRY_TIME,
+                CommonConstants.DEFAULT_ID_PERMANENCE_CACHE_EXPIRY_TIME);
+    }
+
     /**
      * Returns the element with the provided key.
      *
@@ -781,6 +807,19 @@ public class OpenBankingCDSConfigParser {
                 CommonConstants.METRICS_CACHE_DEFAULT_EXPIRY_TIME);
     }
 
+    /**
+     * Get the number of days the cached historic metrics are rolled over incrementally before they are
+     * recalculated from scratch. Incremental roll over is disabled if the value is zero.
+     *
+     * @return int
+     */
+    public int getMetricsFullRecomputeInterval() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.METRICS_FULL_RECOMPUTE_INTERVAL,
+                CommonConstants.METRICS_DEFAULT_FULL_RECOMPUTE_INTERVAL);
+    }
+
     /**
      * Get URL for retrieving metrics TPS data.
      *
@@ -849,6 +888,167 @@ public class OpenBankingCDSConfigParser {
         return secondsValue * 1000L;
     }
 
+    /**
+     * Get the connect timeout in milliseconds used by the metrics stream processor client.
+     *
+     * @return int
+     */
+    public int getMetricsSPConnectTimeout() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.METRICS_SP_CONNECT_TIMEOUT,
+                CommonConstants.METRICS_SP_DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    /**
+     * Get the socket (read) timeout in milliseconds used by the metrics stream processor client.
+     *
+     * @return int
+     */
+    public int getMetricsSPSocketTimeout() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.METRICS_SP_SOCKET_TIMEOUT,
+                CommonConstants.METRICS_SP_DEFAULT_SOCKET_TIMEOUT);
+    }
+
+    /**
+     * Get the timeout in milliseconds to lease a pooled connection for the metrics stream processor client.
+     *
+     * @return int
+     */
+    public int getMetricsSPConnectionRequestTimeout() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.METRICS_SP_CONNECTION_REQUEST_TIMEOUT,
+                CommonConstants.METRICS_SP_DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Get the number of threads of the executor used to fetch metrics asynchronously.
+     *
+     * @return int
+     */
+    public int getMetricsFetchExecutorPoolSize() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.METRICS_FETCH_EXECUTOR_POOL_SIZE,
+                CommonConstants.METRICS_FETCH_EXECUTOR_DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Get the maximum number of pending tasks of the executor used to fetch metrics asynchronously.
+     *
+     * @return int
+     */
+    public int getMetricsFetchExecutorQueueCapacity() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.METRICS_FETCH_EXECUTOR_QUEUE_CAPACITY,
+                CommonConstants.METRICS_FETCH_EXECUTOR_DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Get the overall deadline in milliseconds for fetching the metrics of a single request.
+     *
+     * @return int
+     */
+    public int getMetricsFetchTimeout() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.METRICS_FETCH_TIMEOUT,
+                CommonConstants.METRICS_DEFAULT_FETCH_TIMEOUT);
+    }
+
+    /**
+     * Check whether data is published asynchronously, off the request thread.
+     *
+     * @return true if asynchronous data publishing is enabled, default value is false
+     */
+    public boolean isAsyncDataPublishingEnabled() {
+
+        Object config = getConfigElementFromKey(CommonConstants.ASYNC_DATA_PUBLISHING_ENABLED);
+        return config != null && Boolean.parseBoolean(((String) config).trim());
+    }
+
+    /**
+     * Get the maximum number of events queued per stream for asynchronous data publishing.
+     *
+     * @return int
+     */
+    public int getAsyncDataPublishingQueueCapacity() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.ASYNC_DATA_PUBLISHING_QUEUE_CAPACITY,
+                CommonConstants.ASYNC_DATA_PUBLISHING_DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Get the maximum number of events taken from a stream queue at once for asynchronous data publishing.
+     *
+     * @return int
+     */
+    public int getAsyncDataPublishingBatchSize() {
+
+        return performConfigIntegerValueCheck(
+                CommonConstants.ASYNC_DATA_PUBLISHING_BATCH_SIZE,
+                CommonConstants.ASYNC_DATA_PUBLISHING_DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Get the action taken when a stream queue of asynchronous data publishing is full.
+     *
+     * @return overflow policy, default value is block
+     */
+    public DataPublishingOverflowPolicyEnum getAsyncDataPublishingOverflowPolicy() {
+
+        Object config = getConfigElementFromKey(CommonConstants.ASYNC_DATA_PUBLISHING_OVERFLOW_POLICY);
+        if (config != null) {
+            try {
+                return DataPublishingOverflowPolicyEnum.fromValue(((String) config).trim());
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid data publishing overflow policy : " + config + ". Expected values are drop, " +
+                        "block or publish_sync. Default value : block will be used.");
+            }
+        }
+        return DataPublishingOverflowPolicyEnum.BLOCK;
+    }
+
+    /**
+     * Check whether the consent validation state of a consent is cached between the validations of the consent.
+     *
+     * @return true if the consent validation cache is enabled, default value is false
+     */
+    public boolean isConsentValidationCacheEnabled() {
+
+        Object config = getConfigElementFromKey(CommonConstants.CONSENT_VALIDATION_CACHE_ENABLED);
+        return config != null && Boolean.parseBoolean(((String) config).trim());
+    }
+
+    /**
+     * Get the expiry time of the consent validation cache entries.
+     *
+     * @return expiry time in minutes, default value is 1 min
+     */
+    public int getConsentValidationCacheExpiryInMinutes() {
+
+        int expiry = performConfigIntegerValueCheck(CommonConstants.CONSENT_VALIDATION_CACHE_EXPIRY,
+                CommonConstants.CONSENT_VALIDATION_CACHE_DEFAULT_EXPIRY);
+        return expiry > 0 ? expiry : CommonConstants.CONSENT_VALIDATION_CACHE_DEFAULT_EXPIRY;
+    }
+
+    /**
+     * Get the expiry time of the service provider property cache entries.
+     *
+     * @return expiry time in minutes, default value is 15 mins
+     */
+    public int getServiceProviderPropertyCacheExpiryInMinutes() {
+
+        int expiry = performConfigIntegerValueCheck(CommonConstants.SERVICE_PROVIDER_PROPERTY_CACHE_EXPIRY,
+                CommonConstants.SERVICE_PROVIDER_PROPERTY_CACHE_DEFAULT_EXPIRY);
+        return expiry > 0 ? expiry : CommonConstants.SERVICE_PROVIDER_PROPERTY_CACHE_DEFAULT_EXPIRY;
+    }
+
 
     /**
      * Perform integer value check on given config.
@@ -0,0 +1,308 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.common.data.publisher;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.openbanking.cds.common.enums.DataPublishingOverflowPolicyEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes data off the request thread.
+ * <p>
+ * Each stream has a bounded queue, filled by the request threads, and a single drainer task which drains the queue
+ * in batches and hands the events to the sink. The drainer tasks run on named threads owned by the publisher, which
+ * are stopped by {@link #shutdown(long)}. The action taken when a queue is full is decided by the configured overflow
+ * policy.
+ */
+public class AsyncDataPublisher {
+
+    private static final Log log = LogFactory.getLog(AsyncDataPublisher.class);
+    private static final String THREAD_NAME_PREFIX = "cds-data-publisher-";
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final EventSink eventSink;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final DataPublishingOverflowPolicyEnum overflowPolicy;
+    private final ConcurrentMap<String, StreamPublisher> streamPublishers = new ConcurrentHashMap<>();
+    private final ExecutorService drainerExecutor = Executors.newCachedThreadPool(new DrainerThreadFactory());
+    private volatile boolean running = true;
+
+    public AsyncDataPublisher(EventSink eventSink, int queueCapacity, int batchSize,
+                              DataPublishingOverflowPolicyEnum overflowPolicy) {
+
+        this.eventSink = eventSink;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Queue an event to be published. If the publisher is shutdown, the event is published on the calling thread.
+     *
+     * @param streamName    stream name
+     * @param streamVersion stream version
+     * @param data          data to be published
+     */
+    public void publish(String streamName, String streamVersion, Map<String, Object> data) {
+
+        if (!running) {
+            eventSink.publish(streamName, streamVersion, data);
+            return;
+        }
+        streamPublishers.computeIfAbsent(streamName + ":" + streamVersion,
+                key -> new StreamPublisher(streamName, streamVersion)).publish(data);
+    }
+
+    /**
+     * Stop accepting events and publish the queued events. Waits at most the given time for the queues to drain,
+     * after which the drainer threads are interrupted and the remaining events are discarded.
+     *
+     * @param timeoutMillis maximum time to wait in milliseconds
+     */
+    public void shutdown(long timeoutMillis) {
+
+        running = false;
+        drainerExecutor.shutdown();
+        try {
+            if (!drainerExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn(String.format("Data publisher did not drain within %d ms, %d events are not published",
+                        timeoutMillis, getQueueDepth()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            drainerExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the number of events waiting to be published for the given stream.
+     *
+     * @param streamName    stream name
+     * @param streamVersion stream version
+     * @return queue depth
+     */
+    public int getQueueDepth(String streamName, String streamVersion) {
+
+        StreamPublisher streamPublisher = streamPublishers.get(streamName + ":" + streamVersion);
+        return streamPublisher == null ? 0 : streamPublisher.queue.size();
+    }
+
+    public int getQueueDepth() {
+
+        return streamPublishers.values().stream().mapToInt(streamPublisher -> streamPublisher.queue.size()).sum();
+    }
+
+    public int getMaxQueueDepth() {
+
+        return streamPublishers.values().stream().mapToInt(streamPublisher -> streamPublisher.maxQueueDepth)
+                .max().orElse(0);
+    }
+
+    public long getPublishedEventCount() {
+
+        return streamPublishers.values().stream().mapToLong(streamPublisher -> streamPublisher.publishedCount.get())
+                .sum();
+    }
+
+    public long getFailedEventCount() {
+
+        return streamPublishers.values().stream().mapToLong(streamPublisher -> streamPublisher.failedCount.get())
+                .sum();
+    }
+
+    public long getDroppedEventCount() {
+
+        return streamPublishers.values().stream().mapToLong(streamPublisher -> streamPublisher.droppedCount.get())
+                .sum();
+    }
+
+    public long getSyncPublishedEventCount() {
+
+        return streamPublishers.values().stream()
+                .mapToLong(streamPublisher -> streamPublisher.syncPublishedCount.get()).sum();
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("queued=%d, maxQueued=%d, published=%d, failed=%d, dropped=%d, syncPublished=%d",
+                getQueueDepth(), getMaxQueueDepth(), getPublishedEventCount(), getFailedEventCount(),
+                getDroppedEventCount(), getSyncPublishedEventCount());
+    }
+
+    /**
+     * Destination of the events drained from the stream queues.
+     */
+    @FunctionalInterface
+    public interface EventSink {
+
+        void publish(String streamName, String streamVersion, Map<String, Object> data);
+    }
+
+    /**
+     * Thread factory creating named threads for the drainer tasks.
+     */
+    private static class DrainerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            return new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+        }
+    }
+
+    /**
+     * Queue and drainer task of a single stream.
+     */
+    private class StreamPublisher {
+
+        private final String streamName;
+        private final String streamVersion;
+        private final BlockingQueue<Map<String, Object>> queue;
+        private final AtomicLong publishedCount = new AtomicLong();
+        private final AtomicLong failedCount = new AtomicLong();
+        private final AtomicLong droppedCount = new AtomicLong();
+        private final AtomicLong syncPublishedCount = new AtomicLong();
+        // Only an indication of the queue growth, hence the updates are not atomic.
+        private volatile int maxQueueDepth;
+
+        private StreamPublisher(String streamName, String streamVersion) {
+
+            this.streamName = streamName;
+            this.streamVersion = streamVersion;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            try {
+                drainerExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // The publisher is shutdown, hence the events of this stream are published on the calling thread.
+                log.debug("Data publisher is shutdown, drainer of " + streamName + " is not started");
+            }
+        }
+
+        private void publish(Map<String, Object> data) {
+
+            if (!queue.offer(data)) {
+                switch (overflowPolicy) {
+                    case DROP:
+                        droppedCount.incrementAndGet();
+                        if (log.isDebugEnabled()) {
+                            log.debug(String.format("Data publishing queue of %s is full, event dropped", streamName));
+                        }
+                        return;
+                    case BLOCK:
+                        if (!put(data)) {
+                            publishSync(data);
+                            return;
+                        }
+                        break;
+                    default:
+                        publishSync(data);
+                        return;
+                }
+            }
+            // The drainer stops once the publisher is shutdown and the queue is empty, hence an event queued
+            // concurrently with the shutdown is published here.
+            if (!running && queue.remove(data)) {
+                eventSink.publish(streamName, streamVersion, data);
+                return;
+            }
+            int queueDepth = queue.size();
+            if (queueDepth > maxQueueDepth) {
+                maxQueueDepth = queueDepth;
+            }
+        }
+
+        /**
+         * Wait until the event is queued.
+         *
+         * @return false if the publisher is shutdown or the thread is interrupted while waiting
+         */
+        private boolean put(Map<String, Object> data) {
+
+            try {
+                while (running) {
+                    if (queue.offer(data, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        /**
+         * Publish the event on the calling thread, bypassing the queue.
+         */
+        private void publishSync(Map<String, Object> data) {
+
+            syncPublishedCount.incrementAndGet();
+            eventSink.publish(streamName, streamVersion, data);
+        }
+
+        private void drain() {
+
+            List<Map<String, Object>> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Map<String, Object> data = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (data == null) {
+                        continue;
+                    }
+                    batch.add(data);
+                } catch (InterruptedException e) {
+                    // Drainer threads are only interrupted when the shutdown timeout has elapsed.
+                    log.debug("Drainer of " + streamName + " is interrupted, " + queue.size() +
+                            " events are not published");
+                    return;
+                }
+                queue.drainTo(batch, batchSize - 1);
+                for (Map<String, Object> data : batch) {
+                    try {
+                        eventSink.publish(streamName, streamVersion, data);
+                        publishedCount.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failedCount.incrementAndGet();
+                        log.error("Error while publishing data to " + streamName, e);
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+}
@@ -19,14 +19,25 @@
 package org.wso2.openbanking.cds.common.data.publisher;
 
 import com.wso2.openbanking.accelerator.data.publisher.common.util.OBDataPublisherUtil;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.common.enums.DataPublishingOverflowPolicyEnum;
 
 import java.util.Map;
 
 /**
  * CDS Data publishing service implementation.
+ * <p>
+ * When asynchronous data publishing is enabled by config, the asynchronous publisher is started on the first publish
+ * and data is handed over to it so that the request thread does not wait on data publishing. Otherwise data is
+ * published on the request thread. The publisher is stopped by the CDS identity bundle on deactivation, after which
+ * data is published on the request thread again.
  */
 public class CDSDataPublishingServiceImpl implements CDSDataPublishingService {
 
+    private static final Log log = LogFactory.getLog(CDSDataPublishingServiceImpl.class);
+
     private static final String INPUT_STREAM_VERSION = "1.0.0";
     private static final String ACCESS_TOKEN_INPUT_STREAM = "AccessTokenInputStream";
     private static final String API_DATA_STREAM = "APIInputStream";
@@ -35,50 +46,121 @@ public class CDSDataPublishingServiceImpl implements CDSDataPublishingService {
     private static final String AUTHORISATION_METRICS_INPUT_STREAM = "AuthorisationMetricsInputStream";
     private static final String ABANDONED_CONSENT_FLOW_METRICS_INPUT_STREAM = "AbandonedConsentFlowMetricsInputStream";
 
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10000;
+
     private static final CDSDataPublishingServiceImpl dataPublishingService = new CDSDataPublishingServiceImpl();
 
+    private volatile AsyncDataPublisher asyncDataPublisher;
+    private volatile boolean asyncDataPublishingResolved;
+
     public static CDSDataPublishingServiceImpl getInstance() {
 
         return dataPublishingService;
 
     }
 
+    public CDSDataPublishingServiceImpl() {
+
+    }
+
+    CDSDataPublishingServiceImpl(AsyncDataPublisher asyncDataPublisher) {
+
+        this.asyncDataPublisher = asyncDataPublisher;
+        this.asyncDataPublishingResolved = true;
+    }
+
+    /**
+     * Get the asynchronous data publisher, starting it on the first call if it is enabled by config.
+     *
+     * @return asynchronous data publisher, or null if data should be published on the request thread
+     */
+    private AsyncDataPublisher getAsyncDataPublisher() {
+
+        if (!asyncDataPublishingResolved) {
+            startAsyncDataPublishing();
+        }
+        return asyncDataPublisher;
+    }
+
+    private synchronized void startAsyncDataPublishing() {
+
+        if (asyncDataPublishingResolved) {
+            return;
+        }
+        OpenBankingCDSConfigParser configParser = OpenBankingCDSConfigParser.getInstance();
+        if (configParser.isAsyncDataPublishingEnabled()) {
+            int queueCapacity = configParser.getAsyncDataPublishingQueueCapacity();
+            int batchSize = configParser.getAsyncDataPublishingBatchSize();
+            DataPublishingOverflowPolicyEnum overflowPolicy = configParser.getAsyncDataPublishingOverflowPolicy();
+            asyncDataPublisher = new AsyncDataPublisher(OBDataPublisherUtil::publishData, queueCapacity, batchSize,
+                    overflowPolicy);
+            log.debug(String.format("Started asynchronous data publisher with queue capacity %d, batch size %d " +
+                    "and overflow policy %s", queueCapacity, batchSize, overflowPolicy));
+        }
+        // Set after the publisher so that a publish observing the resolved state also observes the publisher.
+        asyncDataPublishingResolved = true;
+    }
+
+    /**
+     * Stop asynchronous data publishing after publishing the queued events. Data is published on the request thread
+     * afterwards, and the asynchronous publisher is not started again.
+     */
+    public synchronized void stopAsyncDataPublishing() {
+
+        asyncDataPublishingResolved = true;
+        AsyncDataPublisher publisher = asyncDataPublisher;
+        if (publisher != null) {
+            asyncDataPublisher = null;
+            publisher.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+            log.debug("Stopped asynchronous data publisher: " + publisher);
+        }
+    }
+
+    private void publishData(String streamName, Map<String, Object> data) {
+
+        AsyncDataPublisher publisher = getAsyncDataPublisher();
+        if (publisher != null) {
+            publisher.publish(streamName, INPUT_STREAM_VERSION, data);
+        } else {
+            OBDataPublisherUtil.publishData(streamName, INPUT_STREAM_VERSION, data);
+        }
+    }
+
     @Override
     public void publishApiInvocationData(Map<String, Object> apiInvocationData) {
 
-        OBDataPublisherUtil.publishData(API_DATA_STREAM, INPUT_STREAM_VERSION, apiInvocationData);
+        publishData(API_DATA_STREAM, apiInvocationData);
     }
 
     @Override
     public void publishUserAccessTokenData(Map<String, Object> accessTokenData) {
 
-        OBDataPublisherUtil.publishData(ACCESS_TOKEN_INPUT_STREAM, INPUT_STREAM_VERSION, accessTokenData);
+        publishData(ACCESS_TOKEN_INPUT_STREAM, accessTokenData);
 
     }
 
     @Override
     public void publishConsentData(Map<String, Object> consentData) {
 
-        OBDataPublisherUtil.publishData(CONSENT_INPUT_STREAM, INPUT_STREAM_VERSION, consentData);
+        publishData(CONSENT_INPUT_STREAM, consentData);
 
     }
 
     @Override
     public void publishApiLatencyData(Map<String, Object> apiLatencyData) {
 
-        OBDataPublisherUtil.publishData(API_LATENCY_INPUT_STREAM, INPUT_STREAM_VERSION, apiLatencyData);
+        publishData(API_LATENCY_INPUT_STREAM, apiLatencyData);
     }
 
     @Override
     public void publishAuthorisationData(Map<String, Object> authorisationData) {
 
-        OBDataPublisherUtil.publishData(AUTHORISATION_METRICS_INPUT_STREAM, INPUT_STREAM_VERSION, authorisationData);
+        publishData(AUTHORISATION_METRICS_INPUT_STREAM, authorisationData);
     }
 
     @Override
     public void publishAbandonedConsentFlowData(Map<String, Object> abandonedConsentFlowData) {
 
-        OBDataPublisherUtil.publishData(ABANDONED_CONSENT_FLOW_METRICS_INPUT_STREAM, INPUT_STREAM_VERSION,
-                abandonedConsentFlowData);
+        publishData(ABANDONED_CONSENT_FLOW_METRICS_INPUT_STREAM, abandonedConsentFlowData);
     }
 }
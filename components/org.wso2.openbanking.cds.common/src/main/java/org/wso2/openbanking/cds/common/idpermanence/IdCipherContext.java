@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.common.idpermanence;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * AES cipher context of a resource ID encryption secret.
+ * <p>
+ * The key is derived from the secret once, and each thread initializes its own encryption and decryption ciphers
+ * with it on first use, since Cipher instances are not thread safe.
+ */
+class IdCipherContext {
+
+    private static final String TRANSFORMATION = "AES/ECB/PKCS5Padding";
+
+    private final SecretKeySpec secretKey;
+    private final ThreadLocal<Cipher> encryptCiphers = new ThreadLocal<>();
+    private final ThreadLocal<Cipher> decryptCiphers = new ThreadLocal<>();
+
+    /**
+     * Create a cipher context for the given secret.
+     *
+     * @param secret secret key
+     * @throws NoSuchAlgorithmException if the key digest algorithm is not available
+     */
+    IdCipherContext(String secret) throws NoSuchAlgorithmException {
+
+        byte[] key = MessageDigest.getInstance("SHA-512").digest(secret.getBytes(StandardCharsets.UTF_8));
+        this.secretKey = new SecretKeySpec(Arrays.copyOf(key, 16), "AES");
+    }
+
+    /**
+     * Encrypt the given bytes with the cipher of the current thread.
+     *
+     * @param input bytes to be encrypted
+     * @return encrypted bytes
+     */
+    byte[] encrypt(byte[] input) throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            BadPaddingException, IllegalBlockSizeException {
+
+        return doFinal(encryptCiphers, Cipher.ENCRYPT_MODE, input);
+    }
+
+    /**
+     * Decrypt the given bytes with the cipher of the current thread.
+     *
+     * @param input bytes to be decrypted
+     * @return decrypted bytes
+     */
+    byte[] decrypt(byte[] input) throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            BadPaddingException, IllegalBlockSizeException {
+
+        return doFinal(decryptCiphers, Cipher.DECRYPT_MODE, input);
+    }
+
+    private byte[] doFinal(ThreadLocal<Cipher> ciphers, int mode, byte[] input) throws NoSuchAlgorithmException,
+            NoSuchPaddingException, InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
+
+        Cipher cipher = ciphers.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(mode, secretKey);
+            ciphers.set(cipher);
+        }
+        try {
+            // doFinal resets the cipher to its initialized state, so it can be reused for the next operation
+            return cipher.doFinal(input);
+        } catch (BadPaddingException | IllegalBlockSizeException e) {
+            // Do not reuse a cipher which failed in the middle of an operation
+            ciphers.remove();
+            throw e;
+        }
+    }
+}
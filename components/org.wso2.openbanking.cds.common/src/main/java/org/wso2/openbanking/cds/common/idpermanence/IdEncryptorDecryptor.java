@@ -24,15 +24,13 @@ import org.apache.commons.logging.LogFactory;
 
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.BadPaddingException;
-import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
-import javax.crypto.spec.SecretKeySpec;
 
 /**
  * Handling the AES encryption and decryption.
@@ -41,8 +39,9 @@ public class IdEncryptorDecryptor {
 
     private static final Log log = LogFactory.getLog(IdEncryptorDecryptor.class);
 
-    private static SecretKeySpec secretKey;
-    private static byte[] key;
+    // Secrets are read from the configuration, so only a handful are expected. Cleared if it ever grows beyond that.
+    private static final int MAX_CIPHER_CONTEXTS = 16;
+    private static final Map<String, IdCipherContext> cipherContexts = new ConcurrentHashMap<>();
 
     /**
      * Set resource ID encryption/decryption key.
@@ -50,13 +49,8 @@ public class IdEncryptorDecryptor {
      * @param secret secret key
      */
     public static void setKey(String secret) {
-        MessageDigest sha = null;
         try {
-            key = secret.getBytes(StandardCharsets.UTF_8);
-            sha = MessageDigest.getInstance("SHA-512");
-            key = sha.digest(key);
-            key = Arrays.copyOf(key, 16);
-            secretKey = new SecretKeySpec(key, "AES");
+            getCipherContext(secret);
         } catch (NoSuchAlgorithmException e) {
             log.error("Error while setting the encryption key", e);
         }
@@ -71,10 +65,8 @@ public class IdEncryptorDecryptor {
      */
     public static String encrypt(String strToEncrypt, String secret) {
         try {
-            setKey(secret);
-            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-            return Base64.encodeBase64URLSafeString(cipher.doFinal(strToEncrypt.getBytes(StandardCharsets.UTF_8)));
+            byte[] encrypted = getCipherContext(secret).encrypt(strToEncrypt.getBytes(StandardCharsets.UTF_8));
+            return Base64.encodeBase64URLSafeString(encrypted);
         } catch (NoSuchAlgorithmException | InvalidKeyException | NoSuchPaddingException e) {
             log.error("Error while setting the encryption key", e);
         } catch (BadPaddingException | IllegalBlockSizeException e) {
@@ -92,10 +84,8 @@ public class IdEncryptorDecryptor {
      */
     public static String decrypt(String strToDecrypt, String secret) throws IllegalArgumentException {
         try {
-            setKey(secret);
-            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5PADDING");
-            cipher.init(Cipher.DECRYPT_MODE, secretKey);
-            byte[] test = cipher.doFinal(Base64.decodeBase64(strToDecrypt.getBytes(StandardCharsets.UTF_8)));
+            byte[] test = getCipherContext(secret)
+                    .decrypt(Base64.decodeBase64(strToDecrypt.getBytes(StandardCharsets.UTF_8)));
             return new String(test, StandardCharsets.UTF_8);
         } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException e) {
             log.error("Error while setting the decryption key", e);
@@ -104,4 +94,27 @@ public class IdEncryptorDecryptor {
         }
         return null;
     }
+
+    /**
+     * Get the cipher context of the given secret, deriving the key only on the first use of the secret.
+     *
+     * @param secret secret key
+     * @return cipher context
+     * @throws NoSuchAlgorithmException if the key digest algorithm is not available
+     */
+    private static IdCipherContext getCipherContext(String secret) throws NoSuchAlgorithmException {
+
+        IdCipherContext context = cipherContexts.get(secret);
+        if (context == null) {
+            if (cipherContexts.size() >= MAX_CIPHER_CONTEXTS) {
+                cipherContexts.clear();
+            }
+            context = new IdCipherContext(secret);
+            IdCipherContext existingContext = cipherContexts.putIfAbsent(secret, context);
+            if (existingContext != null) {
+                context = existingContext;
+            }
+        }
+        return context;
+    }
 }
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.common.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps count of the account metadata updates made in this node.
+ * <p>
+ * Data derived from the account metadata records the update count at the time the account metadata was read, and
+ * is considered outdated once the update count changes. Code updating the account metadata, or the service provider
+ * properties read along with it, should call {@link #notifyUpdate()} after the update. Updates made in other nodes
+ * are not counted.
+ */
+public class AccountMetadataUpdateTracker {
+
+    private static final AtomicLong UPDATE_COUNT = new AtomicLong();
+
+    private AccountMetadataUpdateTracker() {
+
+    }
+
+    /**
+     * Record an account metadata update.
+     */
+    public static void notifyUpdate() {
+
+        UPDATE_COUNT.incrementAndGet();
+    }
+
+    /**
+     * Get the number of account metadata updates recorded so far.
+     *
+     * @return update count
+     */
+    public static long getUpdateCount() {
+
+        return UPDATE_COUNT.get();
+    }
+}
@@ -50,6 +50,9 @@ public class CDSCommonUtils {
 
     private static final Log LOG = LogFactory.getLog(CDSCommonUtils.class);
 
+    // Mac instances are not thread safe, hence an initialized Mac is kept per thread for the configured secret key.
+    private static final ThreadLocal<TokenEncryptionMac> TOKEN_ENCRYPTION_MAC = new ThreadLocal<>();
+
     /**
      * Method to retrieve the request URI key from the request URI.
      *
@@ -97,11 +100,7 @@ public class CDSCommonUtils {
     public static String encryptAccessToken(String accessToken) {
 
         try {
-            byte[] secretKey = OpenBankingCDSConfigParser.getInstance().getTokenEncryptionSecretKey()
-                    .getBytes(StandardCharsets.UTF_8);
-            Mac mac = Mac.getInstance(HMACSHA256);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(secretKey, HMACSHA256);
-            mac.init(secretKeySpec);
+            Mac mac = getTokenEncryptionMac(OpenBankingCDSConfigParser.getInstance().getTokenEncryptionSecretKey());
             accessToken = new String(Hex.encodeHex(mac.doFinal(accessToken.getBytes(StandardCharsets.UTF_8))));
         } catch (NoSuchAlgorithmException e) {
             LOG.error("Unable to encrypt the access token. Invalid encryption algorithm.", e);
@@ -113,6 +112,27 @@ public class CDSCommonUtils {
         return accessToken;
     }
 
+    /**
+     * Get the Mac of the current thread initialized with the given secret key. A new Mac is initialized only if
+     * the thread does not have one or the secret key has changed.
+     *
+     * @param secretKey token encryption secret key
+     * @return initialized Mac
+     * @throws NoSuchAlgorithmException if HmacSHA256 is not supported
+     * @throws InvalidKeyException if the secret key is invalid
+     */
+    private static Mac getTokenEncryptionMac(String secretKey) throws NoSuchAlgorithmException, InvalidKeyException {
+
+        TokenEncryptionMac tokenEncryptionMac = TOKEN_ENCRYPTION_MAC.get();
+        if (tokenEncryptionMac == null || !tokenEncryptionMac.secretKey.equals(secretKey)) {
+            Mac mac = Mac.getInstance(HMACSHA256);
+            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMACSHA256));
+            tokenEncryptionMac = new TokenEncryptionMac(secretKey, mac);
+            TOKEN_ENCRYPTION_MAC.set(tokenEncryptionMac);
+        }
+        return tokenEncryptionMac.mac;
+    }
+
     /**
      * Returns the type of consent duration based on the sharing duration value.
      *
@@ -182,4 +202,18 @@ public class CDSCommonUtils {
         authorisationDataMap.put("timestamp", Instant.now().toEpochMilli());
         return authorisationDataMap;
     }
+
+    /**
+     * Mac initialized with a token encryption secret key.
+     */
+    private static final class TokenEncryptionMac {
+
+        private final String secretKey;
+        private final Mac mac;
+
+        private TokenEncryptionMac(String secretKey, Mac mac) {
+            this.secretKey = secretKey;
+            this.mac = mac;
+        }
+    }
 }
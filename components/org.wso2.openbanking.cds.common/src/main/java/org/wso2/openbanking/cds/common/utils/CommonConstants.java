@@ -37,6 +37,8 @@ public class CommonConstants {
     public static final String OB_CONFIG_FILE = "open-banking-cds.xml";
     public static final String ACCOUNT_MASKING = "ConsentManagement.EnableAccountMasking";
     public static final String ID_PERMANENCE_SECRET_KEY = "IdPermanence.SecretKey";
+    public static final String ID_PERMANENCE_CACHE_MAX_SIZE = "IdPermanence.CacheMaxSize";
+    public static final String ID_PERMANENCE_CACHE_EXPIRY_TIME = "IdPermanence.CacheExpiryTime";
     public static final String TOKEN_ENCRYPTION_ENABLED = "TokenEncryption.Enable";
     public static final String TOKEN_ENCRYPTION_SECRETKEY = "TokenEncryption.SecretKey";
     public static final String INTROSPECT_FILTER_VALIDATORS = "FilterValidators.IntrospectFilterValidators.Validator";
@@ -115,6 +117,8 @@ public class CommonConstants {
     public static final int DEFAULT_CACHE_EXPIRY = 2;
     public static final int DEFAULT_RETRY_COUNT = 2;
     public static final int DEFAULT_BULK_EXECUTION_HOUR_2AM = 2;
+    public static final int DEFAULT_ID_PERMANENCE_CACHE_MAX_SIZE = 10000;
+    public static final int DEFAULT_ID_PERMANENCE_CACHE_EXPIRY_TIME = 60;
 
     // Secondary user account config constants
     public static final String SECONDARY_USER_ACCOUNTS_ENABLED = "SecondaryUserAccounts.Enable";
@@ -132,12 +136,44 @@ public class CommonConstants {
     public static final String METRICS_AGGREGATION_JOB_ENABLED = "Metrics.AggregationJobEnabled";
     public static final String METRICS_CACHE_EXPIRY_TIME = "Metrics.CacheExpiryTime";
     public static final int METRICS_CACHE_DEFAULT_EXPIRY_TIME = 1380;
+    public static final String METRICS_FULL_RECOMPUTE_INTERVAL = "Metrics.FullRecomputeInterval";
+    public static final int METRICS_DEFAULT_FULL_RECOMPUTE_INTERVAL = 7;
     public static final String METRICS_TPS_DATA_RETRIEVAL_URL = "Metrics.TPSDataRetrievalURL";
     public static final String METRICS_TIME_ZONE = "Metrics.TimeZone";
     public static final String METRICS_AVAILABILITY_START_DATE = "Metrics.AvailabilityStartDate";
     public static final String METRICS_V5_START_DATE = "Metrics.MetricsV5StartDate";
     public static final String CONSENT_ABANDONMENT_TIME = "Metrics.ConsentAbandonmentTime";
     public static final String AUTH_CODE_VALIDITY_PERIOD = "Metrics.AuthorizationCodeValidityPeriod";
+    public static final String METRICS_SP_CONNECT_TIMEOUT = "Metrics.StreamProcessorClient.ConnectTimeout";
+    public static final String METRICS_SP_SOCKET_TIMEOUT = "Metrics.StreamProcessorClient.SocketTimeout";
+    public static final String METRICS_SP_CONNECTION_REQUEST_TIMEOUT =
+            "Metrics.StreamProcessorClient.ConnectionRequestTimeout";
+    public static final int METRICS_SP_DEFAULT_CONNECT_TIMEOUT = 5000;
+    public static final int METRICS_SP_DEFAULT_SOCKET_TIMEOUT = 30000;
+    public static final int METRICS_SP_DEFAULT_CONNECTION_REQUEST_TIMEOUT = 5000;
+    public static final String METRICS_FETCH_EXECUTOR_POOL_SIZE = "Metrics.FetchExecutor.PoolSize";
+    public static final String METRICS_FETCH_EXECUTOR_QUEUE_CAPACITY = "Metrics.FetchExecutor.QueueCapacity";
+    public static final String METRICS_FETCH_TIMEOUT = "Metrics.FetchExecutor.RequestTimeout";
+    public static final int METRICS_FETCH_EXECUTOR_DEFAULT_POOL_SIZE = 16;
+    public static final int METRICS_FETCH_EXECUTOR_DEFAULT_QUEUE_CAPACITY = 256;
+    public static final int METRICS_DEFAULT_FETCH_TIMEOUT = 60000;
+
+    // Data publishing config constants
+    public static final String ASYNC_DATA_PUBLISHING_ENABLED = "DataPublishing.Async.Enabled";
+    public static final String ASYNC_DATA_PUBLISHING_QUEUE_CAPACITY = "DataPublishing.Async.QueueCapacity";
+    public static final String ASYNC_DATA_PUBLISHING_BATCH_SIZE = "DataPublishing.Async.BatchSize";
+    public static final String ASYNC_DATA_PUBLISHING_OVERFLOW_POLICY = "DataPublishing.Async.OverflowPolicy";
+    public static final int ASYNC_DATA_PUBLISHING_DEFAULT_QUEUE_CAPACITY = 10000;
+    public static final int ASYNC_DATA_PUBLISHING_DEFAULT_BATCH_SIZE = 100;
+
+    // Consent validation cache config constants
+    public static final String CONSENT_VALIDATION_CACHE_ENABLED = "ConsentManagement.ValidationCache.Enabled";
+    public static final String CONSENT_VALIDATION_CACHE_EXPIRY = "ConsentManagement.ValidationCache.Expiry";
+    public static final int CONSENT_VALIDATION_CACHE_DEFAULT_EXPIRY = 1;
+
+    // Service provider property cache config constants
+    public static final String SERVICE_PROVIDER_PROPERTY_CACHE_EXPIRY = "ServiceProviderPropertyCache.Expiry";
+    public static final int SERVICE_PROVIDER_PROPERTY_CACHE_DEFAULT_EXPIRY = 15;
 
     // Stream Processor related constants
     public static final String SP_API_PATH = "/stores/query";
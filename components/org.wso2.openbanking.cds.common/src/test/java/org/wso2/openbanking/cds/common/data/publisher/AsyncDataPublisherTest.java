@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.common.data.publisher;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.enums.DataPublishingOverflowPolicyEnum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class for AsyncDataPublisher.
+ */
+public class AsyncDataPublisherTest {
+
+    private static final String API_DATA_STREAM = "APIInputStream";
+    private static final String CONSENT_INPUT_STREAM = "ConsentInputStream";
+    private static final String INPUT_STREAM_VERSION = "1.0.0";
+    private static final String EVENT_ID = "eventId";
+
+    @Test(timeOut = 30000)
+    public void testRequestThreadDoesNotWaitForSink() throws Exception {
+
+        CountDownLatch sinkLatch = new CountDownLatch(1);
+        BlockingSink sink = new BlockingSink(sinkLatch);
+        AsyncDataPublisher asyncDataPublisher = new AsyncDataPublisher(sink, 1000, 100,
+                DataPublishingOverflowPolicyEnum.BLOCK);
+        CDSDataPublishingServiceImpl dataPublishingService = new CDSDataPublishingServiceImpl(asyncDataPublisher);
+        int eventCount = 200;
+
+        // The sink does not publish any event until the latch is released, hence the events are only queued.
+        for (int i = 0; i < eventCount; i++) {
+            dataPublishingService.publishApiInvocationData(getEvent(i));
+        }
+        Assert.assertTrue(sink.getEventIds(API_DATA_STREAM).isEmpty());
+        Assert.assertTrue(asyncDataPublisher.getQueueDepth() >= eventCount - 1);
+
+        sinkLatch.countDown();
+        asyncDataPublisher.shutdown(30000);
+
+        List<Integer> expectedEventIds = new ArrayList<>();
+        for (int i = 0; i < eventCount; i++) {
+            expectedEventIds.add(i);
+        }
+        Assert.assertEquals(sink.getEventIds(API_DATA_STREAM), expectedEventIds);
+        Assert.assertEquals(asyncDataPublisher.getPublishedEventCount(), eventCount);
+        Assert.assertEquals(asyncDataPublisher.getQueueDepth(), 0);
+    }
+
+    @Test(timeOut = 30000)
+    public void testNoEventsLostUnderBlockPolicy() throws Exception {
+
+        BlockingSink sink = new BlockingSink(new CountDownLatch(0));
+        int queueCapacity = 8;
+        AsyncDataPublisher asyncDataPublisher = new AsyncDataPublisher(sink, queueCapacity, 4,
+                DataPublishingOverflowPolicyEnum.BLOCK);
+        CDSDataPublishingServiceImpl dataPublishingService = new CDSDataPublishingServiceImpl(asyncDataPublisher);
+        int threadCount = 4;
+        int eventsPerThread = 250;
+
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t * eventsPerThread;
+            Thread producer = new Thread(() -> {
+                for (int i = offset; i < offset + eventsPerThread; i++) {
+                    dataPublishingService.publishApiInvocationData(getEvent(i));
+                    dataPublishingService.publishConsentData(getEvent(i));
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        asyncDataPublisher.shutdown(30000);
+
+        int eventCount = threadCount * eventsPerThread;
+        for (String streamName : new String[]{API_DATA_STREAM, CONSENT_INPUT_STREAM}) {
+            List<Integer> eventIds = sink.getEventIds(streamName);
+            Collections.sort(eventIds);
+            Assert.assertEquals(eventIds.size(), eventCount);
+            for (int i = 0; i < eventCount; i++) {
+                Assert.assertEquals(eventIds.get(i).intValue(), i);
+            }
+        }
+        Assert.assertEquals(asyncDataPublisher.getDroppedEventCount(), 0);
+        Assert.assertEquals(asyncDataPublisher.getSyncPublishedEventCount(), 0);
+        Assert.assertEquals(asyncDataPublisher.getQueueDepth(), 0);
+        Assert.assertTrue(asyncDataPublisher.getMaxQueueDepth() <= queueCapacity);
+    }
+
+    @Test(timeOut = 30000)
+    public void testDropPolicy() throws Exception {
+
+        CountDownLatch sinkLatch = new CountDownLatch(1);
+        BlockingSink sink = new BlockingSink(sinkLatch);
+        AsyncDataPublisher asyncDataPublisher = new AsyncDataPublisher(sink, 2, 1,
+                DataPublishingOverflowPolicyEnum.DROP);
+
+        // Wait for the drainer to block on the sink with the first event, so that the queue holds two events.
+        asyncDataPublisher.publish(API_DATA_STREAM, INPUT_STREAM_VERSION, getEvent(0));
+        sink.awaitDrainerBlocked();
+        for (int i = 1; i < 10; i++) {
+            asyncDataPublisher.publish(API_DATA_STREAM, INPUT_STREAM_VERSION, getEvent(i));
+        }
+        Assert.assertEquals(asyncDataPublisher.getDroppedEventCount(), 7);
+        Assert.assertEquals(asyncDataPublisher.getQueueDepth(), 2);
+        sinkLatch.countDown();
+        asyncDataPublisher.shutdown(30000);
+
+        Assert.assertEquals(sink.getEventIds(API_DATA_STREAM), Arrays.asList(0, 1, 2));
+        Assert.assertEquals(asyncDataPublisher.getPublishedEventCount(), 3);
+    }
+
+    @Test(timeOut = 30000)
+    public void testPublishSyncPolicy() throws Exception {
+
+        CountDownLatch sinkLatch = new CountDownLatch(1);
+        BlockingSink sink = new BlockingSink(sinkLatch);
+        AsyncDataPublisher asyncDataPublisher = new AsyncDataPublisher(sink, 2, 1,
+                DataPublishingOverflowPolicyEnum.PUBLISH_SYNC);
+
+        // Wait for the drainer to block on the sink with the first event, so that the queue holds two events.
+        asyncDataPublisher.publish(API_DATA_STREAM, INPUT_STREAM_VERSION, getEvent(0));
+        sink.awaitDrainerBlocked();
+        for (int i = 1; i < 10; i++) {
+            asyncDataPublisher.publish(API_DATA_STREAM, INPUT_STREAM_VERSION, getEvent(i));
+        }
+        Assert.assertEquals(asyncDataPublisher.getSyncPublishedEventCount(), 7);
+        Assert.assertEquals(sink.getEventIds(API_DATA_STREAM), Arrays.asList(3, 4, 5, 6, 7, 8, 9));
+        sinkLatch.countDown();
+        asyncDataPublisher.shutdown(30000);
+
+        Assert.assertEquals(sink.getEventIds(API_DATA_STREAM), Arrays.asList(3, 4, 5, 6, 7, 8, 9, 0, 1, 2));
+        Assert.assertEquals(asyncDataPublisher.getPublishedEventCount(), 3);
+        Assert.assertEquals(asyncDataPublisher.getDroppedEventCount(), 0);
+    }
+
+    @Test
+    public void testPublishAfterShutdown() {
+
+        BlockingSink sink = new BlockingSink(new CountDownLatch(0));
+        AsyncDataPublisher asyncDataPublisher = new AsyncDataPublisher(sink, 10, 10,
+                DataPublishingOverflowPolicyEnum.BLOCK);
+        asyncDataPublisher.shutdown(30000);
+
+        asyncDataPublisher.publish(API_DATA_STREAM, INPUT_STREAM_VERSION, getEvent(1));
+
+        Assert.assertEquals(sink.getEventIds(API_DATA_STREAM), Collections.singletonList(1));
+    }
+
+    @Test(timeOut = 30000)
+    public void testShutdownStopsDrainerAfterTimeout() throws Exception {
+
+        CountDownLatch sinkLatch = new CountDownLatch(1);
+        BlockingSink sink = new BlockingSink(sinkLatch);
+        AsyncDataPublisher asyncDataPublisher = new AsyncDataPublisher(sink, 10, 1,
+                DataPublishingOverflowPolicyEnum.BLOCK);
+
+        asyncDataPublisher.publish(API_DATA_STREAM, INPUT_STREAM_VERSION, getEvent(0));
+        sink.awaitDrainerBlocked();
+        asyncDataPublisher.publish(API_DATA_STREAM, INPUT_STREAM_VERSION, getEvent(1));
+
+        // The drainer is blocked on the sink, hence it is interrupted once the timeout elapses.
+        asyncDataPublisher.shutdown(10);
+
+        Assert.assertTrue(sink.awaitDrainerInterrupted());
+        Assert.assertEquals(sink.getEventIds(API_DATA_STREAM), Collections.emptyList());
+        Assert.assertEquals(asyncDataPublisher.getQueueDepth(), 1);
+    }
+
+    private static Map<String, Object> getEvent(int eventId) {
+
+        Map<String, Object> event = new HashMap<>();
+        event.put(EVENT_ID, eventId);
+        return event;
+    }
+
+    /**
+     * Sink recording the published events. Drainer threads wait for the given latch to be released before
+     * publishing, while events published synchronously on the request thread are recorded immediately.
+     */
+    private static class BlockingSink implements AsyncDataPublisher.EventSink {
+
+        private final CountDownLatch latch;
+        private final CountDownLatch drainerBlocked = new CountDownLatch(1);
+        private final CountDownLatch drainerInterrupted = new CountDownLatch(1);
+        private final Map<String, List<Integer>> eventIds = new HashMap<>();
+
+        BlockingSink(CountDownLatch latch) {
+
+            this.latch = latch;
+        }
+
+        @Override
+        public void publish(String streamName, String streamVersion, Map<String, Object> data) {
+
+            if (Thread.currentThread().getName().startsWith("cds-data-publisher-")) {
+                drainerBlocked.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    drainerInterrupted.countDown();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            synchronized (eventIds) {
+                eventIds.computeIfAbsent(streamName, key -> new ArrayList<>()).add((Integer) data.get(EVENT_ID));
+            }
+        }
+
+        void awaitDrainerBlocked() throws InterruptedException {
+
+            Assert.assertTrue(drainerBlocked.await(10, TimeUnit.SECONDS));
+        }
+
+        boolean awaitDrainerInterrupted() throws InterruptedException {
+
+            return drainerInterrupted.await(10, TimeUnit.SECONDS);
+        }
+
+        List<Integer> getEventIds(String streamName) {
+
+            synchronized (eventIds) {
+                return new ArrayList<>(eventIds.getOrDefault(streamName, Collections.emptyList()));
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.openbanking.cds.common.data.publisher;
+
+import com.wso2.openbanking.accelerator.data.publisher.common.util.OBDataPublisherUtil;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.common.enums.DataPublishingOverflowPolicyEnum;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Test class for CDSDataPublishingServiceImpl.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class, OBDataPublisherUtil.class})
+@PowerMockIgnore("jdk.internal.reflect.*")
+public class CDSDataPublishingServiceImplTest extends PowerMockTestCase {
+
+    private static final String API_DATA_STREAM = "APIInputStream";
+    private static final String INPUT_STREAM_VERSION = "1.0.0";
+
+    @Test
+    public void testPublishDataSynchronouslyWhenAsyncDataPublishingIsDisabled() {
+
+        mockConfigParser(false);
+        PowerMockito.mockStatic(OBDataPublisherUtil.class);
+        CDSDataPublishingServiceImpl dataPublishingService = new CDSDataPublishingServiceImpl();
+
+        Map<String, Object> apiInvocationData = new HashMap<>();
+        dataPublishingService.publishApiInvocationData(apiInvocationData);
+
+        PowerMockito.verifyStatic(Mockito.times(1));
+        OBDataPublisherUtil.publishData(API_DATA_STREAM, INPUT_STREAM_VERSION, apiInvocationData);
+    }
+
+    @Test
+    public void testStartAsyncDataPublishingOnFirstPublish() {
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = mockConfigParser(true);
+        PowerMockito.mockStatic(OBDataPublisherUtil.class);
+        CDSDataPublishingServiceImpl dataPublishingService = new CDSDataPublishingServiceImpl();
+
+        Map<String, Object> apiInvocationData = new HashMap<>();
+        dataPublishingService.publishApiInvocationData(apiInvocationData);
+        dataPublishingService.publishApiInvocationData(apiInvocationData);
+        // Stopping publishes the queued events before returning.
+        dataPublishingService.stopAsyncDataPublishing();
+
+        Mockito.verify(openBankingCDSConfigParserMock, Mockito.times(1)).isAsyncDataPublishingEnabled();
+        PowerMockito.verifyStatic(Mockito.times(2));
+        OBDataPublisherUtil.publishData(API_DATA_STREAM, INPUT_STREAM_VERSION, apiInvocationData);
+    }
+
+    @Test
+    public void testPublishDataSynchronouslyAfterAsyncDataPublishingIsStopped() {
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = mockConfigParser(true);
+        PowerMockito.mockStatic(OBDataPublisherUtil.class);
+        CDSDataPublishingServiceImpl dataPublishingService = new CDSDataPublishingServiceImpl();
+        dataPublishingService.stopAsyncDataPublishing();
+
+        Map<String, Object> apiInvocationData = new HashMap<>();
+        dataPublishingService.publishApiInvocationData(apiInvocationData);
+
+        Mockito.verify(openBankingCDSConfigParserMock, Mockito.never()).isAsyncDataPublishingEnabled();
+        PowerMockito.verifyStatic(Mockito.times(1));
+        OBDataPublisherUtil.publishData(API_DATA_STREAM, INPUT_STREAM_VERSION, apiInvocationData);
+    }
+
+    private OpenBankingCDSConfigParser mockConfigParser(boolean asyncDataPublishingEnabled) {
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock =
+                PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        doReturn(asyncDataPublishingEnabled).when(openBankingCDSConfigParserMock).isAsyncDataPublishingEnabled();
+        doReturn(10).when(openBankingCDSConfigParserMock).getAsyncDataPublishingQueueCapacity();
+        doReturn(10).when(openBankingCDSConfigParserMock).getAsyncDataPublishingBatchSize();
+        doReturn(DataPublishingOverflowPolicyEnum.BLOCK).when(openBankingCDSConfigParserMock)
+                .getAsyncDataPublishingOverflowPolicy();
+        return openBankingCDSConfigParserMock;
+    }
+}
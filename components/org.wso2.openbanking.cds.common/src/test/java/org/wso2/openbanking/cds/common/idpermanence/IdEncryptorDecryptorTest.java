@@ -21,8 +21,21 @@ package org.wso2.openbanking.cds.common.idpermanence;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import org.apache.commons.codec.binary.Base64;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
 
 /**
  * Test class for IdEncryptorDecryptor.
@@ -54,4 +67,83 @@ public class IdEncryptorDecryptorTest {
         Assert.assertEquals(decryptedString, memberId + ":" + appId + ":" + realResourceId);
     }
 
+    @Test
+    public void testEncryptionMatchesPerCallCipher() throws Exception {
+
+        String plainText = memberId + ":" + appId + ":" + realResourceId;
+
+        Assert.assertEquals(IdEncryptorDecryptor.encrypt(plainText, secret),
+                encryptWithPerCallCipher(plainText, secret));
+        Assert.assertEquals(IdEncryptorDecryptor.encrypt(plainText, "other-secret"),
+                encryptWithPerCallCipher(plainText, "other-secret"));
+    }
+
+    @Test
+    public void testDecryptionOfInvalidCipherText() {
+
+        Assert.assertNull(IdEncryptorDecryptor.decrypt("aW52YWxpZA", secret));
+
+        // The cipher of the thread should still work after a failed decryption
+        String encrypted = IdEncryptorDecryptor.encrypt(memberId, secret);
+        Assert.assertEquals(IdEncryptorDecryptor.decrypt(encrypted, secret), memberId);
+    }
+
+    @Test
+    public void testConcurrentRoundTrips() throws Exception {
+
+        int threads = 16;
+        int roundTripsPerThread = 1000;
+        String[] secrets = {secret, "second-secret"};
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int threadId = t;
+                results.add(executor.submit(() -> {
+                    int mismatches = 0;
+                    for (int i = 0; i < roundTripsPerThread; i++) {
+                        // Alternate the secrets between threads and calls to make them race on the key
+                        String currentSecret = secrets[(threadId + i) % secrets.length];
+                        String plainText = memberId + ":" + threadId + ":" + i;
+                        String encrypted = IdEncryptorDecryptor.encrypt(plainText, currentSecret);
+                        if (encrypted == null
+                                || !plainText.equals(IdEncryptorDecryptor.decrypt(encrypted, currentSecret))) {
+                            mismatches++;
+                        }
+                    }
+                    return mismatches;
+                }));
+            }
+
+            int mismatches = 0;
+            for (Future<Integer> result : results) {
+                mismatches += result.get();
+            }
+            Assert.assertEquals(mismatches, 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSetKeyKeepsCipherContextsBounded() throws Exception {
+
+        for (int i = 0; i < 100; i++) {
+            IdEncryptorDecryptor.setKey("secret-" + i);
+        }
+
+        Field cipherContextsField = IdEncryptorDecryptor.class.getDeclaredField("cipherContexts");
+        cipherContextsField.setAccessible(true);
+        Assert.assertTrue(((Map<?, ?>) cipherContextsField.get(null)).size() <= 16);
+        String encrypted = IdEncryptorDecryptor.encrypt(memberId, "secret-99");
+        Assert.assertEquals(IdEncryptorDecryptor.decrypt(encrypted, "secret-99"), memberId);
+    }
+
+    private static String encryptWithPerCallCipher(String plainText, String secret) throws Exception {
+
+        byte[] key = MessageDigest.getInstance("SHA-512").digest(secret.getBytes(StandardCharsets.UTF_8));
+        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(Arrays.copyOf(key, 16), "AES"));
+        return Base64.encodeBase64URLSafeString(cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8)));
+    }
 }
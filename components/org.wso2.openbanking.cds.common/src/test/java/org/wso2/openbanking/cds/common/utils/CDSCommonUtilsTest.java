@@ -52,6 +52,22 @@ public class CDSCommonUtilsTest extends PowerMockTestCase {
         Assert.assertEquals(encryptedToken, ENCRYPTED_STRING);
     }
 
+    @Test
+    public void testEncryptAccessTokenWithChangedSecretKey() {
+
+        openBankingCDSConfigParserMock = PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        doReturn("wso2").when(openBankingCDSConfigParserMock).getTokenEncryptionSecretKey();
+        Assert.assertEquals(CDSCommonUtils.encryptAccessToken(STRING_TO_ENCRYPT), ENCRYPTED_STRING);
+
+        doReturn("changed-secret").when(openBankingCDSConfigParserMock).getTokenEncryptionSecretKey();
+        Assert.assertNotEquals(CDSCommonUtils.encryptAccessToken(STRING_TO_ENCRYPT), ENCRYPTED_STRING);
+
+        doReturn("wso2").when(openBankingCDSConfigParserMock).getTokenEncryptionSecretKey();
+        Assert.assertEquals(CDSCommonUtils.encryptAccessToken(STRING_TO_ENCRYPT), ENCRYPTED_STRING);
+    }
+
     @Test
     public void testValidRequestUriKey() {
         String expectedRequestUriKey = "abc123";
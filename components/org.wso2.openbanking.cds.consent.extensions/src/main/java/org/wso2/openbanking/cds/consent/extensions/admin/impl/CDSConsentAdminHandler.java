@@ -53,8 +53,10 @@ import org.wso2.openbanking.cds.consent.extensions.util.PermissionsEnum;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -63,7 +65,7 @@ import java.util.stream.Collectors;
 import static org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants.AUTH_RESOURCE_TYPE_PRIMARY;
 import static org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants.CONSENT_STATUS_REVOKED;
 import static org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants.NOMINATED_REPRESENTATIVE;
-import static org.wso2.openbanking.cds.consent.extensions.util.DataClusterSharingDateUtil.getSharingDateMap;
+import static org.wso2.openbanking.cds.consent.extensions.util.DataClusterSharingDateUtil.getSharingDateMaps;
 
 /**
  * Consent admin handler CDS implementation.
@@ -745,8 +747,17 @@ public class CDSConsentAdminHandler implements ConsentAdminHandler {
         final String commonCustomerData = "common_customer_data";
         final String profileData = "profile";
 
-        for (Object item : (JSONArray) consentAdminData.getResponsePayload().
-                get(CDSConsentExtensionConstants.DATA)) {
+        JSONArray consentDataArray = (JSONArray) consentAdminData.getResponsePayload()
+                .get(CDSConsentExtensionConstants.DATA);
+
+        // Retrieve the sharing dates of all the consents in the response at once
+        Set<String> consentIds = new LinkedHashSet<>();
+        for (Object item : consentDataArray) {
+            consentIds.add(((JSONObject) item).get(CDSConsentExtensionConstants.CONSENT_ID).toString());
+        }
+        Map<String, Map<String, DataClusterSharingDateModel>> sharingDateDataMaps = getSharingDateMaps(consentIds);
+
+        for (Object item : consentDataArray) {
 
             JSONObject itemJSONObject = (JSONObject) item;
             String consentId = itemJSONObject.get(CDSConsentExtensionConstants.CONSENT_ID).toString();
@@ -754,8 +765,9 @@ public class CDSConsentAdminHandler implements ConsentAdminHandler {
             JSONObject accountData = (JSONObject) receipt.get(CDSConsentExtensionConstants.ACCOUNT_DATA);
             JSONArray permissions = (JSONArray) accountData.get(CDSConsentExtensionConstants.PERMISSIONS);
 
-            // Get the sharing date data map using the consent ID
-            Map<String, DataClusterSharingDateModel> sharingDateDataMap = getSharingDateMap(consentId);
+            // Get the sharing date data map of the consent
+            Map<String, DataClusterSharingDateModel> sharingDateDataMap =
+                    sharingDateDataMaps.getOrDefault(consentId, Collections.emptyMap());
 
             JSONArray permissionsWithSharingDate = new JSONArray();
             for (Object permission : permissions) {
@@ -29,6 +29,7 @@ import net.minidev.json.JSONObject;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.common.utils.AccountMetadataUpdateTracker;
 import org.wso2.openbanking.cds.consent.extensions.authorize.utils.CDSConsentPersistUtil;
 import org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants;
 
@@ -228,6 +229,7 @@ public class CDSBusinessAccountConsentPersistenceStep implements ConsentPersistS
                 }
                 accountMetadataService.addOrUpdateAccountMetadata(accountId, userId,
                         Collections.singletonMap(CDSConsentExtensionConstants.BNR_PERMISSION, bnrPermission));
+                AccountMetadataUpdateTracker.notifyUpdate();
             }
         }
     }
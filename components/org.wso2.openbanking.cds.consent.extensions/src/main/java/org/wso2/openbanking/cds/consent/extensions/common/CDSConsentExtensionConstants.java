@@ -203,6 +203,8 @@ public class CDSConsentExtensionConstants {
     public static final String INACTIVE_ACCOUNTS = "inactiveAccounts";
     public static final String METADATA_KEY_BLOCKED_LEGAL_ENTITIES = "BLOCKED_LEGAL_ENTITIES";
     public static final String LEGAL_ENTITY_ID = "legal_entity_id";
+    // User id against which the account level metadata, such as the DOMS status, is stored
+    public static final String ACCOUNT_METADATA_DEFAULT_USER_ID = "N/A";
 
     // DH revocation configs
     public static final String ENABLE_RECIPIENT_CONSENT_REVOCATION = "RecipientConsentRevocationEndpoint.Enable";
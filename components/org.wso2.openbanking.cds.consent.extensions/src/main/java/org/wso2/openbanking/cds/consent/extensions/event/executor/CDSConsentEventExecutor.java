@@ -56,6 +56,8 @@ import org.wso2.openbanking.cds.common.enums.ConsentStatusEnum;
 import org.wso2.openbanking.cds.common.utils.CDSCommonUtils;
 import org.wso2.openbanking.cds.common.utils.CommonConstants;
 import org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants;
+import org.wso2.openbanking.cds.consent.extensions.validate.cache.ConsentValidationCache;
+import org.wso2.openbanking.cds.consent.extensions.validate.cache.ConsentValidationCacheKey;
 import org.wso2.openbanking.cds.identity.utils.CDSIdentityUtil;
 
 import java.io.IOException;
@@ -107,6 +109,13 @@ public class CDSConsentEventExecutor implements OBEventExecutor {
 
         Map<String, Object> eventData = obEvent.getEventData();
 
+        // Discard the cached validation state of the consent, as the consent state is changed.
+        if (eventData.get(CONSENT_ID) != null &&
+                OpenBankingCDSConfigParser.getInstance().isConsentValidationCacheEnabled()) {
+            ConsentValidationCache.getInstance()
+                    .removeFromCache(ConsentValidationCacheKey.of(eventData.get(CONSENT_ID).toString()));
+        }
+
         if (Boolean.parseBoolean(OpenBankingCDSConfigParser.getInstance().getConfiguration()
                 .get(CDSConsentExtensionConstants.ENABLE_RECIPIENT_CONSENT_REVOCATION).toString())
                 && ConsentCoreServiceConstants.CONSENT_REVOKE_FROM_DASHBOARD_REASON.equals(eventData.get(REASON))
@@ -57,31 +57,48 @@ public class CDSConsentExtensionsUtil {
             throws ConsentException {
 
         try {
-            Map<String, String> accountMetadata = accountMetadataService.getAccountMetadataMap(accountId, userId);
-            if (!accountMetadata.isEmpty()) {
-                return CDSConsentExtensionConstants.ACTIVE_STATUS
-                        .equalsIgnoreCase(accountMetadata.get(CDSConsentExtensionConstants.INSTRUCTION_STATUS));
-            } else {
-                return cdsConfigParser.isSecondaryAccountsSelectableWithoutAccountMetadata();
-            }
+            return isUserEligibleForSecondaryAccountDataSharing(
+                    accountMetadataService.getAccountMetadataMap(accountId, userId));
         } catch (OpenBankingException e) {
             log.error("Error occurred while retrieving account metadata for account id : " + accountId, e);
             throw new ConsentException(ResponseStatus.INTERNAL_SERVER_ERROR, e.getMessage());
         }
     }
 
-    public static boolean isDOMSStatusEligibleForDataSharing(String accountID) throws OpenBankingException {
-
-        Map<String, String> accountMetadata = accountMetadataService.getAccountMetadataMap(accountID);
+    /**
+     * Check whether the user is eligible for data sharing from the secondary account, given the account metadata
+     * of the account and user.
+     *
+     * @param accountMetadata account metadata of the secondary account and user
+     * @return true if the secondary user instruction is in active state
+     */
+    public static boolean isUserEligibleForSecondaryAccountDataSharing(Map<String, String> accountMetadata) {
 
         if (!accountMetadata.isEmpty()) {
-            String status = accountMetadata.get(CDSConsentExtensionConstants.DOMS_STATUS);
-            return status.equals(CDSConsentExtensionConstants.DOMS_STATUS_PRE_APPROVAL);
+            return CDSConsentExtensionConstants.ACTIVE_STATUS
+                    .equalsIgnoreCase(accountMetadata.get(CDSConsentExtensionConstants.INSTRUCTION_STATUS));
         } else {
-            return true;
+            return cdsConfigParser.isSecondaryAccountsSelectableWithoutAccountMetadata();
         }
     }
 
+    public static boolean isDOMSStatusEligibleForDataSharing(String accountID) throws OpenBankingException {
+
+        return isDOMSStatusEligibleForDataSharing(accountMetadataService.getAccountMetadataMap(accountID));
+    }
+
+    /**
+     * Check whether the DOMS status of a joint account allows data sharing, given the account level metadata.
+     *
+     * @param accountMetadata account level metadata of the joint account
+     * @return true if the DOMS status is 'pre-approval' or not set
+     */
+    public static boolean isDOMSStatusEligibleForDataSharing(Map<String, String> accountMetadata) {
+
+        String status = accountMetadata.get(CDSConsentExtensionConstants.DOMS_STATUS);
+        return status == null || CDSConsentExtensionConstants.DOMS_STATUS_PRE_APPROVAL.equals(status);
+    }
+
     /**
      * Method to retrieve the sharing status of a legal entity for the given accountID, secondaryUserID and.
      * legalEntityID
@@ -103,17 +120,7 @@ public class CDSConsentExtensionsUtil {
             String blockedLegalEntities = accountMetadataService.getAccountMetadataByKey
                     (accountID, userID, CDSConsentExtensionConstants.METADATA_KEY_BLOCKED_LEGAL_ENTITIES);
 
-            if (blockedLegalEntities != null) {
-                String[] blockedLegalEntityArray = blockedLegalEntities.split(",");
-                for (String blockedLegalEntity : blockedLegalEntityArray) {
-                    if (legalEntityID.equals(blockedLegalEntity)) {
-                        return true;
-                    }
-                }
-                return false;
-            } else {
-                return false;
-            }
+            return isLegalEntityBlocked(blockedLegalEntities, legalEntityID);
         } catch (OpenBankingException e) {
             log.error("Error occurred while retrieving account metadata");
             throw new ConsentException(ResponseStatus.INTERNAL_SERVER_ERROR,
@@ -121,6 +128,25 @@ public class CDSConsentExtensionsUtil {
         }
     }
 
+    /**
+     * Check whether a legal entity is in the comma separated list of blocked legal entities of an account and user.
+     *
+     * @param blockedLegalEntities comma separated blocked legal entity ids, or null if none are blocked
+     * @param legalEntityID        legal entity id
+     * @return true if the legal entity is blocked
+     */
+    public static boolean isLegalEntityBlocked(String blockedLegalEntities, String legalEntityID) {
+
+        if (blockedLegalEntities != null) {
+            for (String blockedLegalEntity : blockedLegalEntities.split(",")) {
+                if (blockedLegalEntity.equals(legalEntityID)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Retrieves an attribute from the request scope first and falls back to the session scope
      * if not found in the request. If the attribute is not found in either scope, a default
@@ -30,8 +30,14 @@ import org.wso2.openbanking.cds.consent.extensions.model.DataClusterSharingDateM
 
 import java.io.IOException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
 
 /**
  * Utility class for data cluster sharing date related operations.
@@ -39,6 +45,13 @@ import java.util.Map;
 public class DataClusterSharingDateUtil {
     private static final Log log = LogFactory.getLog(DataClusterSharingDateUtil.class);
 
+    private static final String SHARING_DATE_APP_NAME = "CDSSharingDateSummarizationApp";
+    private static final String SHARING_DATE_QUERY = "from CDS_SHARING_START_END_DATE select CONSENT_ID, " +
+            "DATA_CLUSTER, SHARING_START_DATE, LAST_SHARED_DATE having ";
+
+    // Maximum number of consent IDs filtered in a single stream processor query
+    static final int MAX_CONSENT_IDS_PER_QUERY = 100;
+
     /**
      * Get sharing date map for a given consent ID.
      *
@@ -49,49 +62,91 @@ public class DataClusterSharingDateUtil {
     public static Map<String, DataClusterSharingDateModel> getSharingDateMap(String consentId)
             throws OpenBankingException {
 
+        return getSharingDateMaps(Collections.singletonList(consentId)).get(consentId);
+    }
+
+    /**
+     * Get sharing date maps for the given consent IDs, keyed by consent ID. The sharing dates are retrieved with
+     * one stream processor query per {@value #MAX_CONSENT_IDS_PER_QUERY} consent IDs. Consent IDs without sharing
+     * dates are mapped to an empty map.
+     *
+     * @param consentIds consent IDs
+     * @return map of consent ID to the sharing date map of the consent
+     * @throws OpenBankingException
+     */
+    public static Map<String, Map<String, DataClusterSharingDateModel>> getSharingDateMaps(
+            Collection<String> consentIds) throws OpenBankingException {
+
+        Map<String, Map<String, DataClusterSharingDateModel>> sharingDateMaps = new LinkedHashMap<>();
+        for (String consentId : consentIds) {
+            sharingDateMaps.put(consentId, new HashMap<>());
+        }
+        if (sharingDateMaps.isEmpty()) {
+            return sharingDateMaps;
+        }
+
         OpenBankingCDSConfigParser configParser = OpenBankingCDSConfigParser.getInstance();
         String spApiHost = configParser.getConfiguration().get(CommonConstants.SP_SERVER_URL).toString();
         String spUserName = configParser.getConfiguration().get(CommonConstants.SP_USERNAME).toString();
         String spPassword = configParser.getConfiguration().get(CommonConstants.SP_PASSWORD).toString();
 
-        String appName = "CDSSharingDateSummarizationApp";
-        String spQuery = "from CDS_SHARING_START_END_DATE select CONSENT_ID, DATA_CLUSTER, " +
-                "SHARING_START_DATE, LAST_SHARED_DATE having CONSENT_ID == '" + consentId + "';";
-        try {
-            JSONObject sharingDateJsonObject = SPQueryExecutorUtil
-                    .executeQueryOnStreamProcessor(appName, spQuery, spUserName, spPassword, spApiHost);
-            return getListFromSharingDateData(sharingDateJsonObject);
-        } catch (OpenBankingException | IOException | ParseException e) {
-            log.error("Error occurred while retrieving sharing dates for consent ID: " + consentId, e);
-            throw new OpenBankingException("Error occurred while retrieving sharing date", e);
+        List<String> distinctConsentIds = new ArrayList<>(sharingDateMaps.keySet());
+        for (int from = 0; from < distinctConsentIds.size(); from += MAX_CONSENT_IDS_PER_QUERY) {
+            List<String> batch = distinctConsentIds.subList(from,
+                    Math.min(from + MAX_CONSENT_IDS_PER_QUERY, distinctConsentIds.size()));
+            String spQuery = getSharingDateQuery(batch);
+            try {
+                JSONObject sharingDateJsonObject = SPQueryExecutorUtil.executeQueryOnStreamProcessor(
+                        SHARING_DATE_APP_NAME, spQuery, spUserName, spPassword, spApiHost);
+                addSharingDateData(sharingDateJsonObject, sharingDateMaps);
+            } catch (OpenBankingException | IOException | ParseException e) {
+                log.error("Error occurred while retrieving sharing dates for consent IDs: " + batch, e);
+                throw new OpenBankingException("Error occurred while retrieving sharing date", e);
+            }
+        }
+        return sharingDateMaps;
+    }
+
+    /**
+     * Build the sharing date query for the given consent IDs. Siddhi store queries do not support an IN
+     * condition, hence the consent IDs are matched with OR conditions.
+     *
+     * @param consentIds consent IDs
+     * @return stream processor query
+     */
+    static String getSharingDateQuery(List<String> consentIds) {
+
+        StringJoiner condition = new StringJoiner(" or ");
+        for (String consentId : consentIds) {
+            condition.add("CONSENT_ID == '" + consentId + "'");
         }
+        return SHARING_DATE_QUERY + condition + ";";
     }
 
     /**
-     * Convert JSON object returned from sharing date table to a map.
+     * Add the records returned from sharing date table to the sharing date map of the relevant consent.
      *
      * @param sharingDateJsonObject
+     * @param sharingDateMaps
      */
-    static Map<String, DataClusterSharingDateModel> getListFromSharingDateData(JSONObject sharingDateJsonObject) {
+    static void addSharingDateData(JSONObject sharingDateJsonObject,
+                                   Map<String, Map<String, DataClusterSharingDateModel>> sharingDateMaps) {
 
         JSONArray recordsArray = (JSONArray) sharingDateJsonObject.get("records");
-        Map<String, DataClusterSharingDateModel> sharingDateMap = new HashMap<>();
 
         for (Object object : recordsArray) {
             JSONArray countArray = (JSONArray) object;
+            String consentId = (String) (countArray.get(0));
             String dataCluster = (String) (countArray.get(1));
             Timestamp sharingStartDate = new Timestamp(((Integer) countArray.get(2)).longValue() * 1000L);
-            ;
             Timestamp lastSharedDate = new Timestamp(((Integer) countArray.get(3)).longValue() * 1000L);
-            ;
 
             DataClusterSharingDateModel sharingDates = new DataClusterSharingDateModel();
             sharingDates.setDataCluster(dataCluster);
             sharingDates.setSharingStartDate(sharingStartDate);
             sharingDates.setLastSharedDate(lastSharedDate);
 
-            sharingDateMap.put(dataCluster, sharingDates);
+            sharingDateMaps.computeIfAbsent(consentId, id -> new HashMap<>()).put(dataCluster, sharingDates);
         }
-        return sharingDateMap;
     }
 }
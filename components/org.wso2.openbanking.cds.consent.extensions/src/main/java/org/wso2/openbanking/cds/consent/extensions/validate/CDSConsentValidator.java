@@ -18,14 +18,15 @@
 
 package org.wso2.openbanking.cds.consent.extensions.validate;
 
-import com.wso2.openbanking.accelerator.account.metadata.service.service.AccountMetadataServiceImpl;
 import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import com.wso2.openbanking.accelerator.common.identity.retriever.sp.CommonServiceProviderRetriever;
 import com.wso2.openbanking.accelerator.consent.extensions.common.ConsentException;
 import com.wso2.openbanking.accelerator.consent.extensions.common.ResponseStatus;
 import com.wso2.openbanking.accelerator.consent.extensions.validate.model.ConsentValidateData;
 import com.wso2.openbanking.accelerator.consent.extensions.validate.model.ConsentValidationResult;
 import com.wso2.openbanking.accelerator.consent.extensions.validate.model.ConsentValidator;
 import com.wso2.openbanking.accelerator.consent.mgt.dao.models.ConsentMappingResource;
+import com.wso2.openbanking.accelerator.consent.mgt.dao.models.DetailedConsentResource;
 import net.minidev.json.JSONObject;
 import net.minidev.json.parser.JSONParser;
 import net.minidev.json.parser.ParseException;
@@ -37,14 +38,23 @@ import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 import org.wso2.openbanking.cds.common.error.handling.util.ErrorConstants;
 import org.wso2.openbanking.cds.common.metadata.domain.MetadataValidationResponse;
 import org.wso2.openbanking.cds.common.metadata.status.validator.service.MetadataService;
+import org.wso2.openbanking.cds.common.utils.AccountMetadataUpdateTracker;
 import org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants;
 import org.wso2.openbanking.cds.consent.extensions.util.CDSConsentExtensionsUtil;
+import org.wso2.openbanking.cds.consent.extensions.validate.cache.ConsentValidationCache;
+import org.wso2.openbanking.cds.consent.extensions.validate.cache.ConsentValidationCacheKey;
+import org.wso2.openbanking.cds.consent.extensions.validate.cache.ConsentValidationState;
+import org.wso2.openbanking.cds.consent.extensions.validate.utils.AccountMetadataLookup;
+import org.wso2.openbanking.cds.consent.extensions.validate.utils.AccountMetadataRetriever;
 import org.wso2.openbanking.cds.consent.extensions.validate.utils.CDSConsentValidatorUtil;
+import org.wso2.openbanking.cds.identity.cache.ServiceProviderPropertyCache;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import static com.wso2.openbanking.accelerator.consent.mgt.service.constants.ConsentCoreServiceConstants.INACTIVE_MAPPING_STATUS;
@@ -55,23 +65,17 @@ import static com.wso2.openbanking.accelerator.consent.mgt.service.constants.Con
 public class CDSConsentValidator implements ConsentValidator {
 
     private static final Log log = LogFactory.getLog(CDSConsentValidator.class);
-    AccountMetadataServiceImpl accountMetadataService = AccountMetadataServiceImpl.getInstance();
+    AccountMetadataRetriever accountMetadataRetriever = new AccountMetadataRetriever();
+    CommonServiceProviderRetriever commonServiceProviderRetriever = new CommonServiceProviderRetriever();
+    ConsentValidationCache consentValidationCache;
+    ServiceProviderPropertyCache serviceProviderPropertyCache;
 
     @Override
     public void validate(ConsentValidateData consentValidateData, ConsentValidationResult consentValidationResult)
             throws ConsentException {
 
-        JSONObject receiptJSON;
         OpenBankingCDSConfigParser openBankingCDSConfigParser = OpenBankingCDSConfigParser.getInstance();
 
-        try {
-            receiptJSON = (JSONObject) (new JSONParser(JSONParser.MODE_PERMISSIVE)).
-                    parse(consentValidateData.getComprehensiveConsent().getReceipt());
-        } catch (ParseException e) {
-            throw new ConsentException(ResponseStatus.INTERNAL_SERVER_ERROR,
-                    "Error occurred while parsing consent data");
-        }
-
         // consent status validation
         if (!CDSConsentExtensionConstants.AUTHORIZED_STATUS
                 .equalsIgnoreCase(consentValidateData.getComprehensiveConsent().getCurrentStatus())) {
@@ -82,10 +86,12 @@ public class CDSConsentValidator implements ConsentValidator {
             return;
         }
 
+        // Remove inactive consent mappings
+        removeInactiveConsentMappings(consentValidateData);
+        ConsentValidationState consentValidationState = getConsentValidationState(consentValidateData);
+
         // consent expiry validation
-        if (CDSConsentValidatorUtil
-                .isConsentExpired(((JSONObject) receiptJSON.get(CDSConsentExtensionConstants.ACCOUNT_DATA))
-                        .getAsString(CDSConsentExtensionConstants.EXPIRATION_DATE_TIME))) {
+        if (consentValidationState.isExpired(System.currentTimeMillis())) {
             String description = "The associated consent for resource is not in a status " +
                     "that would allow the resource to be executed";
             consentValidationResult.setErrorMessage(generateErrorPayload("Consent Is Invalid", description,
@@ -96,7 +102,7 @@ public class CDSConsentValidator implements ConsentValidator {
         }
 
         // perform consent bounded account filtration
-        filterConsentAccountMappings(consentValidateData);
+        removeUnsharableConsentMappings(consentValidateData, consentValidationState);
 
         // account ID Validation
         String isAccountIdValidationEnabled = openBankingCDSConfigParser.getConfiguration()
@@ -171,14 +177,12 @@ public class CDSConsentValidator implements ConsentValidator {
      */
     private void removeDuplicateConsentMappings(ConsentValidateData consentValidateData) {
         ArrayList<ConsentMappingResource> distinctMappingResources = new ArrayList<>();
-        List<String> duplicateAccountIds = new ArrayList<>();
+        Set<String> distinctAccountIds = new HashSet<>();
 
+        // Set.add returns false for an account id which is already mapped, keeping the first mapping of each account
         consentValidateData.getComprehensiveConsent().getConsentMappingResources().stream()
-                .filter(mapping -> !duplicateAccountIds.contains(mapping.getAccountID()))
-                .forEach(distinctMapping -> {
-                    distinctMappingResources.add(distinctMapping);
-                    duplicateAccountIds.add(distinctMapping.getAccountID());
-                });
+                .filter(mapping -> distinctAccountIds.add(mapping.getAccountID()))
+                .forEach(distinctMappingResources::add);
         consentValidateData.getComprehensiveConsent().setConsentMappingResources(distinctMappingResources);
     }
 
@@ -191,6 +195,19 @@ public class CDSConsentValidator implements ConsentValidator {
     public void removeInactiveDOMSAccountConsentMappings(ConsentValidateData consentValidateData)
             throws ConsentException {
 
+        removeInactiveDOMSAccountConsentMappings(consentValidateData,
+                getAccountMetadataLookup(consentValidateData, true));
+    }
+
+    /**
+     * Remove joint accounts mappings if disclosure options status is not 'pre-approval'.
+     *
+     * @param consentValidateData   consentValidateData
+     * @param accountMetadataLookup account metadata of the consent account mappings
+     */
+    private void removeInactiveDOMSAccountConsentMappings(ConsentValidateData consentValidateData,
+                                                          AccountMetadataLookup accountMetadataLookup) {
+
         ArrayList<ConsentMappingResource> consentMappingResources = new ArrayList<>(consentValidateData
                 .getComprehensiveConsent().getConsentMappingResources());
         Iterator<ConsentMappingResource> consentMappingIterator = consentMappingResources.iterator();
@@ -198,15 +215,10 @@ public class CDSConsentValidator implements ConsentValidator {
         // Remove joint account mappings if disclosure options status is not 'pre-approval'
         while (consentMappingIterator.hasNext()) {
             ConsentMappingResource mappingResource = consentMappingIterator.next();
-            try {
-                if (!CDSConsentExtensionsUtil.isDOMSStatusEligibleForDataSharing(mappingResource.getAccountID())) {
-                    consentMappingIterator.remove();
-                    log.info("Removed mapping resource for accountID: " + mappingResource.getAccountID());
-                }
-            } catch (OpenBankingException e) {
-                log.error("Error occurred while retrieving account metadata", e);
-                throw new ConsentException(ResponseStatus.INTERNAL_SERVER_ERROR,
-                        "Error occurred while retrieving account metadata");
+            if (!CDSConsentExtensionsUtil.isDOMSStatusEligibleForDataSharing(
+                    accountMetadataLookup.getAccountMetadataMap(mappingResource.getAccountID()))) {
+                consentMappingIterator.remove();
+                log.info("Removed mapping resource for accountID: " + mappingResource.getAccountID());
             }
         }
         consentValidateData.getComprehensiveConsent().setConsentMappingResources(consentMappingResources);
@@ -215,26 +227,38 @@ public class CDSConsentValidator implements ConsentValidator {
     /**
      * Method to filter accounts based on the sharing status of legal entity.
      *
-     * @param consentValidateData consentValidateData
+     * @param consentValidateData   consentValidateData
+     * @param accountMetadataLookup account metadata of the consent account mappings
      */
-    private void removeBlockedLegalEntityConsentMappings(ConsentValidateData consentValidateData) throws
-            ConsentException {
+    private void removeBlockedLegalEntityConsentMappings(ConsentValidateData consentValidateData,
+                                                         AccountMetadataLookup accountMetadataLookup)
+            throws ConsentException {
         ArrayList<ConsentMappingResource> validMappingResources = new ArrayList<>();
 
         try {
 
             String secondaryUserID = consentValidateData.getUserId();
+            String clientID = consentValidateData.getClientId();
+            // Legal entity of the client, retrieved once for all the mappings
+            String legalEntityID = null;
+            boolean isLegalEntityIDRetrieved = false;
 
             for (ConsentMappingResource consentMappingResource : consentValidateData.
                     getComprehensiveConsent().getConsentMappingResources()) {
 
                 String accountID = consentMappingResource.getAccountID();
-                String clientID = consentValidateData.getClientId();
 
                 if (StringUtils.isNotBlank(clientID) && StringUtils.isNotBlank(accountID) &&
                         StringUtils.isNotBlank(secondaryUserID)) {
-                    boolean isLegalEntitySharingStatusBlocked = CDSConsentExtensionsUtil.
-                            isLegalEntityBlockedForAccountAndUser(accountID, secondaryUserID, clientID);
+                    if (!isLegalEntityIDRetrieved) {
+                        legalEntityID = getServiceProviderPropertyCache().getAppProperty(clientID,
+                                CDSConsentExtensionConstants.LEGAL_ENTITY_ID, commonServiceProviderRetriever);
+                        isLegalEntityIDRetrieved = true;
+                    }
+                    boolean isLegalEntitySharingStatusBlocked = CDSConsentExtensionsUtil.isLegalEntityBlocked(
+                            accountMetadataLookup.getAccountMetadataByKey(accountID, secondaryUserID,
+                                    CDSConsentExtensionConstants.METADATA_KEY_BLOCKED_LEGAL_ENTITIES),
+                            legalEntityID);
 
                     if (!isLegalEntitySharingStatusBlocked) {
                         validMappingResources.add(consentMappingResource);
@@ -242,7 +266,7 @@ public class CDSConsentValidator implements ConsentValidator {
                 }
             }
             consentValidateData.getComprehensiveConsent().setConsentMappingResources(validMappingResources);
-        } catch (ConsentException e) {
+        } catch (OpenBankingException e) {
             log.error("Error occurred while retrieving account metadata");
             throw new ConsentException(ResponseStatus.INTERNAL_SERVER_ERROR,
                     "Error occurred while retrieving account metadata");
@@ -252,19 +276,20 @@ public class CDSConsentValidator implements ConsentValidator {
     /**
      * Method to remove inactive secondary user account consent mappings from consentValidateData.
      *
-     * @param consentValidateData consentValidateData
+     * @param consentValidateData   consentValidateData
+     * @param accountMetadataLookup account metadata of the consent account mappings
      */
-    private void removeInactiveSecondaryUserAccountConsentMappings(ConsentValidateData consentValidateData) {
+    private void removeInactiveSecondaryUserAccountConsentMappings(ConsentValidateData consentValidateData,
+                                                                   AccountMetadataLookup accountMetadataLookup) {
         ArrayList<ConsentMappingResource> consentMappingResources =
                 consentValidateData.getComprehensiveConsent().getConsentMappingResources();
-        List<String> blockedSecondaryAccounts = new ArrayList<>();
+        Set<String> blockedSecondaryAccounts = new HashSet<>();
 
         // remove inactive secondary user account consent mappings
         for (ConsentMappingResource mappingResource : consentMappingResources) {
             if (CDSConsentExtensionConstants.SECONDARY_ACCOUNT_USER.equals(mappingResource.getPermission()) &&
-                    !CDSConsentExtensionsUtil
-                            .isUserEligibleForSecondaryAccountDataSharing(mappingResource.getAccountID(),
-                                    consentValidateData.getUserId())) {
+                    !CDSConsentExtensionsUtil.isUserEligibleForSecondaryAccountDataSharing(accountMetadataLookup
+                            .getAccountMetadataMap(mappingResource.getAccountID(), consentValidateData.getUserId()))) {
                 blockedSecondaryAccounts.add(mappingResource.getAccountID());
             }
         }
@@ -280,74 +305,225 @@ public class CDSConsentValidator implements ConsentValidator {
     /**
      * Method to remove accounts which the user has "REVOKED" nominated representative permissions.
      *
-     * @param consentValidateData consentValidateData
+     * @param consentValidateData   consentValidateData
+     * @param accountMetadataLookup account metadata of the consent account mappings
      */
-    private void removeAccountsWithRevokedBNRPermission(ConsentValidateData consentValidateData) throws
-            ConsentException {
+    private void removeAccountsWithRevokedBNRPermission(ConsentValidateData consentValidateData,
+                                                        AccountMetadataLookup accountMetadataLookup) {
         ArrayList<ConsentMappingResource> validMappingResources = new ArrayList<>();
         ArrayList<ConsentMappingResource> consentMappingResources = consentValidateData.getComprehensiveConsent().
                 getConsentMappingResources();
-        try {
-            for (ConsentMappingResource consentMappingResource : consentMappingResources) {
-                String accountId = consentMappingResource.getAccountID();
-                String userId = consentValidateData.getUserId();
-                userId = userId.replaceAll("(@carbon\\.super)+", "@carbon.super");
-                //Todo: improve accelerator to do this with single database call.
-                String bnrPermission = accountMetadataService.getAccountMetadataByKey(accountId, userId,
-                        CDSConsentExtensionConstants.BNR_PERMISSION);
-                if (StringUtils.isBlank(bnrPermission) || !bnrPermission.equals(CDSConsentExtensionConstants.
-                        BNR_REVOKE_PERMISSION)) {
-                    validMappingResources.add(consentMappingResource);
-                }
+        String userId = getBNRUserId(consentValidateData.getUserId());
+        for (ConsentMappingResource consentMappingResource : consentMappingResources) {
+            String accountId = consentMappingResource.getAccountID();
+            String bnrPermission = accountMetadataLookup.getAccountMetadataByKey(accountId, userId,
+                    CDSConsentExtensionConstants.BNR_PERMISSION);
+            if (StringUtils.isBlank(bnrPermission) || !bnrPermission.equals(CDSConsentExtensionConstants.
+                    BNR_REVOKE_PERMISSION)) {
+                validMappingResources.add(consentMappingResource);
             }
-            consentValidateData.getComprehensiveConsent().setConsentMappingResources(validMappingResources);
-        } catch (OpenBankingException e) {
-            log.error("Error occurred while retrieving account metadata", e);
-            throw new ConsentException(ResponseStatus.INTERNAL_SERVER_ERROR,
-                    "Error occurred while retrieving account metadata");
         }
+        consentValidateData.getComprehensiveConsent().setConsentMappingResources(validMappingResources);
     }
 
     /**
      * Method to filter accounts based on following criteria.
-     * 1. Remove inactive consent mappings
-     * 2. Remove joint accounts with no-sharing DOMs status
-     * 3. Remove inactive secondary user accounts
-     * 4. Remove accounts based on the sharing status of legal entity
-     * 5. Remove accounts which the user has "REVOKED" nominated representative permissions.
+     * 1. Remove joint accounts with no-sharing DOMs status
+     * 2. Remove inactive secondary user accounts
+     * 3. Remove accounts based on the sharing status of legal entity
+     * 4. Remove accounts which the user has "REVOKED" nominated representative permissions.
+     * The account metadata required by the filters is retrieved with a single database call.
      *
      * @param consentValidateData consentValidateData
      */
     private void filterConsentAccountMappings(ConsentValidateData consentValidateData) throws
             ConsentException {
         OpenBankingCDSConfigParser openBankingCDSConfigParser = OpenBankingCDSConfigParser.getInstance();
-        // Remove inactive consent mappings
-        removeInactiveConsentMappings(consentValidateData);
 
-        // Filter joint accounts with no-sharing DOMs status
-        if (openBankingCDSConfigParser.getDOMSEnabled()) {
-            removeInactiveDOMSAccountConsentMappings(consentValidateData);
+        boolean isDOMSEnabled = openBankingCDSConfigParser.getDOMSEnabled();
+        boolean isSecondaryUserAccountsEnabled = openBankingCDSConfigParser.getSecondaryUserAccountsEnabled();
+        boolean isCeasingSecondaryUserSharingEnabled = openBankingCDSConfigParser
+                .isCeasingSecondaryUserSharingEnabled();
+        boolean isBNRValidateAccountsOnRetrievalEnabled = openBankingCDSConfigParser
+                .isBNRValidateAccountsOnRetrievalEnabled();
+
+        if (isDOMSEnabled || isSecondaryUserAccountsEnabled || isCeasingSecondaryUserSharingEnabled ||
+                isBNRValidateAccountsOnRetrievalEnabled) {
+            AccountMetadataLookup accountMetadataLookup = getAccountMetadataLookup(consentValidateData,
+                    isDOMSEnabled);
+
+            // Filter joint accounts with no-sharing DOMs status
+            if (isDOMSEnabled) {
+                removeInactiveDOMSAccountConsentMappings(consentValidateData, accountMetadataLookup);
+            }
+
+            // filter inactive secondary user accounts
+            if (isSecondaryUserAccountsEnabled) {
+                removeInactiveSecondaryUserAccountConsentMappings(consentValidateData, accountMetadataLookup);
+            }
+
+            // Filter accounts based on the sharing status of legal entity
+            if (isCeasingSecondaryUserSharingEnabled) {
+                removeBlockedLegalEntityConsentMappings(consentValidateData, accountMetadataLookup);
+            }
+
+            // Remove accounts with revoked BNR permission if the configuration is enabled.
+            if (isBNRValidateAccountsOnRetrievalEnabled) {
+                removeAccountsWithRevokedBNRPermission(consentValidateData, accountMetadataLookup);
+            }
         }
+    }
 
-        // filter inactive secondary user accounts
-        if (openBankingCDSConfigParser.getSecondaryUserAccountsEnabled()) {
-            removeInactiveSecondaryUserAccountConsentMappings(consentValidateData);
+    /**
+     * Get the validation state of the consent. The state is taken from the consent validation cache if the cached
+     * state is derived from the same consent data and account metadata, otherwise the consent receipt is parsed and
+     * the consent account mappings are filtered as per the account metadata.
+     *
+     * @param consentValidateData consentValidateData with the inactive consent mappings removed
+     * @return consent validation state
+     * @throws ConsentException if an error occurs while deriving the consent validation state
+     */
+    private ConsentValidationState getConsentValidationState(ConsentValidateData consentValidateData)
+            throws ConsentException {
+
+        DetailedConsentResource detailedConsentResource = consentValidateData.getComprehensiveConsent();
+        String userId = consentValidateData.getUserId();
+        String receipt = detailedConsentResource.getReceipt();
+        // Read before the account metadata, so that a state derived from account metadata updated meanwhile is
+        // not considered valid.
+        long accountMetadataUpdateCount = AccountMetadataUpdateTracker.getUpdateCount();
+
+        ConsentValidationCacheKey cacheKey = null;
+        if (OpenBankingCDSConfigParser.getInstance().isConsentValidationCacheEnabled() &&
+                StringUtils.isNotBlank(detailedConsentResource.getConsentID())) {
+            cacheKey = ConsentValidationCacheKey.of(detailedConsentResource.getConsentID());
+            ConsentValidationState cachedState = getConsentValidationCache().getFromCache(cacheKey);
+            if (cachedState != null && cachedState.isValidFor(userId, receipt,
+                    detailedConsentResource.getConsentMappingResources(), accountMetadataUpdateCount)) {
+                return cachedState;
+            }
+        }
+
+        JSONObject receiptJSON;
+        try {
+            receiptJSON = (JSONObject) (new JSONParser(JSONParser.MODE_PERMISSIVE)).parse(receipt);
+        } catch (ParseException e) {
+            throw new ConsentException(ResponseStatus.INTERNAL_SERVER_ERROR,
+                    "Error occurred while parsing consent data");
+        }
+        long expiryTime = CDSConsentValidatorUtil.getConsentExpiryTime(
+                ((JSONObject) receiptJSON.get(CDSConsentExtensionConstants.ACCOUNT_DATA))
+                        .getAsString(CDSConsentExtensionConstants.EXPIRATION_DATE_TIME));
+
+        List<ConsentMappingResource> activeMappingResources =
+                new ArrayList<>(detailedConsentResource.getConsentMappingResources());
+        Set<String> sharableAccountIds = new HashSet<>();
+        // The accounts of an expired consent are not filtered, as the consent is not valid anymore.
+        if (System.currentTimeMillis() <= expiryTime) {
+            filterConsentAccountMappings(consentValidateData);
+            for (ConsentMappingResource mappingResource : detailedConsentResource.getConsentMappingResources()) {
+                sharableAccountIds.add(mappingResource.getAccountID());
+            }
         }
 
-        // Filter accounts based on the sharing status of legal entity
-        if (openBankingCDSConfigParser.isCeasingSecondaryUserSharingEnabled()) {
-            removeBlockedLegalEntityConsentMappings(consentValidateData);
+        ConsentValidationState consentValidationState = new ConsentValidationState(userId, receipt,
+                activeMappingResources, accountMetadataUpdateCount, expiryTime, sharableAccountIds);
+        if (cacheKey != null) {
+            getConsentValidationCache().addToCache(cacheKey, consentValidationState);
         }
+        return consentValidationState;
+    }
 
-        // Remove accounts with revoked BNR permission if the configuration is enabled.
-        if (openBankingCDSConfigParser.isBNRValidateAccountsOnRetrievalEnabled()) {
-            removeAccountsWithRevokedBNRPermission(consentValidateData);
+    /**
+     * Method to remove the mappings of the accounts which are not sharable as per the consent validation state and
+     * the duplicate mappings from consentValidateData.
+     *
+     * @param consentValidateData    consentValidateData
+     * @param consentValidationState consent validation state
+     */
+    private void removeUnsharableConsentMappings(ConsentValidateData consentValidateData,
+                                                 ConsentValidationState consentValidationState) {
+
+        Set<String> sharableAccountIds = consentValidationState.getSharableAccountIds();
+        ArrayList<ConsentMappingResource> sharableMappingResources = new ArrayList<>();
+        for (ConsentMappingResource mappingResource : consentValidateData.getComprehensiveConsent()
+                .getConsentMappingResources()) {
+            if (sharableAccountIds.contains(mappingResource.getAccountID())) {
+                sharableMappingResources.add(mappingResource);
+            }
         }
+        consentValidateData.getComprehensiveConsent().setConsentMappingResources(sharableMappingResources);
 
         // Remove duplicate consent mappings
         removeDuplicateConsentMappings(consentValidateData);
     }
 
+    private ConsentValidationCache getConsentValidationCache() {
+
+        if (consentValidationCache == null) {
+            consentValidationCache = ConsentValidationCache.getInstance();
+        }
+        return consentValidationCache;
+    }
+
+    private ServiceProviderPropertyCache getServiceProviderPropertyCache() {
+
+        if (serviceProviderPropertyCache == null) {
+            serviceProviderPropertyCache = ServiceProviderPropertyCache.getInstance();
+        }
+        return serviceProviderPropertyCache;
+    }
+
+    /**
+     * Retrieve the account metadata of the consent account mappings for the consent user with a single database
+     * call.
+     *
+     * @param consentValidateData         consentValidateData
+     * @param includeAccountLevelMetadata whether to retrieve the account level metadata, such as the DOMS status
+     * @return account metadata lookup
+     * @throws ConsentException if an error occurs while retrieving the account metadata
+     */
+    private AccountMetadataLookup getAccountMetadataLookup(ConsentValidateData consentValidateData,
+                                                           boolean includeAccountLevelMetadata)
+            throws ConsentException {
+
+        Set<String> accountIds = new HashSet<>();
+        for (ConsentMappingResource mappingResource : consentValidateData.getComprehensiveConsent()
+                .getConsentMappingResources()) {
+            if (StringUtils.isNotBlank(mappingResource.getAccountID())) {
+                accountIds.add(mappingResource.getAccountID());
+            }
+        }
+        Set<String> userIds = new HashSet<>();
+        String userId = consentValidateData.getUserId();
+        if (StringUtils.isNotBlank(userId)) {
+            userIds.add(userId);
+            userIds.add(getBNRUserId(userId));
+        }
+        if (includeAccountLevelMetadata) {
+            userIds.add(CDSConsentExtensionConstants.ACCOUNT_METADATA_DEFAULT_USER_ID);
+        }
+
+        try {
+            return accountMetadataRetriever.getAccountMetadata(accountIds, userIds);
+        } catch (OpenBankingException e) {
+            log.error("Error occurred while retrieving account metadata", e);
+            throw new ConsentException(ResponseStatus.INTERNAL_SERVER_ERROR,
+                    "Error occurred while retrieving account metadata");
+        }
+    }
+
+    /**
+     * Get the user id against which the nominated representative permissions are stored.
+     *
+     * @param userId user id
+     * @return user id with a single tenant domain
+     */
+    private static String getBNRUserId(String userId) {
+
+        return userId == null ? null : userId.replaceAll("(@carbon\\.super)+", "@carbon.super");
+    }
+
     private String generateErrorPayload(String title, String detail, String metaURN, String accountId) {
 
         JSONObject errorPayload = new JSONObject();
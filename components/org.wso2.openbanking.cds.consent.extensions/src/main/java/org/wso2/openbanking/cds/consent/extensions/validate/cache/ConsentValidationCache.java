@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.openbanking.cds.consent.extensions.validate.cache;
+
+import com.wso2.openbanking.accelerator.common.caching.OpenBankingBaseCache;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+
+/**
+ * Cache definition to store the validation state of consents, keyed by the consent id.
+ * <p>
+ * Account metadata and service provider property updates made in other nodes only take effect once an entry expires,
+ * hence the cache is disabled unless ConsentManagement.ValidationCache.Enabled is set.
+ */
+public class ConsentValidationCache extends OpenBankingBaseCache<ConsentValidationCacheKey, ConsentValidationState> {
+
+    private static final String CACHE_NAME = "CDS_CONSENT_VALIDATION_STATE";
+    private static volatile ConsentValidationCache instance;
+    private final Integer accessExpiryMinutes;
+    private final Integer modifiedExpiryMinutes;
+
+    /**
+     * Initialize with unique cache name.
+     */
+    private ConsentValidationCache() {
+
+        super(CACHE_NAME);
+
+        accessExpiryMinutes = OpenBankingCDSConfigParser.getInstance().getConsentValidationCacheExpiryInMinutes();
+        modifiedExpiryMinutes = OpenBankingCDSConfigParser.getInstance().getConsentValidationCacheExpiryInMinutes();
+    }
+
+    public static ConsentValidationCache getInstance() {
+
+        if (instance == null) {
+            synchronized (ConsentValidationCache.class) {
+                if (instance == null) {
+                    instance = new ConsentValidationCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public int getCacheAccessExpiryMinutes() {
+        return accessExpiryMinutes;
+    }
+
+    @Override
+    public int getCacheModifiedExpiryMinutes() {
+        return modifiedExpiryMinutes;
+    }
+}
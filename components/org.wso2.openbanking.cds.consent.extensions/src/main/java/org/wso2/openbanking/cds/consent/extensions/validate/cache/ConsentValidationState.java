@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.consent.extensions.validate.cache;
+
+import com.wso2.openbanking.accelerator.consent.mgt.dao.models.ConsentMappingResource;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Validation state of a consent: the expiry time from the consent receipt and the accounts of the active consent
+ * account mappings which are sharable after the account metadata filters.
+ * <p>
+ * A state only applies to the consent data it was derived from. It records the user, the receipt, the active
+ * account mappings and the account metadata update count it was derived from, and {@link #isValidFor} checks
+ * them against the consent data being validated.
+ */
+public class ConsentValidationState implements Serializable {
+
+    static final long serialVersionUID = 1382340413L;
+
+    private final String userId;
+    private final String receipt;
+    private final String[] accountIds;
+    private final String[] permissions;
+    private final long accountMetadataUpdateCount;
+    private final long expiryTime;
+    private final Set<String> sharableAccountIds;
+
+    /**
+     * Create a validation state.
+     *
+     * @param userId                     user id of the validated request
+     * @param receipt                    consent receipt
+     * @param activeMappingResources     active account mappings of the consent, before the account metadata filters
+     * @param accountMetadataUpdateCount account metadata update count at the time the account metadata was read
+     * @param expiryTime                 consent expiry time as epoch milliseconds, Long.MAX_VALUE if it does not
+     *                                   expire
+     * @param sharableAccountIds         accounts which are sharable after the account metadata filters
+     */
+    public ConsentValidationState(String userId, String receipt, List<ConsentMappingResource> activeMappingResources,
+                                  long accountMetadataUpdateCount, long expiryTime,
+                                  Set<String> sharableAccountIds) {
+
+        this.userId = userId;
+        this.receipt = receipt;
+        this.accountIds = new String[activeMappingResources.size()];
+        this.permissions = new String[activeMappingResources.size()];
+        for (int i = 0; i < activeMappingResources.size(); i++) {
+            accountIds[i] = activeMappingResources.get(i).getAccountID();
+            permissions[i] = activeMappingResources.get(i).getPermission();
+        }
+        this.accountMetadataUpdateCount = accountMetadataUpdateCount;
+        this.expiryTime = expiryTime;
+        this.sharableAccountIds = Collections.unmodifiableSet(new HashSet<>(sharableAccountIds));
+    }
+
+    /**
+     * Check whether this state is derived from the given consent data.
+     *
+     * @param userId                     user id of the validated request
+     * @param receipt                    consent receipt
+     * @param activeMappingResources     active account mappings of the consent
+     * @param accountMetadataUpdateCount current account metadata update count
+     * @return true if the state applies to the given consent data
+     */
+    public boolean isValidFor(String userId, String receipt, List<ConsentMappingResource> activeMappingResources,
+                              long accountMetadataUpdateCount) {
+
+        if (this.accountMetadataUpdateCount != accountMetadataUpdateCount || !Objects.equals(this.userId, userId) ||
+                !Objects.equals(this.receipt, receipt) || accountIds.length != activeMappingResources.size()) {
+            return false;
+        }
+        for (int i = 0; i < accountIds.length; i++) {
+            ConsentMappingResource mappingResource = activeMappingResources.get(i);
+            if (!Objects.equals(accountIds[i], mappingResource.getAccountID()) ||
+                    !Objects.equals(permissions[i], mappingResource.getPermission())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the consent is expired at the given time.
+     *
+     * @param currentTime current time as epoch milliseconds
+     * @return true if the consent is expired
+     */
+    public boolean isExpired(long currentTime) {
+
+        return currentTime > expiryTime;
+    }
+
+    public long getExpiryTime() {
+
+        return expiryTime;
+    }
+
+    public Set<String> getSharableAccountIds() {
+
+        return sharableAccountIds;
+    }
+}
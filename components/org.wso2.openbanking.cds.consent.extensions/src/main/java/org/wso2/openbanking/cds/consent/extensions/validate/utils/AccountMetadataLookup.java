@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.consent.extensions.validate.utils;
+
+import org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Account metadata loaded for the account mappings of a consent, looked up by account id and user id.
+ */
+public class AccountMetadataLookup {
+
+    private final Map<String, Map<String, Map<String, String>>> accountMetadata = new HashMap<>();
+
+    /**
+     * Add a metadata entry of an account and user.
+     *
+     * @param accountId account id
+     * @param userId    user id
+     * @param key       metadata key
+     * @param value     metadata value
+     */
+    public void addAccountMetadata(String accountId, String userId, String key, String value) {
+
+        accountMetadata.computeIfAbsent(accountId, id -> new HashMap<>())
+                .computeIfAbsent(userId, id -> new HashMap<>())
+                .put(key, value);
+    }
+
+    /**
+     * Get the metadata of an account and user.
+     *
+     * @param accountId account id
+     * @param userId    user id
+     * @return metadata map, which is empty if no metadata is found
+     */
+    public Map<String, String> getAccountMetadataMap(String accountId, String userId) {
+
+        Map<String, Map<String, String>> userMetadata = accountMetadata.get(accountId);
+        if (userMetadata == null || !userMetadata.containsKey(userId)) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(userMetadata.get(userId));
+    }
+
+    /**
+     * Get the account level metadata of an account.
+     *
+     * @param accountId account id
+     * @return metadata map, which is empty if no metadata is found
+     */
+    public Map<String, String> getAccountMetadataMap(String accountId) {
+
+        return getAccountMetadataMap(accountId, CDSConsentExtensionConstants.ACCOUNT_METADATA_DEFAULT_USER_ID);
+    }
+
+    /**
+     * Get a metadata value of an account and user.
+     *
+     * @param accountId account id
+     * @param userId    user id
+     * @param key       metadata key
+     * @return metadata value, or null if not found
+     */
+    public String getAccountMetadataByKey(String accountId, String userId, String key) {
+
+        return getAccountMetadataMap(accountId, userId).get(key);
+    }
+}
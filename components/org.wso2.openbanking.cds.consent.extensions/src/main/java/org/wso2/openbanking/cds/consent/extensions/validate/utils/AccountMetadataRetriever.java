@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.consent.extensions.validate.utils;
+
+import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import com.wso2.openbanking.accelerator.common.persistence.JDBCPersistenceManager;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Retrieves the account metadata of a set of accounts and users with a single database call.
+ * <p>
+ * The account metadata service of the accelerator only supports retrieving the metadata of one account and user at
+ * a time, hence validating a consent with many account mappings made several database calls per mapping.
+ */
+public class AccountMetadataRetriever {
+
+    private static final Log log = LogFactory.getLog(AccountMetadataRetriever.class);
+
+    // Keeps the number of bind parameters of a query well within the limits of the supported databases.
+    private static final int MAX_ACCOUNT_IDS_PER_QUERY = 500;
+    private static final String GET_ACCOUNT_METADATA_QUERY = "SELECT ACCOUNT_ID, USER_ID, METADATA_KEY, " +
+            "METADATA_VALUE FROM OB_ACCOUNT_METADATA WHERE ACCOUNT_ID IN (%s) AND USER_ID IN (%s)";
+
+    private final Supplier<Connection> connectionSupplier;
+
+    public AccountMetadataRetriever() {
+
+        this(() -> JDBCPersistenceManager.getInstance().getDBConnection());
+    }
+
+    public AccountMetadataRetriever(Supplier<Connection> connectionSupplier) {
+
+        this.connectionSupplier = connectionSupplier;
+    }
+
+    /**
+     * Get the metadata of every given account for every given user.
+     *
+     * @param accountIds account ids
+     * @param userIds    user ids
+     * @return account metadata lookup
+     * @throws OpenBankingException if an error occurs while retrieving the account metadata
+     */
+    public AccountMetadataLookup getAccountMetadata(Collection<String> accountIds, Collection<String> userIds)
+            throws OpenBankingException {
+
+        AccountMetadataLookup accountMetadataLookup = new AccountMetadataLookup();
+        if (accountIds.isEmpty() || userIds.isEmpty()) {
+            return accountMetadataLookup;
+        }
+
+        List<String> accountIdList = new ArrayList<>(accountIds);
+        List<String> userIdList = new ArrayList<>(userIds);
+        try (Connection connection = connectionSupplier.get()) {
+            for (int from = 0; from < accountIdList.size(); from += MAX_ACCOUNT_IDS_PER_QUERY) {
+                List<String> accountIdBatch = accountIdList.subList(from,
+                        Math.min(from + MAX_ACCOUNT_IDS_PER_QUERY, accountIdList.size()));
+                String query = String.format(GET_ACCOUNT_METADATA_QUERY, getPlaceholders(accountIdBatch.size()),
+                        getPlaceholders(userIdList.size()));
+                try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+                    int parameterIndex = 1;
+                    for (String accountId : accountIdBatch) {
+                        preparedStatement.setString(parameterIndex++, accountId);
+                    }
+                    for (String userId : userIdList) {
+                        preparedStatement.setString(parameterIndex++, userId);
+                    }
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                        while (resultSet.next()) {
+                            accountMetadataLookup.addAccountMetadata(resultSet.getString("ACCOUNT_ID"),
+                                    resultSet.getString("USER_ID"), resultSet.getString("METADATA_KEY"),
+                                    resultSet.getString("METADATA_VALUE"));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.error("Error occurred while retrieving account metadata", e);
+            throw new OpenBankingException("Error occurred while retrieving account metadata", e);
+        }
+        return accountMetadataLookup;
+    }
+
+    private static String getPlaceholders(int count) {
+
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
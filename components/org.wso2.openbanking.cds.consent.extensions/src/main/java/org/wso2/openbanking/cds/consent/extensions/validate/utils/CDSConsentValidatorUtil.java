@@ -32,7 +32,9 @@ import java.time.OffsetDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Consent validate util class for CDS specification.
@@ -50,19 +52,29 @@ public class CDSConsentValidatorUtil {
      */
     public static Boolean isConsentExpired(String expDateVal) throws ConsentException {
 
+        return System.currentTimeMillis() > getConsentExpiryTime(expDateVal);
+    }
+
+    /**
+     * Get the expiry time of a consent from its expiration date time.
+     *
+     * @param expDateVal expiration date time of the consent
+     * @return expiry time as epoch milliseconds, Long.MAX_VALUE if the consent does not expire
+     * @throws ConsentException if the expiration date time cannot be parsed
+     */
+    public static long getConsentExpiryTime(String expDateVal) throws ConsentException {
+
         if (StringUtils.isNotBlank(expDateVal) && !CDSConsentExtensionConstants.ZERO.equalsIgnoreCase(expDateVal)) {
             try {
-                OffsetDateTime expDate = OffsetDateTime.parse(expDateVal);
-                return OffsetDateTime.now().isAfter(expDate);
+                return OffsetDateTime.parse(expDateVal).toInstant().toEpochMilli();
             } catch (DateTimeParseException e) {
                 log.error("Error occurred while parsing the expiration date" + " : " + expDateVal, e);
                 throw new ConsentException(ResponseStatus.INTERNAL_SERVER_ERROR,
                         "Error occurred while parsing the expiration date");
             }
         } else {
-            return false;
+            return Long.MAX_VALUE;
         }
-
     }
 
     /**
@@ -83,14 +95,14 @@ public class CDSConsentValidatorUtil {
             }
         }
         if (!requestedAccountsList.isEmpty()) {
-            List<String> consentedAccountsList = new ArrayList<>();
+            Set<String> consentedAccounts = new HashSet<>();
 
             for (ConsentMappingResource resource : consentValidateData.getComprehensiveConsent()
                     .getConsentMappingResources()) {
-                consentedAccountsList.add(resource.getAccountID());
+                consentedAccounts.add(resource.getAccountID());
             }
             for (String requestedAccount : requestedAccountsList) {
-                if (!consentedAccountsList.contains(requestedAccount)) {
+                if (!consentedAccounts.contains(requestedAccount)) {
                     return requestedAccount;
                 }
             }
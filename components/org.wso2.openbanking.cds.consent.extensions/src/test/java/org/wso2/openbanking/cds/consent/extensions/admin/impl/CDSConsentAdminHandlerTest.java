@@ -300,12 +300,18 @@ public class CDSConsentAdminHandlerTest extends PowerMockTestCase {
         dataClusterSharingDate.setLastSharedDate(Timestamp.from(Instant.now()));
         sharingDateDataMap.put("bank_account_data", dataClusterSharingDate);
 
+        Map<String, Map<String, DataClusterSharingDateModel>> sharingDateDataMaps = new HashMap<>();
+        sharingDateDataMaps.put("test-consent-id", sharingDateDataMap);
+
         PowerMockito.mockStatic(DataClusterSharingDateUtil.class);
-        String consentId = "test_consent_id";
-        when(DataClusterSharingDateUtil.getSharingDateMap(consentId)).thenReturn(sharingDateDataMap);
+        when(DataClusterSharingDateUtil.getSharingDateMaps(any())).thenReturn(sharingDateDataMaps);
 
         uut.addSharingDatesToPermissions(consentAdminData);
 
+        // Assert that the sharing dates of all the consents are retrieved at once
+        PowerMockito.verifyStatic(Mockito.times(1));
+        DataClusterSharingDateUtil.getSharingDateMaps(any());
+
         // Assert that the sharing dates are added to the response payload
         JSONArray responsePayload = (JSONArray) consentAdminData.getResponsePayload()
                 .get(CDSConsentExtensionConstants.DATA);
@@ -44,6 +44,8 @@ import org.testng.annotations.Test;
 import org.wso2.carbon.base.ServerConfiguration;
 import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 import org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants;
+import org.wso2.openbanking.cds.consent.extensions.validate.cache.ConsentValidationCache;
+import org.wso2.openbanking.cds.consent.extensions.validate.cache.ConsentValidationCacheKey;
 import org.wso2.openbanking.cds.identity.utils.CDSIdentityUtil;
 
 import java.io.ByteArrayOutputStream;
@@ -63,7 +65,7 @@ import static org.powermock.api.mockito.PowerMockito.when;
  * Test class for CDS Consent Event Executor.
  */
 @PrepareForTest({OpenBankingCDSConfigParser.class, HTTPClientUtils.class, ServerConfiguration.class,
-        CDSIdentityUtil.class, OBDataPublisherUtil.class})
+        CDSIdentityUtil.class, OBDataPublisherUtil.class, ConsentValidationCache.class})
 @PowerMockIgnore("jdk.internal.reflect.*")
 public class CDSConsentEventExecutorTests extends PowerMockTestCase {
 
@@ -193,6 +195,33 @@ public class CDSConsentEventExecutorTests extends PowerMockTestCase {
                 "the arrangement revocation request to ADR"));
     }
 
+    @Test
+    public void testProcessEventRemovesConsentValidationState() {
+
+        CDSConsentEventExecutor cdsConsentEventExecutor = new CDSConsentEventExecutor();
+
+        Map<String, Object> configs = new HashMap<>();
+        configs.put("RecipientConsentRevocationEndpoint.Enable", false);
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = mock(OpenBankingCDSConfigParser.class);
+        mockStatic(OpenBankingCDSConfigParser.class);
+        when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        when(openBankingCDSConfigParserMock.getConfiguration()).thenReturn(configs);
+        when(openBankingCDSConfigParserMock.isConsentValidationCacheEnabled()).thenReturn(true);
+
+        ConsentValidationCache consentValidationCacheMock = mock(ConsentValidationCache.class);
+        mockStatic(ConsentValidationCache.class);
+        when(ConsentValidationCache.getInstance()).thenReturn(consentValidationCacheMock);
+
+        Map<String, Object> eventData = new HashMap<>();
+        eventData.put("ConsentId", "dummyConsentId");
+        eventData.put("ConsentDataMap", new HashMap<String, Object>());
+
+        cdsConsentEventExecutor.processEvent(new OBEvent("rejected", eventData));
+
+        Mockito.verify(consentValidationCacheMock).removeFromCache(ConsentValidationCacheKey.of("dummyConsentId"));
+    }
+
     @Test
     public void testSendArrangementRevocationToADRSuccess() throws Exception {
 
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.consent.extensions.util;
+
+import com.wso2.openbanking.accelerator.account.metadata.service.service.AccountMetadataServiceImpl;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+/**
+ * Test class for CDS Consent Extensions Utils.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class, AccountMetadataServiceImpl.class})
+@PowerMockIgnore("jdk.internal.reflect.*")
+public class CDSConsentExtensionsUtilTest extends PowerMockTestCase {
+
+    @BeforeClass
+    public void initClass() {
+
+        mockStatic(OpenBankingCDSConfigParser.class);
+        when(OpenBankingCDSConfigParser.getInstance()).thenReturn(mock(OpenBankingCDSConfigParser.class));
+        mockStatic(AccountMetadataServiceImpl.class);
+        when(AccountMetadataServiceImpl.getInstance()).thenReturn(mock(AccountMetadataServiceImpl.class));
+    }
+
+    @Test
+    public void testDOMSStatusEligibleForDataSharingWhenStatusIsNotSet() {
+
+        Map<String, String> accountMetadataMap = new HashMap<>();
+        Assert.assertTrue(CDSConsentExtensionsUtil.isDOMSStatusEligibleForDataSharing(accountMetadataMap));
+
+        // Account level metadata without the DOMS status
+        accountMetadataMap.put(CDSConsentExtensionConstants.METADATA_KEY_BLOCKED_LEGAL_ENTITIES, "legal-entity-1");
+        Assert.assertTrue(CDSConsentExtensionsUtil.isDOMSStatusEligibleForDataSharing(accountMetadataMap));
+    }
+
+    @Test
+    public void testDOMSStatusEligibleForDataSharing() {
+
+        Map<String, String> accountMetadataMap = new HashMap<>();
+        accountMetadataMap.put(CDSConsentExtensionConstants.DOMS_STATUS,
+                CDSConsentExtensionConstants.DOMS_STATUS_PRE_APPROVAL);
+        Assert.assertTrue(CDSConsentExtensionsUtil.isDOMSStatusEligibleForDataSharing(accountMetadataMap));
+
+        accountMetadataMap.put(CDSConsentExtensionConstants.DOMS_STATUS, "no-sharing");
+        Assert.assertFalse(CDSConsentExtensionsUtil.isDOMSStatusEligibleForDataSharing(accountMetadataMap));
+    }
+}
@@ -33,8 +33,14 @@ import org.wso2.openbanking.cds.common.utils.CommonConstants;
 import org.wso2.openbanking.cds.consent.extensions.model.DataClusterSharingDateModel;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.when;
@@ -89,4 +95,149 @@ public class DataClusterSharingDateUtilTest extends PowerMockTestCase {
         Assert.assertNotNull(sharingDateModel.getSharingStartDate());
         Assert.assertNotNull(sharingDateModel.getLastSharedDate());
     }
+
+    @Test
+    public void testGetSharingDateMapsGroupsRecordsByConsent() throws Exception {
+
+        List<String> executedQueries = mockStreamProcessor();
+
+        Map<String, Map<String, DataClusterSharingDateModel>> sharingDateDataMaps =
+                DataClusterSharingDateUtil.getSharingDateMaps(Arrays.asList("consent_1", "consent_2", "consent_1"));
+
+        Assert.assertEquals(executedQueries.size(), 1);
+        Assert.assertEquals(executedQueries.get(0), "from CDS_SHARING_START_END_DATE select CONSENT_ID, " +
+                "DATA_CLUSTER, SHARING_START_DATE, LAST_SHARED_DATE having CONSENT_ID == 'consent_1' or " +
+                "CONSENT_ID == 'consent_2';");
+        Assert.assertEquals(sharingDateDataMaps.size(), 2);
+        for (String id : Arrays.asList("consent_1", "consent_2")) {
+            Map<String, DataClusterSharingDateModel> sharingDateDataMap = sharingDateDataMaps.get(id);
+            Assert.assertEquals(sharingDateDataMap.size(), 1);
+            Assert.assertEquals(sharingDateDataMap.get(id + "_" + dataCluster).getDataCluster(),
+                    id + "_" + dataCluster);
+        }
+    }
+
+    @Test
+    public void testGetSharingDateMapsForConsentsWithoutSharingDates() throws Exception {
+
+        List<String> executedQueries = mockStreamProcessor();
+
+        Map<String, Map<String, DataClusterSharingDateModel>> sharingDateDataMaps =
+                DataClusterSharingDateUtil.getSharingDateMaps(Arrays.asList("consent_1", "unknown_consent"));
+
+        Assert.assertEquals(executedQueries.size(), 1);
+        Assert.assertEquals(sharingDateDataMaps.get("consent_1").size(), 1);
+        Assert.assertTrue(sharingDateDataMaps.get("unknown_consent").isEmpty());
+
+        Assert.assertTrue(DataClusterSharingDateUtil.getSharingDateMaps(Collections.emptyList()).isEmpty());
+        Assert.assertEquals(executedQueries.size(), 1);
+    }
+
+    @Test
+    public void testGetSharingDateMapsQueriesInBatches() throws Exception {
+
+        List<String> executedQueries = mockStreamProcessor();
+
+        int consentCount = DataClusterSharingDateUtil.MAX_CONSENT_IDS_PER_QUERY * 2 + 1;
+        List<String> consentIds = new ArrayList<>();
+        for (int i = 0; i < consentCount; i++) {
+            consentIds.add("consent_" + i);
+        }
+
+        Map<String, Map<String, DataClusterSharingDateModel>> sharingDateDataMaps =
+                DataClusterSharingDateUtil.getSharingDateMaps(consentIds);
+
+        Assert.assertEquals(executedQueries.size(), 3);
+        Assert.assertEquals(sharingDateDataMaps.size(), consentCount);
+        for (String id : consentIds) {
+            Assert.assertEquals(sharingDateDataMaps.get(id).size(), 1);
+        }
+    }
+
+    @Test
+    public void testGetSharingDateMapsRequestCount() throws Exception {
+
+        List<String> executedQueries = mockStreamProcessor();
+
+        List<String> consentIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            consentIds.add("consent_" + i);
+        }
+
+        for (String id : consentIds) {
+            DataClusterSharingDateUtil.getSharingDateMap(id);
+        }
+        int perConsentRequests = executedQueries.size();
+        executedQueries.clear();
+
+        DataClusterSharingDateUtil.getSharingDateMaps(consentIds);
+        int bulkRequests = executedQueries.size();
+
+        Assert.assertEquals(perConsentRequests, consentIds.size());
+        Assert.assertEquals(bulkRequests, 1);
+    }
+
+    @Test(expectedExceptions = OpenBankingException.class)
+    public void testGetSharingDateMapsWhenStreamProcessorFails() throws Exception {
+
+        mockConfiguration();
+        mockStatic(SPQueryExecutorUtil.class);
+        when(SPQueryExecutorUtil
+                .executeQueryOnStreamProcessor(anyString(), anyString(), anyString(), anyString(), anyString()))
+                .thenThrow(new IOException("Connection refused"));
+
+        DataClusterSharingDateUtil.getSharingDateMaps(Arrays.asList("consent_1", "consent_2"));
+    }
+
+    private void mockConfiguration() {
+
+        cdsConfigMap.put(CommonConstants.SP_SERVER_URL, "server_url");
+        cdsConfigMap.put(CommonConstants.SP_USERNAME, "username");
+        cdsConfigMap.put(CommonConstants.SP_PASSWORD, "password");
+
+        mockStatic(OpenBankingCDSConfigParser.class);
+        openBankingCDSConfigParser = mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParser);
+        PowerMockito.when(openBankingCDSConfigParser.getConfiguration()).thenReturn(cdsConfigMap);
+    }
+
+    /**
+     * Mock the stream processor to return one sharing date record for each consent ID in the query, except for
+     * unknown consents, and record the executed queries.
+     *
+     * @return executed queries
+     */
+    private List<String> mockStreamProcessor() throws Exception {
+
+        mockConfiguration();
+        List<String> executedQueries = new ArrayList<>();
+        Pattern consentIdPattern = Pattern.compile("CONSENT_ID == '([^']*)'");
+
+        mockStatic(SPQueryExecutorUtil.class);
+        when(SPQueryExecutorUtil
+                .executeQueryOnStreamProcessor(anyString(), anyString(), anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    String spQuery = (String) invocation.getArguments()[1];
+                    executedQueries.add(spQuery);
+
+                    JSONArray records = new JSONArray();
+                    Matcher matcher = consentIdPattern.matcher(spQuery);
+                    while (matcher.find()) {
+                        String id = matcher.group(1);
+                        if (id.startsWith("unknown")) {
+                            continue;
+                        }
+                        JSONArray recordObj = new JSONArray();
+                        recordObj.add(id);
+                        recordObj.add(id + "_" + dataCluster);
+                        recordObj.add(111111);
+                        recordObj.add(222222);
+                        records.add(recordObj);
+                    }
+                    JSONObject spQueryResponse = new JSONObject();
+                    spQueryResponse.put("records", records);
+                    return spQueryResponse;
+                });
+        return executedQueries;
+    }
 }
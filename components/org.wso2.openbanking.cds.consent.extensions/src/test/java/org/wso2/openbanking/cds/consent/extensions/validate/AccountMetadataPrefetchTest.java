@@ -0,0 +1,284 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.consent.extensions.validate;
+
+import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import com.wso2.openbanking.accelerator.common.identity.retriever.sp.CommonServiceProviderRetriever;
+import com.wso2.openbanking.accelerator.consent.extensions.validate.model.ConsentValidateData;
+import com.wso2.openbanking.accelerator.consent.extensions.validate.model.ConsentValidationResult;
+import com.wso2.openbanking.accelerator.consent.mgt.dao.models.ConsentMappingResource;
+import com.wso2.openbanking.accelerator.consent.mgt.dao.models.DetailedConsentResource;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants;
+import org.wso2.openbanking.cds.consent.extensions.util.CDSConsentValidateTestConstants;
+import org.wso2.openbanking.cds.consent.extensions.validate.utils.AccountMetadataLookup;
+import org.wso2.openbanking.cds.consent.extensions.validate.utils.AccountMetadataRetriever;
+import org.wso2.openbanking.cds.identity.cache.ServiceProviderPropertyCache;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for the account metadata prefetch of the CDS consent validator, against an in-memory H2 database.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class, CDSConsentValidator.class})
+@PowerMockIgnore({"jdk.internal.reflect.*", "org.h2.*", "javax.management.*"})
+public class AccountMetadataPrefetchTest extends PowerMockTestCase {
+
+    private static final String DB_URL = "jdbc:h2:mem:accountMetadataPrefetchTest;DB_CLOSE_DELAY=-1";
+    private static final String USER_ID = "user1@carbon.super";
+    private static final String CLIENT_ID = "client1";
+    private static final String LEGAL_ENTITY_ID = "legalEntity1";
+    private static final int ACCOUNT_COUNT = 20;
+
+    private final AtomicInteger queryCount = new AtomicInteger();
+    private Connection keepAliveConnection;
+    private OpenBankingCDSConfigParser openBankingCDSConfigParserMock;
+    private CommonServiceProviderRetriever commonServiceProviderRetrieverMock;
+    private CDSConsentValidator cdsConsentValidator;
+
+    @BeforeClass
+    public void initClass() throws SQLException {
+
+        keepAliveConnection = DriverManager.getConnection(DB_URL);
+        try (Statement statement = keepAliveConnection.createStatement()) {
+            statement.execute("CREATE TABLE OB_ACCOUNT_METADATA (ACCOUNT_ID VARCHAR(100) NOT NULL, " +
+                    "USER_ID VARCHAR(255) NOT NULL, METADATA_KEY VARCHAR(100) NOT NULL, " +
+                    "METADATA_VALUE VARCHAR(100) NOT NULL, PRIMARY KEY (ACCOUNT_ID, USER_ID, METADATA_KEY))");
+        }
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            addAccountMetadata(getAccountId(i), CDSConsentExtensionConstants.ACCOUNT_METADATA_DEFAULT_USER_ID,
+                    CDSConsentExtensionConstants.DOMS_STATUS, CDSConsentExtensionConstants.DOMS_STATUS_PRE_APPROVAL);
+            addAccountMetadata(getAccountId(i), USER_ID, CDSConsentExtensionConstants.INSTRUCTION_STATUS,
+                    CDSConsentExtensionConstants.ACTIVE_STATUS);
+            addAccountMetadata(getAccountId(i), USER_ID, CDSConsentExtensionConstants.BNR_PERMISSION, "VIEW");
+        }
+        // Each of the first four accounts is blocked by one of the filters.
+        updateAccountMetadata(getAccountId(0), CDSConsentExtensionConstants.ACCOUNT_METADATA_DEFAULT_USER_ID,
+                CDSConsentExtensionConstants.DOMS_STATUS, "no-sharing");
+        updateAccountMetadata(getAccountId(1), USER_ID, CDSConsentExtensionConstants.INSTRUCTION_STATUS,
+                "inactive");
+        addAccountMetadata(getAccountId(2), USER_ID, CDSConsentExtensionConstants.METADATA_KEY_BLOCKED_LEGAL_ENTITIES,
+                "legalEntity2," + LEGAL_ENTITY_ID);
+        updateAccountMetadata(getAccountId(3), USER_ID, CDSConsentExtensionConstants.BNR_PERMISSION,
+                CDSConsentExtensionConstants.BNR_REVOKE_PERMISSION);
+        // Metadata of other users is not considered.
+        addAccountMetadata(getAccountId(4), "user2@carbon.super", CDSConsentExtensionConstants.BNR_PERMISSION,
+                CDSConsentExtensionConstants.BNR_REVOKE_PERMISSION);
+
+        openBankingCDSConfigParserMock = mock(OpenBankingCDSConfigParser.class);
+    }
+
+    @AfterClass
+    public void tearDown() throws SQLException {
+
+        keepAliveConnection.close();
+    }
+
+    @BeforeMethod
+    public void initMethod() throws Exception {
+
+        queryCount.set(0);
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(CDSConsentExtensionConstants.ENABLE_ACCOUNT_ID_VALIDATION_ON_RETRIEVAL, "false");
+        doReturn(configs).when(openBankingCDSConfigParserMock).getConfiguration();
+        doReturn(true).when(openBankingCDSConfigParserMock).getDOMSEnabled();
+        doReturn(true).when(openBankingCDSConfigParserMock).getSecondaryUserAccountsEnabled();
+        doReturn(true).when(openBankingCDSConfigParserMock).isCeasingSecondaryUserSharingEnabled();
+        doReturn(true).when(openBankingCDSConfigParserMock).isBNRValidateAccountsOnRetrievalEnabled();
+
+        commonServiceProviderRetrieverMock = mock(CommonServiceProviderRetriever.class);
+        doReturn(LEGAL_ENTITY_ID).when(commonServiceProviderRetrieverMock).getAppPropertyFromSPMetaData(CLIENT_ID,
+                CDSConsentExtensionConstants.LEGAL_ENTITY_ID);
+        PowerMockito.whenNew(CommonServiceProviderRetriever.class).withNoArguments()
+                .thenReturn(commonServiceProviderRetrieverMock);
+        ServiceProviderPropertyCache serviceProviderPropertyCacheMock = mock(ServiceProviderPropertyCache.class);
+        doAnswer(invocation -> ((CommonServiceProviderRetriever) invocation.getArguments()[2])
+                .getAppPropertyFromSPMetaData((String) invocation.getArguments()[0],
+                        (String) invocation.getArguments()[1]))
+                .when(serviceProviderPropertyCacheMock).getAppProperty(Mockito.anyString(), Mockito.anyString(),
+                        Mockito.any(CommonServiceProviderRetriever.class));
+
+        cdsConsentValidator = new CDSConsentValidator();
+        cdsConsentValidator.accountMetadataRetriever = new AccountMetadataRetriever(this::getCountingConnection);
+        cdsConsentValidator.serviceProviderPropertyCache = serviceProviderPropertyCacheMock;
+    }
+
+    @Test
+    public void testAccountMetadataIsRetrievedWithSingleQuery() throws OpenBankingException {
+
+        ConsentValidateData consentValidateData = getConsentValidateData(ACCOUNT_COUNT);
+        ConsentValidationResult consentValidationResult = new ConsentValidationResult();
+
+        cdsConsentValidator.validate(consentValidateData, consentValidationResult);
+
+        List<String> accountIds = consentValidateData.getComprehensiveConsent().getConsentMappingResources()
+                .stream().map(ConsentMappingResource::getAccountID).collect(Collectors.toList());
+        List<String> expectedAccountIds = new ArrayList<>();
+        for (int i = 4; i < ACCOUNT_COUNT; i++) {
+            expectedAccountIds.add(getAccountId(i));
+        }
+        Assert.assertTrue(consentValidationResult.isValid());
+        Assert.assertEquals(accountIds, expectedAccountIds);
+        Assert.assertEquals(queryCount.get(), 1);
+        Mockito.verify(commonServiceProviderRetrieverMock, Mockito.times(1)).getAppPropertyFromSPMetaData(CLIENT_ID,
+                CDSConsentExtensionConstants.LEGAL_ENTITY_ID);
+    }
+
+    @Test
+    public void testAccountMetadataIsNotRetrievedWhenFiltersAreDisabled() {
+
+        doReturn(false).when(openBankingCDSConfigParserMock).getDOMSEnabled();
+        doReturn(false).when(openBankingCDSConfigParserMock).getSecondaryUserAccountsEnabled();
+        doReturn(false).when(openBankingCDSConfigParserMock).isCeasingSecondaryUserSharingEnabled();
+        doReturn(false).when(openBankingCDSConfigParserMock).isBNRValidateAccountsOnRetrievalEnabled();
+        ConsentValidateData consentValidateData = getConsentValidateData(ACCOUNT_COUNT);
+        ConsentValidationResult consentValidationResult = new ConsentValidationResult();
+
+        cdsConsentValidator.validate(consentValidateData, consentValidationResult);
+
+        Assert.assertTrue(consentValidationResult.isValid());
+        Assert.assertEquals(consentValidateData.getComprehensiveConsent().getConsentMappingResources().size(),
+                ACCOUNT_COUNT);
+        Assert.assertEquals(queryCount.get(), 0);
+    }
+
+    @Test
+    public void testAccountMetadataOfManyAccountsIsRetrievedInBatches() throws Exception {
+
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            accountIds.add(getAccountId(i));
+        }
+
+        AccountMetadataLookup accountMetadataLookup = cdsConsentValidator.accountMetadataRetriever
+                .getAccountMetadata(accountIds, Collections.singletonList(USER_ID));
+
+        Assert.assertEquals(queryCount.get(), 3);
+        Assert.assertEquals(accountMetadataLookup.getAccountMetadataByKey(getAccountId(3), USER_ID,
+                CDSConsentExtensionConstants.BNR_PERMISSION), CDSConsentExtensionConstants.BNR_REVOKE_PERMISSION);
+        Assert.assertEquals(accountMetadataLookup.getAccountMetadataByKey(getAccountId(ACCOUNT_COUNT - 1), USER_ID,
+                CDSConsentExtensionConstants.BNR_PERMISSION), "VIEW");
+        Assert.assertTrue(accountMetadataLookup.getAccountMetadataMap(getAccountId(0)).isEmpty());
+    }
+
+    private ConsentValidateData getConsentValidateData(int accountCount) {
+
+        DetailedConsentResource detailedConsentResource = CDSConsentValidateTestConstants
+                .getDetailedConsentResource(CDSConsentValidateTestConstants.VALID_RECEIPT, getAccountId(0));
+        detailedConsentResource.setCurrentStatus(CDSConsentExtensionConstants.AUTHORIZED_STATUS);
+        ArrayList<ConsentMappingResource> consentMappingResources = new ArrayList<>();
+        for (int i = 0; i < accountCount; i++) {
+            ConsentMappingResource consentMappingResource = CDSConsentValidateTestConstants
+                    .getConsentMappingResource(getAccountId(i));
+            consentMappingResource.setPermission(CDSConsentExtensionConstants.SECONDARY_ACCOUNT_USER);
+            consentMappingResources.add(consentMappingResource);
+        }
+        detailedConsentResource.setConsentMappingResources(consentMappingResources);
+
+        ConsentValidateData consentValidateData = mock(ConsentValidateData.class);
+        doReturn(detailedConsentResource).when(consentValidateData).getComprehensiveConsent();
+        doReturn(USER_ID).when(consentValidateData).getUserId();
+        doReturn(CLIENT_ID).when(consentValidateData).getClientId();
+        doReturn(CDSConsentValidateTestConstants.ACCOUNT_PATH).when(consentValidateData).getRequestPath();
+        doReturn(new HashMap<String, String>()).when(consentValidateData).getResourceParams();
+        return consentValidateData;
+    }
+
+    private Connection getCountingConnection() {
+
+        try {
+            Connection connection = DriverManager.getConnection(DB_URL);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if ("prepareStatement".equals(method.getName())) {
+                            queryCount.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void addAccountMetadata(String accountId, String userId, String key, String value)
+            throws SQLException {
+
+        try (PreparedStatement preparedStatement = keepAliveConnection.prepareStatement(
+                "INSERT INTO OB_ACCOUNT_METADATA (ACCOUNT_ID, USER_ID, METADATA_KEY, METADATA_VALUE) " +
+                        "VALUES (?, ?, ?, ?)")) {
+            preparedStatement.setString(1, accountId);
+            preparedStatement.setString(2, userId);
+            preparedStatement.setString(3, key);
+            preparedStatement.setString(4, value);
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    private void updateAccountMetadata(String accountId, String userId, String key, String value)
+            throws SQLException {
+
+        try (PreparedStatement preparedStatement = keepAliveConnection.prepareStatement(
+                "UPDATE OB_ACCOUNT_METADATA SET METADATA_VALUE = ? WHERE ACCOUNT_ID = ? AND USER_ID = ? AND " +
+                        "METADATA_KEY = ?")) {
+            preparedStatement.setString(1, value);
+            preparedStatement.setString(2, accountId);
+            preparedStatement.setString(3, userId);
+            preparedStatement.setString(4, key);
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    private static String getAccountId(int index) {
+
+        return String.format("account-%04d", index);
+    }
+}
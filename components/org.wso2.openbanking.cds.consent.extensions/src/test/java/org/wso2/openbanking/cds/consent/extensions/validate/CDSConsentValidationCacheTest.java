@@ -0,0 +1,387 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.consent.extensions.validate;
+
+import com.wso2.openbanking.accelerator.consent.extensions.validate.model.ConsentValidateData;
+import com.wso2.openbanking.accelerator.consent.extensions.validate.model.ConsentValidationResult;
+import com.wso2.openbanking.accelerator.consent.mgt.dao.models.ConsentMappingResource;
+import com.wso2.openbanking.accelerator.consent.mgt.dao.models.DetailedConsentResource;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.common.error.handling.util.ErrorConstants;
+import org.wso2.openbanking.cds.common.utils.AccountMetadataUpdateTracker;
+import org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants;
+import org.wso2.openbanking.cds.consent.extensions.util.CDSConsentValidateTestConstants;
+import org.wso2.openbanking.cds.consent.extensions.validate.cache.ConsentValidationCache;
+import org.wso2.openbanking.cds.consent.extensions.validate.cache.ConsentValidationCacheKey;
+import org.wso2.openbanking.cds.consent.extensions.validate.cache.ConsentValidationState;
+import org.wso2.openbanking.cds.consent.extensions.validate.utils.AccountMetadataLookup;
+import org.wso2.openbanking.cds.consent.extensions.validate.utils.AccountMetadataRetriever;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Test class for the consent validation cache of the CDS consent validator.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class})
+@PowerMockIgnore("jdk.internal.reflect.*")
+public class CDSConsentValidationCacheTest extends PowerMockTestCase {
+
+    private static final String CONSENT_ID = "consent-1";
+    private static final String USER_ID = "user1@carbon.super";
+    private static final int ACCOUNT_COUNT = 20;
+    private static final String NO_SHARING = "no-sharing";
+
+    // Consent and account metadata store, read afresh for every validation.
+    private final AtomicReference<String> consentStatus = new AtomicReference<>();
+    private final AtomicReference<String> receipt = new AtomicReference<>();
+    private final AtomicReference<List<String>> accountIds = new AtomicReference<>();
+    private final Map<String, String> domsStatuses = new ConcurrentHashMap<>();
+
+    private final Map<ConsentValidationCacheKey, ConsentValidationState> cacheEntries = new ConcurrentHashMap<>();
+    private final AtomicInteger metadataRetrievalCount = new AtomicInteger();
+    private final ThreadLocal<DetailedConsentResource> currentConsent = new ThreadLocal<>();
+    private final ThreadLocal<String> currentUserId = ThreadLocal.withInitial(() -> USER_ID);
+    private volatile CountDownLatch metadataRetrievalStarted;
+    private volatile CountDownLatch metadataRetrievalBlocker;
+
+    private OpenBankingCDSConfigParser openBankingCDSConfigParserMock;
+    private ConsentValidateData consentValidateDataMock;
+    private CDSConsentValidator cdsConsentValidator;
+
+    @BeforeMethod
+    public void initMethod() throws Exception {
+
+        consentStatus.set(CDSConsentExtensionConstants.AUTHORIZED_STATUS);
+        receipt.set(getReceipt(Instant.now().plusSeconds(86400).toString()));
+        List<String> initialAccountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            initialAccountIds.add(getAccountId(i));
+        }
+        accountIds.set(initialAccountIds);
+        domsStatuses.clear();
+        domsStatuses.put(getAccountId(1), NO_SHARING);
+        cacheEntries.clear();
+        metadataRetrievalCount.set(0);
+        metadataRetrievalStarted = new CountDownLatch(0);
+        metadataRetrievalBlocker = new CountDownLatch(0);
+
+        openBankingCDSConfigParserMock = mock(OpenBankingCDSConfigParser.class, withSettings().stubOnly());
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(CDSConsentExtensionConstants.ENABLE_ACCOUNT_ID_VALIDATION_ON_RETRIEVAL, "false");
+        doReturn(configs).when(openBankingCDSConfigParserMock).getConfiguration();
+        doReturn(true).when(openBankingCDSConfigParserMock).getDOMSEnabled();
+        doReturn(true).when(openBankingCDSConfigParserMock).isConsentValidationCacheEnabled();
+
+        ConsentValidationCache consentValidationCacheMock = mock(ConsentValidationCache.class,
+                withSettings().stubOnly());
+        doAnswer(invocation -> cacheEntries.get(invocation.getArguments()[0]))
+                .when(consentValidationCacheMock).getFromCache(Mockito.any(ConsentValidationCacheKey.class));
+        doAnswer(invocation -> cacheEntries.put((ConsentValidationCacheKey) invocation.getArguments()[0],
+                (ConsentValidationState) invocation.getArguments()[1]))
+                .when(consentValidationCacheMock).addToCache(Mockito.any(ConsentValidationCacheKey.class),
+                        Mockito.any(ConsentValidationState.class));
+
+        AccountMetadataRetriever accountMetadataRetrieverMock = mock(AccountMetadataRetriever.class,
+                withSettings().stubOnly());
+        doAnswer(invocation -> getAccountMetadata((Collection<String>) invocation.getArguments()[0]))
+                .when(accountMetadataRetrieverMock).getAccountMetadata(Mockito.anyCollectionOf(String.class),
+                        Mockito.anyCollectionOf(String.class));
+
+        consentValidateDataMock = mock(ConsentValidateData.class, withSettings().stubOnly());
+        doAnswer(invocation -> currentConsent.get()).when(consentValidateDataMock).getComprehensiveConsent();
+        doAnswer(invocation -> currentUserId.get()).when(consentValidateDataMock).getUserId();
+        doReturn(CDSConsentValidateTestConstants.ACCOUNT_PATH).when(consentValidateDataMock).getRequestPath();
+        doReturn(new HashMap<String, String>()).when(consentValidateDataMock).getResourceParams();
+
+        cdsConsentValidator = new CDSConsentValidator();
+        cdsConsentValidator.accountMetadataRetriever = accountMetadataRetrieverMock;
+        cdsConsentValidator.consentValidationCache = consentValidationCacheMock;
+    }
+
+    @Test
+    public void testValidationStateIsCached() {
+
+        for (int i = 0; i < 10; i++) {
+            ConsentValidationResult consentValidationResult = new ConsentValidationResult();
+            List<String> sharedAccountIds = validate(consentValidationResult);
+
+            Assert.assertTrue(consentValidationResult.isValid());
+            Assert.assertEquals(sharedAccountIds, getAccountIdsExcept(getAccountId(1)));
+        }
+        Assert.assertEquals(metadataRetrievalCount.get(), 1);
+    }
+
+    @Test
+    public void testValidationStateIsNotCachedWhenCacheIsDisabled() {
+
+        doReturn(false).when(openBankingCDSConfigParserMock).isConsentValidationCacheEnabled();
+
+        for (int i = 0; i < 3; i++) {
+            ConsentValidationResult consentValidationResult = new ConsentValidationResult();
+            validate(consentValidationResult);
+            Assert.assertTrue(consentValidationResult.isValid());
+        }
+        Assert.assertEquals(metadataRetrievalCount.get(), 3);
+        Assert.assertTrue(cacheEntries.isEmpty());
+    }
+
+    @Test
+    public void testRevokedConsentIsRejectedWithCachedValidationState() {
+
+        validate(new ConsentValidationResult());
+        consentStatus.set("revoked");
+
+        ConsentValidationResult consentValidationResult = new ConsentValidationResult();
+        validate(consentValidationResult);
+
+        Assert.assertFalse(consentValidationResult.isValid());
+        Assert.assertEquals(consentValidationResult.getErrorCode(), ErrorConstants.REVOKED_CONSENT_STATUS);
+    }
+
+    @Test
+    public void testExpiredConsentIsRejectedWithCachedValidationState() throws InterruptedException {
+
+        Instant expiry = Instant.now().plusMillis(200);
+        receipt.set(getReceipt(expiry.toString()));
+        ConsentValidationResult consentValidationResult = new ConsentValidationResult();
+        validate(consentValidationResult);
+        Assert.assertTrue(consentValidationResult.isValid());
+
+        Thread.sleep(Math.max(0, expiry.toEpochMilli() - System.currentTimeMillis()) + 50);
+        consentValidationResult = new ConsentValidationResult();
+        validate(consentValidationResult);
+
+        Assert.assertFalse(consentValidationResult.isValid());
+        Assert.assertEquals(consentValidationResult.getErrorCode(), ErrorConstants.INVALID_CONSENT_STATUS);
+        Assert.assertEquals(metadataRetrievalCount.get(), 1);
+    }
+
+    @Test
+    public void testChangedConsentIsValidatedAgain() {
+
+        validate(new ConsentValidationResult());
+
+        // Amended consent receipt
+        receipt.set(getReceipt(Instant.now().plusSeconds(3600).toString()));
+        validate(new ConsentValidationResult());
+        Assert.assertEquals(metadataRetrievalCount.get(), 2);
+
+        // Amended consent accounts
+        List<String> amendedAccountIds = new ArrayList<>(accountIds.get());
+        amendedAccountIds.remove(0);
+        accountIds.set(amendedAccountIds);
+        validate(new ConsentValidationResult());
+        Assert.assertEquals(metadataRetrievalCount.get(), 3);
+
+        // Another user
+        currentUserId.set("user2@carbon.super");
+        validate(new ConsentValidationResult());
+        Assert.assertEquals(metadataRetrievalCount.get(), 4);
+
+        validate(new ConsentValidationResult());
+        Assert.assertEquals(metadataRetrievalCount.get(), 4);
+        currentUserId.remove();
+    }
+
+    @Test
+    public void testAccountMetadataUpdateDiscardsValidationState() {
+
+        validate(new ConsentValidationResult());
+        domsStatuses.put(getAccountId(2), NO_SHARING);
+        AccountMetadataUpdateTracker.notifyUpdate();
+
+        List<String> sharedAccountIds = validate(new ConsentValidationResult());
+
+        Assert.assertEquals(sharedAccountIds, getAccountIdsExcept(getAccountId(1), getAccountId(2)));
+        Assert.assertEquals(metadataRetrievalCount.get(), 2);
+    }
+
+    @Test
+    public void testAccountMetadataUpdateDuringValidation() throws Exception {
+
+        metadataRetrievalStarted = new CountDownLatch(1);
+        metadataRetrievalBlocker = new CountDownLatch(1);
+        Thread validation = new Thread(() -> validate(new ConsentValidationResult()));
+        validation.start();
+
+        // Update the account metadata after the validation has read it, but before the state is cached.
+        Assert.assertTrue(metadataRetrievalStarted.await(10, TimeUnit.SECONDS));
+        domsStatuses.put(getAccountId(2), NO_SHARING);
+        AccountMetadataUpdateTracker.notifyUpdate();
+        metadataRetrievalBlocker.countDown();
+        validation.join();
+        Assert.assertFalse(cacheEntries.isEmpty());
+
+        List<String> sharedAccountIds = validate(new ConsentValidationResult());
+
+        Assert.assertEquals(sharedAccountIds, getAccountIdsExcept(getAccountId(1), getAccountId(2)));
+        Assert.assertEquals(metadataRetrievalCount.get(), 2);
+    }
+
+    @Test
+    public void testConsentRevokedDuringValidation() throws Exception {
+
+        metadataRetrievalStarted = new CountDownLatch(1);
+        metadataRetrievalBlocker = new CountDownLatch(1);
+        Thread validation = new Thread(() -> validate(new ConsentValidationResult()));
+        validation.start();
+
+        // Revoke the consent, and remove its state as the event executor does, before the validation caches the
+        // state derived from the authorised consent.
+        Assert.assertTrue(metadataRetrievalStarted.await(10, TimeUnit.SECONDS));
+        consentStatus.set("revoked");
+        cacheEntries.remove(ConsentValidationCacheKey.of(CONSENT_ID));
+        metadataRetrievalBlocker.countDown();
+        validation.join();
+
+        ConsentValidationResult consentValidationResult = new ConsentValidationResult();
+        validate(consentValidationResult);
+
+        Assert.assertFalse(consentValidationResult.isValid());
+        Assert.assertEquals(consentValidationResult.getErrorCode(), ErrorConstants.REVOKED_CONSENT_STATUS);
+    }
+
+    @Test
+    public void testConcurrentValidationsWithRevocationAndExpiry() throws Exception {
+
+        Instant expiry = Instant.now().plusMillis(300);
+        receipt.set(getReceipt(expiry.toString()));
+        AtomicInteger invalidDecisionCount = new AtomicInteger();
+
+        List<Thread> validations = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread validation = new Thread(() -> {
+                while (System.currentTimeMillis() < expiry.toEpochMilli() + 100) {
+                    String status = consentStatus.get();
+                    long validationStart = System.currentTimeMillis();
+                    ConsentValidationResult consentValidationResult = new ConsentValidationResult();
+                    validate(consentValidationResult, status);
+                    if (consentValidationResult.isValid() && (!CDSConsentExtensionConstants.AUTHORIZED_STATUS
+                            .equals(status) || validationStart > expiry.toEpochMilli())) {
+                        invalidDecisionCount.incrementAndGet();
+                    }
+                }
+            });
+            validation.start();
+            validations.add(validation);
+        }
+        Thread.sleep(100);
+        consentStatus.set("revoked");
+        Thread.sleep(50);
+        consentStatus.set(CDSConsentExtensionConstants.AUTHORIZED_STATUS);
+        for (Thread validation : validations) {
+            validation.join();
+        }
+
+        Assert.assertEquals(invalidDecisionCount.get(), 0);
+    }
+
+    /**
+     * Validate the consent as it is in the store, and return the shared account ids.
+     */
+    private List<String> validate(ConsentValidationResult consentValidationResult) {
+
+        return validate(consentValidationResult, consentStatus.get());
+    }
+
+    private List<String> validate(ConsentValidationResult consentValidationResult, String status) {
+
+        DetailedConsentResource detailedConsentResource = new DetailedConsentResource();
+        detailedConsentResource.setConsentID(CONSENT_ID);
+        detailedConsentResource.setCurrentStatus(status);
+        detailedConsentResource.setReceipt(receipt.get());
+        ArrayList<ConsentMappingResource> consentMappingResources = new ArrayList<>();
+        for (String accountId : accountIds.get()) {
+            consentMappingResources.add(CDSConsentValidateTestConstants.getConsentMappingResource(accountId));
+        }
+        detailedConsentResource.setConsentMappingResources(consentMappingResources);
+        currentConsent.set(detailedConsentResource);
+        try {
+            cdsConsentValidator.validate(consentValidateDataMock, consentValidationResult);
+        } finally {
+            currentConsent.remove();
+        }
+        return detailedConsentResource.getConsentMappingResources().stream()
+                .map(ConsentMappingResource::getAccountID).collect(Collectors.toList());
+    }
+
+    private AccountMetadataLookup getAccountMetadata(Collection<String> requestedAccountIds)
+            throws InterruptedException {
+
+        metadataRetrievalCount.incrementAndGet();
+        AccountMetadataLookup accountMetadataLookup = new AccountMetadataLookup();
+        for (String accountId : requestedAccountIds) {
+            String domsStatus = domsStatuses.get(accountId);
+            if (domsStatus != null) {
+                accountMetadataLookup.addAccountMetadata(accountId,
+                        CDSConsentExtensionConstants.ACCOUNT_METADATA_DEFAULT_USER_ID,
+                        CDSConsentExtensionConstants.DOMS_STATUS, domsStatus);
+            }
+        }
+        metadataRetrievalStarted.countDown();
+        metadataRetrievalBlocker.await();
+        return accountMetadataLookup;
+    }
+
+    private List<String> getAccountIdsExcept(String... excludedAccountIds) {
+
+        List<String> expectedAccountIds = new ArrayList<>(accountIds.get());
+        for (String excludedAccountId : excludedAccountIds) {
+            expectedAccountIds.remove(excludedAccountId);
+        }
+        return expectedAccountIds;
+    }
+
+    private static String getReceipt(String expirationDateTime) {
+
+        return "{\"accountData\": {\"permissions\": [\"CDRREADACCOUNTSBASIC\"], \"expirationDateTime\": \"" +
+                expirationDateTime + "\"}}";
+    }
+
+    private static String getAccountId(int index) {
+
+        return String.format("account-%04d", index);
+    }
+}
@@ -24,6 +24,7 @@ import com.wso2.openbanking.accelerator.consent.extensions.validate.model.Consen
 import com.wso2.openbanking.accelerator.consent.mgt.dao.models.AuthorizationResource;
 import com.wso2.openbanking.accelerator.consent.mgt.dao.models.ConsentMappingResource;
 import com.wso2.openbanking.accelerator.consent.mgt.dao.models.DetailedConsentResource;
+import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import net.minidev.json.parser.JSONParser;
 import net.minidev.json.parser.ParseException;
@@ -43,10 +44,15 @@ import org.wso2.openbanking.cds.common.metadata.status.validator.service.Metadat
 import org.wso2.openbanking.cds.consent.extensions.common.CDSConsentExtensionConstants;
 import org.wso2.openbanking.cds.consent.extensions.util.CDSConsentExtensionsUtil;
 import org.wso2.openbanking.cds.consent.extensions.util.CDSConsentValidateTestConstants;
+import org.wso2.openbanking.cds.consent.extensions.validate.utils.AccountMetadataLookup;
+import org.wso2.openbanking.cds.consent.extensions.validate.utils.AccountMetadataRetriever;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -72,6 +78,8 @@ public class CDSConsentValidatorTest extends PowerMockTestCase {
     OpenBankingCDSConfigParser openBankingCDSConfigParserMock;
     @Mock
     AccountMetadataServiceImpl accountMetadataServiceMock;
+    @Mock
+    AccountMetadataRetriever accountMetadataRetrieverMock;
     Map<String, Object> configs = new HashMap<>();
     Map<String, String> resourceParams = new HashMap<>();
 
@@ -83,6 +91,8 @@ public class CDSConsentValidatorTest extends PowerMockTestCase {
         consentMappingResourceMock = mock(ConsentMappingResource.class);
         openBankingCDSConfigParserMock = mock(OpenBankingCDSConfigParser.class);
         accountMetadataServiceMock = mock(AccountMetadataServiceImpl.class);
+        accountMetadataRetrieverMock = mock(AccountMetadataRetriever.class);
+        cdsConsentValidator.accountMetadataRetriever = accountMetadataRetrieverMock;
         configs.put("ConsentManagement.ValidateAccountIdOnRetrieval", "true");
         resourceParams.put("ResourcePath", CDSConsentValidateTestConstants.ACCOUNT_PATH + "/123456");
     }
@@ -381,6 +391,8 @@ public class CDSConsentValidatorTest extends PowerMockTestCase {
         when(AccountMetadataServiceImpl.getInstance()).thenReturn(accountMetadataServiceMock);
         Map<String, String> accountMetadataMap = new HashMap<>();
         when(accountMetadataServiceMock.getAccountMetadataMap(testAccountId)).thenReturn(accountMetadataMap);
+        when(accountMetadataRetrieverMock.getAccountMetadata(Mockito.anyCollectionOf(String.class),
+                Mockito.anyCollectionOf(String.class))).thenReturn(new AccountMetadataLookup());
 
         // Checking if the DOMS status for the specified account ID is eligible for data sharing and storing the
         // result in the boolean variable isJointAccountSharable.
@@ -422,6 +434,12 @@ public class CDSConsentValidatorTest extends PowerMockTestCase {
         Map<String, String> accountMetadataMap = new HashMap<>();
         accountMetadataMap.put("DISCLOSURE_OPTIONS_STATUS", "no-sharing");
         when(accountMetadataServiceMock.getAccountMetadataMap(testAccountId)).thenReturn(accountMetadataMap);
+        AccountMetadataLookup accountMetadataLookup = new AccountMetadataLookup();
+        accountMetadataLookup.addAccountMetadata(testAccountId,
+                CDSConsentExtensionConstants.ACCOUNT_METADATA_DEFAULT_USER_ID, "DISCLOSURE_OPTIONS_STATUS",
+                "no-sharing");
+        when(accountMetadataRetrieverMock.getAccountMetadata(Mockito.anyCollectionOf(String.class),
+                Mockito.anyCollectionOf(String.class))).thenReturn(accountMetadataLookup);
 
         // Checking if the DOMS status for the specified account ID is eligible for data sharing and storing the
         // result in the boolean variable isJointAccountSharable.
@@ -432,4 +450,59 @@ public class CDSConsentValidatorTest extends PowerMockTestCase {
         Assert.assertFalse(isJointAccountSharable);
         Assert.assertTrue(consentValidationResult.isValid());
     }
+
+    @Test
+    public void testValidateAccountRetrievalWithDuplicateConsentMappings() {
+
+        DetailedConsentResource detailedConsentResource = getDetailedConsentResource(
+                Arrays.asList("123", "456", "123", "789", "456"));
+        ConsentValidateData consentValidateData = getPOSTRequestConsentValidateData(detailedConsentResource,
+                Arrays.asList("789", "123"));
+
+        ConsentValidationResult consentValidationResult = new ConsentValidationResult();
+        cdsConsentValidator.validate(consentValidateData, consentValidationResult);
+
+        Assert.assertTrue(consentValidationResult.isValid());
+        Assert.assertEquals(detailedConsentResource.getConsentMappingResources().stream()
+                .map(ConsentMappingResource::getAccountID).collect(Collectors.toList()),
+                Arrays.asList("123", "456", "789"));
+    }
+
+    private DetailedConsentResource getDetailedConsentResource(List<String> mappedAccountIds) {
+
+        DetailedConsentResource detailedConsentResource = new DetailedConsentResource();
+        detailedConsentResource.setCurrentStatus(CDSConsentExtensionConstants.AUTHORIZED_STATUS);
+        detailedConsentResource.setReceipt(CDSConsentValidateTestConstants.VALID_RECEIPT);
+        ArrayList<ConsentMappingResource> consentMappingResources = new ArrayList<>();
+        for (String accountId : mappedAccountIds) {
+            consentMappingResources.add(CDSConsentValidateTestConstants.getConsentMappingResource(accountId));
+        }
+        detailedConsentResource.setConsentMappingResources(consentMappingResources);
+        return detailedConsentResource;
+    }
+
+    private ConsentValidateData getPOSTRequestConsentValidateData(DetailedConsentResource detailedConsentResource,
+                                                                  List<String> requestedAccountIds) {
+
+        JSONArray accountIds = new JSONArray();
+        accountIds.addAll(requestedAccountIds);
+        JSONObject data = new JSONObject();
+        data.put(CDSConsentExtensionConstants.ACCOUNT_IDS, accountIds);
+        JSONObject payload = new JSONObject();
+        payload.put(CDSConsentExtensionConstants.DATA, data);
+        Map<String, String> postResourceParams = new HashMap<>();
+        postResourceParams.put(CDSConsentExtensionConstants.HTTP_METHOD, CDSConsentExtensionConstants.POST_METHOD);
+
+        ConsentValidateData consentValidateData = mock(ConsentValidateData.class);
+        doReturn(detailedConsentResource).when(consentValidateData).getComprehensiveConsent();
+        doReturn(payload).when(consentValidateData).getPayload();
+        doReturn(CDSConsentValidateTestConstants.ACCOUNT_PATH).when(consentValidateData).getRequestPath();
+        doReturn(postResourceParams).when(consentValidateData).getResourceParams();
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParser = mock(OpenBankingCDSConfigParser.class);
+        doReturn(configs).when(openBankingCDSConfigParser).getConfiguration();
+        mockStatic(OpenBankingCDSConfigParser.class);
+        when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParser);
+        return consentValidateData;
+    }
 }
@@ -18,14 +18,19 @@
 
 package org.wso2.openbanking.cds.gateway.executors.core;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.wso2.openbanking.accelerator.gateway.executor.core.AbstractRequestRouter;
 import com.wso2.openbanking.accelerator.gateway.executor.core.OpenBankingGatewayExecutor;
 import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIRequestContext;
 import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIResponseContext;
+import io.swagger.v3.oas.models.OpenAPI;
 import org.wso2.openbanking.cds.gateway.utils.GatewayConstants;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Request Router for CDS API.
@@ -34,6 +39,10 @@ public class CDSAPIRequestRouter extends AbstractRequestRouter {
 
     private static final List<OpenBankingGatewayExecutor> EMPTY_LIST = new ArrayList<>();
 
+    // Routes of the deployed APIs keyed by the identity of their definitions. A redeployed API gets a new definition,
+    // hence the routes of the replaced definitions are garbage collected together with them.
+    private final Cache<OpenAPI, APIRoute> routingTable = CacheBuilder.newBuilder().weakKeys().build();
+
     /**
      * Get request executors.
      *
@@ -42,8 +51,8 @@ public class CDSAPIRequestRouter extends AbstractRequestRouter {
      */
     public List<OpenBankingGatewayExecutor> getExecutorsForRequest(OBAPIRequestContext requestContext) {
 
-        if (RequestRouterConstants.API_TYPE_NON_REGULATORY
-                .equals(requestContext.getOpenAPI().getExtensions().get(RequestRouterConstants.API_TYPE_CUSTOM_PROP))) {
+        APIRoute apiRoute = getAPIRoute(requestContext.getOpenAPI());
+        if (apiRoute.isNonRegulatory()) {
             requestContext.addContextProperty(RequestRouterConstants.API_TYPE_CUSTOM_PROP,
                     RequestRouterConstants.API_TYPE_NON_REGULATORY);
             return EMPTY_LIST;
@@ -57,33 +66,12 @@ public class CDSAPIRequestRouter extends AbstractRequestRouter {
             requestContext.addContextProperty(RequestRouterConstants.API_TYPE_CUSTOM_PROP,
                     RequestRouterConstants.API_TYPE_COMMON);
             return this.getExecutorMap().get(RequestRouterConstants.CDS_COMMON);
-        } else if (RequestRouterConstants.API_TYPE_CONSENT
-                .equals(requestContext.getOpenAPI().getExtensions().get(RequestRouterConstants.API_TYPE_CUSTOM_PROP))) {
-            // Add support for consent management portal APIs
-            requestContext.addContextProperty(RequestRouterConstants.API_TYPE_CUSTOM_PROP,
-                    RequestRouterConstants.API_TYPE_CONSENT);
-            return this.getExecutorMap().get(RequestRouterConstants.CONSENT);
-        } else if (RequestRouterConstants.DCR_API_NAME.equals(requestContext.getOpenAPI().getInfo().getTitle()
-                .replaceAll(RequestRouterConstants.WHITESPACE_REGEX, ""))) {
-            requestContext.addContextProperty(RequestRouterConstants.API_TYPE_CUSTOM_PROP,
-                    RequestRouterConstants.API_TYPE_DCR);
-            return this.getExecutorMap().get(RequestRouterConstants.DCR);
-        } else if (RequestRouterConstants.CDS_API_NAME.equals(requestContext.getOpenAPI().getInfo().getTitle())) {
-            requestContext.addContextProperty(RequestRouterConstants.API_TYPE_CUSTOM_PROP,
-                    RequestRouterConstants.API_TYPE_CDS);
-            return this.getExecutorMap().get(RequestRouterConstants.CDS);
-        } else if (RequestRouterConstants.ADMIN_API_NAME.equals(requestContext.getOpenAPI().getInfo().getTitle())) {
-            requestContext.addContextProperty(RequestRouterConstants.API_TYPE_CUSTOM_PROP,
-                    RequestRouterConstants.API_TYPE_ADMIN);
-            return this.getExecutorMap().get(RequestRouterConstants.ADMIN);
-        } else if (RequestRouterConstants.ARRANGEMENT_API_NAME
-                .equals(requestContext.getOpenAPI().getInfo().getTitle()
-                        .replaceAll(RequestRouterConstants.WHITESPACE_REGEX, ""))) {
-            requestContext.addContextProperty(RequestRouterConstants.API_TYPE_CUSTOM_PROP,
-                    RequestRouterConstants.API_TYPE_ARRANGEMENT);
-            return this.getExecutorMap().get(RequestRouterConstants.ARRANGEMENT);
         } else {
-            return this.getExecutorMap().get(RequestRouterConstants.DEFAULT);
+            if (apiRoute.getApiType() != null) {
+                requestContext.addContextProperty(RequestRouterConstants.API_TYPE_CUSTOM_PROP,
+                        apiRoute.getApiType());
+            }
+            return apiRoute.getExecutors();
         }
     }
 
@@ -132,4 +120,107 @@ public class CDSAPIRequestRouter extends AbstractRequestRouter {
         return executorList;
     }
 
+    /**
+     * Get the route of an API from the routing table, resolving it if the API is not routed yet or the API type and
+     * the title of the API have changed since it was routed.
+     *
+     * @param openAPI - OpenAPI definition of the API
+     * @return API route
+     */
+    private APIRoute getAPIRoute(OpenAPI openAPI) {
+
+        Object apiTypeExtension = openAPI.getExtensions() != null ?
+                openAPI.getExtensions().get(RequestRouterConstants.API_TYPE_CUSTOM_PROP) : null;
+        String apiTitle = openAPI.getInfo() != null ? openAPI.getInfo().getTitle() : null;
+        Map<String, List<OpenBankingGatewayExecutor>> executorMap = this.getExecutorMap();
+
+        APIRoute apiRoute = routingTable.getIfPresent(openAPI);
+        if (apiRoute == null || !apiRoute.isRouteOf(apiTypeExtension, apiTitle, executorMap)) {
+            apiRoute = resolveAPIRoute(apiTypeExtension, apiTitle, executorMap);
+            routingTable.put(openAPI, apiRoute);
+        }
+        return apiRoute;
+    }
+
+    /**
+     * Resolve the route of an API from its API type and title.
+     *
+     * @param apiTypeExtension - value of the x-wso2-api-type property
+     * @param apiTitle         - title of the API
+     * @param executorMap      - executor lists by name
+     * @return API route
+     */
+    private static APIRoute resolveAPIRoute(Object apiTypeExtension, String apiTitle,
+                                            Map<String, List<OpenBankingGatewayExecutor>> executorMap) {
+
+        String apiName = apiTitle != null ? apiTitle.replaceAll(RequestRouterConstants.WHITESPACE_REGEX, "") : null;
+        String apiType;
+        String executorListName;
+        if (RequestRouterConstants.API_TYPE_NON_REGULATORY.equals(apiTypeExtension)) {
+            return new APIRoute(apiTypeExtension, apiTitle, executorMap, RequestRouterConstants.API_TYPE_NON_REGULATORY,
+                    EMPTY_LIST);
+        } else if (RequestRouterConstants.API_TYPE_CONSENT.equals(apiTypeExtension)) {
+            // Add support for consent management portal APIs
+            apiType = RequestRouterConstants.API_TYPE_CONSENT;
+            executorListName = RequestRouterConstants.CONSENT;
+        } else if (RequestRouterConstants.DCR_API_NAME.equals(apiName)) {
+            apiType = RequestRouterConstants.API_TYPE_DCR;
+            executorListName = RequestRouterConstants.DCR;
+        } else if (RequestRouterConstants.CDS_API_NAME.equals(apiTitle)) {
+            apiType = RequestRouterConstants.API_TYPE_CDS;
+            executorListName = RequestRouterConstants.CDS;
+        } else if (RequestRouterConstants.ADMIN_API_NAME.equals(apiTitle)) {
+            apiType = RequestRouterConstants.API_TYPE_ADMIN;
+            executorListName = RequestRouterConstants.ADMIN;
+        } else if (RequestRouterConstants.ARRANGEMENT_API_NAME.equals(apiName)) {
+            apiType = RequestRouterConstants.API_TYPE_ARRANGEMENT;
+            executorListName = RequestRouterConstants.ARRANGEMENT;
+        } else {
+            apiType = null;
+            executorListName = RequestRouterConstants.DEFAULT;
+        }
+        return new APIRoute(apiTypeExtension, apiTitle, executorMap, apiType, executorMap.get(executorListName));
+    }
+
+    /**
+     * Route of an API, resolved from the API type and the title of its definition.
+     */
+    private static final class APIRoute {
+
+        private final Object apiTypeExtension;
+        private final String apiTitle;
+        private final Map<String, List<OpenBankingGatewayExecutor>> executorMap;
+        private final String apiType;
+        private final List<OpenBankingGatewayExecutor> executors;
+
+        private APIRoute(Object apiTypeExtension, String apiTitle,
+                         Map<String, List<OpenBankingGatewayExecutor>> executorMap, String apiType,
+                         List<OpenBankingGatewayExecutor> executors) {
+
+            this.apiTypeExtension = apiTypeExtension;
+            this.apiTitle = apiTitle;
+            this.executorMap = executorMap;
+            this.apiType = apiType;
+            this.executors = executors;
+        }
+
+        private boolean isRouteOf(Object apiTypeExtension, String apiTitle,
+                                  Map<String, List<OpenBankingGatewayExecutor>> executorMap) {
+
+            return this.executorMap == executorMap && Objects.equals(this.apiTypeExtension, apiTypeExtension) &&
+                    Objects.equals(this.apiTitle, apiTitle);
+        }
+
+        private boolean isNonRegulatory() {
+            return RequestRouterConstants.API_TYPE_NON_REGULATORY.equals(apiType);
+        }
+
+        private String getApiType() {
+            return apiType;
+        }
+
+        private List<OpenBankingGatewayExecutor> getExecutors() {
+            return executors;
+        }
+    }
 }
@@ -34,14 +34,16 @@ import org.wso2.carbon.apimgt.common.gateway.dto.MsgInfoDTO;
 import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 import org.wso2.openbanking.cds.common.error.handling.util.ErrorConstants.AUErrorEnum;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static org.wso2.openbanking.cds.gateway.utils.GatewayConstants.ASC_TIME_DATE_PATTERN;
 import static org.wso2.openbanking.cds.gateway.utils.GatewayConstants.HTTP_GET;
@@ -67,8 +69,14 @@ import static org.wso2.openbanking.cds.gateway.utils.GatewayConstants.X_VERSION;
 public class CDSHeaderValidationExecutor implements OpenBankingGatewayExecutor {
     private static final Log LOG = LogFactory.getLog(CDSHeaderValidationExecutor.class);
 
-    private static final List<String> ACCEPTABLE_HTTP_DATE_PATTERNS =
-            Arrays.asList(IMF_FIX_DATE_PATTERN, RFC850_DATE_PATTERN, ASC_TIME_DATE_PATTERN);
+    private static final List<DateTimeFormatter> ACCEPTABLE_HTTP_DATE_FORMATTERS =
+            Arrays.asList(IMF_FIX_DATE_PATTERN, RFC850_DATE_PATTERN, ASC_TIME_DATE_PATTERN).stream()
+                    .map(pattern -> new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern(pattern)
+                            .toFormatter(Locale.ENGLISH))
+                    .collect(Collectors.toList());
+    private static final int[] NO_VERSION_RANGE = new int[0];
+    // Keyed by the x-version extension of the API resources, valued by the supported {min, max} versions
+    private static final Map<String, int[]> SUPPORTED_VERSION_RANGES = new ConcurrentHashMap<>();
     private static final String ERROR_HEADER_MISSING = "Header validation failed. %s is missing";
     private static final String ERROR_HEADER_INVALID = "Header validation failed. %s is invalid";
 
@@ -143,15 +151,12 @@ public class CDSHeaderValidationExecutor implements OpenBankingGatewayExecutor {
      * @see <a href="https://datatracker.ietf.org/doc/html/rfc7231#section-7.1.1.1">RFC7231#section-7.1.1.1</a>
      */
     protected boolean isValidHttpDate(String httpDate) {
-        for (String acceptablePattern : ACCEPTABLE_HTTP_DATE_PATTERNS) {
-            SimpleDateFormat formatter = new SimpleDateFormat(acceptablePattern);
-            formatter.setTimeZone(TimeZone.getTimeZone("GMT"));
-
-            try {
-                formatter.parse(httpDate);
+        for (DateTimeFormatter formatter : ACCEPTABLE_HTTP_DATE_FORMATTERS) {
+            // Parsed without resolving, so that the day name is not checked against the date
+            ParsePosition position = new ParsePosition(0);
+            if (formatter.parseUnresolved(httpDate, position) != null && position.getErrorIndex() < 0
+                    && position.getIndex() == httpDate.length()) {
                 return true;
-            } catch (ParseException e) {
-                // Will return false, if parsing failed for all acceptable patterns
             }
         }
 
@@ -173,7 +178,13 @@ public class CDSHeaderValidationExecutor implements OpenBankingGatewayExecutor {
         return false;
     }
 
-    private List<Integer> extractSupportedVersionsFromSwagger(OBAPIRequestContext obapiRequestContext) {
+    /**
+     * Get the versions supported by the elected resource, as declared in its x-version extension.
+     *
+     * @param obapiRequestContext request context
+     * @return {min, max} supported versions, or an empty array if the resource does not declare its versions
+     */
+    private int[] extractSupportedVersionsFromSwagger(OBAPIRequestContext obapiRequestContext) {
         // extracting supported versions from api swagger
         final PathItem electedPath = obapiRequestContext.getOpenAPI().getPaths()
                 .get(obapiRequestContext.getMsgInfo().getElectedResource());
@@ -186,18 +197,36 @@ public class CDSHeaderValidationExecutor implements OpenBankingGatewayExecutor {
             supportedVersions = electedPath.getPost().getExtensions().get(X_VERSION).toString();
         }
 
-        List<Integer> applicableVersionList = new ArrayList<>();
-        if (StringUtils.isNotBlank(supportedVersions)) {
-            if (supportedVersions.contains(",")) {
-                Arrays.stream(supportedVersions.split(","))
-                        .filter(StringUtils::isNumeric)
-                        .map(Integer::parseInt)
-                        .forEach(applicableVersionList::add);
-            } else {
-                applicableVersionList.add(Integer.parseInt(supportedVersions));
+        if (StringUtils.isBlank(supportedVersions)) {
+            return NO_VERSION_RANGE;
+        }
+        return SUPPORTED_VERSION_RANGES.computeIfAbsent(supportedVersions,
+                CDSHeaderValidationExecutor::parseSupportedVersionRange);
+    }
+
+    /**
+     * Parse the x-version extension of a resource, which is either a single version or a comma separated list of
+     * versions, into the range of supported versions.
+     *
+     * @param supportedVersions x-version extension value
+     * @return {min, max} supported versions, or an empty array if no version is listed
+     */
+    private static int[] parseSupportedVersionRange(String supportedVersions) {
+        if (!supportedVersions.contains(",")) {
+            int version = Integer.parseInt(supportedVersions);
+            return new int[]{version, version};
+        }
+
+        int minVersion = Integer.MAX_VALUE;
+        int maxVersion = Integer.MIN_VALUE;
+        for (String version : supportedVersions.split(",")) {
+            if (StringUtils.isNumeric(version)) {
+                int parsedVersion = Integer.parseInt(version);
+                minVersion = Math.min(minVersion, parsedVersion);
+                maxVersion = Math.max(maxVersion, parsedVersion);
             }
         }
-        return applicableVersionList;
+        return minVersion > maxVersion ? NO_VERSION_RANGE : new int[]{minVersion, maxVersion};
     }
 
     private boolean isValidConditionalHeaders(OBAPIRequestContext obapiRequestContext, Map<String, String> headers) {
@@ -281,10 +310,10 @@ public class CDSHeaderValidationExecutor implements OpenBankingGatewayExecutor {
             }
         }
 
-        List<Integer> applicableVersionList = extractSupportedVersionsFromSwagger(obapiRequestContext);
-        if (!applicableVersionList.isEmpty()) {
-            final int dataHolderMaxVersion = Collections.max(applicableVersionList);
-            final int dataHolderMinVersion = Collections.min(applicableVersionList);
+        int[] supportedVersionRange = extractSupportedVersionsFromSwagger(obapiRequestContext);
+        if (supportedVersionRange.length > 0) {
+            final int dataHolderMinVersion = supportedVersionRange[0];
+            final int dataHolderMaxVersion = supportedVersionRange[1];
 
             if (isMinRequestedVersionPresent) {
                 if (maxRequestedVersion < dataHolderMinVersion) {
@@ -19,7 +19,6 @@ package org.wso2.openbanking.cds.gateway.executors.idpermanence;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 import com.wso2.openbanking.accelerator.gateway.executor.core.OpenBankingGatewayExecutor;
 import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIRequestContext;
@@ -32,7 +31,9 @@ import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 import org.wso2.openbanking.cds.common.error.handling.util.ErrorConstants;
 import org.wso2.openbanking.cds.common.utils.CommonConstants;
 import org.wso2.openbanking.cds.gateway.executors.idpermanence.model.IdPermanenceValidationResponse;
+import org.wso2.openbanking.cds.gateway.executors.idpermanence.utils.CompiledUrlTemplate;
 import org.wso2.openbanking.cds.gateway.executors.idpermanence.utils.IdPermanenceConstants;
+import org.wso2.openbanking.cds.gateway.executors.idpermanence.utils.IdPermanenceResponseRewriter;
 import org.wso2.openbanking.cds.gateway.executors.idpermanence.utils.IdPermanenceUtils;
 import org.wso2.openbanking.cds.gateway.utils.GatewayConstants;
 
@@ -107,7 +108,7 @@ public class IDPermanenceExecutor implements OpenBankingGatewayExecutor {
         }
 
         // handle requests with path params
-        if (IdPermanenceConstants.REQUEST_URLS_WITH_PATH_PARAMS.contains(uriTemplate)) {
+        if (CompiledUrlTemplate.of(uriTemplate).isRequestUrlWithPathParams()) {
             JsonObject idSet = IdPermanenceUtils.extractUrlParams(uriTemplate, requestedUrl);
             IdPermanenceValidationResponse idPermanenceValidationResponse =
                     IdPermanenceUtils.unmaskRequestPathIDs(idSet, SECRET_KEY);
@@ -142,11 +143,10 @@ public class IDPermanenceExecutor implements OpenBankingGatewayExecutor {
             String appId = obApiResponseContext.getApiRequestInfo().getConsumerKey();
 
             // set encrypted resource ids to the response
-            JsonObject payloadJson = new JsonParser().parse(
-                    obApiResponseContext.getResponsePayload()).getAsJsonObject();
-            JsonObject modifiedPayloadJson = IdPermanenceUtils.maskResponseIDs(
-                    payloadJson, electedResource, memberId, appId, SECRET_KEY);
-            obApiResponseContext.setModifiedPayload(new Gson().toJson(modifiedPayloadJson));
+            IdPermanenceResponseRewriter responseRewriter = new IdPermanenceResponseRewriter(
+                    electedResource, memberId, appId, SECRET_KEY);
+            obApiResponseContext.setModifiedPayload(responseRewriter.rewrite(
+                    obApiResponseContext.getResponsePayload()));
         }
     }
 
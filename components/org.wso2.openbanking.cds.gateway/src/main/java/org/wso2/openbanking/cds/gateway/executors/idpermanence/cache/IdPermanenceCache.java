@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.idpermanence.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.common.idpermanence.IdEncryptorDecryptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and time limited in memory cache of encrypted and decrypted resource ids.
+ * <p>
+ * The same resource ids are returned to an application in every call, so the encrypted form of each
+ * "memberId:appId:resourceId" string and the decrypted form of each encrypted id are cached. Encrypted ids are also
+ * cached for decryption, since masked ids returned in responses are sent back in the following requests.
+ * Only ids of the configured id permanence secret key are cached.
+ */
+public class IdPermanenceCache {
+
+    private static volatile IdPermanenceCache instance;
+
+    private final String secretKey;
+    // Keyed by the "memberId:appId:resourceId" string, valued by the encrypted id
+    private final Cache<String, String> encryptedIds;
+    // Keyed by the encrypted id, valued by the "memberId:appId:resourceId" string
+    private final Cache<String, String> decryptedIds;
+
+    /**
+     * Create a cache for the ids of the given secret key.
+     *
+     * @param secretKey     id permanence secret key
+     * @param maxSize       maximum number of ids cached in each direction, caching is disabled if zero
+     * @param expiryMinutes time in minutes an id is cached for
+     */
+    IdPermanenceCache(String secretKey, int maxSize, int expiryMinutes) {
+
+        this.secretKey = maxSize > 0 ? secretKey : null;
+        this.encryptedIds = buildCache(maxSize, expiryMinutes);
+        this.decryptedIds = buildCache(maxSize, expiryMinutes);
+    }
+
+    public static IdPermanenceCache getInstance() {
+
+        if (instance == null) {
+            synchronized (IdPermanenceCache.class) {
+                if (instance == null) {
+                    OpenBankingCDSConfigParser configParser = OpenBankingCDSConfigParser.getInstance();
+                    instance = new IdPermanenceCache(configParser.getIdPermanenceSecretKey(),
+                            configParser.getIdPermanenceCacheMaxSize(),
+                            configParser.getIdPermanenceCacheExpiryInMinutes());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Encrypt a "memberId:appId:resourceId" string, using the cached encrypted id if available.
+     *
+     * @param strToEncrypt string to be encrypted
+     * @param key          encryption key
+     * @return encrypted string
+     */
+    public String encrypt(String strToEncrypt, String key) {
+
+        if (!isCached(key)) {
+            return IdEncryptorDecryptor.encrypt(strToEncrypt, key);
+        }
+        String encryptedId = encryptedIds.getIfPresent(strToEncrypt);
+        if (encryptedId == null) {
+            encryptedId = IdEncryptorDecryptor.encrypt(strToEncrypt, key);
+            // Failed encryptions are not cached
+            if (encryptedId != null) {
+                encryptedIds.put(strToEncrypt, encryptedId);
+                decryptedIds.put(encryptedId, strToEncrypt);
+            }
+        }
+        return encryptedId;
+    }
+
+    /**
+     * Decrypt an encrypted id, using the cached decrypted string if available.
+     *
+     * @param strToDecrypt string to be decrypted
+     * @param key          decryption key
+     * @return decrypted string
+     */
+    public String decrypt(String strToDecrypt, String key) throws IllegalArgumentException {
+
+        if (!isCached(key)) {
+            return IdEncryptorDecryptor.decrypt(strToDecrypt, key);
+        }
+        String decryptedId = decryptedIds.getIfPresent(strToDecrypt);
+        if (decryptedId == null) {
+            decryptedId = IdEncryptorDecryptor.decrypt(strToDecrypt, key);
+            // Not cached for encryption, since the encrypted id in a request may not be in the encoding produced by
+            // the encryption
+            if (decryptedId != null) {
+                decryptedIds.put(strToDecrypt, decryptedId);
+            }
+        }
+        return decryptedId;
+    }
+
+    /**
+     * Get statistics of the encrypted id lookups.
+     */
+    CacheStats getEncryptionStats() {
+
+        return encryptedIds.stats();
+    }
+
+    /**
+     * Get statistics of the decrypted id lookups.
+     */
+    CacheStats getDecryptionStats() {
+
+        return decryptedIds.stats();
+    }
+
+    private boolean isCached(String key) {
+
+        return secretKey != null && secretKey.equals(key);
+    }
+
+    private static Cache<String, String> buildCache(int maxSize, int expiryMinutes) {
+
+        return CacheBuilder.newBuilder()
+                .maximumSize(Math.max(maxSize, 0))
+                .expireAfterWrite(Math.max(expiryMinutes, 0), TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.idpermanence.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resource url template compiled into its literal parts and path parameters.
+ * <p>
+ * A url is matched against the template in a single pass, finding the first occurrence of the template in the url
+ * where each path parameter spans a whole path segment, i.e. up to the next '/' or '?'. Templates with a path
+ * parameter which does not span a whole path segment are matched with a regular expression instead. The templates
+ * subjected to id permanence are compiled once when the class is loaded, together with the type of their responses,
+ * and other templates are compiled once when first used.
+ */
+public class CompiledUrlTemplate {
+
+    private static final Map<String, CompiledUrlTemplate> COMPILED_TEMPLATES = new ConcurrentHashMap<>();
+
+    static {
+        for (List<String> templates : Arrays.asList(IdPermanenceConstants.REQUEST_URLS_WITH_PATH_PARAMS,
+                IdPermanenceConstants.RESOURCE_LIST_RES_URLS, IdPermanenceConstants.SINGLE_RESOURCE_RES_URLS,
+                IdPermanenceConstants.SCHEDULED_PAYMENT_LIST_RES_URLS)) {
+            for (String template : templates) {
+                COMPILED_TEMPLATES.computeIfAbsent(template, CompiledUrlTemplate::new);
+            }
+        }
+    }
+
+    private final String template;
+    // Literal parts before each path parameter, followed by the literal part after the last path parameter
+    private final String[] literals;
+    private final List<String> paramNames;
+    private final boolean isSegmentTemplate;
+    // Regular expression of a template which is not a segment template, compiled when first matched
+    private volatile Pattern urlPattern;
+    private final boolean isRequestUrlWithPathParams;
+    private final boolean isResourceListResponse;
+    private final boolean isSingleResourceResponse;
+    private final boolean isScheduledPaymentListResponse;
+
+    private CompiledUrlTemplate(String template) {
+
+        List<String> literalList = new ArrayList<>();
+        List<String> paramNameList = new ArrayList<>();
+        boolean isSegmentTemplate = true;
+        int literalStart = 0;
+        int paramStart = template.indexOf('{');
+        while (paramStart >= 0) {
+            int paramEnd = template.indexOf('}', paramStart);
+            if (paramEnd < 0) {
+                break;
+            }
+            if (paramEnd + 1 < template.length() && template.charAt(paramEnd + 1) != '/') {
+                isSegmentTemplate = false;
+            }
+            literalList.add(template.substring(literalStart, paramStart));
+            paramNameList.add(template.substring(paramStart + 1, paramEnd));
+            literalStart = paramEnd + 1;
+            paramStart = template.indexOf('{', literalStart);
+        }
+        literalList.add(template.substring(literalStart));
+
+        this.template = template;
+        this.literals = literalList.toArray(new String[0]);
+        this.paramNames = Collections.unmodifiableList(paramNameList);
+        this.isSegmentTemplate = isSegmentTemplate;
+        this.isRequestUrlWithPathParams = IdPermanenceConstants.REQUEST_URLS_WITH_PATH_PARAMS.contains(template);
+        this.isResourceListResponse = IdPermanenceConstants.RESOURCE_LIST_RES_URLS.contains(template);
+        this.isSingleResourceResponse = IdPermanenceConstants.SINGLE_RESOURCE_RES_URLS.contains(template);
+        this.isScheduledPaymentListResponse = IdPermanenceConstants.SCHEDULED_PAYMENT_LIST_RES_URLS.contains(template);
+    }
+
+    /**
+     * Get the compiled form of the given url template.
+     *
+     * @param template url template
+     * @return compiled url template
+     */
+    public static CompiledUrlTemplate of(String template) {
+
+        return COMPILED_TEMPLATES.computeIfAbsent(template, CompiledUrlTemplate::new);
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public List<String> getParamNames() {
+        return paramNames;
+    }
+
+    public boolean isRequestUrlWithPathParams() {
+        return isRequestUrlWithPathParams;
+    }
+
+    public boolean isResourceListResponse() {
+        return isResourceListResponse;
+    }
+
+    public boolean isSingleResourceResponse() {
+        return isSingleResourceResponse;
+    }
+
+    public boolean isScheduledPaymentListResponse() {
+        return isScheduledPaymentListResponse;
+    }
+
+    /**
+     * Find the first occurrence of the template in the given url.
+     *
+     * @param url url to be matched
+     * @return start and end offsets of the value of each path parameter in the url, in the order of the path
+     * parameters, or null if the url does not contain the template
+     */
+    public int[] match(String url) {
+
+        if (!isSegmentTemplate) {
+            return matchPattern(url);
+        }
+        int[] offsets = new int[paramNames.size() * 2];
+        int start = url.indexOf(literals[0]);
+        while (start >= 0) {
+            if (matchAt(url, start + literals[0].length(), offsets)) {
+                return offsets;
+            }
+            start = url.indexOf(literals[0], start + 1);
+        }
+        return null;
+    }
+
+    private boolean matchAt(String url, int position, int[] offsets) {
+
+        for (int param = 0; param < paramNames.size(); param++) {
+            int paramEnd = position;
+            while (paramEnd < url.length() && url.charAt(paramEnd) != '/' && url.charAt(paramEnd) != '?') {
+                paramEnd++;
+            }
+            offsets[param * 2] = position;
+            offsets[param * 2 + 1] = paramEnd;
+
+            String literal = literals[param + 1];
+            if (!url.startsWith(literal, paramEnd)) {
+                return false;
+            }
+            position = paramEnd + literal.length();
+        }
+        return true;
+    }
+
+    /**
+     * Find the first occurrence of the template in the given url with a regular expression of the template.
+     */
+    private int[] matchPattern(String url) {
+
+        Pattern pattern = urlPattern;
+        if (pattern == null) {
+            pattern = Pattern.compile(template.replace("{", "(?<").replace("}", ">[^\\/?]*)"));
+            urlPattern = pattern;
+        }
+        Matcher urlMatcher = pattern.matcher(url);
+        if (!urlMatcher.find()) {
+            return null;
+        }
+        int[] offsets = new int[paramNames.size() * 2];
+        for (int param = 0; param < paramNames.size(); param++) {
+            offsets[param * 2] = urlMatcher.start(paramNames.get(param));
+            offsets[param * 2 + 1] = urlMatcher.end(paramNames.get(param));
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,380 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.idpermanence.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Masks resource ids in response payloads while copying them token by token from the input to the output.
+ * <p>
+ * Produces the same payload as serializing the result of {@link IdPermanenceUtils#maskResponseIDs} with Gson,
+ * without building a JSON tree of the whole payload.
+ */
+public class IdPermanenceResponseRewriter {
+
+    private static final Gson GSON = new Gson();
+    private static final List<String> RESOURCE_ID_KEYS = Arrays.asList(IdPermanenceConstants.ACCOUNT_ID,
+            IdPermanenceConstants.TRANSACTION_ID, IdPermanenceConstants.SCHEDULED_PAYMENT_ID,
+            IdPermanenceConstants.PAYEE_ID);
+
+    private final String url;
+    private final CompiledUrlTemplate urlTemplate;
+    private final String memberId;
+    private final String appId;
+    private final String key;
+
+    /**
+     * Create a rewriter for responses of the given url.
+     *
+     * @param url      requested Url
+     * @param memberId user Id
+     * @param appId    application id
+     * @param key      encryption key
+     */
+    public IdPermanenceResponseRewriter(String url, String memberId, String appId, String key) {
+
+        this.url = url;
+        this.urlTemplate = CompiledUrlTemplate.of(url);
+        this.memberId = memberId;
+        this.appId = appId;
+        this.key = key;
+    }
+
+    /**
+     * Mask resourceIds in response payload.
+     *
+     * @param responsePayload response payload
+     * @return response payload with masked resource Ids
+     * @throws JsonSyntaxException if the response payload is not valid JSON
+     */
+    public String rewrite(String responsePayload) {
+
+        StringWriter stringWriter = new StringWriter(responsePayload.length() + 256);
+        try {
+            rewrite(new StringReader(responsePayload), stringWriter);
+        } catch (IOException e) {
+            // Writing to a string does not fail, hence only caused by malformed JSON
+            throw new JsonSyntaxException(e);
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Mask resourceIds in response payload read from the given reader and write it to the given writer.
+     *
+     * @param responsePayload response payload reader
+     * @param output          writer of the response payload with masked resource Ids
+     * @throws IOException if the response payload is not valid JSON or cannot be written
+     */
+    public void rewrite(Reader responsePayload, Writer output) throws IOException {
+
+        JsonReader reader = new JsonReader(responsePayload);
+        reader.setLenient(true);
+        JsonWriter writer = GSON.newJsonWriter(output);
+        writer.setLenient(true);
+
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new IllegalStateException("Response payload is not a JSON object");
+        }
+        reader.beginObject();
+        writer.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            writer.name(name);
+            if (IdPermanenceConstants.DATA.equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                rewriteData(reader, writer);
+            } else if (IdPermanenceConstants.LINKS.equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT &&
+                    urlTemplate.isRequestUrlWithPathParams()) {
+                rewriteLinks(reader, writer);
+            } else {
+                copyValue(reader, writer);
+            }
+        }
+        reader.endObject();
+        writer.endObject();
+        writer.flush();
+
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonSyntaxException("Did not consume the entire document.");
+        }
+    }
+
+    /**
+     * Mask resourceIds in the data object, based on the type of the response.
+     */
+    private void rewriteData(JsonReader reader, JsonWriter writer) throws IOException {
+
+        if (urlTemplate.isResourceListResponse()) {
+            // Resources are listed in the first member of the data object
+            reader.beginObject();
+            writer.beginObject();
+            boolean isFirstMember = true;
+            while (reader.hasNext()) {
+                writer.name(reader.nextName());
+                if (isFirstMember) {
+                    rewriteArray(reader, writer, this::rewriteResource);
+                    isFirstMember = false;
+                } else {
+                    copyValue(reader, writer);
+                }
+            }
+            reader.endObject();
+            writer.endObject();
+        } else if (urlTemplate.isSingleResourceResponse()) {
+            rewriteObject(reader, writer, RESOURCE_ID_KEYS, null, (name, memberReader, memberWriter) -> {
+                if (IdPermanenceConstants.LOAN.equals(name)) {
+                    rewriteObject(memberReader, memberWriter, Collections.emptyList(), null,
+                            (loanMember, loanReader, loanWriter) -> {
+                                if (IdPermanenceConstants.OFFSET_ACCOUNT_IDS.equals(loanMember)) {
+                                    rewriteArray(loanReader, loanWriter, this::rewriteResourceId);
+                                    return true;
+                                }
+                                return false;
+                            });
+                    return true;
+                }
+                return false;
+            });
+        } else if (urlTemplate.isScheduledPaymentListResponse()) {
+            rewriteObject(reader, writer, Collections.emptyList(), null, (name, memberReader, memberWriter) -> {
+                if (IdPermanenceConstants.SCHEDULED_PAYMENTS.equals(name)) {
+                    rewriteArray(memberReader, memberWriter, this::rewriteScheduledPayment);
+                    return true;
+                }
+                return false;
+            });
+        } else {
+            copyValue(reader, writer);
+        }
+    }
+
+    /**
+     * Mask the resource ids of a resource in a resource list.
+     */
+    private void rewriteResource(JsonReader reader, JsonWriter writer) throws IOException {
+
+        rewriteObject(reader, writer, RESOURCE_ID_KEYS, null, (name, memberReader, memberWriter) -> false);
+    }
+
+    /**
+     * Mask the scheduled payment id, the account id of the payer and the resource ids of each payee.
+     */
+    private void rewriteScheduledPayment(JsonReader reader, JsonWriter writer) throws IOException {
+
+        rewriteObject(reader, writer, Collections.emptyList(), IdPermanenceConstants.SCHEDULED_PAYMENT_ID,
+                (name, memberReader, memberWriter) -> {
+                    if (IdPermanenceConstants.FROM.equals(name)) {
+                        rewriteObject(memberReader, memberWriter, Collections.emptyList(),
+                                IdPermanenceConstants.ACCOUNT_ID, (fromMember, fromReader, fromWriter) -> false);
+                        return true;
+                    } else if (IdPermanenceConstants.PAYMENT_SET.equals(name)) {
+                        rewriteArray(memberReader, memberWriter, this::rewritePayment);
+                        return true;
+                    }
+                    return false;
+                });
+    }
+
+    /**
+     * Mask the resource ids of the payee of a payment in a payment set.
+     */
+    private void rewritePayment(JsonReader reader, JsonWriter writer) throws IOException {
+
+        rewriteObject(reader, writer, Collections.emptyList(), null, (name, memberReader, memberWriter) -> {
+            if (IdPermanenceConstants.TO.equals(name)) {
+                rewriteResource(memberReader, memberWriter);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Mask resourceIds in the path parameters of each link.
+     */
+    private void rewriteLinks(JsonReader reader, JsonWriter writer) throws IOException {
+
+        reader.beginObject();
+        writer.beginObject();
+        while (reader.hasNext()) {
+            String keyLink = reader.nextName();
+            writer.name(keyLink);
+            if (isScalar(reader.peek())) {
+                writer.value(IdPermanenceUtils.maskResourceIDsInLink(keyLink, readScalar(reader), url,
+                        memberId, appId, key));
+            } else {
+                copyValue(reader, writer);
+            }
+        }
+        reader.endObject();
+        writer.endObject();
+    }
+
+    /**
+     * Copy an object, masking the values of the given resource id keys.
+     *
+     * @param idKeys          keys of the resource ids to be masked
+     * @param requiredIdKey   resource id key which is masked and added even if it is not in the object, or null
+     * @param memberRewriter  rewriter of the other members of the object
+     */
+    private void rewriteObject(JsonReader reader, JsonWriter writer, List<String> idKeys, String requiredIdKey,
+                               MemberRewriter memberRewriter) throws IOException {
+
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            copyValue(reader, writer);
+            return;
+        }
+        reader.beginObject();
+        writer.beginObject();
+        boolean isRequiredIdKeyFound = false;
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            writer.name(name);
+            if (idKeys.contains(name) || name.equals(requiredIdKey)) {
+                isRequiredIdKeyFound |= name.equals(requiredIdKey);
+                rewriteResourceId(reader, writer);
+            } else if (!memberRewriter.rewrite(name, reader, writer)) {
+                copyValue(reader, writer);
+            }
+        }
+        if (requiredIdKey != null && !isRequiredIdKeyFound) {
+            // A missing resource id is masked as a null value
+            writer.name(requiredIdKey).value(IdPermanenceUtils.encryptResourceId(null, memberId, appId, key));
+        }
+        reader.endObject();
+        writer.endObject();
+    }
+
+    /**
+     * Copy an array, rewriting each of its elements with the given rewriter.
+     */
+    private static void rewriteArray(JsonReader reader, JsonWriter writer, ValueRewriter elementRewriter)
+            throws IOException {
+
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            copyValue(reader, writer);
+            return;
+        }
+        reader.beginArray();
+        writer.beginArray();
+        while (reader.hasNext()) {
+            elementRewriter.rewrite(reader, writer);
+        }
+        reader.endArray();
+        writer.endArray();
+    }
+
+    /**
+     * Replace a resource id value with the encrypted resource id.
+     */
+    private void rewriteResourceId(JsonReader reader, JsonWriter writer) throws IOException {
+
+        // Encrypted in its JSON form, as done for a JSON tree
+        writer.value(IdPermanenceUtils.encryptResourceId(new JsonParser().parse(reader), memberId, appId, key));
+    }
+
+    private static boolean isScalar(JsonToken token) {
+
+        return token == JsonToken.STRING || token == JsonToken.NUMBER || token == JsonToken.BOOLEAN;
+    }
+
+    private static String readScalar(JsonReader reader) throws IOException {
+
+        return reader.peek() == JsonToken.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+    }
+
+    /**
+     * Copy the next value as it is.
+     */
+    private static void copyValue(JsonReader reader, JsonWriter writer) throws IOException {
+
+        switch (reader.peek()) {
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                writer.beginArray();
+                while (reader.hasNext()) {
+                    copyValue(reader, writer);
+                }
+                reader.endArray();
+                writer.endArray();
+                break;
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                writer.beginObject();
+                while (reader.hasNext()) {
+                    writer.name(reader.nextName());
+                    copyValue(reader, writer);
+                }
+                reader.endObject();
+                writer.endObject();
+                break;
+            case STRING:
+                writer.value(reader.nextString());
+                break;
+            case NUMBER:
+                // Numbers are written as they are in the payload, as done for lazily parsed numbers of a JSON tree
+                writer.jsonValue(reader.nextString());
+                break;
+            case BOOLEAN:
+                writer.value(reader.nextBoolean());
+                break;
+            case NULL:
+                reader.nextNull();
+                writer.nullValue();
+                break;
+            default:
+                throw new IllegalStateException("Unexpected JSON token: " + reader.peek());
+        }
+    }
+
+    /**
+     * Rewrites a JSON value.
+     */
+    private interface ValueRewriter {
+
+        void rewrite(JsonReader reader, JsonWriter writer) throws IOException;
+    }
+
+    /**
+     * Rewrites a member of a JSON object.
+     */
+    private interface MemberRewriter {
+
+        /**
+         * Rewrite the value of the given member.
+         *
+         * @return false if the member is not rewritten and the value is not consumed
+         */
+        boolean rewrite(String name, JsonReader reader, JsonWriter writer) throws IOException;
+    }
+}
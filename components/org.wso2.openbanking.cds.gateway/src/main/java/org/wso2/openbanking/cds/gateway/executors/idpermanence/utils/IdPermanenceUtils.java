@@ -28,15 +28,13 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 import org.wso2.openbanking.cds.common.error.handling.util.ErrorConstants;
-import org.wso2.openbanking.cds.common.idpermanence.IdEncryptorDecryptor;
+import org.wso2.openbanking.cds.gateway.executors.idpermanence.cache.IdPermanenceCache;
 import org.wso2.openbanking.cds.gateway.executors.idpermanence.model.IdPermanenceValidationResponse;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -150,22 +148,39 @@ public class IdPermanenceUtils {
     public static JsonObject maskResourceIDsInLinks(JsonObject links, String url,
                                                     String memberId, String appId, String key) {
 
-        if (IdPermanenceConstants.REQUEST_URLS_WITH_PATH_PARAMS.contains(url)) {
+        if (CompiledUrlTemplate.of(url).isRequestUrlWithPathParams()) {
             for (String keyLink : getJsonObjectMembers(links)) {
                 String link = links.get(keyLink).getAsString();
-                JsonObject pathParams = extractUrlParams(url, link);
-                if (pathParams.size() > 0) {
-                    encryptResourceIdsInJsonObject(getJsonObjectMembers(pathParams), pathParams, memberId, appId, key);
-                    links.addProperty(keyLink, processNewUri(url, link, pathParams));
-                } else {
-                    log.error(keyLink + " link is not in correct url format.");
-                    links.addProperty(keyLink, "incorrect link format");
-                }
+                links.addProperty(keyLink, maskResourceIDsInLink(keyLink, link, url, memberId, appId, key));
             }
         }
         return links;
     }
 
+    /**
+     * Mask resourceIds in the path parameters of a link in the response payload.
+     *
+     * @param keyLink  key of the link
+     * @param link     link to be masked
+     * @param url      requested Url
+     * @param memberId user Id
+     * @param appId    software product Id
+     * @param key      encryption key
+     * @return link with masked resource Ids
+     */
+    static String maskResourceIDsInLink(String keyLink, String link, String url,
+                                        String memberId, String appId, String key) {
+
+        JsonObject pathParams = extractUrlParams(url, link);
+        if (pathParams.size() > 0) {
+            encryptResourceIdsInJsonObject(getJsonObjectMembers(pathParams), pathParams, memberId, appId, key);
+            return processNewUri(url, link, pathParams);
+        } else {
+            log.error(keyLink + " link is not in correct url format.");
+            return "incorrect link format";
+        }
+    }
+
     /**
      * Unmask masked resource Ids sent in the request path.
      *
@@ -183,7 +198,7 @@ public class IdPermanenceUtils {
             encryptedId = encryptedId.replaceAll("^\"|\"$", ""); // Remove any inverted commas
             String decryptedString;
             try {
-                decryptedString = IdEncryptorDecryptor.decrypt(encryptedId, key);
+                decryptedString = IdPermanenceCache.getInstance().decrypt(encryptedId, key);
             } catch (IllegalArgumentException e) {
                 log.debug("Error while decrypting", e);
                 idPermanenceValidationResponse.setValid(false);
@@ -292,7 +307,7 @@ public class IdPermanenceUtils {
             String decryptedString;
             try {
                 // decrypted string is expected to be in the format userId:appId:resourceId
-                decryptedString = IdEncryptorDecryptor.decrypt(encryptedId, key);
+                decryptedString = IdPermanenceCache.getInstance().decrypt(encryptedId, key);
             } catch (IllegalArgumentException e) {
                 log.error("Error occurred while decrypting");
                 log.debug("Error: ", e);
@@ -335,7 +350,7 @@ public class IdPermanenceUtils {
      * @return boolean
      */
     private static boolean isResourceListResponse(String url) {
-        return IdPermanenceConstants.RESOURCE_LIST_RES_URLS.contains(url);
+        return CompiledUrlTemplate.of(url).isResourceListResponse();
     }
 
     /**
@@ -345,7 +360,7 @@ public class IdPermanenceUtils {
      * @return boolean
      */
     private static boolean isSingleResourceResponse(String url) {
-        return IdPermanenceConstants.SINGLE_RESOURCE_RES_URLS.contains(url);
+        return CompiledUrlTemplate.of(url).isSingleResourceResponse();
     }
 
     /**
@@ -355,7 +370,7 @@ public class IdPermanenceUtils {
      * @return boolean
      */
     private static boolean isSchedulePaymentListResponse(String url) {
-        return IdPermanenceConstants.SCHEDULED_PAYMENT_LIST_RES_URLS.contains(url);
+        return CompiledUrlTemplate.of(url).isScheduledPaymentListResponse();
     }
 
     /**
@@ -400,14 +415,31 @@ public class IdPermanenceUtils {
     private static void encryptResourceIdsInJsonObject(List<String> availableResourceIdKeys, JsonObject resource,
                                                        String memberId, String appId, String key) {
         for (String resourceIdKey : availableResourceIdKeys) {
-            String resourceId = String.valueOf(resource.get(resourceIdKey));
-            resourceId = resourceId.replaceAll("^\"|\"$", ""); // Remove inverted commas if there are any.
-            String stringToEncrypt = memberId + ":" + appId + ":" + resourceId;
-            String encryptedId = IdEncryptorDecryptor.encrypt(stringToEncrypt, key);
-            resource.addProperty(resourceIdKey, encryptedId);
+            resource.addProperty(resourceIdKey,
+                    encryptResourceId(resource.get(resourceIdKey), memberId, appId, key));
         }
     }
 
+    /**
+     * Encrypt a resource id subjected to id permanence.
+     * <p>
+     * The resource id is encrypted in its JSON form, without the enclosing inverted commas. Hence, escaped
+     * characters of a string resource id are encrypted escaped.
+     *
+     * @param resourceId Json resource id, or null if the resource id is not available
+     * @param memberId   user ID
+     * @param appId      application ID
+     * @param key        encryption key
+     * @return encrypted resource id
+     */
+    static String encryptResourceId(JsonElement resourceId, String memberId, String appId, String key) {
+
+        String resourceIdString = String.valueOf(resourceId);
+        resourceIdString = resourceIdString.replaceAll("^\"|\"$", ""); // Remove inverted commas if there are any.
+        String stringToEncrypt = memberId + ":" + appId + ":" + resourceIdString;
+        return IdPermanenceCache.getInstance().encrypt(stringToEncrypt, key);
+    }
+
     /**
      * Process new request URI with new resource Ids.
      *
@@ -418,29 +450,26 @@ public class IdPermanenceUtils {
      * @return new url with new resource Ids
      */
     public static String processNewUri(String uriTemplate, String rawUrl, JsonObject newIdSet) {
-        String processedUri = rawUrl;
-        List<String> resourceKeys = getJsonObjectMembers(newIdSet);
-
-        String urlTemplateRegex = "(" +
-                uriTemplate.replace("{", "(?<").replace("}", ">[^\\/?]*)") + ")";
-
-        Pattern urlPattern = Pattern.compile(urlTemplateRegex);
-        Matcher urlMatcher = urlPattern.matcher(rawUrl);
-        if (urlMatcher.find()) {
-            // replace resource ids in the url with new resource ids
-            for (String resourceKey : resourceKeys) {
-                processedUri = processedUri.replaceAll("/" + urlMatcher.group(resourceKey) + "($|[/])", "/" +
-                        (newIdSet.get(resourceKey).getAsString()).replaceAll("^[\"']+|[\"']+$", "") + "/");
-            }
-        }
 
-        // remove trailing slash if the raw url doesn't have one
-        if (!rawUrl.substring(rawUrl.length() - 1).equals("/") &&
-                processedUri.substring(processedUri.length() - 1).equals("/")) {
-            return processedUri.substring(0, processedUri.length() - 1);
+        CompiledUrlTemplate compiledUrlTemplate = CompiledUrlTemplate.of(uriTemplate);
+        int[] paramOffsets = compiledUrlTemplate.match(rawUrl);
+        if (paramOffsets == null) {
+            return rawUrl;
         }
 
-        return processedUri;
+        // replace resource ids in the url with new resource ids
+        StringBuilder processedUri = new StringBuilder(rawUrl.length() + 64);
+        int position = 0;
+        List<String> resourceKeys = compiledUrlTemplate.getParamNames();
+        for (int param = 0; param < resourceKeys.size(); param++) {
+            JsonElement newId = newIdSet.get(resourceKeys.get(param));
+            if (newId != null && !newId.isJsonNull()) {
+                processedUri.append(rawUrl, position, paramOffsets[param * 2])
+                        .append(removeInvertedCommas(newId.getAsString()));
+                position = paramOffsets[param * 2 + 1];
+            }
+        }
+        return processedUri.append(rawUrl, position, rawUrl.length()).toString();
     }
 
     /**
@@ -454,28 +483,38 @@ public class IdPermanenceUtils {
     public static JsonObject extractUrlParams(String uriTemplate, String rawUrl) {
 
         JsonObject pathParams = new JsonObject();
-        List<String> resourceKeys = new ArrayList<>();
-
-        String urlTemplateRegex = "(" +
-                uriTemplate.replace("{", "(?<").replace("}", ">[^\\/?]*)") + ")";
-
-        Pattern resourceKeyPattern = Pattern.compile(IdPermanenceConstants.URL_TEMPLATE_PATH_PARAM_PATTERN);
-        Matcher resourceKeyMatcher = resourceKeyPattern.matcher(uriTemplate);
-        while (resourceKeyMatcher.find()) {
-            resourceKeys.add(resourceKeyMatcher.group(0).replaceAll("\\{|}", ""));
-        }
-
-        Pattern urlPattern = Pattern.compile(urlTemplateRegex);
-        Matcher urlMatcher = urlPattern.matcher(rawUrl);
-        if (urlMatcher.find()) {
-            for (String resourceKey : resourceKeys) {
-                pathParams.addProperty(resourceKey, urlMatcher.group(resourceKey));
+        CompiledUrlTemplate compiledUrlTemplate = CompiledUrlTemplate.of(uriTemplate);
+        int[] paramOffsets = compiledUrlTemplate.match(rawUrl);
+        if (paramOffsets != null) {
+            List<String> resourceKeys = compiledUrlTemplate.getParamNames();
+            for (int param = 0; param < resourceKeys.size(); param++) {
+                pathParams.addProperty(resourceKeys.get(param),
+                        rawUrl.substring(paramOffsets[param * 2], paramOffsets[param * 2 + 1]));
             }
         }
 
         return pathParams;
     }
 
+    /**
+     * Remove leading and trailing inverted commas of a resource id.
+     *
+     * @param resourceId resource id
+     * @return resource id without inverted commas
+     */
+    private static String removeInvertedCommas(String resourceId) {
+
+        int start = 0;
+        int end = resourceId.length();
+        while (start < end && (resourceId.charAt(start) == '"' || resourceId.charAt(start) == '\'')) {
+            start++;
+        }
+        while (end > start && (resourceId.charAt(end - 1) == '"' || resourceId.charAt(end - 1) == '\'')) {
+            end--;
+        }
+        return resourceId.substring(start, end);
+    }
+
     /**
      * Remove empty strings from the json object and set them as null.
      *
@@ -504,7 +543,7 @@ public class IdPermanenceUtils {
 
         String stringToEncrypt = memberId + ":" + appId + ":" +
                 errorJSON.get(ErrorConstants.ACCOUNT_ID).toString();
-        return IdEncryptorDecryptor.encrypt(stringToEncrypt, SECRET_KEY);
+        return IdPermanenceCache.getInstance().encrypt(stringToEncrypt, SECRET_KEY);
     }
 
     /**
@@ -524,7 +563,7 @@ public class IdPermanenceUtils {
         for (JsonElement resourceIdElement : resourceIdsJsonArray) {
             String resourceId = resourceIdElement.getAsString();
             String stringToEncrypt = memberId + ":" + appId + ":" + resourceId;
-            String encryptedId = IdEncryptorDecryptor.encrypt(stringToEncrypt, key);
+            String encryptedId = IdPermanenceCache.getInstance().encrypt(stringToEncrypt, key);
             encryptedAccountIdsJsonArray.add(encryptedId);
         }
         resource.add(resourceArrayKey, encryptedAccountIdsJsonArray);
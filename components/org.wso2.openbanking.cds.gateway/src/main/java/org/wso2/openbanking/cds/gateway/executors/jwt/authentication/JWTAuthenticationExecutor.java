@@ -21,7 +21,6 @@ package org.wso2.openbanking.cds.gateway.executors.jwt.authentication;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.proc.BadJOSEException;
 import com.wso2.openbanking.accelerator.common.util.Generated;
-import com.wso2.openbanking.accelerator.common.util.JWTUtils;
 import com.wso2.openbanking.accelerator.gateway.executor.core.OpenBankingGatewayExecutor;
 import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIRequestContext;
 import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIResponseContext;
@@ -33,14 +32,16 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpHeaders;
 import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 import org.wso2.openbanking.cds.common.error.handling.util.ErrorConstants;
-import org.wso2.openbanking.cds.gateway.executors.jwt.authentication.cache.JwtJtiCache;
-import org.wso2.openbanking.cds.gateway.executors.jwt.authentication.cache.JwtJtiCacheKey;
+import org.wso2.openbanking.cds.gateway.executors.jwt.authentication.cache.JWKSetCache;
+import org.wso2.openbanking.cds.gateway.executors.jwt.authentication.cache.JwtJtiReplayStore;
+import org.wso2.openbanking.cds.gateway.executors.jwt.authentication.model.DecodedJWT;
 import org.wso2.openbanking.cds.gateway.utils.GatewayConstants;
 
 import java.net.MalformedURLException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * CDS JWT Authentication executor to validate self signed JWT tokens sent in the Authorization header.
@@ -49,11 +50,17 @@ public class JWTAuthenticationExecutor implements OpenBankingGatewayExecutor {
 
     private static final Log LOG = LogFactory.getLog(JWTAuthenticationExecutor.class);
 
+    private volatile JWTAuthConfig jwtAuthConfig;
+
     @Override
     public void preProcessRequest(OBAPIRequestContext obapiRequestContext) {
 
         // Skip the executor if previous executors failed or jwt authentication is disabled in config
-        if (obapiRequestContext.isError() || !OpenBankingCDSConfigParser.getInstance().getJWTAuthEnabled()) {
+        if (obapiRequestContext.isError()) {
+            return;
+        }
+        JWTAuthConfig authConfig = getJWTAuthConfig();
+        if (!authConfig.isEnabled) {
             return;
         }
 
@@ -68,10 +75,8 @@ public class JWTAuthenticationExecutor implements OpenBankingGatewayExecutor {
             return;
         }
 
-        String jwksUrl = OpenBankingCDSConfigParser.getInstance().getJWTAuthJWKSUrl();
-
         // Check if jwks url is configured
-        if (StringUtils.isBlank(jwksUrl)) {
+        if (StringUtils.isBlank(authConfig.jwksUrl)) {
             LOG.error("JWT authentication jwks url is not configured.");
             setError(obapiRequestContext, ErrorConstants.AUErrorEnum.UNEXPECTED_ERROR,
                     "Failed to validate the JWT token");
@@ -82,7 +87,7 @@ public class JWTAuthenticationExecutor implements OpenBankingGatewayExecutor {
 
         if (splitAuthHeader.length == 2 && StringUtils.isNotBlank(splitAuthHeader[1])) {
             String jwtString = splitAuthHeader[1];
-            validateJWTToken(obapiRequestContext, jwtString, jwksUrl);
+            validateJWTToken(obapiRequestContext, jwtString, authConfig);
         } else {
             LOG.error("Error occurred while trying to authenticate. The Authorization header values are " +
                     "not defined correctly.");
@@ -111,25 +116,26 @@ public class JWTAuthenticationExecutor implements OpenBankingGatewayExecutor {
      *
      * @param obapiRequestContext OBAPIRequestContext
      * @param jwtString           jwtString of the token
-     * @param configuredJwksUrl   the configured jwks endpoint
+     * @param authConfig          the configured jwt authentication values
      * @return
      */
     private void validateJWTToken(OBAPIRequestContext obapiRequestContext, String jwtString,
-                                  String configuredJwksUrl) {
+                                  JWTAuthConfig authConfig) {
 
         LOG.debug("Decoding the JWT token found in Authorization header");
         try {
-            JSONObject jwtHeader = JWTUtils.decodeRequestJWT(jwtString, "head");
-            JSONObject jwtBody = JWTUtils.decodeRequestJWT(jwtString, "body");
+            // Decode the token once, for both the claim validation and the signature validation
+            DecodedJWT decodedJWT = DecodedJWT.parse(jwtString);
+            JSONObject jwtBody = decodedJWT.getBody();
 
-            if (jwtHeader == null || jwtBody == null) {
+            if (decodedJWT.getHeader() == null || jwtBody == null) {
                 LOG.error("Unsupported JWT token format found");
                 setOAuthError(obapiRequestContext, "invalid_token",
                         "Unsupported JWT token format found", ErrorConstants.HTTP_UNAUTHORIZED);
                 return;
             }
 
-            // Validate JTI. Continue if jti is not present in cache
+            // Validate JTI presence. Replays are checked once the token is validated
             String jtiValue = jwtBody.getAsString("jti");
             if (jtiValue == null) {
                 LOG.error("jti claim is not found in the JWT token");
@@ -137,20 +143,10 @@ public class JWTAuthenticationExecutor implements OpenBankingGatewayExecutor {
                         "Mandatory claim 'jti' is missing from the jwt token", ErrorConstants.HTTP_UNAUTHORIZED);
                 return;
             }
-            if (getJtiFromCache(jtiValue) != null) {
-                LOG.error(String.format("Rejected replayed jti: %s", jtiValue));
-                setOAuthError(obapiRequestContext, "invalid_token",
-                        String.format("jti value %s has been replayed", jtiValue), ErrorConstants.HTTP_UNAUTHORIZED);
-                return;
-            }
-
-            // Add jti value to cache
-            JwtJtiCacheKey jtiCacheKey = JwtJtiCacheKey.of(jtiValue);
-            JwtJtiCache.getInstance().addToCache(jtiCacheKey, jtiValue);
 
             //Validate claims
             //if no error, claimValidationError will be blank.
-            String claimValidationError = validateClaims(jwtBody);
+            String claimValidationError = validateClaims(jwtBody, authConfig);
             if (StringUtils.isNotBlank(claimValidationError)) {
                 LOG.error(claimValidationError);
                 setOAuthError(obapiRequestContext, "invalid_token", claimValidationError,
@@ -159,14 +155,23 @@ public class JWTAuthenticationExecutor implements OpenBankingGatewayExecutor {
             }
 
             // Validate jwt signature
-            if (!validateJWTSignature(jwtString, configuredJwksUrl, jwtHeader)) {
+            if (!validateJWTSignature(decodedJWT, authConfig.jwksUrl)) {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(String.format("Validating the JWT %s using the JWKS Url %s",
-                            jwtString, configuredJwksUrl));
+                            jwtString, authConfig.jwksUrl));
                 }
                 LOG.error("Invalid JWT Signature");
                 setOAuthError(obapiRequestContext, "invalid_token",
                         "JWT Signature validation failed", ErrorConstants.HTTP_UNAUTHORIZED);
+                return;
+            }
+
+            // Add jti value to the replay store only for validated tokens, which fails if the jti value is
+            // already present
+            if (!JwtJtiReplayStore.getInstance().addIfAbsent(jtiValue, getExpiryTime(jwtBody))) {
+                LOG.error(String.format("Rejected replayed jti: %s", jtiValue));
+                setOAuthError(obapiRequestContext, "invalid_token",
+                        String.format("jti value %s has been replayed", jtiValue), ErrorConstants.HTTP_UNAUTHORIZED);
             }
         } catch (ParseException | BadJOSEException | JOSEException |
                  MalformedURLException e) {
@@ -180,13 +185,14 @@ public class JWTAuthenticationExecutor implements OpenBankingGatewayExecutor {
      * Validate claims in the jwt token body against the configured values.
      *
      * @param jwtTokenBody - jwt token body
+     * @param authConfig   - configured jwt authentication values
      * @return - error message
      */
-    private String validateClaims(JSONObject jwtTokenBody) {
+    private String validateClaims(JSONObject jwtTokenBody, JWTAuthConfig authConfig) {
 
-        String issuer = OpenBankingCDSConfigParser.getInstance().getJWTAuthIssuer();
-        String audience = OpenBankingCDSConfigParser.getInstance().getJWTAuthAudience();
-        String subject = OpenBankingCDSConfigParser.getInstance().getJWTAuthSubject();
+        String issuer = authConfig.issuer;
+        String audience = authConfig.audience;
+        String subject = authConfig.subject;
 
         // Validate exp claim
         if (StringUtils.isBlank(jwtTokenBody.getAsString(GatewayConstants.EXP_CLAIM))) {
@@ -255,9 +261,39 @@ public class JWTAuthenticationExecutor implements OpenBankingGatewayExecutor {
         return (audienceConfigured.equals(audience));
     }
 
-    private String getJtiFromCache(String jtiValue) {
-        JwtJtiCacheKey jtiCacheKey = JwtJtiCacheKey.of(jtiValue);
-        return JwtJtiCache.getInstance().getFromCache(jtiCacheKey);
+    /**
+     * Get the expiry time of the jwt token in milliseconds.
+     *
+     * @param jwtTokenBody - jwt token body
+     * @return expiry time, or 0 if the exp claim is not a valid number of seconds
+     */
+    private long getExpiryTime(JSONObject jwtTokenBody) {
+
+        String expiryTime = jwtTokenBody.getAsString(GatewayConstants.EXP_CLAIM);
+        if (StringUtils.isNotBlank(expiryTime)) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(expiryTime));
+            } catch (NumberFormatException e) {
+                LOG.debug("exp claim of the JWT token is not a number of seconds.");
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get the jwt authentication configuration, read once per config parser instance.
+     *
+     * @return jwt authentication configuration
+     */
+    private JWTAuthConfig getJWTAuthConfig() {
+
+        OpenBankingCDSConfigParser configParser = OpenBankingCDSConfigParser.getInstance();
+        JWTAuthConfig authConfig = jwtAuthConfig;
+        if (authConfig == null || authConfig.configParser != configParser) {
+            authConfig = new JWTAuthConfig(configParser);
+            jwtAuthConfig = authConfig;
+        }
+        return authConfig;
     }
 
     private void setError(OBAPIRequestContext obapiRequestContext, ErrorConstants.AUErrorEnum errorEnum,
@@ -299,10 +335,32 @@ public class JWTAuthenticationExecutor implements OpenBankingGatewayExecutor {
     }
 
     @Generated(message = "Skipped unit tests since its already covered")
-    protected boolean validateJWTSignature(String jwtString, String configuredJwksUrl, JSONObject jwtHeader)
-            throws MalformedURLException, BadJOSEException, ParseException, JOSEException {
+    protected boolean validateJWTSignature(DecodedJWT decodedJWT, String configuredJwksUrl)
+            throws MalformedURLException, BadJOSEException, JOSEException {
 
-        return JWTUtils.validateJWTSignature(jwtString, configuredJwksUrl, jwtHeader.getAsString("alg"));
+        return JWKSetCache.getInstance().validateJWTSignature(decodedJWT.getSignedJWT(), configuredJwksUrl);
     }
 
+    /**
+     * Snapshot of the jwt authentication configuration, so it is not read from the config parser per request.
+     */
+    private static final class JWTAuthConfig {
+
+        private final OpenBankingCDSConfigParser configParser;
+        private final boolean isEnabled;
+        private final String jwksUrl;
+        private final String issuer;
+        private final String subject;
+        private final String audience;
+
+        private JWTAuthConfig(OpenBankingCDSConfigParser configParser) {
+
+            this.configParser = configParser;
+            this.isEnabled = configParser.getJWTAuthEnabled();
+            this.jwksUrl = configParser.getJWTAuthJWKSUrl();
+            this.issuer = configParser.getJWTAuthIssuer();
+            this.subject = configParser.getJWTAuthSubject();
+            this.audience = configParser.getJWTAuthAudience();
+        }
+    }
 }
@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.jwt.authentication.cache;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.ResourceRetriever;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache of the JWK sets used to validate the signatures of JWT tokens, per JWKS url.
+ * <p>
+ * A JWK set is refreshed in the background once it is older than the time to live, while the cached JWK set is
+ * still used. A JWK set is fetched while validating only if there is no JWK set for the url, or the cached JWK set
+ * is older than twice the time to live. A token signed with a key id which is not in the cached JWK set triggers a
+ * refetch, limited to one fetch per minimum refetch interval, and key ids not found after a refetch are not looked
+ * up again until their time to live elapses.
+ */
+public class JWKSetCache {
+
+    private static final Log LOG = LogFactory.getLog(JWKSetCache.class);
+
+    private static final long DEFAULT_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(15);
+    private static final long DEFAULT_MIN_REFETCH_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    private static final long DEFAULT_UNKNOWN_KEY_ID_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
+    private static final int DEFAULT_CONNECTION_TIMEOUT = 3000;
+    private static final int DEFAULT_READ_TIMEOUT = 3000;
+    private static final int DEFAULT_SIZE_LIMIT = 51200;
+    private static final String REFRESH_THREAD_NAME = "jwks-cache-refresh";
+    private static JWKSetCache jwkSetCache;
+
+    private final ResourceRetriever resourceRetriever;
+    private final long timeToLive;
+    private final long minRefetchInterval;
+    private final long unknownKeyIdTimeToLive;
+    private final Clock clock;
+    private final Map<String, CachedJWKSource> jwkSources = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, REFRESH_THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Create a JWK set cache.
+     *
+     * @param resourceRetriever      retriever of the JWK sets
+     * @param timeToLive             time in milliseconds after which a JWK set is refreshed
+     * @param minRefetchInterval     minimum time in milliseconds between two fetches of a JWK set
+     * @param unknownKeyIdTimeToLive time in milliseconds a key id not found in a JWK set is not looked up again
+     * @param clock                  clock used to determine the age of the JWK sets
+     */
+    JWKSetCache(ResourceRetriever resourceRetriever, long timeToLive, long minRefetchInterval,
+                long unknownKeyIdTimeToLive, Clock clock) {
+
+        this.resourceRetriever = resourceRetriever;
+        this.timeToLive = timeToLive;
+        this.minRefetchInterval = minRefetchInterval;
+        this.unknownKeyIdTimeToLive = unknownKeyIdTimeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * Singleton getInstance method to create only one object.
+     *
+     * @return JWKSetCache object
+     */
+    public static synchronized JWKSetCache getInstance() {
+
+        if (jwkSetCache == null) {
+            jwkSetCache = new JWKSetCache(new DefaultResourceRetriever(DEFAULT_CONNECTION_TIMEOUT,
+                    DEFAULT_READ_TIMEOUT, DEFAULT_SIZE_LIMIT), DEFAULT_TIME_TO_LIVE, DEFAULT_MIN_REFETCH_INTERVAL,
+                    DEFAULT_UNKNOWN_KEY_ID_TIME_TO_LIVE, Clock.systemUTC());
+        }
+        return jwkSetCache;
+    }
+
+    /**
+     * Validate the signature of a JWT token with the cached JWK set of the given JWKS url.
+     *
+     * @param signedJWT signed jwt token
+     * @param jwksUrl   JWKS url
+     * @return true if the signature is valid
+     * @throws MalformedURLException if the JWKS url is invalid
+     * @throws BadJOSEException      if the token is rejected
+     * @throws JOSEException         if the signature cannot be verified
+     */
+    public boolean validateJWTSignature(SignedJWT signedJWT, String jwksUrl)
+            throws MalformedURLException, BadJOSEException, JOSEException {
+
+        CachedJWKSource jwkSource = jwkSources.get(jwksUrl);
+        if (jwkSource == null) {
+            URL url = new URL(jwksUrl);
+            jwkSource = jwkSources.computeIfAbsent(jwksUrl, key -> new CachedJWKSource(url));
+        }
+
+        JWSKeySelector<SecurityContext> keySelector =
+                new JWSVerificationKeySelector<>(signedJWT.getHeader().getAlgorithm(), jwkSource);
+        ConfigurableJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(keySelector);
+        jwtProcessor.process(signedJWT, null);
+        return true;
+    }
+
+    /**
+     * JWK source of a JWKS url, backed by the cached JWK set of the url.
+     */
+    private final class CachedJWKSource implements JWKSource<SecurityContext> {
+
+        private final URL jwksUrl;
+        // Only one fetch of the JWK set at a time
+        private final ReentrantLock fetchLock = new ReentrantLock();
+        private final AtomicBoolean isRefreshing = new AtomicBoolean();
+        // Keyed by the key ids not found in the JWK set, valued by the time they are not looked up again until
+        private final Map<String, Long> unknownKeyIds = new ConcurrentHashMap<>();
+        private volatile JWKSet jwkSet;
+        private volatile long fetchTime;
+        private volatile long fetchAttemptTime;
+
+        private CachedJWKSource(URL jwksUrl) {
+
+            this.jwksUrl = jwksUrl;
+        }
+
+        @Override
+        public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+
+            long currentTime = clock.millis();
+            List<JWK> matchingKeys = jwkSelector.select(getJWKSet(currentTime));
+            if (!matchingKeys.isEmpty()) {
+                return matchingKeys;
+            }
+
+            Set<String> keyIds = jwkSelector.getMatcher().getKeyIDs();
+            String keyId = keyIds == null ? "" : String.join(",", keyIds);
+            Long unknownUntil = unknownKeyIds.get(keyId);
+            if (unknownUntil != null && unknownUntil > currentTime) {
+                return matchingKeys;
+            }
+
+            // Refetch the JWK set in case the keys have been rotated
+            boolean isFetched = false;
+            fetchLock.lock();
+            try {
+                if (isFetchAllowed(currentTime)) {
+                    isFetched = fetch(currentTime);
+                }
+            } finally {
+                fetchLock.unlock();
+            }
+            matchingKeys = jwkSelector.select(jwkSet);
+            // Only a key id missing from a freshly fetched JWK set is known to be unknown
+            if (matchingKeys.isEmpty() && isFetched) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(String.format("Key id %s is not found in the JWKS of %s", keyId, jwksUrl));
+                }
+                unknownKeyIds.put(keyId, currentTime + unknownKeyIdTimeToLive);
+            }
+            return matchingKeys;
+        }
+
+        /**
+         * Get the cached JWK set, fetching it if it is not cached or it is too old to be used, and refreshing it in
+         * the background if it is older than the time to live.
+         */
+        private JWKSet getJWKSet(long currentTime) throws KeySourceException {
+
+            JWKSet cachedJWKSet = jwkSet;
+            if (cachedJWKSet == null || currentTime - fetchTime >= 2 * timeToLive) {
+                fetchLock.lock();
+                try {
+                    if ((jwkSet == null || currentTime - fetchTime >= 2 * timeToLive) && isFetchAllowed(currentTime)) {
+                        fetch(currentTime);
+                    }
+                    if (jwkSet == null) {
+                        throw new KeySourceException("JWKS of " + jwksUrl + " is not available");
+                    }
+                    return jwkSet;
+                } finally {
+                    fetchLock.unlock();
+                }
+            }
+
+            if (currentTime - fetchTime >= timeToLive && isRefreshing.compareAndSet(false, true)) {
+                refreshExecutor.execute(this::refresh);
+            }
+            return cachedJWKSet;
+        }
+
+        private void refresh() {
+
+            fetchLock.lock();
+            try {
+                long currentTime = clock.millis();
+                if (currentTime - fetchTime >= timeToLive && isFetchAllowed(currentTime)) {
+                    fetch(currentTime);
+                }
+            } catch (KeySourceException e) {
+                LOG.error("Error occurred while refreshing the JWKS of " + jwksUrl, e);
+            } finally {
+                isRefreshing.set(false);
+                fetchLock.unlock();
+            }
+        }
+
+        /**
+         * Check whether the minimum refetch interval has elapsed since the last fetch attempt.
+         */
+        private boolean isFetchAllowed(long currentTime) {
+
+            return currentTime - fetchAttemptTime >= minRefetchInterval;
+        }
+
+        /**
+         * Fetch the JWK set. The cached JWK set is kept if the fetch fails.
+         * Should be called while holding the fetch lock.
+         *
+         * @return true if the JWK set is fetched, false if the cached JWK set is kept
+         */
+        private boolean fetch(long currentTime) throws KeySourceException {
+
+            fetchAttemptTime = currentTime;
+            try {
+                JWKSet fetchedJWKSet = JWKSet.parse(resourceRetriever.retrieveResource(jwksUrl).getContent());
+                jwkSet = fetchedJWKSet;
+                fetchTime = clock.millis();
+                unknownKeyIds.clear();
+                return true;
+            } catch (IOException | ParseException e) {
+                if (jwkSet == null) {
+                    throw new KeySourceException("Couldn't retrieve the JWKS of " + jwksUrl + ": " + e.getMessage(),
+                            e);
+                }
+                LOG.error("Error occurred while retrieving the JWKS of " + jwksUrl + ", using the cached JWKS", e);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.jwt.authentication.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Store of the JTI values of accepted JWT tokens, used to reject replayed tokens.
+ * <p>
+ * A JTI value is claimed atomically in a local map, so only one of the concurrent requests with the same JTI value
+ * is accepted, and kept until the expiry time of its token, but not longer than the expiry time of the JTI cache.
+ * Claimed JTI values are also added to the JwtJtiCache, and JTI values found in that cache are rejected as well.
+ * The local map is bounded. While it is full of unexpired JTI values, tokens are rejected, as their JTI values can
+ * not be claimed atomically.
+ */
+public class JwtJtiReplayStore {
+
+    private static final Log log = LogFactory.getLog(JwtJtiReplayStore.class);
+
+    // Number of JTI values checked between two removals of the expired JTI values
+    private static final int PURGE_INTERVAL = 1024;
+    private static final int DEFAULT_MAX_JTI_COUNT = 100000;
+    private static JwtJtiReplayStore jwtJtiReplayStore;
+
+    private final JwtJtiCache jtiCache;
+    private final long maxRetentionMillis;
+    private final int maxJtiCount;
+    // Keyed by the JTI value, valued by the time in milliseconds the JTI value is kept until
+    private final Map<String, Long> jtiExpiryTimes = new ConcurrentHashMap<>();
+    private final AtomicInteger checksSincePurge = new AtomicInteger();
+
+    /**
+     * Create a store on top of the given JTI cache.
+     *
+     * @param jtiCache JTI cache
+     */
+    public JwtJtiReplayStore(JwtJtiCache jtiCache) {
+
+        this(jtiCache, DEFAULT_MAX_JTI_COUNT);
+    }
+
+    JwtJtiReplayStore(JwtJtiCache jtiCache, int maxJtiCount) {
+
+        this.jtiCache = jtiCache;
+        this.maxRetentionMillis = TimeUnit.MINUTES.toMillis(jtiCache.getCacheModifiedExpiryMinutes());
+        this.maxJtiCount = maxJtiCount;
+    }
+
+    /**
+     * Singleton getInstance method to create only one object.
+     *
+     * @return JwtJtiReplayStore object
+     */
+    public static synchronized JwtJtiReplayStore getInstance() {
+
+        if (jwtJtiReplayStore == null) {
+            jwtJtiReplayStore = new JwtJtiReplayStore(JwtJtiCache.getInstance());
+        }
+        return jwtJtiReplayStore;
+    }
+
+    /**
+     * Add a JTI value to the store if it is not already present.
+     * Should only be called for tokens with a valid signature, as the JTI value is kept once added.
+     *
+     * @param jtiValue   JTI value of the token
+     * @param expiryTime expiry time of the token in milliseconds. JTI values are kept until the expiry time of the
+     *                   token, but not longer than the expiry time of the JTI cache
+     * @return true if the JTI value is added, false if the JTI value has been replayed or the store is full
+     */
+    public boolean addIfAbsent(String jtiValue, long expiryTime) {
+
+        long currentTime = System.currentTimeMillis();
+        long jtiExpiryTime = currentTime + maxRetentionMillis;
+        if (expiryTime > currentTime) {
+            jtiExpiryTime = Math.min(expiryTime, jtiExpiryTime);
+        }
+
+        if (checksSincePurge.incrementAndGet() >= PURGE_INTERVAL) {
+            removeExpiredJtiValues(currentTime);
+        }
+
+        if (jtiExpiryTimes.size() >= maxJtiCount && !jtiExpiryTimes.containsKey(jtiValue)) {
+            removeExpiredJtiValues(currentTime);
+            if (jtiExpiryTimes.size() >= maxJtiCount) {
+                log.warn("JTI replay store is full, rejecting tokens until the stored JTI values expire");
+                return false;
+            }
+        }
+
+        boolean[] isAdded = {false};
+        long claimedExpiryTime = jtiExpiryTime;
+        jtiExpiryTimes.compute(jtiValue, (jti, existingExpiryTime) -> {
+            if (existingExpiryTime != null && existingExpiryTime > currentTime) {
+                return existingExpiryTime;
+            }
+            isAdded[0] = true;
+            return claimedExpiryTime;
+        });
+        if (!isAdded[0]) {
+            return false;
+        }
+
+        // JTI values accepted by other nodes, or before the JTI value expired in the store
+        JwtJtiCacheKey jtiCacheKey = JwtJtiCacheKey.of(jtiValue);
+        if (jtiCache.getFromCache(jtiCacheKey) != null) {
+            return false;
+        }
+        jtiCache.addToCache(jtiCacheKey, jtiValue);
+        return true;
+    }
+
+    private void removeExpiredJtiValues(long currentTime) {
+
+        checksSincePurge.set(0);
+        jtiExpiryTimes.values().removeIf(existingExpiryTime -> existingExpiryTime <= currentTime);
+    }
+}
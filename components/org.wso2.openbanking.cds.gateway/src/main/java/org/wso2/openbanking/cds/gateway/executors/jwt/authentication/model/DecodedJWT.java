@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.jwt.authentication.model;
+
+import com.nimbusds.jwt.SignedJWT;
+import net.minidev.json.JSONObject;
+
+import java.text.ParseException;
+
+/**
+ * Model representation of a JWT token decoded once per request, shared by the claim validation and the signature
+ * validation.
+ */
+public class DecodedJWT {
+
+    private final String jwtString;
+    private final SignedJWT signedJWT;
+    private final JSONObject header;
+    private final JSONObject body;
+
+    private DecodedJWT(String jwtString, SignedJWT signedJWT, JSONObject header, JSONObject body) {
+        this.jwtString = jwtString;
+        this.signedJWT = signedJWT;
+        this.header = header;
+        this.body = body;
+    }
+
+    /**
+     * Decode a compact JWT token.
+     *
+     * @param jwtString jwt token
+     * @return decoded jwt token
+     * @throws ParseException if the token is not a signed JWT
+     */
+    public static DecodedJWT parse(String jwtString) throws ParseException {
+
+        SignedJWT signedJWT = SignedJWT.parse(jwtString);
+        return new DecodedJWT(jwtString, signedJWT, signedJWT.getHeader().toJSONObject(),
+                signedJWT.getPayload().toJSONObject());
+    }
+
+    /**
+     * Get the compact jwt token.
+     *
+     * @return jwt token
+     */
+    public String getJwtString() {
+        return jwtString;
+    }
+
+    /**
+     * Get the parsed signed jwt.
+     *
+     * @return signed jwt
+     */
+    public SignedJWT getSignedJWT() {
+        return signedJWT;
+    }
+
+    /**
+     * Get the jwt header.
+     *
+     * @return jwt header
+     */
+    public JSONObject getHeader() {
+        return header;
+    }
+
+    /**
+     * Get the jwt body, which is null if the payload is not a JSON object.
+     *
+     * @return jwt body
+     */
+    public JSONObject getBody() {
+        return body;
+    }
+}
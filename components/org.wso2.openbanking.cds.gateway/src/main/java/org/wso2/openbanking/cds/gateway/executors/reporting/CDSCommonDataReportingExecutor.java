@@ -21,8 +21,7 @@ package org.wso2.openbanking.cds.gateway.executors.reporting;
 import com.wso2.openbanking.accelerator.gateway.executor.core.OpenBankingGatewayExecutor;
 import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIRequestContext;
 import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIResponseContext;
-import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
-import org.wso2.openbanking.cds.common.utils.CDSCommonUtils;
+import org.wso2.openbanking.cds.gateway.utils.AccessTokenUtils;
 import org.wso2.openbanking.cds.gateway.utils.GatewayConstants;
 
 import java.util.Map;
@@ -62,15 +61,7 @@ public class CDSCommonDataReportingExecutor implements OpenBankingGatewayExecuto
     public void postProcessRequest(OBAPIRequestContext obapiRequestContext) {
 
         // Add access token to the analytics data.
-        Map<String, String> headers = obapiRequestContext.getMsgInfo().getHeaders();
-        String authorizationHeader = headers.get(GatewayConstants.AUTHORIZATION);
-        String accessToken = (authorizationHeader != null && authorizationHeader.split(" ").length > 1) ?
-                authorizationHeader.split(" ")[1] : null;
-
-        // Encrypt access token if configured.
-        if (accessToken != null && OpenBankingCDSConfigParser.getInstance().isTokenEncryptionEnabled()) {
-            accessToken = CDSCommonUtils.encryptAccessToken(accessToken);
-        }
+        String accessToken = AccessTokenUtils.getAccessToken(obapiRequestContext.getMsgInfo());
         // Add data publishing elements
         Map<String, Object> analyticsData = obapiRequestContext.getAnalyticsData();
         analyticsData.put(GatewayConstants.ACCESS_TOKEN_ID, accessToken);
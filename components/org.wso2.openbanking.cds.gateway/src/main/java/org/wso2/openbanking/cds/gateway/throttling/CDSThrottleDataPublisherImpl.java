@@ -22,8 +22,7 @@ import com.wso2.openbanking.accelerator.gateway.throttling.ThrottleDataPublisher
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.apimgt.common.gateway.dto.RequestContextDTO;
-import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
-import org.wso2.openbanking.cds.common.utils.CDSCommonUtils;
+import org.wso2.openbanking.cds.gateway.utils.AccessTokenUtils;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -43,7 +42,6 @@ public class CDSThrottleDataPublisherImpl implements ThrottleDataPublisher {
     private static final String SECURED_STATUS = "secured";
     private static final String PUBLIC_STATUS = "public";
     private static final String NULL_STRING = "null";
-    private static final String AUTHORIZATION = "Authorization";
     private static final String AUTHORIZATION_HEADER = "authorizationHeader";
 
     @Override
@@ -51,14 +49,8 @@ public class CDSThrottleDataPublisherImpl implements ThrottleDataPublisher {
 
         Map<String, Object> customPropertyMap = new HashMap<>();
         Object xFapiCustomerIpAddress = requestContextDTO.getMsgInfo().getHeaders().get(X_FAPI_CUSTOMER_IP_ADDRESS);
-        String authorizationHeader = requestContextDTO.getMsgInfo().getHeaders().get(AUTHORIZATION);
-        String accessToken = (authorizationHeader != null && authorizationHeader.split(" ").length > 1) ?
-                authorizationHeader.split(" ")[1] : null;
-
-        // Encrypt access token
-        if (accessToken != null && OpenBankingCDSConfigParser.getInstance().isTokenEncryptionEnabled()) {
-            accessToken = CDSCommonUtils.encryptAccessToken(accessToken);
-        }
+        // Hashed once per request and shared with the data reporting executor
+        String accessToken = AccessTokenUtils.getAccessToken(requestContextDTO.getMsgInfo());
 
         //Adding x-fapi-customer-ip-address header as a custom property
         if (xFapiCustomerIpAddress != null) {
@@ -72,7 +64,7 @@ public class CDSThrottleDataPublisherImpl implements ThrottleDataPublisher {
         }
 
         //Adding authorization header as a custom property
-        if (authorizationHeader != null && accessToken != null) {
+        if (accessToken != null) {
             LOG.debug("Adding authorization header details to the custom property map");
             customPropertyMap.put(AUTHORIZATION_HEADER, accessToken);
             customPropertyMap.put(AUTHORIZATION_STATUS, SECURED_STATUS);
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.wso2.carbon.apimgt.common.gateway.dto.MsgInfoDTO;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.common.utils.CDSCommonUtils;
+
+/**
+ * Utils to get the access token of a request for data publishing.
+ * <p>
+ * The reporting executor and the throttle data publisher both publish the access token of a request. The hashed
+ * access token is kept against the message info of the request, which both of them share, so the access token is
+ * hashed once per request.
+ */
+public class AccessTokenUtils {
+
+    // Keyed by the message info of a request, valued by {access token, hashed access token}. Entries are removed
+    // once the message info of the request is garbage collected.
+    private static final Cache<MsgInfoDTO, String[]> HASHED_ACCESS_TOKENS = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    private AccessTokenUtils() {
+
+    }
+
+    /**
+     * Get the access token of a request from its authorization header, hashed if token encryption is enabled.
+     *
+     * @param msgInfo message info of the request
+     * @return access token, or null if the request has no bearer access token
+     */
+    public static String getAccessToken(MsgInfoDTO msgInfo) {
+
+        String authorizationHeader = msgInfo.getHeaders().get(GatewayConstants.AUTHORIZATION);
+        if (authorizationHeader == null) {
+            return null;
+        }
+        String[] authorizationHeaderParts = authorizationHeader.split(" ");
+        if (authorizationHeaderParts.length <= 1) {
+            return null;
+        }
+        String accessToken = authorizationHeaderParts[1];
+
+        // Encrypt access token if configured.
+        if (!OpenBankingCDSConfigParser.getInstance().isTokenEncryptionEnabled()) {
+            return accessToken;
+        }
+        String[] hashedAccessToken = HASHED_ACCESS_TOKENS.getIfPresent(msgInfo);
+        if (hashedAccessToken != null && hashedAccessToken[0].equals(accessToken)) {
+            return hashedAccessToken[1];
+        }
+        String encryptedAccessToken = CDSCommonUtils.encryptAccessToken(accessToken);
+        if (encryptedAccessToken != null) {
+            HASHED_ACCESS_TOKENS.put(msgInfo, new String[]{accessToken, encryptedAccessToken});
+        }
+        return encryptedAccessToken;
+    }
+}
@@ -152,7 +152,7 @@ public class GatewayConstants {
     public static final String X_VERSION = "x-version";
     public static final String IMF_FIX_DATE_PATTERN = "EEE, dd MMM uuuu HH:mm:ss 'GMT'";
     public static final String RFC850_DATE_PATTERN = "EEEE, dd-MMM-uu HH:mm:ss 'GMT'";
-    public static final String ASC_TIME_DATE_PATTERN = "EE MMM dd HH:mm:ss uuuu";
+    public static final String ASC_TIME_DATE_PATTERN = "EEE MMM ppd HH:mm:ss uuuu";
     public static final Pattern UUID_REGEX_PATTERN =
             Pattern.compile("^[{]?[0-9a-fA-F]{8}-([0-9a-fA-F]{4}-){3}[0-9a-fA-F]{12}[}]?$");
 
@@ -17,6 +17,7 @@
  */
 package org.wso2.openbanking.cds.gateway.executors.core;
 
+import com.wso2.openbanking.accelerator.gateway.executor.core.OpenBankingGatewayExecutor;
 import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIRequestContext;
 import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIResponseContext;
 import io.swagger.v3.oas.models.OpenAPI;
@@ -29,7 +30,9 @@ import org.wso2.carbon.apimgt.common.gateway.dto.MsgInfoDTO;
 import org.wso2.openbanking.cds.gateway.test.util.TestUtil;
 import org.wso2.openbanking.cds.gateway.utils.GatewayConstants;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -37,6 +40,13 @@ import java.util.Map;
  */
 public class CDSAPIRequestRouterTest {
 
+    // Titles of the API definitions under toolkits/ob-apim, and the consent and non-regulatory API types
+    private static final String[][] API_DEFINITIONS = {
+            {"CDR Arrangement Management API", null}, {"ConsumerDataStandardsAdminAPI", null},
+            {"CDR Dynamic Client Registration API", null}, {"CDR-DynamicClientRegistration", null},
+            {"ConsumerDataStandards", null}, {"Consent Management API", RequestRouterConstants.API_TYPE_CONSENT},
+            {"Pet Store", RequestRouterConstants.API_TYPE_NON_REGULATORY}};
+
     CDSAPIRequestRouter cdsApiRequestRouter;
     OpenAPI openAPI;
 
@@ -179,4 +189,130 @@ public class CDSAPIRequestRouterTest {
         Assert.assertEquals(cdsApiRequestRouter.getExecutorsForRequest(obapiRequestContext).size(), 1);
         Assert.assertEquals(cdsApiRequestRouter.getExecutorsForResponse(obapiResponseContext).size(), 1);
     }
+
+    @Test(priority = 4)
+    public void testRoutingTableForAPIDefinitions() {
+
+        CDSAPIRequestRouter router = new CDSAPIRequestRouter();
+        Map<String, List<OpenBankingGatewayExecutor>> executorMap = getExecutorMap();
+        router.setExecutorMap(executorMap);
+
+        List<OpenAPI> openAPIs = new ArrayList<>();
+        for (String[] apiDefinition : API_DEFINITIONS) {
+            openAPIs.add(getOpenAPI(apiDefinition[0], apiDefinition[1]));
+        }
+
+        // Requests to routed APIs are resolved from the routing table
+        for (int i = 0; i < 2; i++) {
+            for (OpenAPI openAPI : openAPIs) {
+                for (String electedResource : new String[]{"/banking/accounts",
+                        GatewayConstants.PRODUCT_DETAILS_ENDPOINT, GatewayConstants.COMMON_CUSTOMER_ENDPOINT}) {
+                    OBAPIRequestContext obapiRequestContext = getRequestContext(openAPI, electedResource);
+                    List<OpenBankingGatewayExecutor> expectedExecutors =
+                            getExecutorsWithIfChain(obapiRequestContext, executorMap);
+                    if (expectedExecutors == null) {
+                        Assert.assertEquals(router.getExecutorsForRequest(obapiRequestContext).size(), 0);
+                    } else {
+                        Assert.assertSame(router.getExecutorsForRequest(obapiRequestContext), expectedExecutors);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(priority = 4)
+    public void testRoutingTableOnRedeployment() {
+
+        CDSAPIRequestRouter router = new CDSAPIRequestRouter();
+        Map<String, List<OpenBankingGatewayExecutor>> executorMap = getExecutorMap();
+        router.setExecutorMap(executorMap);
+        OpenAPI cdsOpenAPI = getOpenAPI(RequestRouterConstants.CDS_API_NAME, null);
+
+        Assert.assertSame(router.getExecutorsForRequest(getRequestContext(cdsOpenAPI, null)),
+                executorMap.get(RequestRouterConstants.CDS));
+        // Updated definition of the routed API
+        cdsOpenAPI.getExtensions().put(RequestRouterConstants.API_TYPE_CUSTOM_PROP,
+                RequestRouterConstants.API_TYPE_NON_REGULATORY);
+        Assert.assertEquals(router.getExecutorsForRequest(getRequestContext(cdsOpenAPI, null)).size(), 0);
+        // New definition of the redeployed API
+        Assert.assertSame(router.getExecutorsForRequest(getRequestContext(
+                getOpenAPI(RequestRouterConstants.ADMIN_API_NAME, null), null)),
+                executorMap.get(RequestRouterConstants.ADMIN));
+        // Updated executors
+        Map<String, List<OpenBankingGatewayExecutor>> newExecutorMap = getExecutorMap();
+        router.setExecutorMap(newExecutorMap);
+        Assert.assertSame(router.getExecutorsForRequest(getRequestContext(
+                getOpenAPI(RequestRouterConstants.ADMIN_API_NAME, null), null)),
+                newExecutorMap.get(RequestRouterConstants.ADMIN));
+    }
+
+    private static Map<String, List<OpenBankingGatewayExecutor>> getExecutorMap() {
+
+        Map<String, List<OpenBankingGatewayExecutor>> executorMap = new HashMap<>();
+        for (String executorListName : new String[]{RequestRouterConstants.DEFAULT, RequestRouterConstants.DCR,
+                RequestRouterConstants.CDS, RequestRouterConstants.CDS_UNAUTHENTICATED,
+                RequestRouterConstants.CDS_COMMON, RequestRouterConstants.CONSENT, RequestRouterConstants.ADMIN,
+                RequestRouterConstants.ARRANGEMENT}) {
+            executorMap.put(executorListName, new ArrayList<>());
+        }
+        return executorMap;
+    }
+
+    private static OpenAPI getOpenAPI(String title, String apiType) {
+
+        OpenAPI openAPI = new OpenAPI();
+        Info info = new Info();
+        info.setTitle(title);
+        openAPI.setInfo(info);
+        Map<String, Object> extensions = new HashMap<>();
+        if (apiType != null) {
+            extensions.put(RequestRouterConstants.API_TYPE_CUSTOM_PROP, apiType);
+        }
+        openAPI.setExtensions(extensions);
+        return openAPI;
+    }
+
+    private static OBAPIRequestContext getRequestContext(OpenAPI openAPI, String electedResource) {
+
+        OBAPIRequestContext obapiRequestContext = Mockito.mock(OBAPIRequestContext.class);
+        Mockito.when(obapiRequestContext.getOpenAPI()).thenReturn(openAPI);
+        MsgInfoDTO msgInfoDTO = new MsgInfoDTO();
+        msgInfoDTO.setElectedResource(electedResource);
+        Mockito.when(obapiRequestContext.getMsgInfo()).thenReturn(msgInfoDTO);
+        return obapiRequestContext;
+    }
+
+    /**
+     * Resolve the executors of a request with the if-chain previously used by the router.
+     */
+    private static List<OpenBankingGatewayExecutor> getExecutorsWithIfChain(
+            OBAPIRequestContext requestContext, Map<String, List<OpenBankingGatewayExecutor>> executorMap) {
+
+        if (RequestRouterConstants.API_TYPE_NON_REGULATORY
+                .equals(requestContext.getOpenAPI().getExtensions().get(RequestRouterConstants.API_TYPE_CUSTOM_PROP))) {
+            return null;
+        } else if (GatewayConstants.UNAUTHENTICATED_ENDPOINTS.contains(requestContext.getMsgInfo()
+                .getElectedResource())) {
+            return executorMap.get(RequestRouterConstants.CDS_UNAUTHENTICATED);
+        } else if (GatewayConstants.COMMON_ENDPOINTS.contains(requestContext.getMsgInfo()
+                .getElectedResource())) {
+            return executorMap.get(RequestRouterConstants.CDS_COMMON);
+        } else if (RequestRouterConstants.API_TYPE_CONSENT
+                .equals(requestContext.getOpenAPI().getExtensions().get(RequestRouterConstants.API_TYPE_CUSTOM_PROP))) {
+            return executorMap.get(RequestRouterConstants.CONSENT);
+        } else if (RequestRouterConstants.DCR_API_NAME.equals(requestContext.getOpenAPI().getInfo().getTitle()
+                .replaceAll(RequestRouterConstants.WHITESPACE_REGEX, ""))) {
+            return executorMap.get(RequestRouterConstants.DCR);
+        } else if (RequestRouterConstants.CDS_API_NAME.equals(requestContext.getOpenAPI().getInfo().getTitle())) {
+            return executorMap.get(RequestRouterConstants.CDS);
+        } else if (RequestRouterConstants.ADMIN_API_NAME.equals(requestContext.getOpenAPI().getInfo().getTitle())) {
+            return executorMap.get(RequestRouterConstants.ADMIN);
+        } else if (RequestRouterConstants.ARRANGEMENT_API_NAME
+                .equals(requestContext.getOpenAPI().getInfo().getTitle()
+                        .replaceAll(RequestRouterConstants.WHITESPACE_REGEX, ""))) {
+            return executorMap.get(RequestRouterConstants.ARRANGEMENT);
+        } else {
+            return executorMap.get(RequestRouterConstants.DEFAULT);
+        }
+    }
 }
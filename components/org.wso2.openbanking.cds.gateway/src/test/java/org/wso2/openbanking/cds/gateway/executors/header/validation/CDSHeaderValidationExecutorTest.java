@@ -142,6 +142,24 @@ public class CDSHeaderValidationExecutorTest extends PowerMockTestCase {
         Assert.assertFalse(this.uut.isValidHttpDate("24-11-1994 08:10 PM"));
         Assert.assertFalse(this.uut.isValidHttpDate("Sun, 06 Nov 2024 08:49:37 EST"));
         Assert.assertFalse(this.uut.isValidHttpDate("Sunday, 06-Nov-94 08:49:37 EST"));
+        Assert.assertFalse(this.uut.isValidHttpDate("Sun, 06 Nov 2024 08:49:37 GMT+01:00"));
+        Assert.assertFalse(this.uut.isValidHttpDate("Sun, 6 Nov 2024 08:49:37 GMT"));
+        Assert.assertFalse(this.uut.isValidHttpDate("Sun Nov 6 08:49:37 2024"));
+    }
+
+    @Test
+    public void testSupportedVersionRange() {
+        Map<String, Object> extensions = new HashMap<>();
+        extensions.put(GatewayConstants.X_VERSION, "1,foo,3");
+        OBAPIRequestContext obApiRequestContextMock = getOBAPIRequestContext(extensions,
+                GatewayConstants.MAX_REQUESTED_ENDPOINT_VERSION, "4", "1", "3");
+        this.uut.postProcessRequest(obApiRequestContextMock); // test empty string, should return false
+        this.uut.postProcessRequest(obApiRequestContextMock); // test "4" for GET versions 1 to 3, should return false
+        this.uut.postProcessRequest(obApiRequestContextMock); // test "1" for POST versions 2 to 4, should return false
+        verify(obApiRequestContextMock, times(3)).setError(true);
+
+        this.uut.postProcessRequest(obApiRequestContextMock); // test "3" for POST versions 2 to 4, should return true
+        verify(obApiRequestContextMock, times(3)).setError(true);
     }
 
     @Test
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.idpermanence.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.idpermanence.IdEncryptorDecryptor;
+
+import java.util.Random;
+
+/**
+ * Test class for IdPermanenceCache.
+ */
+public class IdPermanenceCacheTest {
+
+    private static final String SECRET_KEY = "wso2";
+    private static final String DECRYPTED_ACCOUNT_STRING = "mark@gold.com@carbon.super@carbon.super:7:30080012343456";
+
+    @Test
+    public void testEncryptUsesCachedId() {
+
+        IdPermanenceCache cache = new IdPermanenceCache(SECRET_KEY, 100, 60);
+
+        String encryptedId = cache.encrypt(DECRYPTED_ACCOUNT_STRING, SECRET_KEY);
+
+        Assert.assertEquals(encryptedId, IdEncryptorDecryptor.encrypt(DECRYPTED_ACCOUNT_STRING, SECRET_KEY));
+        Assert.assertEquals(cache.encrypt(DECRYPTED_ACCOUNT_STRING, SECRET_KEY), encryptedId);
+        Assert.assertEquals(cache.getEncryptionStats().hitCount(), 1);
+        Assert.assertEquals(cache.getEncryptionStats().missCount(), 1);
+    }
+
+    @Test
+    public void testDecryptUsesIdCachedByEncryption() {
+
+        IdPermanenceCache cache = new IdPermanenceCache(SECRET_KEY, 100, 60);
+
+        String encryptedId = cache.encrypt(DECRYPTED_ACCOUNT_STRING, SECRET_KEY);
+
+        Assert.assertEquals(cache.decrypt(encryptedId, SECRET_KEY), DECRYPTED_ACCOUNT_STRING);
+        Assert.assertEquals(cache.getDecryptionStats().hitCount(), 1);
+    }
+
+    @Test
+    public void testDecryptDoesNotCacheRequestEncodingForEncryption() {
+
+        IdPermanenceCache cache = new IdPermanenceCache(SECRET_KEY, 100, 60);
+        String encryptedId = IdEncryptorDecryptor.encrypt(DECRYPTED_ACCOUNT_STRING, SECRET_KEY);
+
+        // Padded encoding of the same encrypted bytes
+        String paddedEncryptedId = encryptedId + "==";
+        Assert.assertEquals(cache.decrypt(paddedEncryptedId, SECRET_KEY), DECRYPTED_ACCOUNT_STRING);
+        Assert.assertEquals(cache.decrypt(paddedEncryptedId, SECRET_KEY), DECRYPTED_ACCOUNT_STRING);
+        Assert.assertEquals(cache.getDecryptionStats().hitCount(), 1);
+
+        Assert.assertEquals(cache.encrypt(DECRYPTED_ACCOUNT_STRING, SECRET_KEY), encryptedId);
+    }
+
+    @Test
+    public void testIdsOfOtherKeysAreNotCached() {
+
+        IdPermanenceCache cache = new IdPermanenceCache(SECRET_KEY, 100, 60);
+
+        String encryptedId = cache.encrypt(DECRYPTED_ACCOUNT_STRING, "other-key");
+        cache.encrypt(DECRYPTED_ACCOUNT_STRING, "other-key");
+
+        Assert.assertEquals(encryptedId, IdEncryptorDecryptor.encrypt(DECRYPTED_ACCOUNT_STRING, "other-key"));
+        Assert.assertEquals(cache.getEncryptionStats().requestCount(), 0);
+    }
+
+    @Test
+    public void testDisabledCache() {
+
+        IdPermanenceCache cache = new IdPermanenceCache(SECRET_KEY, 0, 60);
+
+        String encryptedId = cache.encrypt(DECRYPTED_ACCOUNT_STRING, SECRET_KEY);
+
+        Assert.assertEquals(cache.decrypt(encryptedId, SECRET_KEY), DECRYPTED_ACCOUNT_STRING);
+        Assert.assertEquals(cache.getEncryptionStats().requestCount(), 0);
+        Assert.assertEquals(cache.getDecryptionStats().requestCount(), 0);
+    }
+
+    @Test
+    public void testExpiredIdsAreNotUsed() {
+
+        IdPermanenceCache cache = new IdPermanenceCache(SECRET_KEY, 100, 0);
+
+        cache.encrypt(DECRYPTED_ACCOUNT_STRING, SECRET_KEY);
+        cache.encrypt(DECRYPTED_ACCOUNT_STRING, SECRET_KEY);
+
+        Assert.assertEquals(cache.getEncryptionStats().hitCount(), 0);
+    }
+
+    @Test
+    public void testCacheSizeIsBounded() {
+
+        IdPermanenceCache cache = new IdPermanenceCache(SECRET_KEY, 10, 60);
+
+        for (int i = 0; i < 100; i++) {
+            String strToEncrypt = "mark@gold.com@carbon.super@carbon.super:7:" + i;
+            Assert.assertEquals(cache.encrypt(strToEncrypt, SECRET_KEY),
+                    IdEncryptorDecryptor.encrypt(strToEncrypt, SECRET_KEY));
+        }
+
+        Assert.assertTrue(cache.getEncryptionStats().evictionCount() >= 90);
+    }
+
+    /**
+     * Hit ratio of a replayed request mix, in which each request of a consent returns the ids of its accounts and the
+     * ids of the accounts are sent back in the following requests.
+     */
+    @Test
+    public void testReplayedRequestMixHitRatio() {
+
+        IdPermanenceCache cache = new IdPermanenceCache(SECRET_KEY, 1000, 60);
+        replayRequests(cache, SECRET_KEY, 50, 5, 2000);
+
+        Assert.assertTrue(cache.getEncryptionStats().hitRate() > 0.9);
+        Assert.assertTrue(cache.getDecryptionStats().hitRate() > 0.9);
+    }
+
+    /**
+     * Replay requests of randomly selected consents, each decrypting the account id in the path and encrypting the
+     * ids of all accounts of the consent in the response.
+     */
+    private static void replayRequests(IdPermanenceCache cache, String key, int consents, int accountsPerConsent,
+                                       int requests) {
+
+        Random random = new Random(42);
+        for (int request = 0; request < requests; request++) {
+            int consent = random.nextInt(consents);
+            String prefix = "user" + consent + "@carbon.super:app" + (consent % 20) + ":";
+            String encryptedPathId = null;
+            for (int account = 0; account < accountsPerConsent; account++) {
+                String encryptedId = cache.encrypt(prefix + (consent * accountsPerConsent + account), key);
+                if (account == request % accountsPerConsent) {
+                    encryptedPathId = encryptedId;
+                }
+            }
+            Assert.assertNotNull(cache.decrypt(encryptedPathId, key));
+        }
+    }
+}
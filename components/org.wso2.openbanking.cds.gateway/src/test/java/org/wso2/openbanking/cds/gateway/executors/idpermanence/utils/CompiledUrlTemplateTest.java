@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.idpermanence.utils;
+
+import com.google.gson.JsonObject;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Test class for CompiledUrlTemplate.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class})
+@PowerMockIgnore("jdk.internal.reflect.*")
+public class CompiledUrlTemplateTest extends PowerMockTestCase {
+
+    // Resource paths of the CDS Banking API 1.25.0
+    private static final String[] CDS_BANKING_PATHS = {
+            "/banking/accounts", "/banking/accounts/balances", "/banking/accounts/{accountId}/balance",
+            "/banking/accounts/{accountId}", "/banking/accounts/{accountId}/transactions",
+            "/banking/accounts/{accountId}/transactions/{transactionId}", "/banking/accounts/{accountId}/direct-debits",
+            "/banking/accounts/direct-debits", "/banking/accounts/{accountId}/payments/scheduled",
+            "/banking/payments/scheduled", "/banking/payees", "/banking/payees/{payeeId}", "/banking/products",
+            "/banking/products/{productId}", "/common/customer", "/common/customer/detail", "/discovery/status",
+            "/discovery/outages"};
+    private static final String LINK_PREFIX = "https://api.alphabank.com/cds-au/v1";
+
+    @BeforeClass
+    public void initClass() {
+
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        PowerMockito.when(openBankingCDSConfigParserMock.getIdPermanenceSecretKey()).thenReturn("wso2");
+    }
+
+    @Test
+    public void testCompileTemplate() {
+
+        CompiledUrlTemplate urlTemplate = CompiledUrlTemplate.of(
+                "/banking/accounts/{accountId}/transactions/{transactionId}");
+
+        Assert.assertEquals(urlTemplate.getParamNames().size(), 2);
+        Assert.assertEquals(urlTemplate.getParamNames().get(0), "accountId");
+        Assert.assertEquals(urlTemplate.getParamNames().get(1), "transactionId");
+        Assert.assertTrue(urlTemplate.isRequestUrlWithPathParams());
+        Assert.assertTrue(urlTemplate.isSingleResourceResponse());
+        Assert.assertFalse(urlTemplate.isResourceListResponse());
+        Assert.assertFalse(urlTemplate.isScheduledPaymentListResponse());
+        Assert.assertFalse(CompiledUrlTemplate.of("/banking/products/{productId}").isRequestUrlWithPathParams());
+    }
+
+    @Test
+    public void testCompileTemplateIsCached() {
+
+        String template = "/banking/accounts/{accountId}/statements";
+
+        Assert.assertSame(CompiledUrlTemplate.of(template), CompiledUrlTemplate.of(template));
+        Assert.assertFalse(CompiledUrlTemplate.of(template).isRequestUrlWithPathParams());
+    }
+
+    @Test
+    public void testMatchTemplateWithPartialSegmentParam() {
+
+        String template = "/banking/accounts/{accountId}.json";
+        String url = LINK_PREFIX + "/banking/accounts/abc.json?page=2";
+        int[] offsets = CompiledUrlTemplate.of(template).match(url);
+
+        Assert.assertNotNull(offsets);
+        Assert.assertEquals(url.substring(offsets[0], offsets[1]), "abc");
+        Assert.assertEquals(IdPermanenceUtils.extractUrlParams(template, url),
+                extractUrlParamsWithRegex(template, url));
+        Assert.assertNull(CompiledUrlTemplate.of(template).match(LINK_PREFIX + "/banking/accounts/abc"));
+    }
+
+    @Test
+    public void testMatchOffsets() {
+
+        String url = LINK_PREFIX + "/banking/accounts/abc/transactions/xyz?page=2";
+        int[] offsets = CompiledUrlTemplate.of("/banking/accounts/{accountId}/transactions/{transactionId}")
+                .match(url);
+
+        Assert.assertNotNull(offsets);
+        Assert.assertEquals(url.substring(offsets[0], offsets[1]), "abc");
+        Assert.assertEquals(url.substring(offsets[2], offsets[3]), "xyz");
+        Assert.assertNull(CompiledUrlTemplate.of("/banking/payees/{payeeId}").match(url));
+    }
+
+    @Test
+    public void testExtractUrlParamsMatchesRegexExtraction() {
+
+        for (String template : CDS_BANKING_PATHS) {
+            for (String url : getSampleUrls(template)) {
+                Assert.assertEquals(IdPermanenceUtils.extractUrlParams(template, url),
+                        extractUrlParamsWithRegex(template, url), template + " " + url);
+            }
+        }
+    }
+
+    @Test
+    public void testProcessNewUriMatchesRegexReplacement() {
+
+        for (String template : CDS_BANKING_PATHS) {
+            JsonObject newIdSet = getNewIdSet(template);
+            for (String url : getSampleUrls(template)) {
+                // Regex replacement skipped ids followed by a query, see testProcessNewUriReplacesOnlyPathParams
+                if (url.contains("?")) {
+                    continue;
+                }
+                Assert.assertEquals(IdPermanenceUtils.processNewUri(template, url, newIdSet),
+                        processNewUriWithRegex(template, url, newIdSet), template + " " + url);
+            }
+        }
+    }
+
+    @Test
+    public void testProcessNewUriReplacesOnlyPathParams() {
+
+        String template = "/banking/accounts/{accountId}";
+        JsonObject newIdSet = new JsonObject();
+        newIdSet.addProperty("accountId", "\"new-id\"");
+
+        // Resource id followed by a query
+        Assert.assertEquals(IdPermanenceUtils.processNewUri(template, "/banking/accounts/1?page=1", newIdSet),
+                "/banking/accounts/new-id?page=1");
+        // Resource id also found in another segment of the url
+        Assert.assertEquals(IdPermanenceUtils.processNewUri(template, "/1/banking/accounts/1", newIdSet),
+                "/1/banking/accounts/new-id");
+        Assert.assertEquals(IdPermanenceUtils.processNewUri(template, "/banking/payees/1", newIdSet),
+                "/banking/payees/1");
+    }
+
+    private static List<String> getSampleUrls(String template) {
+
+        String path = template.replace("{accountId}", "30080012343456").replace("{transactionId}", "txn-0001")
+                .replace("{payeeId}", "435f").replace("{productId}", "product-1");
+        List<String> urls = new ArrayList<>();
+        urls.add(path);
+        urls.add(path + "/");
+        urls.add(path + "?page=2&page-size=25");
+        urls.add(LINK_PREFIX + path);
+        urls.add(LINK_PREFIX + path + "?page=2");
+        urls.add(LINK_PREFIX + "/banking/other");
+        return urls;
+    }
+
+    private static JsonObject getNewIdSet(String template) {
+
+        JsonObject newIdSet = new JsonObject();
+        for (String paramName : CompiledUrlTemplate.of(template).getParamNames()) {
+            newIdSet.addProperty(paramName, "enc-" + paramName);
+        }
+        return newIdSet;
+    }
+
+    /**
+     * Path parameter extraction with regular expressions, as previously done by IdPermanenceUtils.
+     */
+    private static JsonObject extractUrlParamsWithRegex(String uriTemplate, String rawUrl) {
+
+        JsonObject pathParams = new JsonObject();
+        List<String> resourceKeys = new ArrayList<>();
+        String urlTemplateRegex = "(" + uriTemplate.replace("{", "(?<").replace("}", ">[^\\/?]*)") + ")";
+        Matcher resourceKeyMatcher = Pattern.compile(IdPermanenceConstants.URL_TEMPLATE_PATH_PARAM_PATTERN)
+                .matcher(uriTemplate);
+        while (resourceKeyMatcher.find()) {
+            resourceKeys.add(resourceKeyMatcher.group(0).replaceAll("\\{|}", ""));
+        }
+        Matcher urlMatcher = Pattern.compile(urlTemplateRegex).matcher(rawUrl);
+        if (urlMatcher.find()) {
+            for (String resourceKey : resourceKeys) {
+                pathParams.addProperty(resourceKey, urlMatcher.group(resourceKey));
+            }
+        }
+        return pathParams;
+    }
+
+    /**
+     * Path parameter replacement with regular expressions, as previously done by IdPermanenceUtils.
+     */
+    private static String processNewUriWithRegex(String uriTemplate, String rawUrl, JsonObject newIdSet) {
+
+        String processedUri = rawUrl;
+        String urlTemplateRegex = "(" + uriTemplate.replace("{", "(?<").replace("}", ">[^\\/?]*)") + ")";
+        Matcher urlMatcher = Pattern.compile(urlTemplateRegex).matcher(rawUrl);
+        if (urlMatcher.find()) {
+            for (String resourceKey : IdPermanenceUtils.getJsonObjectMembers(newIdSet)) {
+                processedUri = processedUri.replaceAll("/" + urlMatcher.group(resourceKey) + "($|[/])", "/" +
+                        (newIdSet.get(resourceKey).getAsString()).replaceAll("^[\"']+|[\"']+$", "") + "/");
+            }
+        }
+        if (!rawUrl.substring(rawUrl.length() - 1).equals("/") &&
+                processedUri.substring(processedUri.length() - 1).equals("/")) {
+            return processedUri.substring(0, processedUri.length() - 1);
+        }
+        return processedUri;
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.idpermanence.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import org.apache.commons.io.FileUtils;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.common.idpermanence.IdEncryptorDecryptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class for IdPermanenceResponseRewriter.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class})
+@PowerMockIgnore({"javax.crypto.*", "jdk.internal.reflect.*"})
+public class IdPermanenceResponseRewriterTest extends PowerMockTestCase {
+
+    private static final String ACCOUNTS_URL = "/banking/accounts";
+    private static final String ACCOUNT_DETAILS_URL = "/banking/accounts/{accountId}";
+    private static final String TRANSACTIONS_URL = "/banking/accounts/{accountId}/transactions";
+    private static final String SCHEDULED_PAYMENTS_URL = "/banking/accounts/{accountId}/payments/scheduled";
+    private static final String PRODUCTS_URL = "/banking/products";
+    private static final String MEMBER_ID = "mark@gold.com@carbon.super@carbon.super";
+    private static final String APP_ID = "7";
+    private static final String ENC_KEY = "wso2";
+
+    @BeforeClass
+    public void initClass() {
+
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        PowerMockito.when(openBankingCDSConfigParserMock.getIdPermanenceSecretKey()).thenReturn(ENC_KEY);
+    }
+
+    @Test
+    public void testRewriteResourceListResponse() throws IOException {
+
+        String payload = readFile("src/test/resources/test-account-response.json");
+        String rewrittenPayload = rewrite(payload, ACCOUNTS_URL);
+
+        Assert.assertEquals(rewrittenPayload, maskWithJsonTree(payload, ACCOUNTS_URL));
+        String encryptedAccountId = new JsonParser().parse(rewrittenPayload).getAsJsonObject().getAsJsonObject("data")
+                .getAsJsonArray("accounts").get(0).getAsJsonObject().get("accountId").getAsString();
+        Assert.assertEquals(IdEncryptorDecryptor.decrypt(encryptedAccountId, ENC_KEY),
+                MEMBER_ID + ":" + APP_ID + ":30080012343456");
+    }
+
+    @Test
+    public void testRewriteSingleResourceResponse() throws IOException {
+
+        String payload = readFile("src/test/resources/test-account-details-response.json");
+
+        Assert.assertEquals(rewrite(payload, ACCOUNT_DETAILS_URL), maskWithJsonTree(payload, ACCOUNT_DETAILS_URL));
+    }
+
+    @Test
+    public void testRewriteScheduledPaymentsResponse() throws IOException {
+
+        String payload = readFile("src/test/resources/test-scheduled-payments-response.json");
+
+        Assert.assertEquals(rewrite(payload, SCHEDULED_PAYMENTS_URL),
+                maskWithJsonTree(payload, SCHEDULED_PAYMENTS_URL));
+    }
+
+    @Test
+    public void testRewriteScheduledPaymentWithoutIds() {
+
+        String payload = "{\"data\":{\"scheduledPayments\":[{\"nickname\":\"rent\",\"from\":{}," +
+                "\"paymentSet\":[{\"to\":{\"toUType\":\"domestic\"}}]}]},\"links\":{\"self\":" +
+                "\"https://api.alphabank.com/cds-au/v1/banking/accounts/1234/payments/scheduled\"}}";
+
+        Assert.assertEquals(rewrite(payload, SCHEDULED_PAYMENTS_URL),
+                maskWithJsonTree(payload, SCHEDULED_PAYMENTS_URL));
+    }
+
+    @Test
+    public void testRewriteKeepsPayloadOfOtherResponses() {
+
+        String payload = "{\"data\":{\"products\":[{\"productId\":\"1\",\"name\":\"<Saver & co>\",\"rate\":1.50," +
+                "\"fee\":null,\"tags\":[null,true]}]},\"links\":{\"self\":\"/banking/products\"},\"meta\":{}}";
+
+        Assert.assertEquals(rewrite(payload, PRODUCTS_URL), maskWithJsonTree(payload, PRODUCTS_URL));
+    }
+
+    @Test
+    public void testRewriteTransactionsResponse() {
+
+        String payload = getTransactionsPayload(20);
+
+        Assert.assertEquals(rewrite(payload, TRANSACTIONS_URL), maskWithJsonTree(payload, TRANSACTIONS_URL));
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testRewriteMalformedResponse() {
+
+        rewrite("{\"data\":{\"accounts\":[{\"accountId\":\"1\"", ACCOUNTS_URL);
+    }
+
+    @Test
+    public void testRewriteResponseWithEscapedResourceId() {
+
+        String payload = "{\"data\":{\"accounts\":[{\"accountId\":\"300\\\"800\\\\123\\t\"}]}}";
+        String rewrittenPayload = rewrite(payload, ACCOUNTS_URL);
+
+        Assert.assertEquals(rewrittenPayload, maskWithJsonTree(payload, ACCOUNTS_URL));
+        String encryptedAccountId = new JsonParser().parse(rewrittenPayload).getAsJsonObject().getAsJsonObject("data")
+                .getAsJsonArray("accounts").get(0).getAsJsonObject().get("accountId").getAsString();
+        Assert.assertEquals(IdEncryptorDecryptor.decrypt(encryptedAccountId, ENC_KEY),
+                MEMBER_ID + ":" + APP_ID + ":300\\\"800\\\\123\\t");
+    }
+
+    private static String rewrite(String payload, String url) {
+
+        return new IdPermanenceResponseRewriter(url, MEMBER_ID, APP_ID, ENC_KEY).rewrite(payload);
+    }
+
+    private static String maskWithJsonTree(String payload, String url) {
+
+        JsonObject payloadJson = new JsonParser().parse(payload).getAsJsonObject();
+        return new Gson().toJson(IdPermanenceUtils.maskResponseIDs(payloadJson, url, MEMBER_ID, APP_ID, ENC_KEY));
+    }
+
+    private static String readFile(String path) throws IOException {
+
+        return FileUtils.readFileToString(new File(path), String.valueOf(StandardCharsets.UTF_8));
+    }
+
+    private static String getTransactionsPayload(int numberOfTransactions) {
+
+        StringBuilder payload = new StringBuilder("{\"data\":{\"transactions\":[");
+        for (int i = 0; i < numberOfTransactions; i++) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            payload.append("{\"accountId\":\"30080012343456\",\"transactionId\":\"").append(100000 + i)
+                    .append("\",\"isDetailAvailable\":true,\"type\":\"PAYMENT\",\"status\":\"POSTED\",")
+                    .append("\"description\":\"Payment to merchant <").append(i).append(">\",")
+                    .append("\"postingDateTime\":\"2024-05-01T15:43:00.12345Z\",")
+                    .append("\"valueDateTime\":\"2024-05-01T15:43:00.12345Z\",\"amount\":\"-").append(i % 1000)
+                    .append(".95\",\"currency\":\"AUD\",\"reference\":\"INV-").append(i)
+                    .append("\",\"merchantName\":\"Merchant\",\"merchantCategoryCode\":\"5411\",")
+                    .append("\"billerCode\":null,\"apcaNumber\":\"123456\",\"extendedData\":{\"payer\":\"Payer\",")
+                    .append("\"service\":\"X2P1.01\",\"extensionUType\":\"x2p101Payload\"}}");
+        }
+        payload.append("]},\"links\":{\"self\":\"https://api.alphabank.com/cds-au/v1/banking/accounts/")
+                .append("30080012343456/transactions?page=2\",\"first\":\"https://api.alphabank.com/cds-au/v1/")
+                .append("banking/accounts/30080012343456/transactions?page=1\"},\"meta\":{\"totalRecords\":")
+                .append(numberOfTransactions).append(",\"totalPages\":1}}");
+        return payload.toString();
+    }
+}
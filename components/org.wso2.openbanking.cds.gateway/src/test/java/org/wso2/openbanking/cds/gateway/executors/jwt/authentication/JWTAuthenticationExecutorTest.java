@@ -20,7 +20,6 @@ package org.wso2.openbanking.cds.gateway.executors.jwt.authentication;
 
 import com.wso2.openbanking.accelerator.common.util.JWTUtils;
 import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIRequestContext;
-import net.minidev.json.JSONObject;
 import org.apache.http.HttpHeaders;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -34,12 +33,21 @@ import org.testng.annotations.Test;
 import org.wso2.carbon.apimgt.common.gateway.dto.MsgInfoDTO;
 import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 import org.wso2.openbanking.cds.gateway.executors.jwt.authentication.cache.JwtJtiCache;
+import org.wso2.openbanking.cds.gateway.executors.jwt.authentication.cache.JwtJtiReplayStore;
+import org.wso2.openbanking.cds.gateway.executors.jwt.authentication.model.DecodedJWT;
 import org.wso2.openbanking.cds.gateway.executors.jwt.authentication.util.JWTAuthenticationExecutorConstants;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
@@ -48,7 +56,7 @@ import static org.powermock.api.mockito.PowerMockito.when;
 /**
  * Test class for JWTAuthenticationExecutor.
  */
-@PrepareForTest({JWTUtils.class, OpenBankingCDSConfigParser.class, JwtJtiCache.class})
+@PrepareForTest({JWTUtils.class, OpenBankingCDSConfigParser.class, JwtJtiCache.class, JwtJtiReplayStore.class})
 @PowerMockIgnore("jdk.internal.reflect.*")
 public class JWTAuthenticationExecutorTest extends PowerMockTestCase {
 
@@ -56,6 +64,7 @@ public class JWTAuthenticationExecutorTest extends PowerMockTestCase {
     OpenBankingCDSConfigParser openBankingCDSConfigParserMock;
     Map<String, String> headers = new HashMap<>();
     OBAPIRequestContext obApiRequestContextMock;
+    JwtJtiCache jwtJtiCacheMock;
     private static ByteArrayOutputStream outContent;
     private static Logger logger = null;
     private static PrintStream printStream;
@@ -173,6 +182,102 @@ public class JWTAuthenticationExecutorTest extends PowerMockTestCase {
         Assert.assertTrue(outContent.toString().contains("Invalid JWT Signature"));
     }
 
+    @Test
+    public void testReplayedToken() {
+
+        outContent.reset();
+        getInitialData();
+        when(openBankingCDSConfigParserMock.getJWTAuthJWKSUrl()).thenReturn("DummyJWKSUrl");
+        when(openBankingCDSConfigParserMock.getJWTAuthIssuer()).thenReturn("cdr-register");
+        when(openBankingCDSConfigParserMock.getJWTAuthSubject()).thenReturn("cdr-register");
+        when(openBankingCDSConfigParserMock.getJWTAuthAudience()).thenReturn("https://wso2ob.com");
+
+        headers.put(HttpHeaders.AUTHORIZATION, JWTAuthenticationExecutorConstants.JWT_TOKEN);
+        when(obApiRequestContextMock.isError()).thenReturn(false);
+        JWTAuthenticationExecutor validSignatureExecutor = new JWTAuthenticatorExecutorCountingMock();
+        validSignatureExecutor.preProcessRequest(obApiRequestContextMock);
+        Assert.assertFalse(outContent.toString().contains("Rejected replayed jti"));
+        validSignatureExecutor.preProcessRequest(obApiRequestContextMock);
+        Assert.assertTrue(outContent.toString().contains("Rejected replayed jti"));
+    }
+
+    @Test
+    public void testJtiOfTokenWithInvalidSignatureIsNotRecorded() {
+
+        outContent.reset();
+        getInitialData();
+        when(openBankingCDSConfigParserMock.getJWTAuthJWKSUrl()).thenReturn("DummyJWKSUrl");
+        when(openBankingCDSConfigParserMock.getJWTAuthIssuer()).thenReturn("cdr-register");
+        when(openBankingCDSConfigParserMock.getJWTAuthSubject()).thenReturn("cdr-register");
+        when(openBankingCDSConfigParserMock.getJWTAuthAudience()).thenReturn("https://wso2ob.com");
+
+        headers.put(HttpHeaders.AUTHORIZATION, JWTAuthenticationExecutorConstants.JWT_TOKEN);
+        when(obApiRequestContextMock.isError()).thenReturn(false);
+        jwtAuthenticationExecutor.preProcessRequest(obApiRequestContextMock);
+        Assert.assertTrue(outContent.toString().contains("Invalid JWT Signature"));
+
+        // The token with the valid signature is accepted, as the jti of the rejected token is not kept
+        new JWTAuthenticatorExecutorCountingMock().preProcessRequest(obApiRequestContextMock);
+        Assert.assertFalse(outContent.toString().contains("Rejected replayed jti"));
+        Mockito.verify(jwtJtiCacheMock, Mockito.times(1)).addToCache(Mockito.anyObject(), Mockito.anyObject());
+    }
+
+    @Test
+    public void testConcurrentRequestsWithSameToken() throws Exception {
+
+        getInitialData();
+        when(openBankingCDSConfigParserMock.getJWTAuthJWKSUrl()).thenReturn("DummyJWKSUrl");
+        when(openBankingCDSConfigParserMock.getJWTAuthIssuer()).thenReturn("cdr-register");
+        when(openBankingCDSConfigParserMock.getJWTAuthSubject()).thenReturn("cdr-register");
+        when(openBankingCDSConfigParserMock.getJWTAuthAudience()).thenReturn("https://wso2ob.com");
+
+        headers.put(HttpHeaders.AUTHORIZATION, JWTAuthenticationExecutorConstants.JWT_TOKEN);
+        when(obApiRequestContextMock.isError()).thenReturn(false);
+        JWTAuthenticatorExecutorCountingMock countingExecutor = new JWTAuthenticatorExecutorCountingMock();
+
+        int threadCount = 64;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            futures.add(executorService.submit(() -> {
+                startLatch.await();
+                countingExecutor.preProcessRequest(obApiRequestContextMock);
+                return null;
+            }));
+        }
+        startLatch.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        // Every request is validated, but only one of them is accepted
+        Assert.assertEquals(countingExecutor.getSignatureValidationCount(), threadCount);
+        Mockito.verify(jwtJtiCacheMock, Mockito.times(1)).addToCache(Mockito.anyObject(), Mockito.anyObject());
+    }
+
+    @Test
+    public void testJWTAuthConfigIsReadOnce() {
+
+        getInitialData();
+        when(openBankingCDSConfigParserMock.getJWTAuthJWKSUrl()).thenReturn("DummyJWKSUrl");
+        when(openBankingCDSConfigParserMock.getJWTAuthIssuer()).thenReturn("cdr-register");
+        when(openBankingCDSConfigParserMock.getJWTAuthSubject()).thenReturn("cdr-register");
+        when(openBankingCDSConfigParserMock.getJWTAuthAudience()).thenReturn("https://wso2ob.com");
+
+        headers.put(HttpHeaders.AUTHORIZATION, JWTAuthenticationExecutorConstants.JWT_TOKEN);
+        when(obApiRequestContextMock.isError()).thenReturn(false);
+        jwtAuthenticationExecutor.preProcessRequest(obApiRequestContextMock);
+        jwtAuthenticationExecutor.preProcessRequest(obApiRequestContextMock);
+
+        Mockito.verify(openBankingCDSConfigParserMock, Mockito.times(1)).getJWTAuthEnabled();
+        Mockito.verify(openBankingCDSConfigParserMock, Mockito.times(1)).getJWTAuthIssuer();
+    }
+
     private void getInitialData() {
 
         mockStatic(OpenBankingCDSConfigParser.class);
@@ -186,18 +291,39 @@ public class JWTAuthenticationExecutorTest extends PowerMockTestCase {
         when(msgInfoDTOMock.getHeaders()).thenReturn(headers);
 
         mockStatic(JwtJtiCache.class);
-        JwtJtiCache jwtJtiCacheMock = mock(JwtJtiCache.class);
+        jwtJtiCacheMock = mock(JwtJtiCache.class);
         when(JwtJtiCache.getInstance()).thenReturn(jwtJtiCacheMock);
         when(jwtJtiCacheMock.getFromCache(Mockito.anyObject())).thenReturn(null);
+        when(jwtJtiCacheMock.getCacheModifiedExpiryMinutes()).thenReturn(60);
+
+        JwtJtiReplayStore jwtJtiReplayStore = new JwtJtiReplayStore(jwtJtiCacheMock);
+        mockStatic(JwtJtiReplayStore.class);
+        when(JwtJtiReplayStore.getInstance()).thenReturn(jwtJtiReplayStore);
     }
 }
 
 class JWTAuthenticatorExecutorMock extends JWTAuthenticationExecutor {
 
     @Override
-    protected boolean validateJWTSignature(String jwtString, String configuredJwksUrl, JSONObject jwtHeader) {
+    protected boolean validateJWTSignature(DecodedJWT decodedJWT, String configuredJwksUrl) {
 
         return false;
     }
 }
 
+class JWTAuthenticatorExecutorCountingMock extends JWTAuthenticationExecutor {
+
+    private final AtomicInteger signatureValidationCount = new AtomicInteger();
+
+    @Override
+    protected boolean validateJWTSignature(DecodedJWT decodedJWT, String configuredJwksUrl) {
+
+        signatureValidationCount.incrementAndGet();
+        return true;
+    }
+
+    int getSignatureValidationCount() {
+
+        return signatureValidationCount.get();
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.jwt.authentication.cache;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for JWKSetCache.
+ */
+public class JWKSetCacheTest {
+
+    private HttpServer jwksServer;
+    private String jwksUrl;
+    private final AtomicInteger fetchCount = new AtomicInteger();
+    private volatile String jwksResponse;
+    private KeyPair keyPair;
+    private KeyPair rotatedKeyPair;
+    private TestClock clock;
+
+    @BeforeClass
+    public void initClass() throws Exception {
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        keyPair = keyPairGenerator.generateKeyPair();
+        rotatedKeyPair = keyPairGenerator.generateKeyPair();
+
+        jwksServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        jwksServer.createContext("/jwks", exchange -> {
+            fetchCount.incrementAndGet();
+            byte[] response = jwksResponse.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+        });
+        jwksServer.start();
+        jwksUrl = "http://localhost:" + jwksServer.getAddress().getPort() + "/jwks";
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        jwksServer.stop(0);
+    }
+
+    @BeforeMethod
+    public void resetServer() {
+
+        fetchCount.set(0);
+        clock = new TestClock();
+        jwksResponse = getJWKSResponse(getJWK(keyPair, "key-1"));
+    }
+
+    @Test
+    public void testValidateJWTSignature() throws Exception {
+
+        JWKSetCache jwkSetCache = getJWKSetCache(60000, 60000);
+
+        Assert.assertTrue(jwkSetCache.validateJWTSignature(getSignedJWT(keyPair, "key-1"), jwksUrl));
+        Assert.assertTrue(jwkSetCache.validateJWTSignature(getSignedJWT(keyPair, "key-1"), jwksUrl));
+        Assert.assertEquals(fetchCount.get(), 1);
+    }
+
+    @Test(expectedExceptions = BadJOSEException.class)
+    public void testValidateJWTSignatureWithOtherKey() throws Exception {
+
+        JWKSetCache jwkSetCache = getJWKSetCache(60000, 60000);
+
+        jwkSetCache.validateJWTSignature(getSignedJWT(rotatedKeyPair, "key-1"), jwksUrl);
+    }
+
+    @Test
+    public void testUnknownKeyIdIsNotRefetched() throws Exception {
+
+        JWKSetCache jwkSetCache = getJWKSetCache(60000, 0);
+        SignedJWT signedJWT = getSignedJWT(rotatedKeyPair, "unknown-key");
+
+        for (int i = 0; i < 100; i++) {
+            try {
+                jwkSetCache.validateJWTSignature(signedJWT, jwksUrl);
+                Assert.fail("Token signed with an unknown key id is accepted");
+            } catch (BadJOSEException e) {
+                // Expected, since the key id is not in the JWKS
+            }
+        }
+        // Initial fetch and a single refetch for the unknown key id
+        Assert.assertEquals(fetchCount.get(), 2);
+    }
+
+    @Test
+    public void testRotatedKeyTriggersRefetch() throws Exception {
+
+        JWKSetCache jwkSetCache = getJWKSetCache(60000, 0);
+        Assert.assertTrue(jwkSetCache.validateJWTSignature(getSignedJWT(keyPair, "key-1"), jwksUrl));
+
+        jwksResponse = getJWKSResponse(getJWK(keyPair, "key-1"), getJWK(rotatedKeyPair, "key-2"));
+
+        Assert.assertTrue(jwkSetCache.validateJWTSignature(getSignedJWT(rotatedKeyPair, "key-2"), jwksUrl));
+        Assert.assertEquals(fetchCount.get(), 2);
+    }
+
+    @Test
+    public void testRefetchIsRateLimited() throws Exception {
+
+        JWKSetCache jwkSetCache = getJWKSetCache(60000, 60000);
+        Assert.assertTrue(jwkSetCache.validateJWTSignature(getSignedJWT(keyPair, "key-1"), jwksUrl));
+
+        for (int i = 0; i < 100; i++) {
+            try {
+                jwkSetCache.validateJWTSignature(getSignedJWT(keyPair, "unknown-key-" + i), jwksUrl);
+                Assert.fail("Token signed with an unknown key id is accepted");
+            } catch (BadJOSEException e) {
+                // Expected, since the key id is not in the JWKS
+            }
+        }
+        Assert.assertEquals(fetchCount.get(), 1);
+    }
+
+    @Test
+    public void testKeyIdIsNotMarkedUnknownWithoutRefetch() throws Exception {
+
+        JWKSetCache jwkSetCache = getJWKSetCache(600000, 60000);
+        Assert.assertTrue(jwkSetCache.validateJWTSignature(getSignedJWT(keyPair, "key-1"), jwksUrl));
+
+        jwksResponse = getJWKSResponse(getJWK(keyPair, "key-1"), getJWK(rotatedKeyPair, "key-2"));
+        try {
+            jwkSetCache.validateJWTSignature(getSignedJWT(rotatedKeyPair, "key-2"), jwksUrl);
+            Assert.fail("Token signed with a key id not in the cached JWKS is accepted");
+        } catch (BadJOSEException e) {
+            // Expected, since the refetch is not allowed within the minimum refetch interval
+        }
+        Assert.assertEquals(fetchCount.get(), 1);
+
+        // The key id is looked up again once a refetch is allowed, as it was not missing from a fetched JWKS
+        clock.advance(60000);
+        Assert.assertTrue(jwkSetCache.validateJWTSignature(getSignedJWT(rotatedKeyPair, "key-2"), jwksUrl));
+        Assert.assertEquals(fetchCount.get(), 2);
+    }
+
+    @Test
+    public void testFetchesPerTimeToLive() throws Exception {
+
+        long timeToLive = 60000;
+        JWKSetCache jwkSetCache = getJWKSetCache(timeToLive, timeToLive);
+        SignedJWT signedJWT = getSignedJWT(keyPair, "key-1");
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(jwkSetCache.validateJWTSignature(signedJWT, jwksUrl));
+        }
+        Assert.assertEquals(fetchCount.get(), 1);
+
+        // A JWK set older than twice the time to live is fetched while validating
+        clock.advance(2 * timeToLive);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(jwkSetCache.validateJWTSignature(signedJWT, jwksUrl));
+        }
+        Assert.assertEquals(fetchCount.get(), 2);
+    }
+
+    private JWKSetCache getJWKSetCache(long timeToLive, long minRefetchInterval) {
+
+        return new JWKSetCache(new DefaultResourceRetriever(3000, 3000, 51200), timeToLive, minRefetchInterval,
+                300000, clock);
+    }
+
+    private static RSAKey getJWK(KeyPair keyPair, String keyId) {
+
+        return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic()).keyID(keyId).build();
+    }
+
+    private static String getJWKSResponse(RSAKey... keys) {
+
+        return new JWKSet(Arrays.asList(keys)).toJSONObject().toString();
+    }
+
+    private static SignedJWT getSignedJWT(KeyPair keyPair, String keyId) throws JOSEException {
+
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder().issuer("cdr-register").subject("cdr-register")
+                .audience("https://wso2ob.com").expirationTime(new Date(System.currentTimeMillis() + 600000))
+                .build();
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(keyId).build(),
+                claimsSet);
+        signedJWT.sign(new RSASSASigner(keyPair.getPrivate()));
+        return signedJWT;
+    }
+
+    /**
+     * Clock which only moves when advanced.
+     */
+    private static class TestClock extends Clock {
+
+        private volatile long millis = System.currentTimeMillis();
+
+        void advance(long advanceMillis) {
+
+            millis += advanceMillis;
+        }
+
+        @Override
+        public long millis() {
+
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+
+            return this;
+        }
+    }
+}
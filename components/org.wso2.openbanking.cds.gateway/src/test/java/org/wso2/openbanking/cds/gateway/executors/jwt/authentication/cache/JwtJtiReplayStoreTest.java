@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.executors.jwt.authentication.cache;
+
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+/**
+ * Test class for JwtJtiReplayStore.
+ */
+@PrepareForTest({JwtJtiCache.class})
+@PowerMockIgnore("jdk.internal.reflect.*")
+public class JwtJtiReplayStoreTest extends PowerMockTestCase {
+
+    private JwtJtiCache jwtJtiCacheMock;
+
+    @BeforeMethod
+    public void setup() {
+
+        jwtJtiCacheMock = mock(JwtJtiCache.class);
+        when(jwtJtiCacheMock.getFromCache(Mockito.anyObject())).thenReturn(null);
+        when(jwtJtiCacheMock.getCacheModifiedExpiryMinutes()).thenReturn(60);
+    }
+
+    @Test
+    public void testReplayedJtiIsRejected() {
+
+        JwtJtiReplayStore jwtJtiReplayStore = new JwtJtiReplayStore(jwtJtiCacheMock);
+        long expiryTime = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(5);
+
+        Assert.assertTrue(jwtJtiReplayStore.addIfAbsent("jti-1", expiryTime));
+        Assert.assertFalse(jwtJtiReplayStore.addIfAbsent("jti-1", expiryTime));
+        Assert.assertTrue(jwtJtiReplayStore.addIfAbsent("jti-2", expiryTime));
+    }
+
+    @Test
+    public void testJtiIsNotKeptLongerThanJtiCacheExpiry() {
+
+        when(jwtJtiCacheMock.getCacheModifiedExpiryMinutes()).thenReturn(0);
+        JwtJtiReplayStore jwtJtiReplayStore = new JwtJtiReplayStore(jwtJtiCacheMock);
+        long expiryTime = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365);
+
+        // The jti is kept until the expiry time of the JTI cache, even though the token expires a year later
+        Assert.assertTrue(jwtJtiReplayStore.addIfAbsent("jti-1", expiryTime));
+        Assert.assertTrue(jwtJtiReplayStore.addIfAbsent("jti-1", expiryTime));
+    }
+
+    @Test
+    public void testJtiIsRejectedWhenStoreIsFull() {
+
+        JwtJtiReplayStore jwtJtiReplayStore = new JwtJtiReplayStore(jwtJtiCacheMock, 2);
+        long expiryTime = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(5);
+
+        Assert.assertTrue(jwtJtiReplayStore.addIfAbsent("jti-1", expiryTime));
+        Assert.assertTrue(jwtJtiReplayStore.addIfAbsent("jti-2", expiryTime));
+        // Can not be claimed in the full store, so it is neither accepted nor added to the JTI cache
+        Assert.assertFalse(jwtJtiReplayStore.addIfAbsent("jti-3", expiryTime));
+        Mockito.verify(jwtJtiCacheMock, Mockito.never()).addToCache(JwtJtiCacheKey.of("jti-3"), "jti-3");
+        Assert.assertFalse(jwtJtiReplayStore.addIfAbsent("jti-1", expiryTime));
+    }
+
+    @Test
+    public void testExpiredJtiIsRemovedWhenStoreIsFull() {
+
+        when(jwtJtiCacheMock.getCacheModifiedExpiryMinutes()).thenReturn(0);
+        JwtJtiReplayStore jwtJtiReplayStore = new JwtJtiReplayStore(jwtJtiCacheMock, 1);
+        long expiryTime = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(5);
+
+        // The expired jti-1 is removed to make room for jti-2
+        Assert.assertTrue(jwtJtiReplayStore.addIfAbsent("jti-1", expiryTime));
+        Assert.assertTrue(jwtJtiReplayStore.addIfAbsent("jti-2", expiryTime));
+        Mockito.verify(jwtJtiCacheMock).addToCache(JwtJtiCacheKey.of("jti-2"), "jti-2");
+    }
+
+    @Test
+    public void testJtiAcceptedByOtherNodeIsRejected() {
+
+        JwtJtiReplayStore jwtJtiReplayStore = new JwtJtiReplayStore(jwtJtiCacheMock);
+        long expiryTime = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(5);
+
+        when(jwtJtiCacheMock.getFromCache(JwtJtiCacheKey.of("jti-1"))).thenReturn("jti-1");
+        Assert.assertFalse(jwtJtiReplayStore.addIfAbsent("jti-1", expiryTime));
+    }
+}
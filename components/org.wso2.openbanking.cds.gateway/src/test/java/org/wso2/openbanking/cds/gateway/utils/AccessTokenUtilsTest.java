@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.gateway.utils;
+
+import com.wso2.openbanking.accelerator.gateway.executor.model.OBAPIRequestContext;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.apimgt.common.gateway.dto.MsgInfoDTO;
+import org.wso2.carbon.apimgt.common.gateway.dto.RequestContextDTO;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.common.utils.CDSCommonUtils;
+import org.wso2.openbanking.cds.gateway.executors.reporting.CDSCommonDataReportingExecutor;
+import org.wso2.openbanking.cds.gateway.throttling.CDSThrottleDataPublisherImpl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Test class for AccessTokenUtils.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class, CDSCommonUtils.class})
+@PowerMockIgnore("jdk.internal.reflect.*")
+public class AccessTokenUtilsTest extends PowerMockTestCase {
+
+    private static final String AUTHORIZATION_HEADER = "authorizationHeader";
+    private static final String ENCRYPTED_TOKEN_PREFIX = "encrypted-";
+
+    private final AtomicInteger encryptionCount = new AtomicInteger();
+    OpenBankingCDSConfigParser openBankingCDSConfigParserMock;
+
+    @BeforeMethod
+    public void initMethod() {
+
+        encryptionCount.set(0);
+        openBankingCDSConfigParserMock = PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.mockStatic(CDSCommonUtils.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        PowerMockito.when(CDSCommonUtils.encryptAccessToken(Mockito.anyString())).thenAnswer(invocation -> {
+            encryptionCount.incrementAndGet();
+            return ENCRYPTED_TOKEN_PREFIX + invocation.getArguments()[0];
+        });
+        doReturn(true).when(openBankingCDSConfigParserMock).isTokenEncryptionEnabled();
+    }
+
+    @Test
+    public void testAccessTokenIsEncryptedOncePerRequest() {
+
+        MsgInfoDTO msgInfoDTO = getMsgInfo("Bearer token-1");
+        OBAPIRequestContext obApiRequestContextMock = Mockito.mock(OBAPIRequestContext.class);
+        Map<String, Object> analyticsData = new HashMap<>();
+        Mockito.doReturn(msgInfoDTO).when(obApiRequestContextMock).getMsgInfo();
+        Mockito.doReturn(analyticsData).when(obApiRequestContextMock).getAnalyticsData();
+        RequestContextDTO requestContextDTOMock = Mockito.mock(RequestContextDTO.class);
+        Mockito.doReturn(msgInfoDTO).when(requestContextDTOMock).getMsgInfo();
+
+        new CDSCommonDataReportingExecutor().postProcessRequest(obApiRequestContextMock);
+        Map<String, Object> customProperties = new CDSThrottleDataPublisherImpl()
+                .getCustomProperties(requestContextDTOMock);
+
+        Assert.assertEquals(analyticsData.get(GatewayConstants.ACCESS_TOKEN_ID), "encrypted-token-1");
+        Assert.assertEquals(customProperties.get(AUTHORIZATION_HEADER), "encrypted-token-1");
+        Assert.assertEquals(encryptionCount.get(), 1);
+    }
+
+    @Test
+    public void testAccessTokenIsEncryptedPerRequest() {
+
+        for (int i = 0; i < 10; i++) {
+            MsgInfoDTO msgInfoDTO = getMsgInfo("Bearer token-" + i);
+            Assert.assertEquals(AccessTokenUtils.getAccessToken(msgInfoDTO), "encrypted-token-" + i);
+            Assert.assertEquals(AccessTokenUtils.getAccessToken(msgInfoDTO), "encrypted-token-" + i);
+        }
+        Assert.assertEquals(encryptionCount.get(), 10);
+    }
+
+    @Test
+    public void testChangedAccessTokenIsEncryptedAgain() {
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put(GatewayConstants.AUTHORIZATION, "Bearer token-1");
+        MsgInfoDTO msgInfoDTO = Mockito.mock(MsgInfoDTO.class);
+        Mockito.doReturn(headers).when(msgInfoDTO).getHeaders();
+
+        Assert.assertEquals(AccessTokenUtils.getAccessToken(msgInfoDTO), "encrypted-token-1");
+        headers.put(GatewayConstants.AUTHORIZATION, "Bearer token-2");
+        Assert.assertEquals(AccessTokenUtils.getAccessToken(msgInfoDTO), "encrypted-token-2");
+        Assert.assertEquals(encryptionCount.get(), 2);
+    }
+
+    @Test
+    public void testAccessTokenWithoutEncryption() {
+
+        doReturn(false).when(openBankingCDSConfigParserMock).isTokenEncryptionEnabled();
+
+        Assert.assertEquals(AccessTokenUtils.getAccessToken(getMsgInfo("Bearer token-1")), "token-1");
+        Assert.assertEquals(encryptionCount.get(), 0);
+    }
+
+    @Test
+    public void testAccessTokenWithoutBearerToken() {
+
+        Assert.assertNull(AccessTokenUtils.getAccessToken(getMsgInfo(null)));
+        Assert.assertNull(AccessTokenUtils.getAccessToken(getMsgInfo("Bearer")));
+        Assert.assertEquals(encryptionCount.get(), 0);
+    }
+
+    private static MsgInfoDTO getMsgInfo(String authorizationHeader) {
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put(GatewayConstants.AUTHORIZATION, authorizationHeader);
+        MsgInfoDTO msgInfoDTO = Mockito.mock(MsgInfoDTO.class);
+        Mockito.doReturn(headers).when(msgInfoDTO).getHeaders();
+        return msgInfoDTO;
+    }
+}
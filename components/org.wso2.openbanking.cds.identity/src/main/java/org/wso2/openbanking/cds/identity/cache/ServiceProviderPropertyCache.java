@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.identity.cache;
+
+import com.wso2.openbanking.accelerator.common.caching.OpenBankingBaseCache;
+import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import com.wso2.openbanking.accelerator.common.identity.retriever.sp.CommonServiceProviderRetriever;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache definition to store the service provider metadata properties of applications, keyed by the client id and
+ * the property name.
+ * <p>
+ * Entries expire after the configured time, and are removed when the application is updated or deleted.
+ */
+public class ServiceProviderPropertyCache extends OpenBankingBaseCache<ServiceProviderPropertyCacheKey, String> {
+
+    private static final String CACHE_NAME = "CDS_SERVICE_PROVIDER_PROPERTY_CACHE";
+    // Names of the properties added to the cache, used to remove all the cached properties of an application
+    private static final Set<String> PROPERTY_NAMES = ConcurrentHashMap.newKeySet();
+    private static volatile ServiceProviderPropertyCache instance;
+    private final Integer accessExpiryMinutes;
+    private final Integer modifiedExpiryMinutes;
+
+    /**
+     * Initialize with unique cache name.
+     */
+    private ServiceProviderPropertyCache() {
+
+        super(CACHE_NAME);
+
+        accessExpiryMinutes = OpenBankingCDSConfigParser.getInstance()
+                .getServiceProviderPropertyCacheExpiryInMinutes();
+        modifiedExpiryMinutes = OpenBankingCDSConfigParser.getInstance()
+                .getServiceProviderPropertyCacheExpiryInMinutes();
+    }
+
+    public static ServiceProviderPropertyCache getInstance() {
+
+        if (instance == null) {
+            synchronized (ServiceProviderPropertyCache.class) {
+                if (instance == null) {
+                    instance = new ServiceProviderPropertyCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get a property from the service provider metadata of an application, retrieving it only if it is not
+     * cached. Properties which are not set are not cached.
+     *
+     * @param clientId                 client id of the application
+     * @param propertyName             property name
+     * @param serviceProviderRetriever retriever used if the property is not cached
+     * @return property value, or null if the property is not set
+     * @throws OpenBankingException if an error occurs while retrieving the property
+     */
+    public String getAppProperty(String clientId, String propertyName,
+                                 CommonServiceProviderRetriever serviceProviderRetriever)
+            throws OpenBankingException {
+
+        ServiceProviderPropertyCacheKey cacheKey = ServiceProviderPropertyCacheKey.of(clientId, propertyName);
+        String propertyValue = getFromCache(cacheKey);
+        if (propertyValue == null) {
+            propertyValue = serviceProviderRetriever.getAppPropertyFromSPMetaData(clientId, propertyName);
+            if (propertyValue != null) {
+                PROPERTY_NAMES.add(propertyName);
+                addToCache(cacheKey, propertyValue);
+            }
+        }
+        return propertyValue;
+    }
+
+    /**
+     * Remove all the cached properties of an application.
+     *
+     * @param clientId client id of the application
+     */
+    public void removeAppProperties(String clientId) {
+
+        for (String propertyName : PROPERTY_NAMES) {
+            removeFromCache(ServiceProviderPropertyCacheKey.of(clientId, propertyName));
+        }
+    }
+
+    @Override
+    public int getCacheAccessExpiryMinutes() {
+        return accessExpiryMinutes;
+    }
+
+    @Override
+    public int getCacheModifiedExpiryMinutes() {
+        return modifiedExpiryMinutes;
+    }
+}
@@ -31,6 +31,7 @@ import org.wso2.carbon.identity.oauth.event.OAuthEventInterceptor;
 import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthenticator;
 import org.wso2.carbon.identity.oauth2.client.authentication.OAuthClientAuthnService;
 import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.openbanking.cds.common.data.publisher.CDSDataPublishingServiceImpl;
 import org.wso2.openbanking.cds.identity.authenticator.CDSArrangementPrivateKeyJWTClientAuthenticator;
 import org.wso2.openbanking.cds.identity.authenticator.CDSIntrospectionPrivateKeyJWTClientAuthenticator;
 import org.wso2.openbanking.cds.identity.authenticator.CDSPARPrivateKeyJWTClientAuthenticator;
@@ -94,6 +95,7 @@ public class CDSIdentityServiceComponent {
     @Deactivate
     protected void deactivate(ComponentContext context) {
 
+        CDSDataPublishingServiceImpl.getInstance().stopAsyncDataPublishing();
         log.debug("Open banking CDS Identity Service Component is deactivated");
     }
 
@@ -26,6 +26,8 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.application.common.model.InboundAuthenticationRequestConfig;
 import org.wso2.carbon.identity.application.common.model.ServiceProvider;
 import org.wso2.carbon.identity.oauth.dto.OAuthConsumerAppDTO;
+import org.wso2.openbanking.cds.common.utils.AccountMetadataUpdateTracker;
+import org.wso2.openbanking.cds.identity.cache.ServiceProviderPropertyCache;
 import org.wso2.openbanking.cds.identity.dcr.constants.CDSValidationConstants;
 
 import java.util.Map;
@@ -59,6 +61,13 @@ public class CDSApplicationUpdaterImpl extends ApplicationUpdaterImpl {
         if (isRegulatoryApp) {
             oauthApplication.setPkceMandatory(true);
         }
+
+        // Remove the cached service provider properties of the application, as they may be updated. Consent
+        // validation states derived from the previous properties, such as the legal entity id, are discarded too.
+        if (StringUtils.isNotBlank(oauthApplication.getOauthConsumerKey())) {
+            ServiceProviderPropertyCache.getInstance().removeAppProperties(oauthApplication.getOauthConsumerKey());
+            AccountMetadataUpdateTracker.notifyUpdate();
+        }
     }
 
     @Override
@@ -75,6 +84,8 @@ public class CDSApplicationUpdaterImpl extends ApplicationUpdaterImpl {
                 clientId = inboundAuthRequestConfigs.getInboundAuthKey();
             }
             if (!StringUtils.isEmpty(clientId)) {
+                ServiceProviderPropertyCache.getInstance().removeAppProperties(clientId);
+                AccountMetadataUpdateTracker.notifyUpdate();
                 consentCoreService.revokeExistingApplicableConsents(clientId, null, CDR_ACCOUNTS, AUTHORIZED,
                         REVOKED, true);
                 log.debug("Applicable tokens and consents revoked successfully.");
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.identity.cache;
+
+import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import com.wso2.openbanking.accelerator.common.identity.retriever.sp.CommonServiceProviderRetriever;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth.dto.OAuthConsumerAppDTO;
+import org.wso2.openbanking.cds.identity.listener.application.CDSApplicationUpdaterImpl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Test class for Service Provider Property Cache.
+ */
+@PrepareForTest({ServiceProviderPropertyCache.class})
+@PowerMockIgnore("jdk.internal.reflect.*")
+public class ServiceProviderPropertyCacheTest extends PowerMockTestCase {
+
+    private static final String CLIENT_ID = "client1";
+    private static final String LEGAL_ENTITY_ID = "legal_entity_id";
+
+    private final Map<ServiceProviderPropertyCacheKey, String> cacheEntries = new ConcurrentHashMap<>();
+    private final AtomicInteger retrievalCount = new AtomicInteger();
+    private ServiceProviderPropertyCache serviceProviderPropertyCache;
+    private CommonServiceProviderRetriever commonServiceProviderRetrieverMock;
+
+    @BeforeMethod
+    public void initMethod() throws OpenBankingException {
+
+        cacheEntries.clear();
+        retrievalCount.set(0);
+
+        // Cache operations are backed by a map, while the property retrieval of the cache is tested as it is.
+        serviceProviderPropertyCache = mock(ServiceProviderPropertyCache.class,
+                withSettings().defaultAnswer(Mockito.CALLS_REAL_METHODS).stubOnly());
+        doAnswer(invocation -> cacheEntries.get(invocation.getArguments()[0])).when(serviceProviderPropertyCache)
+                .getFromCache(Mockito.any(ServiceProviderPropertyCacheKey.class));
+        doAnswer(invocation -> cacheEntries.put((ServiceProviderPropertyCacheKey) invocation.getArguments()[0],
+                (String) invocation.getArguments()[1])).when(serviceProviderPropertyCache)
+                .addToCache(Mockito.any(ServiceProviderPropertyCacheKey.class), Mockito.anyString());
+        doAnswer(invocation -> cacheEntries.remove(invocation.getArguments()[0])).when(serviceProviderPropertyCache)
+                .removeFromCache(Mockito.any(ServiceProviderPropertyCacheKey.class));
+        PowerMockito.mockStatic(ServiceProviderPropertyCache.class);
+        PowerMockito.when(ServiceProviderPropertyCache.getInstance()).thenReturn(serviceProviderPropertyCache);
+
+        commonServiceProviderRetrieverMock = mock(CommonServiceProviderRetriever.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            retrievalCount.incrementAndGet();
+            String clientId = (String) invocation.getArguments()[0];
+            return clientId.startsWith("client") ? "legalEntity-" + clientId : null;
+        }).when(commonServiceProviderRetrieverMock).getAppPropertyFromSPMetaData(Mockito.anyString(),
+                Mockito.anyString());
+    }
+
+    @Test
+    public void testAppPropertyIsRetrievedOnce() throws OpenBankingException {
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(serviceProviderPropertyCache.getAppProperty(CLIENT_ID, LEGAL_ENTITY_ID,
+                    commonServiceProviderRetrieverMock), "legalEntity-client1");
+        }
+        Assert.assertEquals(serviceProviderPropertyCache.getAppProperty("client2", LEGAL_ENTITY_ID,
+                commonServiceProviderRetrieverMock), "legalEntity-client2");
+
+        Assert.assertEquals(retrievalCount.get(), 2);
+    }
+
+    @Test
+    public void testAppPropertyWhichIsNotSetIsNotCached() throws OpenBankingException {
+
+        Assert.assertNull(serviceProviderPropertyCache.getAppProperty("app1", LEGAL_ENTITY_ID,
+                commonServiceProviderRetrieverMock));
+        Assert.assertNull(serviceProviderPropertyCache.getAppProperty("app1", LEGAL_ENTITY_ID,
+                commonServiceProviderRetrieverMock));
+
+        Assert.assertEquals(retrievalCount.get(), 2);
+        Assert.assertTrue(cacheEntries.isEmpty());
+    }
+
+    @Test
+    public void testAppPropertiesAreRemovedOnApplicationUpdate() throws OpenBankingException {
+
+        serviceProviderPropertyCache.getAppProperty(CLIENT_ID, LEGAL_ENTITY_ID, commonServiceProviderRetrieverMock);
+        serviceProviderPropertyCache.getAppProperty("client2", LEGAL_ENTITY_ID, commonServiceProviderRetrieverMock);
+        OAuthConsumerAppDTO oAuthConsumerAppDTO = new OAuthConsumerAppDTO();
+        oAuthConsumerAppDTO.setOauthConsumerKey(CLIENT_ID);
+
+        new CDSApplicationUpdaterImpl().setOauthAppProperties(true, oAuthConsumerAppDTO, new HashMap<>());
+
+        Assert.assertFalse(cacheEntries.containsKey(ServiceProviderPropertyCacheKey.of(CLIENT_ID, LEGAL_ENTITY_ID)));
+        Assert.assertTrue(cacheEntries.containsKey(ServiceProviderPropertyCacheKey.of("client2", LEGAL_ENTITY_ID)));
+        serviceProviderPropertyCache.getAppProperty(CLIENT_ID, LEGAL_ENTITY_ID, commonServiceProviderRetrieverMock);
+        Assert.assertEquals(retrievalCount.get(), 3);
+    }
+}
@@ -19,10 +19,17 @@
 package org.wso2.openbanking.cds.identity.listener.application;
 
 import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.wso2.carbon.identity.oauth.dto.OAuthConsumerAppDTO;
+import org.wso2.openbanking.cds.common.utils.AccountMetadataUpdateTracker;
+import org.wso2.openbanking.cds.identity.cache.ServiceProviderPropertyCache;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -30,7 +37,9 @@ import java.util.Map;
 /**
  * Test class for Application Management Listener functionality.
  */
-public class ApplicationManagementListenerTest {
+@PrepareForTest({ServiceProviderPropertyCache.class})
+@PowerMockIgnore("jdk.internal.reflect.*")
+public class ApplicationManagementListenerTest extends PowerMockTestCase {
 
     private Map<String, Object> spMetaData = new HashMap<>();
 
@@ -50,4 +59,23 @@ public class ApplicationManagementListenerTest {
         Assert.assertEquals(oAuthConsumerAppDTO.getIdTokenEncryptionAlgorithm(), "RSA-OEAP");
         Assert.assertEquals(oAuthConsumerAppDTO.getIdTokenEncryptionMethod(), "A256GCM");
     }
+
+    @Test
+    public void testSetOauthPropertiesDiscardsCachedProperties() throws OpenBankingException {
+
+        ServiceProviderPropertyCache serviceProviderPropertyCacheMock =
+                Mockito.mock(ServiceProviderPropertyCache.class);
+        PowerMockito.mockStatic(ServiceProviderPropertyCache.class);
+        PowerMockito.when(ServiceProviderPropertyCache.getInstance()).thenReturn(serviceProviderPropertyCacheMock);
+
+        CDSApplicationUpdaterImpl cdsApplicationUpdater = new CDSApplicationUpdaterImpl();
+        OAuthConsumerAppDTO oAuthConsumerAppDTO = new OAuthConsumerAppDTO();
+        oAuthConsumerAppDTO.setOauthConsumerKey("client1");
+        long updateCount = AccountMetadataUpdateTracker.getUpdateCount();
+        cdsApplicationUpdater.setOauthAppProperties(true, oAuthConsumerAppDTO, spMetaData);
+
+        Mockito.verify(serviceProviderPropertyCacheMock).removeAppProperties("client1");
+        // Consent validation states derived from the previous properties are outdated.
+        Assert.assertTrue(AccountMetadataUpdateTracker.getUpdateCount() > updateCount);
+    }
 }
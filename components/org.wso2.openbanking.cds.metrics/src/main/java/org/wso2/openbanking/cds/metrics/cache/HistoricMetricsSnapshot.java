@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.cache;
+
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.metrics.model.AuthorisationMetric;
+import org.wso2.openbanking.cds.metrics.model.CustomerTypeCount;
+import org.wso2.openbanking.cds.metrics.model.MetricsResponseModel;
+import org.wso2.openbanking.cds.metrics.util.MetricsServiceUtil;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable snapshot of the historic metrics calculated by the HistoricMetricsCacheJob.
+ * <p>
+ * The metrics are copied into unmodifiable lists when the snapshot is created, so a single snapshot can be shared
+ * by all concurrent metrics requests without serializing the metrics on every read. Each request gets its own
+ * modifiable copy of the metrics lists, since the response mappers modify the lists they are given.
+ */
+public final class HistoricMetricsSnapshot {
+
+    private final MetricsResponseModel metricsResponseModel;
+    private final ZoneId timeZone;
+    private final LocalDate requestDate;
+    private final LocalDate metricsDate;
+    private final int rolloverCount;
+    private final long expiryTimeMillis;
+
+    /**
+     * Create a snapshot of the given historic metrics.
+     *
+     * @param metricsResponseModel - historic metrics
+     * @param validityMillis       - time in milliseconds the snapshot can be served from the cache
+     */
+    public HistoricMetricsSnapshot(MetricsResponseModel metricsResponseModel, long validityMillis) {
+
+        this(metricsResponseModel, MetricsServiceUtil.getRequestDate(metricsResponseModel, getMetricsTimeZone()), 0,
+                validityMillis);
+    }
+
+    /**
+     * Create a snapshot of the given historic metrics.
+     *
+     * @param metricsResponseModel - historic metrics
+     * @param metricsDate          - date in the metrics time zone on which the metrics were calculated
+     * @param rolloverCount        - number of day roll overs applied since the metrics were fully calculated
+     * @param validityMillis       - time in milliseconds the snapshot can be served from the cache
+     */
+    public HistoricMetricsSnapshot(MetricsResponseModel metricsResponseModel, LocalDate metricsDate,
+                                   int rolloverCount, long validityMillis) {
+
+        this.metricsResponseModel = copy(metricsResponseModel, metricsResponseModel.getRequestTime(), true);
+        this.timeZone = getMetricsTimeZone();
+        this.requestDate = MetricsServiceUtil.getRequestDate(metricsResponseModel, timeZone);
+        this.metricsDate = metricsDate;
+        this.rolloverCount = rolloverCount;
+        this.expiryTimeMillis = System.currentTimeMillis() + validityMillis;
+    }
+
+    /**
+     * Get the historic metrics of the snapshot. The returned model must be treated as read only.
+     *
+     * @return MetricsResponseModel with unmodifiable metrics lists
+     */
+    public MetricsResponseModel getMetricsResponseModel() {
+
+        return metricsResponseModel;
+    }
+
+    /**
+     * Get a copy of the historic metrics for the given request time.
+     * The metrics lists of the copy are modifiable and are not shared with the snapshot.
+     *
+     * @param requestTime - time of request
+     * @return MetricsResponseModel
+     */
+    public MetricsResponseModel getMetricsResponseModel(String requestTime) {
+
+        return copy(metricsResponseModel, requestTime, false);
+    }
+
+    /**
+     * Get the date in the metrics time zone on which the metrics of the snapshot were calculated.
+     * The latest day covered by the snapshot is the day before this date.
+     *
+     * @return metrics date
+     */
+    public LocalDate getMetricsDate() {
+
+        return metricsDate;
+    }
+
+    /**
+     * Get the number of day roll overs applied to the metrics since they were last calculated from scratch.
+     *
+     * @return roll over count
+     */
+    public int getRolloverCount() {
+
+        return rolloverCount;
+    }
+
+    /**
+     * Check whether the snapshot has expired, either because its cache validity period has elapsed or because the
+     * metrics were calculated on a previous day in the metrics time zone.
+     *
+     * @return true if the snapshot should not be served anymore
+     */
+    public boolean isExpired() {
+
+        return System.currentTimeMillis() > expiryTimeMillis || requestDate.isBefore(LocalDate.now(timeZone));
+    }
+
+    private static ZoneId getMetricsTimeZone() {
+
+        return ZoneId.of(OpenBankingCDSConfigParser.getInstance().getMetricsTimeZone());
+    }
+
+    /**
+     * Copy the metrics lists of the given model.
+     *
+     * @param source        - metrics to copy
+     * @param requestTime   - request time of the copy
+     * @param unmodifiable  - whether the lists of the copy are unmodifiable
+     * @return MetricsResponseModel
+     */
+    private static MetricsResponseModel copy(MetricsResponseModel source, String requestTime, boolean unmodifiable) {
+
+        MetricsResponseModel copied = new MetricsResponseModel(requestTime, source);
+        copied.setSessionCount(copyList(source.getSessionCount(), unmodifiable));
+
+        copied.setAvailability(copyList(source.getAvailability(), unmodifiable));
+        copied.setAuthenticatedAvailability(copyList(source.getAuthenticatedAvailability(), unmodifiable));
+        copied.setUnauthenticatedAvailability(copyList(source.getUnauthenticatedAvailability(), unmodifiable));
+
+        copied.setPerformance(copyList(source.getPerformance(), unmodifiable));
+        copied.setPerformanceUnauthenticated(copyNestedList(source.getPerformanceUnauthenticated(), unmodifiable));
+        copied.setPerformanceHighPriority(copyNestedList(source.getPerformanceHighPriority(), unmodifiable));
+        copied.setPerformanceLowPriority(copyNestedList(source.getPerformanceLowPriority(), unmodifiable));
+        copied.setPerformanceUnattended(copyNestedList(source.getPerformanceUnattended(), unmodifiable));
+        copied.setPerformanceLargePayload(copyNestedList(source.getPerformanceLargePayload(), unmodifiable));
+
+        copied.setInvocationUnauthenticated(copyList(source.getInvocationUnauthenticated(), unmodifiable));
+        copied.setInvocationHighPriority(copyList(source.getInvocationHighPriority(), unmodifiable));
+        copied.setInvocationLowPriority(copyList(source.getInvocationLowPriority(), unmodifiable));
+        copied.setInvocationUnattended(copyList(source.getInvocationUnattended(), unmodifiable));
+        copied.setInvocationLargePayload(copyList(source.getInvocationLargePayload(), unmodifiable));
+
+        copied.setAverageResponseUnauthenticated(
+                copyList(source.getAverageResponseUnauthenticated(), unmodifiable));
+        copied.setAverageResponseHighPriority(copyList(source.getAverageResponseHighPriority(), unmodifiable));
+        copied.setAverageResponseLowPriority(copyList(source.getAverageResponseLowPriority(), unmodifiable));
+        copied.setAverageResponseUnattended(copyList(source.getAverageResponseUnattended(), unmodifiable));
+        copied.setAverageResponseLargePayload(copyList(source.getAverageResponseLargePayload(), unmodifiable));
+
+        copied.setAverageTPS(copyList(source.getAverageTPS(), unmodifiable));
+        copied.setAuthenticatedAverageTPS(copyList(source.getAuthenticatedAverageTPS(), unmodifiable));
+        copied.setUnauthenticatedAverageTPS(copyList(source.getUnauthenticatedAverageTPS(), unmodifiable));
+
+        copied.setPeakTPS(copyList(source.getPeakTPS(), unmodifiable));
+        copied.setAuthenticatedPeakTPS(copyList(source.getAuthenticatedPeakTPS(), unmodifiable));
+        copied.setUnauthenticatedPeakTPS(copyList(source.getUnauthenticatedPeakTPS(), unmodifiable));
+
+        copied.setErrors(copyList(source.getErrors(), unmodifiable));
+        copied.setAuthenticatedErrors(copyMapList(source.getAuthenticatedErrors(), unmodifiable));
+        copied.setUnauthenticatedErrors(copyMapList(source.getUnauthenticatedErrors(), unmodifiable));
+
+        copied.setAuthenticatedEndpointRejections(
+                copyList(source.getAuthenticatedEndpointRejections(), unmodifiable));
+        copied.setUnauthenticatedEndpointRejections(
+                copyList(source.getUnauthenticatedEndpointRejections(), unmodifiable));
+
+        copied.setNewAuthorisationCount(copyList(source.getNewAuthorisationCount(),
+                HistoricMetricsSnapshot::copyAuthorisationMetric, unmodifiable));
+        copied.setRevokedAuthorisationCount(copyList(source.getRevokedAuthorisationCount(),
+                HistoricMetricsSnapshot::copyCustomerTypeCount, unmodifiable));
+        copied.setAmendedAuthorisationCount(copyList(source.getAmendedAuthorisationCount(),
+                HistoricMetricsSnapshot::copyCustomerTypeCount, unmodifiable));
+        copied.setExpiredAuthorisationCount(copyList(source.getExpiredAuthorisationCount(),
+                HistoricMetricsSnapshot::copyCustomerTypeCount, unmodifiable));
+
+        copied.setAbandonedConsentFlowCount(copyList(source.getAbandonedConsentFlowCount(), unmodifiable));
+        copied.setPreIdentificationAbandonedConsentFlowCount(
+                copyList(source.getPreIdentificationAbandonedConsentFlowCount(), unmodifiable));
+        copied.setPreAuthenticationAbandonedConsentFlowCount(
+                copyList(source.getPreAuthenticationAbandonedConsentFlowCount(), unmodifiable));
+        copied.setPreAccountSelectionAbandonedConsentFlowCount(
+                copyList(source.getPreAccountSelectionAbandonedConsentFlowCount(), unmodifiable));
+        copied.setPreAuthorisationAbandonedConsentFlowCount(
+                copyList(source.getPreAuthorisationAbandonedConsentFlowCount(), unmodifiable));
+        copied.setRejectedAbandonedConsentFlowCount(
+                copyList(source.getRejectedAbandonedConsentFlowCount(), unmodifiable));
+        copied.setFailedTokenExchangeAbandonedConsentFlowCount(
+                copyList(source.getFailedTokenExchangeAbandonedConsentFlowCount(), unmodifiable));
+        return copied;
+    }
+
+    private static <T> List<T> copyList(List<T> list, boolean unmodifiable) {
+
+        return copyList(list, UnaryOperator.identity(), unmodifiable);
+    }
+
+    private static <T> List<T> copyList(List<T> list, UnaryOperator<T> elementCopier, boolean unmodifiable) {
+
+        if (list == null) {
+            return null;
+        }
+        List<T> copy = new ArrayList<>(list.size());
+        for (T element : list) {
+            copy.add(element == null ? null : elementCopier.apply(element));
+        }
+        return unmodifiable ? Collections.unmodifiableList(copy) : copy;
+    }
+
+    private static <T> List<List<T>> copyNestedList(List<List<T>> list, boolean unmodifiable) {
+
+        return copyList(list, nestedList -> copyList(nestedList, unmodifiable), unmodifiable);
+    }
+
+    private static <K, V> List<Map<K, V>> copyMapList(List<Map<K, V>> list, boolean unmodifiable) {
+
+        return copyList(list, map -> unmodifiable ? Collections.unmodifiableMap(new LinkedHashMap<>(map)) :
+                new LinkedHashMap<>(map), unmodifiable);
+    }
+
+    private static AuthorisationMetric copyAuthorisationMetric(AuthorisationMetric authorisationMetric) {
+
+        AuthorisationMetric copy = new AuthorisationMetric();
+        copy.setOnceOff(copyCustomerTypeCount(authorisationMetric.getOnceOff()));
+        copy.setOngoing(copyCustomerTypeCount(authorisationMetric.getOngoing()));
+        return copy;
+    }
+
+    private static CustomerTypeCount copyCustomerTypeCount(CustomerTypeCount customerTypeCount) {
+
+        return customerTypeCount == null ? null :
+                new CustomerTypeCount(customerTypeCount.getIndividual(), customerTypeCount.getNonIndividual());
+    }
+}
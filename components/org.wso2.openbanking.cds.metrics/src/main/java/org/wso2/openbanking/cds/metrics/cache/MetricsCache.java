@@ -20,9 +20,16 @@ package org.wso2.openbanking.cds.metrics.cache;
 
 import com.wso2.openbanking.accelerator.common.caching.OpenBankingBaseCache;
 import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.metrics.model.MetricsResponseModel;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Cache definition to store Metrics aggregated data.
+ * <p>
+ * The historic metrics are held as an immutable {@link HistoricMetricsSnapshot} in a volatile reference, which is
+ * replaced atomically when the historic metrics are recalculated.
  */
 public class MetricsCache extends OpenBankingBaseCache<MetricsCacheKey, Object> {
 
@@ -31,6 +38,7 @@ public class MetricsCache extends OpenBankingBaseCache<MetricsCacheKey, Object>
     private final Integer accessExpiryMinutes;
     private final Integer modifiedExpiryMinutes;
     private static final MetricsCacheKey historicMetricsCacheKey = new MetricsCacheKey("HistoricMetricsData");
+    private volatile HistoricMetricsSnapshot historicMetricsSnapshot;
 
     /**
      * Initialize with unique cache name.
@@ -68,4 +76,51 @@ public class MetricsCache extends OpenBankingBaseCache<MetricsCacheKey, Object>
     public static MetricsCacheKey getHistoricMetricsCacheKey() {
         return historicMetricsCacheKey;
     }
+
+    /**
+     * Get the cached historic metrics snapshot.
+     *
+     * @return HistoricMetricsSnapshot, or null if the historic metrics are not cached or the snapshot has expired
+     */
+    public HistoricMetricsSnapshot getHistoricMetricsSnapshot() {
+
+        HistoricMetricsSnapshot snapshot = historicMetricsSnapshot;
+        return snapshot == null || snapshot.isExpired() ? null : snapshot;
+    }
+
+    /**
+     * Get the latest historic metrics snapshot, including an expired one.
+     * Used to roll the historic metrics over to the next day without calculating them from scratch.
+     *
+     * @return HistoricMetricsSnapshot, or null if the historic metrics are not cached
+     */
+    public HistoricMetricsSnapshot getLatestHistoricMetricsSnapshot() {
+
+        return historicMetricsSnapshot;
+    }
+
+    /**
+     * Replace the cached historic metrics snapshot.
+     *
+     * @param metricsResponseModel - historic metrics
+     */
+    public void setHistoricMetricsSnapshot(MetricsResponseModel metricsResponseModel) {
+
+        historicMetricsSnapshot = new HistoricMetricsSnapshot(metricsResponseModel,
+                TimeUnit.MINUTES.toMillis(modifiedExpiryMinutes));
+    }
+
+    /**
+     * Replace the cached historic metrics snapshot.
+     *
+     * @param metricsResponseModel - historic metrics
+     * @param metricsDate          - date in the metrics time zone on which the metrics were calculated
+     * @param rolloverCount        - number of day roll overs applied since the metrics were fully calculated
+     */
+    public void setHistoricMetricsSnapshot(MetricsResponseModel metricsResponseModel, LocalDate metricsDate,
+                                           int rolloverCount) {
+
+        historicMetricsSnapshot = new HistoricMetricsSnapshot(metricsResponseModel, metricsDate, rolloverCount,
+                TimeUnit.MINUTES.toMillis(modifiedExpiryMinutes));
+    }
 }
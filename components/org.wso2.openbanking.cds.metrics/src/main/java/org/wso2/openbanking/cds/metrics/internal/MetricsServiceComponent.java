@@ -33,6 +33,7 @@ import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 import org.wso2.openbanking.cds.metrics.periodic.job.HistoricMetricsCacheJob;
 import org.wso2.openbanking.cds.metrics.periodic.scheduler.MetricsPeriodicJobScheduler;
+import org.wso2.openbanking.cds.metrics.service.MetricsFetchExecutor;
 
 /**
  * Metrics Service Component
@@ -63,6 +64,7 @@ public class MetricsServiceComponent {
 
     @Deactivate
     protected void deactivate(ComponentContext context) {
+        MetricsFetchExecutor.shutdown();
         log.debug("CDS Metrics bundle is deactivated");
     }
 
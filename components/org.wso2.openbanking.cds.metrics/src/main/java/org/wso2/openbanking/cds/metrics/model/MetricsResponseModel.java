@@ -110,6 +110,67 @@ public class MetricsResponseModel {
         this.requestTime = requestTime;
     }
 
+    /**
+     * Create a shallow copy of the given model with a different request time.
+     * The metrics lists are shared with the given model and are not copied.
+     *
+     * @param requestTime          - time of request
+     * @param metricsResponseModel - model to copy the metrics from
+     */
+    public MetricsResponseModel(String requestTime, MetricsResponseModel metricsResponseModel) {
+        this.requestTime = requestTime;
+        this.customerCount = metricsResponseModel.customerCount;
+        this.recipientCount = metricsResponseModel.recipientCount;
+        this.sessionCount = metricsResponseModel.sessionCount;
+        this.availability = metricsResponseModel.availability;
+        this.authenticatedAvailability = metricsResponseModel.authenticatedAvailability;
+        this.unauthenticatedAvailability = metricsResponseModel.unauthenticatedAvailability;
+        this.performance = metricsResponseModel.performance;
+        this.performanceUnauthenticated = metricsResponseModel.performanceUnauthenticated;
+        this.performanceHighPriority = metricsResponseModel.performanceHighPriority;
+        this.performanceLowPriority = metricsResponseModel.performanceLowPriority;
+        this.performanceUnattended = metricsResponseModel.performanceUnattended;
+        this.performanceLargePayload = metricsResponseModel.performanceLargePayload;
+        this.invocationUnauthenticated = metricsResponseModel.invocationUnauthenticated;
+        this.invocationHighPriority = metricsResponseModel.invocationHighPriority;
+        this.invocationLowPriority = metricsResponseModel.invocationLowPriority;
+        this.invocationUnattended = metricsResponseModel.invocationUnattended;
+        this.invocationLargePayload = metricsResponseModel.invocationLargePayload;
+        this.averageResponseUnauthenticated = metricsResponseModel.averageResponseUnauthenticated;
+        this.averageResponseHighPriority = metricsResponseModel.averageResponseHighPriority;
+        this.averageResponseLowPriority = metricsResponseModel.averageResponseLowPriority;
+        this.averageResponseUnattended = metricsResponseModel.averageResponseUnattended;
+        this.averageResponseLargePayload = metricsResponseModel.averageResponseLargePayload;
+        this.averageTPS = metricsResponseModel.averageTPS;
+        this.authenticatedAverageTPS = metricsResponseModel.authenticatedAverageTPS;
+        this.unauthenticatedAverageTPS = metricsResponseModel.unauthenticatedAverageTPS;
+        this.peakTPS = metricsResponseModel.peakTPS;
+        this.authenticatedPeakTPS = metricsResponseModel.authenticatedPeakTPS;
+        this.unauthenticatedPeakTPS = metricsResponseModel.unauthenticatedPeakTPS;
+        this.errors = metricsResponseModel.errors;
+        this.authenticatedErrors = metricsResponseModel.authenticatedErrors;
+        this.unauthenticatedErrors = metricsResponseModel.unauthenticatedErrors;
+        this.authenticatedEndpointRejections = metricsResponseModel.authenticatedEndpointRejections;
+        this.unauthenticatedEndpointRejections = metricsResponseModel.unauthenticatedEndpointRejections;
+        this.activeIndividualAuthorisationCount = metricsResponseModel.activeIndividualAuthorisationCount;
+        this.activeNonIndividualAuthorisationCount = metricsResponseModel.activeNonIndividualAuthorisationCount;
+        this.newAuthorisationCount = metricsResponseModel.newAuthorisationCount;
+        this.revokedAuthorisationCount = metricsResponseModel.revokedAuthorisationCount;
+        this.amendedAuthorisationCount = metricsResponseModel.amendedAuthorisationCount;
+        this.expiredAuthorisationCount = metricsResponseModel.expiredAuthorisationCount;
+        this.abandonedConsentFlowCount = metricsResponseModel.abandonedConsentFlowCount;
+        this.preIdentificationAbandonedConsentFlowCount =
+                metricsResponseModel.preIdentificationAbandonedConsentFlowCount;
+        this.preAuthenticationAbandonedConsentFlowCount =
+                metricsResponseModel.preAuthenticationAbandonedConsentFlowCount;
+        this.preAccountSelectionAbandonedConsentFlowCount =
+                metricsResponseModel.preAccountSelectionAbandonedConsentFlowCount;
+        this.preAuthorisationAbandonedConsentFlowCount = metricsResponseModel.preAuthorisationAbandonedConsentFlowCount;
+        this.rejectedAbandonedConsentFlowCount = metricsResponseModel.rejectedAbandonedConsentFlowCount;
+        this.failedTokenExchangeAbandonedConsentFlowCount =
+                metricsResponseModel.failedTokenExchangeAbandonedConsentFlowCount;
+    }
+
     public String getRequestTime() {
         return requestTime;
     }
@@ -18,7 +18,6 @@
 
 package org.wso2.openbanking.cds.metrics.periodic.job;
 
-import com.google.gson.Gson;
 import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -29,12 +28,24 @@ import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.user.api.TenantManager;
 import org.wso2.carbon.user.api.UserStoreException;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.metrics.cache.HistoricMetricsSnapshot;
 import org.wso2.openbanking.cds.metrics.cache.MetricsCache;
 import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
 import org.wso2.openbanking.cds.metrics.internal.MetricsDataHolder;
 import org.wso2.openbanking.cds.metrics.model.MetricsResponseModel;
 import org.wso2.openbanking.cds.metrics.service.CDSMetricsServiceImpl;
-import org.wso2.openbanking.cds.metrics.util.PeriodEnum;
+import org.wso2.openbanking.cds.metrics.util.AspectEnum;
+import org.wso2.openbanking.cds.metrics.util.MetricsServiceUtil;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Quartz job to cache historic metrics to improve Metrics API performance.
@@ -68,23 +79,95 @@ public class HistoricMetricsCacheJob implements Job {
     }
 
     /**
-     * Method to cache historic metrics
+     * Method to cache historic metrics.
+     * If the cached metrics were calculated on the previous day, they are rolled over using only the metrics of the
+     * newly closed day. The metrics are calculated from scratch otherwise, and after the configured number of
+     * roll overs.
      */
     public void cacheHistoricMetrics() {
 
         try {
             log.info("Caching historic metrics started");
-            MetricsCache metricsCache = MetricsCache.getInstance();
-            metricsCache.removeFromCache(MetricsCache.getHistoricMetricsCacheKey());
+            ZoneId timeZone = ZoneId.of(OpenBankingCDSConfigParser.getInstance().getMetricsTimeZone());
             CDSMetricsServiceImpl metricsService = new CDSMetricsServiceImpl();
-            MetricsResponseModel metricsResponseModel = metricsService.getMetrics(MetricsConstants.METRICS_VERSION_5,
-                    PeriodEnum.HISTORIC);
-            Gson gson = new Gson();
-            String responseMetricsV5ListModelJson = gson.toJson(metricsResponseModel);
-            metricsCache.addToCache(MetricsCache.getHistoricMetricsCacheKey(), responseMetricsV5ListModelJson);
+            MetricsCache metricsCache = MetricsCache.getInstance();
+            String requestTime = new SimpleDateFormat(MetricsConstants.REQUEST_TIMESTAMP_PATTERN).format(new Date());
+            LocalDate today = LocalDate.now(timeZone);
+
+            // The previous snapshot keeps serving requests until the new one is swapped in.
+            HistoricMetricsSnapshot previousSnapshot = metricsCache.getLatestHistoricMetricsSnapshot();
+            if (isRollOverApplicable(previousSnapshot, today)) {
+                MetricsResponseModel rolledMetrics = rollOverHistoricMetrics(metricsService, previousSnapshot,
+                        today, requestTime);
+                if (rolledMetrics != null) {
+                    metricsCache.setHistoricMetricsSnapshot(rolledMetrics, today,
+                            previousSnapshot.getRolloverCount() + 1);
+                    log.info("Caching historic metrics completed successfully by rolling over the cached metrics");
+                    return;
+                }
+            }
+
+            MetricsResponseModel metricsResponseModel = metricsService.getRealtimeHistoricMetrics(requestTime);
+            metricsCache.setHistoricMetricsSnapshot(metricsResponseModel, today, 0);
             log.info("Caching historic metrics completed successfully");
         } catch (OpenBankingException e) {
             log.error("Error occurred while caching historic metrics", e);
+        } catch (DateTimeException e) {
+            log.error("Invalid metrics time zone configured, historic metrics are not cached", e);
+        }
+    }
+
+    /**
+     * Check whether the cached historic metrics can be rolled over to the given day.
+     *
+     * @param previousSnapshot - cached historic metrics snapshot
+     * @param today            - current date in the metrics time zone
+     * @return true if the cached metrics were calculated on the previous day and a full calculation is not due
+     */
+    private boolean isRollOverApplicable(HistoricMetricsSnapshot previousSnapshot, LocalDate today) {
+
+        if (previousSnapshot == null || previousSnapshot.getMetricsDate() == null ||
+                !today.minusDays(1).equals(previousSnapshot.getMetricsDate())) {
+            return false;
+        }
+        int fullRecomputeInterval = OpenBankingCDSConfigParser.getInstance().getMetricsFullRecomputeInterval();
+        if (previousSnapshot.getRolloverCount() >= fullRecomputeInterval) {
+            log.debug("Historic metrics are due for a full calculation.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Roll the cached historic metrics over by adding the metrics of the closed day.
+     *
+     * @param metricsService   - metrics service
+     * @param previousSnapshot - cached historic metrics snapshot calculated on the closed day
+     * @param today            - current date in the metrics time zone
+     * @param requestTime      - request time
+     * @return rolled over metrics, or null if the metrics should be calculated from scratch
+     */
+    private MetricsResponseModel rollOverHistoricMetrics(CDSMetricsServiceImpl metricsService,
+                                                         HistoricMetricsSnapshot previousSnapshot, LocalDate today,
+                                                         String requestTime) {
+
+        LocalDate closedDate = today.minusDays(1);
+        try {
+            MetricsResponseModel closedDayMetrics = metricsService.getClosedDayMetrics(closedDate, requestTime);
+            if (closedDayMetrics.getPerformanceHighPriority().isEmpty()) {
+                // Performance of the Metrics V5 start date is only available when calculated from scratch.
+                log.debug("Performance metrics of the closed day are not available to roll over historic metrics.");
+                return null;
+            }
+            // Availability is reported per month, hence it changes only when a month is closed.
+            Map<AspectEnum, List<BigDecimal>> availabilityMetrics = today.getDayOfMonth() == 1 ?
+                    metricsService.getHistoricAvailabilityMetrics(today) : null;
+            return MetricsServiceUtil.rollOverHistoricMetrics(previousSnapshot.getMetricsResponseModel(),
+                    closedDayMetrics, availabilityMetrics, requestTime);
+        } catch (OpenBankingException | RuntimeException e) {
+            log.warn("Error occurred while rolling over historic metrics to " + today +
+                    ". Calculating historic metrics from scratch.", e);
+            return null;
         }
     }
 }
@@ -18,22 +18,28 @@
 
 package org.wso2.openbanking.cds.metrics.service;
 
-import com.google.gson.Gson;
 import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.metrics.cache.HistoricMetricsSnapshot;
 import org.wso2.openbanking.cds.metrics.cache.MetricsCache;
 import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
 import org.wso2.openbanking.cds.metrics.data.MetricsDataProvider;
 import org.wso2.openbanking.cds.metrics.data.MetricsV5DataProvider;
 import org.wso2.openbanking.cds.metrics.model.MetricsResponseModel;
+import org.wso2.openbanking.cds.metrics.util.AspectEnum;
 import org.wso2.openbanking.cds.metrics.util.MetricsServiceUtil;
 import org.wso2.openbanking.cds.metrics.util.PeriodEnum;
 
+import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of CDS Admin metrics service.
@@ -93,13 +99,13 @@ public class CDSMetricsServiceImpl implements CDSMetricsService {
     public MetricsResponseModel getHistoricMetrics(String requestTime) throws OpenBankingException {
 
         MetricsResponseModel metricsResponseModelHistoric;
-        metricsResponseModelHistoric = getCachedHistoricMetrics();
-        if (metricsResponseModelHistoric == null) {
+        HistoricMetricsSnapshot historicMetricsSnapshot = getCachedHistoricMetrics();
+        if (historicMetricsSnapshot == null) {
             log.debug("Getting historic metrics from analytics server since cached model is not found.");
             metricsResponseModelHistoric = getRealtimeHistoricMetrics(requestTime);
             log.debug("Historic metrics retrieval completed.");
         } else {
-            metricsResponseModelHistoric.setRequestTime(requestTime);
+            metricsResponseModelHistoric = historicMetricsSnapshot.getMetricsResponseModel(requestTime);
         }
         return metricsResponseModelHistoric;
     }
@@ -111,7 +117,7 @@ public class CDSMetricsServiceImpl implements CDSMetricsService {
      * @return ResponseMetricsListModel
      * @throws OpenBankingException OpenBankingException
      */
-    private MetricsResponseModel getRealtimeHistoricMetrics(String requestTime) throws OpenBankingException {
+    public MetricsResponseModel getRealtimeHistoricMetrics(String requestTime) throws OpenBankingException {
 
         MetricsQueryCreator metricsV5QueryCreator = new MetricsV5QueryCreatorImpl(PeriodEnum.HISTORIC);
         MetricsDataProvider metricsV5DataProvider = new MetricsV5DataProvider(metricsV5QueryCreator);
@@ -122,21 +128,56 @@ public class CDSMetricsServiceImpl implements CDSMetricsService {
     }
 
     /**
-     * Get historic metrics from cache.
+     * Get metrics of a day that has already ended from analytics server.
+     * Used to roll the cached historic metrics over to the next day.
      *
-     * @return ResponseMetricsListModel, or null if cache is not available or model is expired.
+     * @param closedDate  Date of the closed day in the metrics time zone
+     * @param requestTime Request time
+     * @return ResponseMetricsListModel
+     * @throws OpenBankingException OpenBankingException
+     */
+    public MetricsResponseModel getClosedDayMetrics(LocalDate closedDate, String requestTime)
+            throws OpenBankingException {
+
+        MetricsQueryCreator metricsV5QueryCreator = new MetricsV5QueryCreatorImpl(PeriodEnum.CURRENT, closedDate);
+        MetricsDataProvider metricsV5DataProvider = new MetricsV5DataProvider(metricsV5QueryCreator);
+        MetricsProcessor metricsV5Processor = new MetricsV5ProcessorImpl(PeriodEnum.CURRENT,
+                metricsV5DataProvider, closedDate.atTime(LocalTime.MAX).atZone(TIME_ZONE));
+        MetricsFetcher metricsV5FetcherClosedDay = new MetricsV5FetcherImpl(metricsV5Processor);
+        return metricsV5FetcherClosedDay.getResponseMetricsListModel(requestTime);
+    }
+
+    /**
+     * Get availability metrics of the past months from analytics server.
+     * Used to roll the cached historic metrics over to the next day when a month is closed.
+     *
+     * @param today Current date in the metrics time zone
+     * @return Availability metrics of the past months
+     * @throws OpenBankingException OpenBankingException
+     */
+    public Map<AspectEnum, List<BigDecimal>> getHistoricAvailabilityMetrics(LocalDate today)
+            throws OpenBankingException {
+
+        MetricsQueryCreator metricsV5QueryCreator = new MetricsV5QueryCreatorImpl(PeriodEnum.HISTORIC, today);
+        MetricsDataProvider metricsV5DataProvider = new MetricsV5DataProvider(metricsV5QueryCreator);
+        MetricsProcessor metricsV5Processor = new MetricsV5ProcessorImpl(PeriodEnum.HISTORIC,
+                metricsV5DataProvider, today.atStartOfDay(TIME_ZONE));
+        return metricsV5Processor.getAvailabilityMetrics();
+    }
+
+    /**
+     * Get historic metrics snapshot from cache.
+     *
+     * @return HistoricMetricsSnapshot, or null if cache is not available or snapshot is expired.
      */
-    private MetricsResponseModel getCachedHistoricMetrics() {
-
-        MetricsCache metricsCache = MetricsCache.getInstance();
-        Object cachedResponseMetricsJson = metricsCache.getFromCache(MetricsCache.getHistoricMetricsCacheKey());
-        if (cachedResponseMetricsJson != null) {
-            log.debug("Historic metrics model found in cache.");
-            MetricsResponseModel metricsResponseModel = new Gson().fromJson(
-                    (String) cachedResponseMetricsJson, MetricsResponseModel.class);
-            return MetricsServiceUtil.isResponseModelExpired(metricsResponseModel) ? null : metricsResponseModel;
+    private HistoricMetricsSnapshot getCachedHistoricMetrics() {
+
+        HistoricMetricsSnapshot historicMetricsSnapshot = MetricsCache.getInstance().getHistoricMetricsSnapshot();
+        if (historicMetricsSnapshot != null) {
+            log.debug("Historic metrics snapshot found in cache.");
+            return historicMetricsSnapshot;
         }
-        log.debug("Historic metrics model not found in cache.");
+        log.debug("Historic metrics snapshot not found in cache.");
         return null;
     }
 
@@ -150,13 +191,13 @@ public class CDSMetricsServiceImpl implements CDSMetricsService {
      */
     public MetricsResponseModel getAllMetrics(String requestTime) throws OpenBankingException {
 
-        MetricsResponseModel metricsResponseModelHistoric = getCachedHistoricMetrics();
+        HistoricMetricsSnapshot historicMetricsSnapshot = getCachedHistoricMetrics();
         MetricsResponseModel metricsResponseModel;
 
-        if (metricsResponseModelHistoric != null) {
+        if (historicMetricsSnapshot != null) {
             metricsResponseModel = getCurrentDayMetrics(requestTime);
             MetricsServiceUtil.appendHistoricMetricsToCurrentDayMetrics(metricsResponseModel,
-                    metricsResponseModelHistoric);
+                    historicMetricsSnapshot.getMetricsResponseModel());
         } else {
             log.debug("Getting all metrics from analytics server since cached model is not found.");
             MetricsQueryCreator metricsV5QueryCreator = new MetricsV5QueryCreatorImpl(PeriodEnum.ALL);
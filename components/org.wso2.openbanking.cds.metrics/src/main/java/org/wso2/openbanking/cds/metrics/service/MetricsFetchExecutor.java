@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.service;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dedicated executor used to fetch metrics asynchronously.
+ * <p>
+ * Metrics calculations block on http calls to the analytics server, hence they are run on a bounded pool of
+ * named threads instead of the common fork join pool. This isolates the metrics endpoint from other users of the
+ * common pool and caps the number of concurrent calls made to the analytics server. Tasks submitted when the
+ * pool and its queue are full are rejected instead of being queued without bound.
+ */
+public class MetricsFetchExecutor {
+
+    private static final Log log = LogFactory.getLog(MetricsFetchExecutor.class);
+    private static final String THREAD_NAME_PREFIX = "cds-metrics-fetch-";
+    private static volatile MetricsFetchExecutor instance;
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+    private final AtomicLong rejectedTaskCount = new AtomicLong();
+    private final AtomicLong timedOutRequestCount = new AtomicLong();
+
+    private MetricsFetchExecutor(int poolSize, int queueCapacity) {
+
+        poolSize = Math.max(1, poolSize);
+        queueCapacity = Math.max(1, queueCapacity);
+        RejectedExecutionHandler rejectionHandler = (runnable, executor) -> {
+            rejectedTaskCount.incrementAndGet();
+            new ThreadPoolExecutor.AbortPolicy().rejectedExecution(runnable, executor);
+        };
+        threadPoolExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new MetricsFetchThreadFactory(), rejectionHandler);
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Get an instance of the MetricsFetchExecutor. It implements a double checked locking initialization.
+     *
+     * @return MetricsFetchExecutor instance
+     */
+    public static MetricsFetchExecutor getInstance() {
+
+        if (instance == null) {
+            synchronized (MetricsFetchExecutor.class) {
+                if (instance == null) {
+                    OpenBankingCDSConfigParser configParser = OpenBankingCDSConfigParser.getInstance();
+                    int poolSize = configParser.getMetricsFetchExecutorPoolSize();
+                    int queueCapacity = configParser.getMetricsFetchExecutorQueueCapacity();
+                    instance = new MetricsFetchExecutor(poolSize, queueCapacity);
+                    log.debug(String.format("Initialized metrics fetch executor with %d threads and queue " +
+                            "capacity %d", poolSize, queueCapacity));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Shutdown the executor if it has been initialized. Any running fetch is interrupted.
+     */
+    public static void shutdown() {
+
+        synchronized (MetricsFetchExecutor.class) {
+            if (instance != null) {
+                instance.threadPoolExecutor.shutdownNow();
+                instance = null;
+                log.debug("Metrics fetch executor is shutdown");
+            }
+        }
+    }
+
+    public Executor getExecutor() {
+
+        return threadPoolExecutor;
+    }
+
+    /**
+     * Record a metrics request that did not complete within the configured deadline.
+     */
+    void recordTimedOutRequest() {
+
+        timedOutRequestCount.incrementAndGet();
+    }
+
+    public int getActiveThreadCount() {
+
+        return threadPoolExecutor.getActiveCount();
+    }
+
+    public int getQueuedTaskCount() {
+
+        return threadPoolExecutor.getQueue().size();
+    }
+
+    public long getCompletedTaskCount() {
+
+        return threadPoolExecutor.getCompletedTaskCount();
+    }
+
+    public long getRejectedTaskCount() {
+
+        return rejectedTaskCount.get();
+    }
+
+    public long getTimedOutRequestCount() {
+
+        return timedOutRequestCount.get();
+    }
+
+    @Override
+    public String toString() {
+
+        return String.format("active=%d, queued=%d, completed=%d, rejected=%d, timedOut=%d",
+                getActiveThreadCount(), getQueuedTaskCount(), getCompletedTaskCount(), getRejectedTaskCount(),
+                getTimedOutRequestCount());
+    }
+
+    /**
+     * Thread factory creating named daemon threads for the metrics fetch executor.
+     */
+    private static class MetricsFetchThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.wso2.openbanking.cds.metrics.service;
 import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
 import org.wso2.openbanking.cds.metrics.model.AbandonedConsentFlowByStageMetricDay;
 import org.wso2.openbanking.cds.metrics.model.AuthorisationMetricDay;
@@ -30,10 +31,15 @@ import org.wso2.openbanking.cds.metrics.util.AspectEnum;
 import org.wso2.openbanking.cds.metrics.util.PriorityEnum;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.wso2.openbanking.cds.metrics.constants.MetricsConstants.ASYNC_FETCH_ERROR;
 
@@ -43,14 +49,18 @@ import static org.wso2.openbanking.cds.metrics.constants.MetricsConstants.ASYNC_
  * <p>
  * The asynchronous calculation is introduced to overcome the performance
  * degrade caused by multiple http calls to the analytics server.
- * Errors that occur during the asynchronous calculation of metrics are handled by the
- * handleMetricsFutureCompletionErrors method.
+ * The calculations run on the dedicated {@link MetricsFetchExecutor} and the whole request is bound by a single
+ * configurable deadline. Errors that occur during the asynchronous calculation of metrics, and calculations that do
+ * not complete within the deadline, are handled by the populateMetricsModel method.
  */
 public class MetricsV5FetcherImpl implements MetricsFetcher {
 
     MetricsProcessor metricsProcessor;
     private static final Log log = LogFactory.getLog(MetricsV5FetcherImpl.class);
 
+    private MetricsFetchExecutor fetchExecutor;
+    private Executor executor;
+
     private CompletableFuture<Map<AspectEnum, List<BigDecimal>>> availabilityFuture;
     private CompletableFuture<Map<PriorityEnum, List<Integer>>> invocationFuture;
     private CompletableFuture<List<Integer>> sessionCountFuture;
@@ -75,8 +85,28 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
     @Override
     public MetricsResponseModel getResponseMetricsListModel(String requestTime) throws OpenBankingException {
         MetricsResponseModel metricsResponseModel = new MetricsResponseModel(requestTime);
+        long timeoutMillis = OpenBankingCDSConfigParser.getInstance().getMetricsFetchTimeout();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        fetchExecutor = MetricsFetchExecutor.getInstance();
+        executor = fetchExecutor.getExecutor();
+
+        try {
+            submitMetricsFetchTasks();
+        } catch (RejectedExecutionException e) {
+            cancelMetricsFutures();
+            log.error("Metrics fetch executor is saturated. Executor status: " + fetchExecutor, e);
+            throw new OpenBankingException("Failed to schedule metrics v5 calculation", e);
+        }
+
+        populateMetricsModel(metricsResponseModel, deadlineNanos, timeoutMillis);
+        return metricsResponseModel;
+    }
+
+    /**
+     * Submit the metrics calculations to the metrics fetch executor.
+     */
+    private void submitMetricsFetchTasks() {
 
-        // Fetch metrics asynchronously
         availabilityFuture = fetchAvailabilityMetricsAsync();
         invocationFuture = fetchInvocationMetricsAsync();
         sessionCountFuture = fetchSessionCountMetricsAsync();
@@ -94,9 +124,6 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
         // Dependent futures that require results from the invocationFuture
         performanceFuture = fetchPerformanceMetricsAsync(invocationFuture);
         averageResponseTimeFuture = fetchAverageResponseTimeAsync(invocationFuture);
-
-        populateMetricsModel(metricsResponseModel);
-        return metricsResponseModel;
     }
 
     /**
@@ -113,7 +140,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -130,7 +157,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -147,7 +174,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -164,7 +191,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -181,7 +208,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -198,7 +225,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -215,7 +242,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -232,7 +259,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -249,7 +276,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -266,7 +293,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -285,7 +312,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -303,7 +330,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -322,7 +349,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -339,7 +366,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -356,7 +383,7 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
@@ -373,40 +400,91 @@ public class MetricsV5FetcherImpl implements MetricsFetcher {
                 log.debug(errorMessage, e);
                 throw new RuntimeException(errorMessage, e);
             }
-        });
+        }, executor);
     }
 
     /**
      * Populate the metrics model with the calculated metrics data.
-     * Errors occurred during the asynchronous calculation of metrics are also handled here.
+     * Errors occurred during the asynchronous calculation of metrics are also handled here. Calculations which
+     * have not completed when the deadline is reached, or when any of the calculations fails, are cancelled.
      *
      * @param metricsResponseModel - MetricsResponseModel object
+     * @param deadlineNanos        - deadline of the request as a System.nanoTime value
+     * @param timeoutMillis        - configured timeout of the request in milliseconds
      * @throws OpenBankingException - OpenBankingException
      */
-    private void populateMetricsModel(MetricsResponseModel metricsResponseModel)
-            throws OpenBankingException {
+    private void populateMetricsModel(MetricsResponseModel metricsResponseModel, long deadlineNanos,
+                                      long timeoutMillis) throws OpenBankingException {
+
+        CompletableFuture<?>[] metricsFutures = getMetricsFutures();
+        // Completed exceptionally by the first failed calculation, as allOf only completes once every calculation
+        // has completed.
+        CompletableFuture<Void> failureFuture = new CompletableFuture<>();
+        for (CompletableFuture<?> metricsFuture : metricsFutures) {
+            metricsFuture.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    failureFuture.completeExceptionally(throwable);
+                }
+            });
+        }
 
         try {
-            metricsResponseModel.setAvailability(availabilityFuture.get());
-            metricsResponseModel.setInvocations(invocationFuture.get());
-            metricsResponseModel.setSessionCount(sessionCountFuture.get());
-            metricsResponseModel.setPeakTPS(peakTPSFuture.get());
-            metricsResponseModel.setErrors(errorFuture.get());
-            metricsResponseModel.setErrorsByAspect(errorByAspectFuture.get());
-            metricsResponseModel.setRejections(rejectionFuture.get());
-            metricsResponseModel.setRecipientCount(recipientCountFuture.get());
-            metricsResponseModel.setCustomerCount(customerCountFuture.get());
-            metricsResponseModel.setAverageTPS(averageTPSFuture.get());
-            metricsResponseModel.setPerformance(performanceFuture.get());
-            metricsResponseModel.setHourlyPerformanceByPriority(hourlyPerformanceByPriorityFuture.get());
-            metricsResponseModel.setAverageResponseTime(averageResponseTimeFuture.get());
-            metricsResponseModel.setActiveAuthorisationCount(activeAuthorisationCountFuture.get());
-            metricsResponseModel.setAuthorisation(authorisationFuture.get());
-            metricsResponseModel.setAbandonedConsentFlow(abandonedConsentFlowCountFuture.get());
-        } catch (InterruptedException | ExecutionException e) {
+            CompletableFuture.anyOf(failureFuture, CompletableFuture.allOf(metricsFutures))
+                    .get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            cancelMetricsFutures();
+            fetchExecutor.recordTimedOutRequest();
+            log.error(String.format("Metrics calculation did not complete within %d ms. Executor status: %s",
+                    timeoutMillis, fetchExecutor));
+            throw new OpenBankingException("Failed to populate metrics v5 model with data within the deadline", e);
+        } catch (InterruptedException e) {
+            cancelMetricsFutures();
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while calculating metrics. " + e.getMessage(), e);
+            throw new OpenBankingException("Failed to populate metrics v5 model with data", e);
+        } catch (ExecutionException e) {
             // Handle errors that occurred during the asynchronous calculation of metrics.
+            cancelMetricsFutures();
             log.error("Error occurred while calculating metrics. " + e.getMessage(), e);
             throw new OpenBankingException("Failed to populate metrics v5 model with data", e);
         }
+
+        // All the futures have completed successfully at this point, hence join does not block.
+        metricsResponseModel.setAvailability(availabilityFuture.join());
+        metricsResponseModel.setInvocations(invocationFuture.join());
+        metricsResponseModel.setSessionCount(sessionCountFuture.join());
+        metricsResponseModel.setPeakTPS(peakTPSFuture.join());
+        metricsResponseModel.setErrors(errorFuture.join());
+        metricsResponseModel.setErrorsByAspect(errorByAspectFuture.join());
+        metricsResponseModel.setRejections(rejectionFuture.join());
+        metricsResponseModel.setRecipientCount(recipientCountFuture.join());
+        metricsResponseModel.setCustomerCount(customerCountFuture.join());
+        metricsResponseModel.setAverageTPS(averageTPSFuture.join());
+        metricsResponseModel.setPerformance(performanceFuture.join());
+        metricsResponseModel.setHourlyPerformanceByPriority(hourlyPerformanceByPriorityFuture.join());
+        metricsResponseModel.setAverageResponseTime(averageResponseTimeFuture.join());
+        metricsResponseModel.setActiveAuthorisationCount(activeAuthorisationCountFuture.join());
+        metricsResponseModel.setAuthorisation(authorisationFuture.join());
+        metricsResponseModel.setAbandonedConsentFlow(abandonedConsentFlowCountFuture.join());
+    }
+
+    /**
+     * Cancel the metrics calculations which have not completed yet.
+     * Cancelled calculations which are still queued in the executor are skipped when they are dequeued.
+     */
+    private void cancelMetricsFutures() {
+
+        Arrays.stream(getMetricsFutures())
+                .filter(future -> future != null && !future.isDone())
+                .forEach(future -> future.cancel(true));
+    }
+
+    private CompletableFuture<?>[] getMetricsFutures() {
+
+        return new CompletableFuture<?>[]{availabilityFuture, invocationFuture, sessionCountFuture,
+                peakTPSFuture, errorFuture, errorByAspectFuture, rejectionFuture, recipientCountFuture,
+                customerCountFuture, averageTPSFuture, performanceFuture, hourlyPerformanceByPriorityFuture,
+                averageResponseTimeFuture, activeAuthorisationCountFuture, authorisationFuture,
+                abandonedConsentFlowCountFuture};
     }
 }
@@ -36,6 +36,7 @@ import org.wso2.openbanking.cds.metrics.model.ErrorMetricDataModel;
 import org.wso2.openbanking.cds.metrics.model.ErrorMetricDay;
 import org.wso2.openbanking.cds.metrics.model.ServerOutageDataModel;
 import org.wso2.openbanking.cds.metrics.util.AspectEnum;
+import org.wso2.openbanking.cds.metrics.util.FixedScaleMetricsUtil;
 import org.wso2.openbanking.cds.metrics.util.MetricsProcessorUtil;
 import org.wso2.openbanking.cds.metrics.util.PeriodEnum;
 import org.wso2.openbanking.cds.metrics.util.PriorityEnum;
@@ -61,6 +62,7 @@ public class MetricsV5ProcessorImpl implements MetricsProcessor {
     int numberOfMonths;
     long metricsCountLastDateEpoch;
     ZonedDateTime availabilityMetricsLastDate;
+    ZonedDateTime currentDate;
 
     private static final Log log = LogFactory.getLog(MetricsV5ProcessorImpl.class);
 
@@ -72,8 +74,22 @@ public class MetricsV5ProcessorImpl implements MetricsProcessor {
     public MetricsV5ProcessorImpl(PeriodEnum period, MetricsDataProvider metricsDataProvider, ZoneId timeZone)
             throws OpenBankingException {
 
-        ZonedDateTime currentDateEnd = ZonedDateTime.now(timeZone).with(LocalTime.MAX);
-        ZonedDateTime currentDate = ZonedDateTime.now(timeZone);
+        this(period, metricsDataProvider, ZonedDateTime.now(timeZone));
+    }
+
+    /**
+     * Constructor for MetricsV5ProcessorImpl which considers the given time as the current time.
+     * Used to calculate the metrics of a day that has already ended, e.g. with the CURRENT period and the end of
+     * yesterday as the current time.
+     *
+     * @param period      - period (Current, Historic, All).
+     * @param currentDate - time to be considered as the current time.
+     */
+    public MetricsV5ProcessorImpl(PeriodEnum period, MetricsDataProvider metricsDataProvider,
+                                  ZonedDateTime currentDate) throws OpenBankingException {
+
+        ZonedDateTime currentDateEnd = currentDate.with(LocalTime.MAX);
+        this.currentDate = currentDate;
         switch (period) {
             case CURRENT:
                 numberOfDays = 1;
@@ -112,7 +128,8 @@ public class MetricsV5ProcessorImpl implements MetricsProcessor {
             List<ServerOutageDataModel> serverOutageData = MetricsProcessorUtil
                     .getServerOutageDataFromJson(availabilityMetricsJsonObject);
             Map<AspectEnum, List<BigDecimal>> availabilityMap = MetricsProcessorUtil
-                    .getAvailabilityMapFromServerOutages(serverOutageData, numberOfMonths, availabilityMetricsLastDate);
+                    .getAvailabilityMapFromServerOutages(serverOutageData, numberOfMonths, availabilityMetricsLastDate,
+                            currentDate.toLocalDate());
             log.debug("Finished availability metrics calculation successfully.");
             return availabilityMap;
         } else {
@@ -147,11 +164,12 @@ public class MetricsV5ProcessorImpl implements MetricsProcessor {
             throws OpenBankingException {
 
         log.debug("Starting performance metrics calculation.");
-        List<Integer> totalInvocationList = MetricsProcessorUtil.getTotalInvocationsForEachDay(invocationMetricsMap,
+        long[] totalInvocations = FixedScaleMetricsUtil.getFixedScaleTotalsForEachDay(invocationMetricsMap,
                 PriorityEnum.values());
-        List<Integer> successInvocationList = getSuccessfulInvocations();
-        List<BigDecimal> performanceMetricsList = MetricsProcessorUtil.divideLists(successInvocationList,
-                totalInvocationList, new BigDecimal("1.000"));
+        long[] performance = FixedScaleMetricsUtil.toFixedScaleArray(getSuccessfulInvocations());
+        FixedScaleMetricsUtil.divideInPlace(performance, totalInvocations);
+        List<BigDecimal> performanceMetricsList = FixedScaleMetricsUtil.toBigDecimalList(performance,
+                new BigDecimal("1.000"));
         log.debug("Finished performance metrics calculation successfully.");
         return performanceMetricsList;
     }
@@ -168,7 +186,7 @@ public class MetricsV5ProcessorImpl implements MetricsProcessor {
         if (performanceMetricsJsonObject != null) {
             Map<PriorityEnum, List<List<BigDecimal>>> performanceMetricsMap =
                     MetricsProcessorUtil.getPopulatedHourlyPerformanceByPriorityMetricsMap(performanceMetricsJsonObject,
-                            numberOfDays);
+                            numberOfDays, currentDate);
             log.debug("Finished hourly performance metrics calculation successfully.");
             return performanceMetricsMap;
         } else {
@@ -184,15 +202,15 @@ public class MetricsV5ProcessorImpl implements MetricsProcessor {
             Map<PriorityEnum, List<Integer>> invocationMetricsMap) throws OpenBankingException {
 
         log.debug("Starting average response metrics calculation.");
-        Map<PriorityEnum, List<BigDecimal>> totalResponseTimeMetricsMap = getTotalResponseTimeMap();
+        Map<PriorityEnum, long[]> totalResponseTimeMetricsMap = getTotalResponseTimeMap();
         Map<PriorityEnum, List<BigDecimal>> averageResponseMetricsMap = new HashMap<>();
 
         for (PriorityEnum priority : PriorityEnum.values()) {
-            List<BigDecimal> responseTimeList = totalResponseTimeMetricsMap.get(priority);
-            List<Integer> invocationCountList = invocationMetricsMap.get(priority);
-            List<BigDecimal> tempAverageList = MetricsProcessorUtil
-                    .divideLists(responseTimeList, invocationCountList, new BigDecimal("0"));
-            averageResponseMetricsMap.put(priority, tempAverageList);
+            long[] averageResponseTimes = totalResponseTimeMetricsMap.get(priority);
+            long[] invocationCounts = FixedScaleMetricsUtil.toFixedScaleArray(invocationMetricsMap.get(priority));
+            FixedScaleMetricsUtil.divideInPlace(averageResponseTimes, invocationCounts);
+            averageResponseMetricsMap.put(priority,
+                    FixedScaleMetricsUtil.toBigDecimalList(averageResponseTimes, new BigDecimal("0")));
         }
         log.debug("Finished average response metrics calculation successfully.");
         return averageResponseMetricsMap;
@@ -287,7 +305,8 @@ public class MetricsV5ProcessorImpl implements MetricsProcessor {
                     .mapToErrorMetricDataModel(errorMetricsJsonObject);
 
             // Initialize the errorMetricsList with days and default values.
-            MetricsProcessorUtil.initializeErrorMetricDayList(errorMetricsList, numberOfDays);
+            MetricsProcessorUtil.initializeErrorMetricDayList(errorMetricsList, numberOfDays,
+                    currentDate.toLocalDate());
 
             // Populate the retrieved results to the errorMetricsList according to the respective day.
             errorMetricsList = MetricsProcessorUtil.populateErrorMetricDayList(errorMetricDataModelList,
@@ -380,7 +399,8 @@ public class MetricsV5ProcessorImpl implements MetricsProcessor {
                     MetricsProcessorUtil.mapToAuthorisationMetricDataModel(authorisationMetricsJsonObject);
 
             // Initialize the authorisationMetricDayList with days and default values.
-            MetricsProcessorUtil.initializeAuthorisationMetricDayList(authorisationMetricDayList, numberOfDays);
+            MetricsProcessorUtil.initializeAuthorisationMetricDayList(authorisationMetricDayList, numberOfDays,
+                    currentDate.toLocalDate());
 
             // Populate the retrieved results to the authorisationMetricDayList according to the respective day.
             authorisationMetricDayList =
@@ -418,7 +438,7 @@ public class MetricsV5ProcessorImpl implements MetricsProcessor {
 
             // Initialize the abandonedConsentFlowByStageMetricsDayList with days and default values.
             MetricsProcessorUtil.initializeAbandonedConsentFlowByStageMetricDayList(
-                    abandonedConsentFlowByStageMetricsDayList, numberOfDays);
+                    abandonedConsentFlowByStageMetricsDayList, numberOfDays, currentDate.toLocalDate());
 
             // Populate the retrieved results to the abandonedConsentFlowByStageMetricsDayList according
             // to the respective day.
@@ -472,16 +492,16 @@ public class MetricsV5ProcessorImpl implements MetricsProcessor {
      * Get map of total response times by priority.
      * Used to calculate average response time metrics.
      *
-     * @return map of total response times by priority
+     * @return map of fixed-scale total response times by priority
      * @throws OpenBankingException - OpenBankingException
      */
-    private Map<PriorityEnum, List<BigDecimal>> getTotalResponseTimeMap() throws OpenBankingException {
+    private Map<PriorityEnum, long[]> getTotalResponseTimeMap() throws OpenBankingException {
 
         log.debug("Starting total response time calculation.");
         JSONObject totalResponseTimeJsonObject = metricsDataProvider.getTotalResponseTimeMetricsData();
         if (totalResponseTimeJsonObject != null) {
-            Map<PriorityEnum, List<BigDecimal>> totalResponseTimeMap = MetricsProcessorUtil.
-                    getPopulatedTotalResponseTimeMetricsMap(totalResponseTimeJsonObject, numberOfDays,
+            Map<PriorityEnum, long[]> totalResponseTimeMap = MetricsProcessorUtil.
+                    getPopulatedFixedScaleTotalResponseTimeMetricsMap(totalResponseTimeJsonObject, numberOfDays,
                             metricsCountLastDateEpoch);
             log.debug("Finished total response time calculation successfully.");
             return totalResponseTimeMap;
@@ -23,6 +23,8 @@ import org.wso2.openbanking.cds.metrics.util.DateTimeUtil;
 import org.wso2.openbanking.cds.metrics.util.PeriodEnum;
 import org.wso2.openbanking.cds.metrics.util.TimeGranularityEnum;
 
+import java.time.LocalDate;
+
 /**
  * Implementation of Metrics Query Creator for CDS Metrics V5.
  * This class will initialize a query creator with timestamps relevant to the given period.
@@ -42,8 +44,22 @@ public class MetricsV5QueryCreatorImpl implements MetricsQueryCreator {
 
     public MetricsV5QueryCreatorImpl(PeriodEnum period) {
 
-        String[] timeRangeArray = DateTimeUtil.getTimeRange(period);
-        String[] availabilityTimeRangeArray = DateTimeUtil.getAvailabilityMetricsTimeRange(period);
+        this(DateTimeUtil.getTimeRange(period), DateTimeUtil.getAvailabilityMetricsTimeRange(period));
+    }
+
+    /**
+     * Initialize a query creator for the given period, considering the given date as the current day.
+     *
+     * @param period - period (Current, Historic, All)
+     * @param today  - date to be considered as the current day
+     */
+    public MetricsV5QueryCreatorImpl(PeriodEnum period, LocalDate today) {
+
+        this(DateTimeUtil.getTimeRange(period, today), DateTimeUtil.getAvailabilityMetricsTimeRange(period, today));
+    }
+
+    private MetricsV5QueryCreatorImpl(String[] timeRangeArray, String[] availabilityTimeRangeArray) {
+
         this.dailyTimeGranularity = TimeGranularityEnum.DAYS.toString();
         this.hourlyTimeGranularity = TimeGranularityEnum.HOURS.toString();
         this.fromTimestamp = timeRangeArray[0];
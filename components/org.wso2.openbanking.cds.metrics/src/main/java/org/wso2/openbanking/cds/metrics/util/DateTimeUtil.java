@@ -65,7 +65,18 @@ public class DateTimeUtil {
      */
     public static String[] getTimeRange(PeriodEnum period) {
 
-        LocalDate today = LocalDate.now(TIME_ZONE);
+        return getTimeRange(period, LocalDate.now(TIME_ZONE));
+    }
+
+    /**
+     * Get time range for the given period, considering the given date as the current day.
+     *
+     * @param period - PeriodEnum (CURRENT, HISTORIC, ALL)
+     * @param today  - date to be considered as the current day
+     * @return - Array of two strings with start and end times
+     */
+    public static String[] getTimeRange(PeriodEnum period, LocalDate today) {
+
         String[] timeRange = new String[2];
         ZonedDateTime startOfToday = today.atStartOfDay(TIME_ZONE);
         if (PeriodEnum.CURRENT == period) {
@@ -96,7 +107,18 @@ public class DateTimeUtil {
      */
     public static String[] getAvailabilityMetricsTimeRange(PeriodEnum period) {
 
-        LocalDate today = LocalDate.now(TIME_ZONE);
+        return getAvailabilityMetricsTimeRange(period, LocalDate.now(TIME_ZONE));
+    }
+
+    /**
+     * Get availability metrics time range for the given period, considering the given date as the current day.
+     *
+     * @param period - PeriodEnum (CURRENT, HISTORIC, ALL)
+     * @param today  - date to be considered as the current day
+     * @return - Array of two strings with start and end times
+     */
+    public static String[] getAvailabilityMetricsTimeRange(PeriodEnum period, LocalDate today) {
+
         String[] timeRange = new String[2];
         ZonedDateTime startOfThisMonth = today.withDayOfMonth(1).atStartOfDay(TIME_ZONE);
         if (PeriodEnum.CURRENT == period) {
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.util;
+
+import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contains fixed-scale arithmetic for per-day metrics.
+ * <p>
+ * Values are held in primitive long arrays as unscaled values with a scale of three decimal places, which is the
+ * scale of all calculated metrics. Divisions are rounded half up, matching the BigDecimal calculations they replace,
+ * and the values are converted to BigDecimal only once when the results are handed over to the metrics model.
+ */
+public class FixedScaleMetricsUtil {
+
+    public static final int SCALE = 3;
+    public static final long SCALE_FACTOR = 1000L;
+    public static final long SECONDS_IN_DAY = 86400L * SCALE_FACTOR;
+
+    /**
+     * Marker for a value which could not be calculated, i.e. a division by zero.
+     */
+    public static final long UNDEFINED = Long.MIN_VALUE;
+
+    private FixedScaleMetricsUtil() {
+    }
+
+    /**
+     * Convert a list of counts to fixed-scale values.
+     *
+     * @param values - list of counts
+     * @return fixed-scale values
+     */
+    public static long[] toFixedScaleArray(List<Integer> values) {
+
+        long[] fixedScaleValues = new long[values.size()];
+        for (int i = 0; i < fixedScaleValues.length; i++) {
+            fixedScaleValues[i] = values.get(i) * SCALE_FACTOR;
+        }
+        return fixedScaleValues;
+    }
+
+    /**
+     * Convert a decimal value with at most three decimal places to a fixed-scale value.
+     *
+     * @param value - decimal value
+     * @return fixed-scale value
+     */
+    public static long toFixedScale(double value) {
+
+        return Math.round(value * SCALE_FACTOR);
+    }
+
+    /**
+     * Merge the count lists of the given keys to get the fixed-scale total count of each day.
+     * Empty lists are skipped, and the number of days is taken from the list of the first key.
+     *
+     * @param metricsMap - map of daily counts
+     * @param keys       - keys to merge
+     * @param <K>        - type of the keys
+     * @return fixed-scale total count of each day
+     */
+    public static <K> long[] getFixedScaleTotalsForEachDay(Map<K, List<Integer>> metricsMap, K[] keys) {
+
+        long[] totals = new long[metricsMap.get(keys[0]).size()];
+        for (K key : keys) {
+            List<Integer> currentList = metricsMap.get(key);
+            if (!currentList.isEmpty()) {
+                for (int day = 0; day < totals.length; day++) {
+                    totals[day] += currentList.get(day);
+                }
+            }
+        }
+        for (int day = 0; day < totals.length; day++) {
+            totals[day] *= SCALE_FACTOR;
+        }
+        return totals;
+    }
+
+    /**
+     * Divide the fixed-scale dividends by the fixed-scale divisors of the same day, in place.
+     * Days with a zero divisor are set to {@link #UNDEFINED}.
+     *
+     * @param dividends - fixed-scale dividends, replaced by the quotients
+     * @param divisors  - fixed-scale divisors
+     * @throws OpenBankingException if the arrays have different sizes
+     */
+    public static void divideInPlace(long[] dividends, long[] divisors) throws OpenBankingException {
+
+        if (dividends.length != divisors.length) {
+            throw new OpenBankingException("Cannot perform division between lists with different sizes");
+        }
+        for (int i = 0; i < dividends.length; i++) {
+            dividends[i] = divisors[i] == 0 ? UNDEFINED : divideHalfUp(dividends[i] * SCALE_FACTOR, divisors[i]);
+        }
+    }
+
+    /**
+     * Divide the fixed-scale dividends by a fixed-scale divisor, in place.
+     *
+     * @param dividends - fixed-scale dividends, replaced by the quotients
+     * @param divisor   - non zero fixed-scale divisor
+     */
+    public static void divideInPlace(long[] dividends, long divisor) {
+
+        for (int i = 0; i < dividends.length; i++) {
+            dividends[i] = divideHalfUp(dividends[i] * SCALE_FACTOR, divisor);
+        }
+    }
+
+    /**
+     * Convert fixed-scale values to a list of BigDecimal with a scale of three decimal places.
+     *
+     * @param fixedScaleValues - fixed-scale values
+     * @param undefinedValue   - value to use for days marked as {@link #UNDEFINED}
+     * @return list of BigDecimal
+     */
+    public static List<BigDecimal> toBigDecimalList(long[] fixedScaleValues, BigDecimal undefinedValue) {
+
+        List<BigDecimal> resultList = new ArrayList<>(fixedScaleValues.length);
+        for (long value : fixedScaleValues) {
+            resultList.add(value == UNDEFINED ? undefinedValue : BigDecimal.valueOf(value, SCALE));
+        }
+        return resultList;
+    }
+
+    /**
+     * Perform an integer division rounded half up, i.e. away from zero when the remainder is exactly half.
+     */
+    private static long divideHalfUp(long dividend, long divisor) {
+
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder != 0 && Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.util;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Maps timestamps to the position of their date in a list of metric days.
+ * <p>
+ * The start of each day between the earliest and the latest date of the list is calculated once in the metrics time
+ * zone, so a timestamp is mapped by estimating its day from the elapsed time and correcting the estimate against the
+ * actual day boundaries, which may be shorter or longer than 24 hours on daylight saving transitions.
+ */
+class MetricDayIndex {
+
+    private static final long MILLIS_IN_DAY = TimeUnit.DAYS.toMillis(1);
+
+    // Start of each day in the covered range and the end of the last day, in epoch milliseconds
+    private final long[] dayStartMillis;
+    // Position in the metric day list of each day in the covered range, or -1 if the day is not in the list
+    private final int[] positions;
+
+    /**
+     * Create an index for the given metric days.
+     *
+     * @param metricDays    - list of metric days
+     * @param dateExtractor - function to get the date of a metric day
+     * @param zoneId        - time zone of the metric days
+     * @param <T>           - type of the metric days
+     */
+    <T> MetricDayIndex(List<T> metricDays, Function<T, LocalDate> dateExtractor, ZoneId zoneId) {
+
+        if (metricDays.isEmpty()) {
+            dayStartMillis = new long[0];
+            positions = new int[0];
+            return;
+        }
+
+        long firstEpochDay = Long.MAX_VALUE;
+        long lastEpochDay = Long.MIN_VALUE;
+        for (T metricDay : metricDays) {
+            long epochDay = dateExtractor.apply(metricDay).toEpochDay();
+            firstEpochDay = Math.min(firstEpochDay, epochDay);
+            lastEpochDay = Math.max(lastEpochDay, epochDay);
+        }
+
+        int numberOfDays = Math.toIntExact(lastEpochDay - firstEpochDay + 1);
+        dayStartMillis = new long[numberOfDays + 1];
+        for (int i = 0; i <= numberOfDays; i++) {
+            dayStartMillis[i] = LocalDate.ofEpochDay(firstEpochDay + i).atStartOfDay(zoneId).toInstant()
+                    .toEpochMilli();
+        }
+
+        positions = new int[numberOfDays];
+        Arrays.fill(positions, -1);
+        for (int position = metricDays.size() - 1; position >= 0; position--) {
+            // Iterating backwards so that the first occurrence of a date takes precedence
+            long epochDay = dateExtractor.apply(metricDays.get(position)).toEpochDay();
+            positions[(int) (epochDay - firstEpochDay)] = position;
+        }
+    }
+
+    /**
+     * Get the position of the date of the given timestamp in the list of metric days.
+     *
+     * @param timestamp - epoch timestamp in milliseconds
+     * @return position in the list of metric days, or -1 if the date of the timestamp is not in the list
+     */
+    int getPosition(long timestamp) {
+
+        if (positions.length == 0 || timestamp < dayStartMillis[0] || timestamp >= dayStartMillis[positions.length]) {
+            return -1;
+        }
+
+        int day = (int) Math.min((timestamp - dayStartMillis[0]) / MILLIS_IN_DAY, positions.length - 1);
+        while (timestamp < dayStartMillis[day]) {
+            day--;
+        }
+        while (timestamp >= dayStartMillis[day + 1]) {
+            day++;
+        }
+        return positions[day];
+    }
+}
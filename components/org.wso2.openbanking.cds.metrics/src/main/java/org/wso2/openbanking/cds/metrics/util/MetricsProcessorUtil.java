@@ -55,7 +55,6 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
@@ -79,59 +78,6 @@ public class MetricsProcessorUtil {
     private MetricsProcessorUtil() {
     }
 
-    /**
-     * Perform division between two lists.
-     *
-     * @param list1        - dividend list
-     * @param list2        - divisor list
-     * @param defaultValue - default big decimal value
-     * @param <T1>         - type of the first list elements
-     * @param <T2>         - type of the second list elements
-     * @return resulting list of BigDecimal
-     * @throws OpenBankingException if lists have different sizes or division by zero occurs
-     */
-    public static <T1, T2> List<BigDecimal> divideLists(List<T1> list1, List<T2> list2, BigDecimal defaultValue)
-            throws OpenBankingException {
-
-        int listSize = list1.size();
-        List<BigDecimal> resultList = new ArrayList<>();
-
-        if (listSize != list2.size()) {
-            throw new OpenBankingException("Cannot perform division between lists with different sizes");
-        }
-
-        for (int i = 0; i < listSize; i++) {
-            BigDecimal dividend = convertToBigDecimal(list1.get(i));
-            BigDecimal divisor = convertToBigDecimal(list2.get(i));
-            if (!divisor.equals(BigDecimal.ZERO)) {
-                BigDecimal currentResult = dividend.divide(divisor, 3, RoundingMode.HALF_UP);
-                resultList.add(currentResult);
-            } else {
-                resultList.add(defaultValue);
-            }
-        }
-        return resultList;
-    }
-
-    /**
-     * Convert an object to BigDecimal.
-     *
-     * @param value - the value to be converted
-     * @param <T>   - type of the value
-     * @return the converted BigDecimal
-     * @throws IllegalArgumentException if the value type is not supported
-     */
-    private static <T> BigDecimal convertToBigDecimal(T value) {
-
-        if (value instanceof BigDecimal) {
-            return (BigDecimal) value;
-        } else if (value instanceof Integer) {
-            return BigDecimal.valueOf((Integer) value);
-        } else {
-            throw new IllegalArgumentException("Unsupported type: " + value.getClass().getName());
-        }
-    }
-
     /**
      * Initialize new priority-tier map for Metrics data with a given type.
      *
@@ -223,25 +169,6 @@ public class MetricsProcessorUtil {
         return totalTransactionsList;
     }
 
-    /**
-     * Populates the average TPS list based on the given invocation counts.
-     *
-     * @param invocationList the list of integer invocation counts
-     * @param averageTPSList the list to be populated with the calculated average TPS values
-     */
-    public static void populateAverageTPSList(List<Integer> invocationList, List<BigDecimal> averageTPSList) {
-
-        for (Integer transactionCount : invocationList) {
-            BigDecimal avgTPS = new BigDecimal(transactionCount).divide(MetricsConstants.SECONDS_IN_DAY, 3,
-                    RoundingMode.HALF_UP);
-            if (avgTPS.compareTo(BigDecimal.ZERO) == 0) {
-                averageTPSList.add(BigDecimal.valueOf(0).setScale(3, RoundingMode.HALF_UP));
-            } else {
-                averageTPSList.add(avgTPS);
-            }
-        }
-    }
-
     /**
      * Populate a map of invocation metrics data categorized to priority tiers.
      *
@@ -308,15 +235,32 @@ public class MetricsProcessorUtil {
     public static Map<PriorityEnum, List<List<BigDecimal>>> getPopulatedHourlyPerformanceByPriorityMetricsMap(
             JSONObject metricsJsonObject, int numberOfDays) throws OpenBankingException {
 
+        return getPopulatedHourlyPerformanceByPriorityMetricsMap(metricsJsonObject, numberOfDays,
+                ZonedDateTime.now(timeZone));
+    }
+
+    /**
+     * Populate a map of hourly performance metrics data categorized to priority tiers, considering the given time
+     * as the current time.
+     *
+     * @param metricsJsonObject - Json object with invocation metrics
+     * @param numberOfDays      - Number of days to consider
+     * @param currentTime       - time to be considered as the current time
+     * @return - populated map
+     */
+    public static Map<PriorityEnum, List<List<BigDecimal>>> getPopulatedHourlyPerformanceByPriorityMetricsMap(
+            JSONObject metricsJsonObject, int numberOfDays, ZonedDateTime currentTime) throws OpenBankingException {
+
         boolean isCurrentDay = numberOfDays == 1;
-        int alteredNoOfDays = getNumberOfDaysAccordingToV5StartDay(numberOfDays);
+        LocalDate currentDate = currentTime.toLocalDate();
+        int alteredNoOfDays = getNumberOfDaysAccordingToV5StartDay(numberOfDays, currentDate);
         Map<PriorityEnum, List<List<BigDecimal>>> performanceMetricsMap = getInitialPerformanceMetricsMap(
-                alteredNoOfDays, isCurrentDay);
+                alteredNoOfDays, isCurrentDay ? currentTime.getHour() + 1 : 24);
         List<PerformanceMetric> performanceRecords = parsePerformanceMetricsJson(metricsJsonObject);
 
         if (!performanceRecords.isEmpty()) {
             validateDateRangeOfRecords(performanceRecords, alteredNoOfDays);
-            populatePerformanceMetricsMap(performanceRecords, performanceMetricsMap);
+            populatePerformanceMetricsMap(performanceRecords, performanceMetricsMap, currentDate);
         }
 
         return performanceMetricsMap;
@@ -361,9 +305,11 @@ public class MetricsProcessorUtil {
      *
      * @param performanceRecords    - performance records retrieved from the stream processor
      * @param performanceMetricsMap - performance metrics map to be populated
+     * @param currentDate           - date to be considered as the current day
      */
     private static void populatePerformanceMetricsMap(List<PerformanceMetric> performanceRecords,
-                                                      Map<PriorityEnum, List<List<BigDecimal>>> performanceMetricsMap) {
+                                                      Map<PriorityEnum, List<List<BigDecimal>>> performanceMetricsMap,
+                                                      LocalDate currentDate) {
 
         // Populate the performance metrics map going through each record
         for (PerformanceMetric record : performanceRecords) {
@@ -374,7 +320,7 @@ public class MetricsProcessorUtil {
 
             // Calculate which day the record belongs to
             ZonedDateTime recordDateTime = Instant.ofEpochMilli(timestamp).atZone(timeZone);
-            int dayDifference = getDayDifferenceForTheRecord(recordDateTime.toLocalDate());
+            int dayDifference = getDayDifferenceForTheRecord(recordDateTime.toLocalDate(), currentDate);
             PriorityEnum priorityEnum = PriorityEnum.fromValue(priorityTier);
             performanceMetricsMap.get(priorityEnum).get(dayDifference).set(recordDateTime.getHour(), performance);
 
@@ -385,12 +331,11 @@ public class MetricsProcessorUtil {
      * Get the day difference for the given date from the current day.
      * If the record is for the current day, return 0. Otherwise, return the day difference minus 1.
      *
-     * @param recordDate - date of the record
+     * @param recordDate  - date of the record
+     * @param currentDate - date to be considered as the current day
      * @return - day difference
      */
-    private static int getDayDifferenceForTheRecord(LocalDate recordDate) {
-
-        LocalDate currentDate = LocalDate.now(timeZone);
+    private static int getDayDifferenceForTheRecord(LocalDate recordDate, LocalDate currentDate) {
 
         // Check if the recordDate is the current date
         if (recordDate.equals(currentDate)) {
@@ -436,12 +381,13 @@ public class MetricsProcessorUtil {
     /**
      * Get the correct number of days to display records considering the starting date of Metrics V5 feature.
      *
-     * @param noOfDays - given number of days
+     * @param noOfDays    - given number of days
+     * @param currentDate - date to be considered as the current day
      * @return - corrected number of days
      */
-    private static int getNumberOfDaysAccordingToV5StartDay(int noOfDays) throws OpenBankingException {
+    private static int getNumberOfDaysAccordingToV5StartDay(int noOfDays, LocalDate currentDate)
+            throws OpenBankingException {
 
-        LocalDate currentDate = LocalDate.now(timeZone);
         if (metricsV5StartDate.isAfter(currentDate)) {
             throw new OpenBankingException("Metrics V5 start date is configured incorrectly. Please set a " +
                     "past date as the starting date.");
@@ -462,14 +408,14 @@ public class MetricsProcessorUtil {
      * Get a map to add performance metrics values for given number of days initialized with 1.00 for 24 hours.
      * If it's the current day, the map will be initialized with 1.00 upto current hour.
      *
-     * @param noOfDays - Number of days
+     * @param noOfDays  - Number of days
+     * @param noOfHours - Number of hours to initialize for each day
      * @return - Initial performance map
      */
     private static Map<PriorityEnum, List<List<BigDecimal>>> getInitialPerformanceMetricsMap(
-            int noOfDays, boolean isCurrentDay) {
+            int noOfDays, int noOfHours) {
 
         Map<PriorityEnum, List<List<BigDecimal>>> initialPerformanceMap = new EnumMap<>(PriorityEnum.class);
-        int noOfHours = isCurrentDay ? ZonedDateTime.now(timeZone).getHour() + 1 : 24;
 
         for (PriorityEnum priority : PriorityEnum.values()) {
             List<List<BigDecimal>> daysPerformance = getInitialHourlyPerformanceListForDays(noOfDays, noOfHours);
@@ -548,64 +494,54 @@ public class MetricsProcessorUtil {
                 getPopulatedInvocationByAspectMetricsMap(invocationByAspectMetricsJsonObject, numberOfDays,
                         metricsCountLastDateEpoch);
 
-        Map<AspectEnum, List<BigDecimal>> averageTPSMap = new HashMap<>();
-        List<BigDecimal> aggregateAverageTPSList = new ArrayList<>();
-        List<BigDecimal> authenticatedAverageTPSList = new ArrayList<>();
-        List<BigDecimal> unauthenticatedAverageTPSList = new ArrayList<>();
-
-        Map<AspectEnum, List<Integer>> authenticatedInvocationMetricsMap = new HashMap<>();
-        authenticatedInvocationMetricsMap.put(AspectEnum.AUTHENTICATED,
+        long[] totalInvocations = FixedScaleMetricsUtil.getFixedScaleTotalsForEachDay(
+                invocationByAspectMetricsMap, AspectEnum.values());
+        long[] authenticatedInvocations = FixedScaleMetricsUtil.toFixedScaleArray(
                 invocationByAspectMetricsMap.get(AspectEnum.AUTHENTICATED));
-
-        Map<AspectEnum, List<Integer>> unAuthenticatedInvocationMetricsMap = new HashMap<>();
-        unAuthenticatedInvocationMetricsMap.put(AspectEnum.UNAUTHENTICATED,
+        long[] unauthenticatedInvocations = FixedScaleMetricsUtil.toFixedScaleArray(
                 invocationByAspectMetricsMap.get(AspectEnum.UNAUTHENTICATED));
 
-        List<Integer> totalInvocationList =
-                MetricsProcessorUtil.getTotalInvocationsForEachDay(invocationByAspectMetricsMap,
-                        AspectEnum.values());
-        List<Integer> authenticatedInvocationList =
-                MetricsProcessorUtil.getTotalInvocationsForEachDay(authenticatedInvocationMetricsMap,
-                        new AspectEnum[]{AspectEnum.AUTHENTICATED});
-        List<Integer> unauthenticatedInvocationList =
-                MetricsProcessorUtil.getTotalInvocationsForEachDay(unAuthenticatedInvocationMetricsMap,
-                        new AspectEnum[]{AspectEnum.UNAUTHENTICATED});
+        FixedScaleMetricsUtil.divideInPlace(totalInvocations, FixedScaleMetricsUtil.SECONDS_IN_DAY);
+        FixedScaleMetricsUtil.divideInPlace(authenticatedInvocations, FixedScaleMetricsUtil.SECONDS_IN_DAY);
+        FixedScaleMetricsUtil.divideInPlace(unauthenticatedInvocations, FixedScaleMetricsUtil.SECONDS_IN_DAY);
 
-        MetricsProcessorUtil.populateAverageTPSList(totalInvocationList, aggregateAverageTPSList);
-        MetricsProcessorUtil.populateAverageTPSList(authenticatedInvocationList, authenticatedAverageTPSList);
-        MetricsProcessorUtil.populateAverageTPSList(unauthenticatedInvocationList, unauthenticatedAverageTPSList);
-
-        averageTPSMap.put(AspectEnum.ALL, aggregateAverageTPSList);
-        averageTPSMap.put(AspectEnum.AUTHENTICATED, authenticatedAverageTPSList);
-        averageTPSMap.put(AspectEnum.UNAUTHENTICATED, unauthenticatedAverageTPSList);
+        Map<AspectEnum, List<BigDecimal>> averageTPSMap = new HashMap<>();
+        averageTPSMap.put(AspectEnum.ALL, FixedScaleMetricsUtil.toBigDecimalList(totalInvocations, null));
+        averageTPSMap.put(AspectEnum.AUTHENTICATED,
+                FixedScaleMetricsUtil.toBigDecimalList(authenticatedInvocations, null));
+        averageTPSMap.put(AspectEnum.UNAUTHENTICATED,
+                FixedScaleMetricsUtil.toBigDecimalList(unauthenticatedInvocations, null));
 
         return averageTPSMap;
     }
 
     /**
-     * Populate a map of total response time data categorized to priority tiers.
+     * Populate a map of fixed-scale total response time data categorized to priority tiers.
+     * Total response times are reported in seconds with millisecond precision, so they are held without loss.
      *
      * @param metricsJsonObject         - Json object with total response metrics
      * @param numberOfDays              - Number of days to consider
      * @param metricsCountLastDateEpoch - Epoch timestamp of the last date that metrics are required
      * @return - populated map
      */
-    public static Map<PriorityEnum, List<BigDecimal>> getPopulatedTotalResponseTimeMetricsMap(
+    public static Map<PriorityEnum, long[]> getPopulatedFixedScaleTotalResponseTimeMetricsMap(
             JSONObject metricsJsonObject, int numberOfDays, long metricsCountLastDateEpoch) {
 
-        Map<PriorityEnum, List<BigDecimal>> dataMap = initializePriorityMap(numberOfDays, BigDecimal.ZERO);
+        Map<PriorityEnum, long[]> dataMap = new EnumMap<>(PriorityEnum.class);
+        for (PriorityEnum priority : PriorityEnum.values()) {
+            dataMap.put(priority, new long[numberOfDays]);
+        }
         JSONArray records = (JSONArray) metricsJsonObject.get(RECORDS);
         for (Object recordObj : records) {
             JSONArray record = (JSONArray) recordObj;
             PriorityEnum priority = PriorityEnum.fromValue((String) record.get(0));
-            BigDecimal count = BigDecimal.valueOf((Double) record.get(1));
+            long responseTime = FixedScaleMetricsUtil.toFixedScale((Double) record.get(1));
             long recordTimestamp = (Long) record.get(2);
             int daysAgo = DateTimeUtil.getDayDifference(recordTimestamp / 1000, metricsCountLastDateEpoch);
 
-            // Number of days ago can be used as the index to insert data to the list
+            // Number of days ago can be used as the index to insert data to the array
             if (daysAgo >= 0 && daysAgo < numberOfDays) {
-                dataMap.get(priority).set(
-                        daysAgo, dataMap.get(priority).get(daysAgo).add(count));
+                dataMap.get(priority)[daysAgo] += responseTime;
             }
         }
         return dataMap;
@@ -812,7 +748,17 @@ public class MetricsProcessorUtil {
      */
     public static void initializeErrorMetricDayList(List<ErrorMetricDay> errorMetricDayList, int numberOfDays) {
 
-        LocalDate today = LocalDate.now(timeZone);
+        initializeErrorMetricDayList(errorMetricDayList, numberOfDays, LocalDate.now(timeZone));
+    }
+
+    /**
+     * This method initializes the errorMetricDayList with date values, considering the given date as today.
+     *
+     * @param errorMetricDayList - List of ErrorMetricDay objects
+     * @param today              - date to be considered as the current day
+     */
+    public static void initializeErrorMetricDayList(List<ErrorMetricDay> errorMetricDayList, int numberOfDays,
+                                                    LocalDate today) {
 
         // If the request is only historic, then populate days starting from yesterday
         LocalDate startingDate = numberOfDays == 7 ? today.minusDays(1) : today;
@@ -833,7 +779,17 @@ public class MetricsProcessorUtil {
     public static void initializeAuthorisationMetricDayList(List<AuthorisationMetricDay> authorisationMetricDayList,
                                                             int numberOfDays) {
 
-        LocalDate today = LocalDate.now(timeZone);
+        initializeAuthorisationMetricDayList(authorisationMetricDayList, numberOfDays, LocalDate.now(timeZone));
+    }
+
+    /**
+     * This method initializes the authorisationMetricDayList with date values, considering the given date as today.
+     *
+     * @param authorisationMetricDayList - List of AuthorisationMetricDay objects
+     * @param today                      - date to be considered as the current day
+     */
+    public static void initializeAuthorisationMetricDayList(List<AuthorisationMetricDay> authorisationMetricDayList,
+                                                            int numberOfDays, LocalDate today) {
 
         // If the request is only historic, then populate days starting from yesterday
         LocalDate startingDate = numberOfDays == 7 ? today.minusDays(1) : today;
@@ -854,7 +810,20 @@ public class MetricsProcessorUtil {
     public static void initializeAbandonedConsentFlowByStageMetricDayList(
             List<AbandonedConsentFlowByStageMetricDay> abandonedConsentFlowByStageMetricsDayList, int numberOfDays) {
 
-        LocalDate today = LocalDate.now(timeZone);
+        initializeAbandonedConsentFlowByStageMetricDayList(abandonedConsentFlowByStageMetricsDayList, numberOfDays,
+                LocalDate.now(timeZone));
+    }
+
+    /**
+     * This method initializes the abandonedConsentFlowByStageMetricsDayList with date values, considering the given
+     * date as today.
+     *
+     * @param abandonedConsentFlowByStageMetricsDayList - List of AbandonedConsentFlowByStageMetricDay objects
+     * @param today                                     - date to be considered as the current day
+     */
+    public static void initializeAbandonedConsentFlowByStageMetricDayList(
+            List<AbandonedConsentFlowByStageMetricDay> abandonedConsentFlowByStageMetricsDayList, int numberOfDays,
+            LocalDate today) {
 
         // If the request is only historic, then populate days starting from yesterday
         LocalDate startingDate = numberOfDays == 7 ? today.minusDays(1) : today;
@@ -878,40 +847,40 @@ public class MetricsProcessorUtil {
     public static List<ErrorMetricDay> populateErrorMetricDayList(List<ErrorMetricDataModel> errorMetricDataModelList,
                                                                   List<ErrorMetricDay> errorMetricDayList) {
 
+        MetricDayIndex dayIndex = new MetricDayIndex(errorMetricDayList, ErrorMetricDay::getDate, timeZone);
         for (ErrorMetricDataModel errorMetricDataModel : errorMetricDataModelList) {
-            for (int i = 0; i < errorMetricDayList.size(); i++) {
-                ErrorMetricDay errorMetricDay = errorMetricDayList.get(i);
-                if (isTimestampInDate(errorMetricDataModel.getTimestamp(), errorMetricDay.getDate())) {
-
-                    Map<String, Integer> unauthenticatedErrorMap = errorMetricDay.getUnauthenticatedErrorMap();
-                    Map<String, Integer> authenticatedErrorMap = errorMetricDay.getAuthenticatedErrorMap();
-
-                    if (errorMetricDataModel.getAspect().equals(AspectEnum.UNAUTHENTICATED)) {
-                        // updating the unauthenticated errors map
-                        if (unauthenticatedErrorMap.containsKey(errorMetricDataModel.getStatusCode())) {
-                            Integer errorCount = unauthenticatedErrorMap.get(errorMetricDataModel.getStatusCode());
-                            Integer newErrorCount = errorCount + errorMetricDataModel.getCount();
-                            unauthenticatedErrorMap.put(errorMetricDataModel.getStatusCode(), newErrorCount);
-                        } else {
-                            unauthenticatedErrorMap.put(errorMetricDataModel.getStatusCode(),
-                                    errorMetricDataModel.getCount());
-                        }
+            int dayPosition = dayIndex.getPosition(errorMetricDataModel.getTimestamp());
+            if (dayPosition >= 0) {
+                ErrorMetricDay errorMetricDay = errorMetricDayList.get(dayPosition);
+
+                Map<String, Integer> unauthenticatedErrorMap = errorMetricDay.getUnauthenticatedErrorMap();
+                Map<String, Integer> authenticatedErrorMap = errorMetricDay.getAuthenticatedErrorMap();
+
+                if (errorMetricDataModel.getAspect().equals(AspectEnum.UNAUTHENTICATED)) {
+                    // updating the unauthenticated errors map
+                    if (unauthenticatedErrorMap.containsKey(errorMetricDataModel.getStatusCode())) {
+                        Integer errorCount = unauthenticatedErrorMap.get(errorMetricDataModel.getStatusCode());
+                        Integer newErrorCount = errorCount + errorMetricDataModel.getCount();
+                        unauthenticatedErrorMap.put(errorMetricDataModel.getStatusCode(), newErrorCount);
                     } else {
-                        // updating the authenticated errors map
-                        if (authenticatedErrorMap.containsKey(errorMetricDataModel.getStatusCode())) {
-                            Integer errorCount = authenticatedErrorMap.get(errorMetricDataModel.getStatusCode());
-                            Integer newErrorCount = errorCount + errorMetricDataModel.getCount();
-                            authenticatedErrorMap.put(errorMetricDataModel.getStatusCode(), newErrorCount);
-                        } else {
-                            authenticatedErrorMap.put(errorMetricDataModel.getStatusCode(),
-                                    errorMetricDataModel.getCount());
-                        }
+                        unauthenticatedErrorMap.put(errorMetricDataModel.getStatusCode(),
+                                errorMetricDataModel.getCount());
+                    }
+                } else {
+                    // updating the authenticated errors map
+                    if (authenticatedErrorMap.containsKey(errorMetricDataModel.getStatusCode())) {
+                        Integer errorCount = authenticatedErrorMap.get(errorMetricDataModel.getStatusCode());
+                        Integer newErrorCount = errorCount + errorMetricDataModel.getCount();
+                        authenticatedErrorMap.put(errorMetricDataModel.getStatusCode(), newErrorCount);
+                    } else {
+                        authenticatedErrorMap.put(errorMetricDataModel.getStatusCode(),
+                                errorMetricDataModel.getCount());
                     }
-
-                    // setting the updated error maps
-                    errorMetricDay.setUnauthenticatedErrorMap(unauthenticatedErrorMap);
-                    errorMetricDay.setAuthenticatedErrorMap(authenticatedErrorMap);
                 }
+
+                // setting the updated error maps
+                errorMetricDay.setUnauthenticatedErrorMap(unauthenticatedErrorMap);
+                errorMetricDay.setAuthenticatedErrorMap(authenticatedErrorMap);
             }
         }
 
@@ -929,82 +898,81 @@ public class MetricsProcessorUtil {
             List<AuthorisationMetricDataModel> authorisationMetricDataModelList,
             List<AuthorisationMetricDay> authorisationMetricDayList) {
 
+        MetricDayIndex dayIndex = new MetricDayIndex(authorisationMetricDayList, AuthorisationMetricDay::getDate,
+                timeZone);
         for (AuthorisationMetricDataModel authorisationMetricDataModel : authorisationMetricDataModelList) {
-            for (int i = 0; i < authorisationMetricDayList.size(); i++) {
-                AuthorisationMetricDay authorisationMetricDay = authorisationMetricDayList.get(i);
-                if (isTimestampInDate(authorisationMetricDataModel.getTimestamp(),
-                        authorisationMetricDay.getDate())) {
-
-                    // populating new authorisation metrics
-                    if (ConsentStatusEnum.AUTHORISED.equals(authorisationMetricDataModel.getConsentStatus()) &&
-                            AuthorisationFlowTypeEnum.CONSENT_AUTHORISATION.equals(
-                                    authorisationMetricDataModel.getAuthFlowType()) &&
-                            ConsentDurationTypeEnum.ONGOING.equals(authorisationMetricDataModel
-                                    .getConsentDurationType())) {
-                        if (authorisationMetricDataModel.getCustomerProfile().contains(MetricsConstants.INDIVIDUAL)) {
-                            authorisationMetricDay.getNewAuthorisationMetric().getOngoing()
-                                    .updateIndividual(authorisationMetricDataModel.getCount());
-                        } else {
-                            authorisationMetricDay.getNewAuthorisationMetric().getOngoing()
-                                    .updateNonIndividual(authorisationMetricDataModel.getCount());
-                        }
+            int dayPosition = dayIndex.getPosition(authorisationMetricDataModel.getTimestamp());
+            if (dayPosition >= 0) {
+                AuthorisationMetricDay authorisationMetricDay = authorisationMetricDayList.get(dayPosition);
+
+                // populating new authorisation metrics
+                if (ConsentStatusEnum.AUTHORISED.equals(authorisationMetricDataModel.getConsentStatus()) &&
+                        AuthorisationFlowTypeEnum.CONSENT_AUTHORISATION.equals(
+                                authorisationMetricDataModel.getAuthFlowType()) &&
+                        ConsentDurationTypeEnum.ONGOING.equals(authorisationMetricDataModel
+                                .getConsentDurationType())) {
+                    if (authorisationMetricDataModel.getCustomerProfile().contains(MetricsConstants.INDIVIDUAL)) {
+                        authorisationMetricDay.getNewAuthorisationMetric().getOngoing()
+                                .updateIndividual(authorisationMetricDataModel.getCount());
+                    } else {
+                        authorisationMetricDay.getNewAuthorisationMetric().getOngoing()
+                                .updateNonIndividual(authorisationMetricDataModel.getCount());
                     }
+                }
 
-                    if (ConsentStatusEnum.AUTHORISED.equals(authorisationMetricDataModel.getConsentStatus()) &&
-                            AuthorisationFlowTypeEnum.CONSENT_AUTHORISATION.equals(
-                                    authorisationMetricDataModel.getAuthFlowType()) &&
-                            ConsentDurationTypeEnum.ONCE_OFF.equals(authorisationMetricDataModel
-                                    .getConsentDurationType())) {
-                        if (authorisationMetricDataModel.getCustomerProfile().contains(MetricsConstants.INDIVIDUAL)) {
-                            authorisationMetricDay.getNewAuthorisationMetric().getOnceOff()
-                                    .updateIndividual(authorisationMetricDataModel.getCount());
-                        } else {
-                            authorisationMetricDay.getNewAuthorisationMetric().getOnceOff()
-                                    .updateNonIndividual(authorisationMetricDataModel.getCount());
-                        }
+                if (ConsentStatusEnum.AUTHORISED.equals(authorisationMetricDataModel.getConsentStatus()) &&
+                        AuthorisationFlowTypeEnum.CONSENT_AUTHORISATION.equals(
+                                authorisationMetricDataModel.getAuthFlowType()) &&
+                        ConsentDurationTypeEnum.ONCE_OFF.equals(authorisationMetricDataModel
+                                .getConsentDurationType())) {
+                    if (authorisationMetricDataModel.getCustomerProfile().contains(MetricsConstants.INDIVIDUAL)) {
+                        authorisationMetricDay.getNewAuthorisationMetric().getOnceOff()
+                                .updateIndividual(authorisationMetricDataModel.getCount());
+                    } else {
+                        authorisationMetricDay.getNewAuthorisationMetric().getOnceOff()
+                                .updateNonIndividual(authorisationMetricDataModel.getCount());
                     }
+                }
 
-                    // populating revoked authorisation metrics
-                    if (ConsentStatusEnum.REVOKED.equals(authorisationMetricDataModel.getConsentStatus()) &&
-                            ConsentDurationTypeEnum.ONGOING.equals(authorisationMetricDataModel
-                                    .getConsentDurationType())) {
-                        if (authorisationMetricDataModel.getCustomerProfile().contains(MetricsConstants.INDIVIDUAL)) {
-                            authorisationMetricDay.getRevokedAuthorisationMetric().getOngoing()
-                                    .updateIndividual(authorisationMetricDataModel.getCount());
-                        } else {
-                            authorisationMetricDay.getRevokedAuthorisationMetric().getOngoing()
-                                    .updateNonIndividual(authorisationMetricDataModel.getCount());
-                        }
+                // populating revoked authorisation metrics
+                if (ConsentStatusEnum.REVOKED.equals(authorisationMetricDataModel.getConsentStatus()) &&
+                        ConsentDurationTypeEnum.ONGOING.equals(authorisationMetricDataModel
+                                .getConsentDurationType())) {
+                    if (authorisationMetricDataModel.getCustomerProfile().contains(MetricsConstants.INDIVIDUAL)) {
+                        authorisationMetricDay.getRevokedAuthorisationMetric().getOngoing()
+                                .updateIndividual(authorisationMetricDataModel.getCount());
+                    } else {
+                        authorisationMetricDay.getRevokedAuthorisationMetric().getOngoing()
+                                .updateNonIndividual(authorisationMetricDataModel.getCount());
                     }
+                }
 
-                    // populating amended authorisation metrics
-                    if (ConsentStatusEnum.AUTHORISED.equals(authorisationMetricDataModel.getConsentStatus()) &&
-                            AuthorisationFlowTypeEnum.CONSENT_AMENDMENT_AUTHORISATION.equals(
-                                    authorisationMetricDataModel.getAuthFlowType()) &&
-                            ConsentDurationTypeEnum.ONGOING.equals(authorisationMetricDataModel
-                                    .getConsentDurationType())) {
-                        if (authorisationMetricDataModel.getCustomerProfile().contains(MetricsConstants.INDIVIDUAL)) {
-                            authorisationMetricDay.getAmendedAuthorisationMetric().getOngoing()
-                                    .updateIndividual(authorisationMetricDataModel.getCount());
-                        } else {
-                            authorisationMetricDay.getAmendedAuthorisationMetric().getOngoing()
-                                    .updateNonIndividual(authorisationMetricDataModel.getCount());
-                        }
+                // populating amended authorisation metrics
+                if (ConsentStatusEnum.AUTHORISED.equals(authorisationMetricDataModel.getConsentStatus()) &&
+                        AuthorisationFlowTypeEnum.CONSENT_AMENDMENT_AUTHORISATION.equals(
+                                authorisationMetricDataModel.getAuthFlowType()) &&
+                        ConsentDurationTypeEnum.ONGOING.equals(authorisationMetricDataModel
+                                .getConsentDurationType())) {
+                    if (authorisationMetricDataModel.getCustomerProfile().contains(MetricsConstants.INDIVIDUAL)) {
+                        authorisationMetricDay.getAmendedAuthorisationMetric().getOngoing()
+                                .updateIndividual(authorisationMetricDataModel.getCount());
+                    } else {
+                        authorisationMetricDay.getAmendedAuthorisationMetric().getOngoing()
+                                .updateNonIndividual(authorisationMetricDataModel.getCount());
                     }
+                }
 
-                    // populating expired authorisation metrics
-                    if (ConsentStatusEnum.EXPIRED.equals(authorisationMetricDataModel.getConsentStatus()) &&
-                            ConsentDurationTypeEnum.ONGOING.equals(authorisationMetricDataModel
-                                    .getConsentDurationType())) {
-                        if (authorisationMetricDataModel.getCustomerProfile().contains(MetricsConstants.INDIVIDUAL)) {
-                            authorisationMetricDay.getExpiredAuthorisationMetric().getOngoing()
-                                    .updateIndividual(authorisationMetricDataModel.getCount());
-                        } else {
-                            authorisationMetricDay.getExpiredAuthorisationMetric().getOngoing()
-                                    .updateNonIndividual(authorisationMetricDataModel.getCount());
-                        }
+                // populating expired authorisation metrics
+                if (ConsentStatusEnum.EXPIRED.equals(authorisationMetricDataModel.getConsentStatus()) &&
+                        ConsentDurationTypeEnum.ONGOING.equals(authorisationMetricDataModel
+                                .getConsentDurationType())) {
+                    if (authorisationMetricDataModel.getCustomerProfile().contains(MetricsConstants.INDIVIDUAL)) {
+                        authorisationMetricDay.getExpiredAuthorisationMetric().getOngoing()
+                                .updateIndividual(authorisationMetricDataModel.getCount());
+                    } else {
+                        authorisationMetricDay.getExpiredAuthorisationMetric().getOngoing()
+                                .updateNonIndividual(authorisationMetricDataModel.getCount());
                     }
-
                 }
             }
         }
@@ -1023,6 +991,9 @@ public class MetricsProcessorUtil {
             List<AuthorisationStageTimestamp> authorisationStageTimeList,
             List<AbandonedConsentFlowByStageMetricDay> abandonedConsentFlowByStageMetricsDayList) {
 
+        MetricDayIndex dayIndex = new MetricDayIndex(abandonedConsentFlowByStageMetricsDayList,
+                AbandonedConsentFlowByStageMetricDay::getDate, timeZone);
+
         // Looping through the table records
         for (AuthorisationStageTimestamp authorisationStageTimestamp : authorisationStageTimeList) {
 
@@ -1093,11 +1064,9 @@ public class MetricsProcessorUtil {
                 }
 
                 if (stage != null) {
-                    for (AbandonedConsentFlowByStageMetricDay metricDay : abandonedConsentFlowByStageMetricsDayList) {
-                        if (isTimestampInDate(timestampToCheck, metricDay.getDate())) {
-                            updateMetricCount(stage, metricDay);
-                            break;
-                        }
+                    int dayPosition = dayIndex.getPosition(timestampToCheck);
+                    if (dayPosition >= 0) {
+                        updateMetricCount(stage, abandonedConsentFlowByStageMetricsDayList.get(dayPosition));
                     }
                 }
             }
@@ -1143,28 +1112,6 @@ public class MetricsProcessorUtil {
         }
     }
 
-    /**
-     * Checks if a timestamp is in a specific date.
-     *
-     * @param timestamp  - timestamp to be checked
-     * @param targetDate - date to be checked against
-     * @return boolean
-     */
-    private static boolean isTimestampInDate(long timestamp, LocalDate targetDate) {
-
-        // Convert GMT timestamp to Instant
-        Instant instant = Instant.ofEpochMilli(timestamp);
-
-        // Convert Instant to ZonedDateTime using GMT time zone
-        ZonedDateTime zonedDateTime = instant.atZone(timeZone);
-
-        // Extract the date from the ZonedDateTime
-        LocalDate timestampDate = zonedDateTime.toLocalDate();
-
-        // Compare the extracted date with the target date
-        return timestampDate.equals(targetDate);
-    }
-
     /**
      * Get list of elements from the JSON object.
      * Groups elements to authenticated and unauthenticated lists.
@@ -1229,13 +1176,33 @@ public class MetricsProcessorUtil {
     public static Map<AspectEnum, List<BigDecimal>> getAvailabilityMapFromServerOutages(
             List<ServerOutageDataModel> serverOutageDataList, int noOfMonths, ZonedDateTime endOfMonth) {
 
+        return getAvailabilityMapFromServerOutages(serverOutageDataList, noOfMonths, endOfMonth,
+                LocalDate.now(timeZone));
+    }
+
+    /**
+     * Get availability from server outages for the given number of months, considering the given date as the
+     * current day.
+     *
+     * @param serverOutageDataList - Server Outage Data List
+     * @param noOfMonths           - Number of months
+     * @param endOfMonth           - end of the latest month to consider
+     * @param currentDate          - date to be considered as the current day
+     * @return Availability map
+     */
+    public static Map<AspectEnum, List<BigDecimal>> getAvailabilityMapFromServerOutages(
+            List<ServerOutageDataModel> serverOutageDataList, int noOfMonths, ZonedDateTime endOfMonth,
+            LocalDate currentDate) {
+
         Map<AspectEnum, List<BigDecimal>> availabilityMap = new HashMap<>();
 
-        noOfMonths = calculateNumberOfMonths(serverOutageDataList, noOfMonths);
+        noOfMonths = calculateNumberOfMonths(serverOutageDataList, noOfMonths, currentDate);
         List<BigDecimal> availabilityAggregatedList = initializeList(noOfMonths, BigDecimal.ONE);
         List<BigDecimal> availabilityAuthenticatedList = initializeList(noOfMonths, BigDecimal.ONE);
         List<BigDecimal> availabilityUnauthenticatedList = initializeList(noOfMonths, BigDecimal.ONE);
 
+        ServerOutageAvailabilityCalculator availabilityCalculator =
+                new ServerOutageAvailabilityCalculator(serverOutageDataList);
         ZonedDateTime currentEndOfMonth = endOfMonth;
         ZonedDateTime currentStartOfMonth;
 
@@ -1245,18 +1212,14 @@ public class MetricsProcessorUtil {
             long startTimestamp = currentStartOfMonth.toEpochSecond();
             long endTimestamp = currentEndOfMonth.toEpochSecond();
 
-            // Computing availability for the particular month for the relevant aspect
-            BigDecimal aggregateAvailability = getAvailabilityFromServerOutagesForTimeRange(serverOutageDataList,
-                    startTimestamp, endTimestamp, AspectEnum.ALL);
-            BigDecimal authenticatedAvailability = getAvailabilityFromServerOutagesForTimeRange(serverOutageDataList,
-                    startTimestamp, endTimestamp, AspectEnum.AUTHENTICATED);
-            BigDecimal unauthenticatedAvailability = getAvailabilityFromServerOutagesForTimeRange(serverOutageDataList,
-                    startTimestamp, endTimestamp, AspectEnum.UNAUTHENTICATED);
+            // Computing availability for the particular month for all aspects
+            Map<AspectEnum, BigDecimal> monthAvailability = availabilityCalculator.getAvailability(startTimestamp,
+                    endTimestamp);
 
             // Set availability for the month using current index
-            availabilityAggregatedList.set(monthIndex, aggregateAvailability);
-            availabilityAuthenticatedList.set(monthIndex, authenticatedAvailability);
-            availabilityUnauthenticatedList.set(monthIndex, unauthenticatedAvailability);
+            availabilityAggregatedList.set(monthIndex, monthAvailability.get(AspectEnum.ALL));
+            availabilityAuthenticatedList.set(monthIndex, monthAvailability.get(AspectEnum.AUTHENTICATED));
+            availabilityUnauthenticatedList.set(monthIndex, monthAvailability.get(AspectEnum.UNAUTHENTICATED));
 
             // Get end date of previous month for the next iteration
             currentEndOfMonth = currentStartOfMonth.minusDays(1).with(LocalTime.MAX);
@@ -1274,9 +1237,11 @@ public class MetricsProcessorUtil {
      *
      * @param serverOutageDataList server outage list
      * @param noOfMonths           number of months
+     * @param currentDate          date to be considered as the current day
      * @return computed number of months based on period
      */
-    private static int calculateNumberOfMonths(List<ServerOutageDataModel> serverOutageDataList, int noOfMonths) {
+    private static int calculateNumberOfMonths(List<ServerOutageDataModel> serverOutageDataList, int noOfMonths,
+                                               LocalDate currentDate) {
 
         // The only values for noOfMonths that can come to this method are
         // 1 for CURRENT, 12 for HISTORIC and 13 for ALL.
@@ -1294,7 +1259,6 @@ public class MetricsProcessorUtil {
                 .getAsLong();
 
         LocalDate earliestOutageToDate = Instant.ofEpochSecond(earliestOutageTimestamp).atZone(timeZone).toLocalDate();
-        LocalDate currentDate = LocalDate.now(timeZone);
         int numOfMonthsFromEarliestOutage = (int) ChronoUnit.MONTHS.between(
                 earliestOutageToDate.withDayOfMonth(1), currentDate.withDayOfMonth(1));
 
@@ -1313,80 +1277,8 @@ public class MetricsProcessorUtil {
     public static BigDecimal getAvailabilityFromServerOutagesForTimeRange(
             List<ServerOutageDataModel> serverOutageDataList, long fromTime, long toTime, AspectEnum aspect) {
 
-        long timeDurationOfReportingPeriod = toTime - fromTime;
-        long totalScheduledOutages;
-        long totalIncidentOutages;
-
-        List<ServerOutageDataModel> scheduledOutages = new ArrayList<>();
-        List<ServerOutageDataModel> incidentOutages = new ArrayList<>();
-
-        // filter the outages. scheduled vs incidents
-        for (ServerOutageDataModel dataModel : serverOutageDataList) {
-            /*
-            Filtering by aspect.
-            If the aspect sent is ALL, then all the data models will be added to the list.
-            If a specific aspect is requested, only the data models with that aspect will be added to the list along
-             with common data models.
-            If the aspect of the data model is ALL, then it belongs to any requested aspect.
-            */
-            if (aspect.equals(dataModel.getAspect()) || AspectEnum.ALL.equals(dataModel.getAspect()) || AspectEnum
-                    .ALL.equals(aspect)) {
-                if (dataModel.getTimeFrom() >= fromTime && dataModel.getTimeFrom() < toTime) {
-                    if (MetricsConstants.SCHEDULED_OUTAGE.equals(dataModel.getType())) {
-                        scheduledOutages.add(dataModel);
-                    } else {
-                        incidentOutages.add(dataModel);
-                    }
-                }
-            }
-        }
-
-        // Calculate the summation of total time
-        totalScheduledOutages = calculateServerOutageTime(scheduledOutages);
-        totalIncidentOutages = calculateServerOutageTime(incidentOutages);
-
-        // Formula to calculate the availability from total time
-        double availability = ((double) timeDurationOfReportingPeriod - (double) totalScheduledOutages
-                - (double) totalIncidentOutages) /
-                ((double) timeDurationOfReportingPeriod - (double) totalScheduledOutages);
-
-        return BigDecimal.valueOf(availability).setScale(3, RoundingMode.HALF_UP);
-    }
-
-    /**
-     * Calculate total server outage time from ServerOutageDataModel.
-     *
-     * @param serverOutages - Server Outages
-     * @return server outage time
-     */
-    @Generated(message = "Excluded from code coverage")
-    private static long calculateServerOutageTime(List<ServerOutageDataModel> serverOutages) {
-
-        long totalTime = 0;
-        List<ServerOutageDataModel> filteredServerOutages = serverOutages.stream()
-                .filter(outage -> outage.getTimeTo() >= outage.getTimeFrom())
-                .distinct()
-                .sorted(Comparator.comparingLong(ServerOutageDataModel::getTimeFrom))
-                .collect(Collectors.toList());
-
-        if (!filteredServerOutages.isEmpty()) {
-            long currentEndTime = 0;
-            for (int outageIndex = 0; outageIndex < filteredServerOutages.size(); outageIndex++) {
-                ServerOutageDataModel serverOutage = filteredServerOutages.get(outageIndex);
-                if (serverOutage.getTimeFrom() >= currentEndTime) {
-                    // Not an overlap
-                    totalTime += serverOutage.getTimeTo() - serverOutage.getTimeFrom();
-                    currentEndTime = serverOutage.getTimeTo();
-                } else if (serverOutage.getTimeTo() <= currentEndTime) {
-                    // Complete overlap = ignore
-                } else if (serverOutage.getTimeTo() > currentEndTime) {
-                    // Overlap
-                    totalTime += serverOutage.getTimeTo() - currentEndTime;
-                    currentEndTime = serverOutage.getTimeTo();
-                }
-            }
-        }
-        return totalTime;
+        return new ServerOutageAvailabilityCalculator(serverOutageDataList).getAvailability(fromTime, toTime)
+                .get(aspect);
     }
 
     /**
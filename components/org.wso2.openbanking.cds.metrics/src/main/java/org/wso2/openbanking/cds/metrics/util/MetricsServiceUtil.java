@@ -21,15 +21,22 @@ package org.wso2.openbanking.cds.metrics.util;
 import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
 import org.wso2.openbanking.cds.metrics.model.MetricsResponseModel;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Util methods used in Metrics Service.
  */
 public class MetricsServiceUtil {
 
+    private static final int HISTORIC_DAY_COUNT = 7;
+
     /**
      * Append historic metrics to current day metrics.
      *
@@ -202,6 +209,217 @@ public class MetricsServiceUtil {
                 .getFailedTokenExchangeAbandonedConsentFlowCount());
     }
 
+    /**
+     * Roll historic metrics over to the next day.
+     * The metrics of the newly closed day are added as the latest day and the oldest day is dropped, so that the
+     * result matches the historic metrics calculated from scratch on the day after the closed day.
+     *
+     * @param historicMetrics     - historic metrics calculated on the closed day
+     * @param closedDayMetrics    - metrics of the closed day
+     * @param availabilityMetrics - historic availability metrics if the closed day ended a month, otherwise null
+     * @param requestTime         - request time of the rolled over metrics
+     * @return rolled over historic metrics
+     */
+    public static MetricsResponseModel rollOverHistoricMetrics(
+            MetricsResponseModel historicMetrics, MetricsResponseModel closedDayMetrics,
+            Map<AspectEnum, List<BigDecimal>> availabilityMetrics, String requestTime) {
+
+        // Customer, recipient and active authorisation counts are not bound to a day, hence taken as they are.
+        MetricsResponseModel rolledMetrics = new MetricsResponseModel(requestTime, closedDayMetrics);
+
+        if (availabilityMetrics != null) {
+            rolledMetrics.setAvailability(availabilityMetrics);
+        } else {
+            // Availability of past months does not change until a month is closed.
+            rolledMetrics.setAvailability(new ArrayList<>(historicMetrics.getAvailability()));
+            rolledMetrics.setAuthenticatedAvailability(
+                    new ArrayList<>(historicMetrics.getAuthenticatedAvailability()));
+            rolledMetrics.setUnauthenticatedAvailability(
+                    new ArrayList<>(historicMetrics.getUnauthenticatedAvailability()));
+        }
+
+        rolledMetrics.setSessionCount(rollOver(closedDayMetrics.getSessionCount(),
+                historicMetrics.getSessionCount()));
+        rollOverPerformanceMetrics(rolledMetrics, closedDayMetrics, historicMetrics);
+        rollOverInvocationMetrics(rolledMetrics, closedDayMetrics, historicMetrics);
+        rollOverTPSMetrics(rolledMetrics, closedDayMetrics, historicMetrics);
+        rollOverErrorMetrics(rolledMetrics, closedDayMetrics, historicMetrics);
+        rollOverAuthorisationMetrics(rolledMetrics, closedDayMetrics, historicMetrics);
+        return rolledMetrics;
+    }
+
+    /**
+     * Roll historic performance metrics over to the next day.
+     *
+     * @param rolledMetrics    - rolled over metrics
+     * @param closedDayMetrics - metrics of the closed day
+     * @param historicMetrics  - historic metrics
+     */
+    private static void rollOverPerformanceMetrics(MetricsResponseModel rolledMetrics,
+                                                   MetricsResponseModel closedDayMetrics,
+                                                   MetricsResponseModel historicMetrics) {
+
+        rolledMetrics.setPerformance(rollOver(closedDayMetrics.getPerformance(),
+                historicMetrics.getPerformance()));
+        rolledMetrics.setPerformanceUnauthenticated(rollOver(closedDayMetrics.getPerformanceUnauthenticated(),
+                historicMetrics.getPerformanceUnauthenticated()));
+        rolledMetrics.setPerformanceHighPriority(rollOver(closedDayMetrics.getPerformanceHighPriority(),
+                historicMetrics.getPerformanceHighPriority()));
+        rolledMetrics.setPerformanceLowPriority(rollOver(closedDayMetrics.getPerformanceLowPriority(),
+                historicMetrics.getPerformanceLowPriority()));
+        rolledMetrics.setPerformanceUnattended(rollOver(closedDayMetrics.getPerformanceUnattended(),
+                historicMetrics.getPerformanceUnattended()));
+        rolledMetrics.setPerformanceLargePayload(rollOver(closedDayMetrics.getPerformanceLargePayload(),
+                historicMetrics.getPerformanceLargePayload()));
+    }
+
+    /**
+     * Roll historic invocation and average response metrics over to the next day.
+     *
+     * @param rolledMetrics    - rolled over metrics
+     * @param closedDayMetrics - metrics of the closed day
+     * @param historicMetrics  - historic metrics
+     */
+    private static void rollOverInvocationMetrics(MetricsResponseModel rolledMetrics,
+                                                  MetricsResponseModel closedDayMetrics,
+                                                  MetricsResponseModel historicMetrics) {
+
+        rolledMetrics.setInvocationUnauthenticated(rollOver(closedDayMetrics.getInvocationUnauthenticated(),
+                historicMetrics.getInvocationUnauthenticated()));
+        rolledMetrics.setInvocationHighPriority(rollOver(closedDayMetrics.getInvocationHighPriority(),
+                historicMetrics.getInvocationHighPriority()));
+        rolledMetrics.setInvocationLowPriority(rollOver(closedDayMetrics.getInvocationLowPriority(),
+                historicMetrics.getInvocationLowPriority()));
+        rolledMetrics.setInvocationUnattended(rollOver(closedDayMetrics.getInvocationUnattended(),
+                historicMetrics.getInvocationUnattended()));
+        rolledMetrics.setInvocationLargePayload(rollOver(closedDayMetrics.getInvocationLargePayload(),
+                historicMetrics.getInvocationLargePayload()));
+
+        rolledMetrics.setAverageResponseUnauthenticated(rollOver(
+                closedDayMetrics.getAverageResponseUnauthenticated(),
+                historicMetrics.getAverageResponseUnauthenticated()));
+        rolledMetrics.setAverageResponseHighPriority(rollOver(closedDayMetrics.getAverageResponseHighPriority(),
+                historicMetrics.getAverageResponseHighPriority()));
+        rolledMetrics.setAverageResponseLowPriority(rollOver(closedDayMetrics.getAverageResponseLowPriority(),
+                historicMetrics.getAverageResponseLowPriority()));
+        rolledMetrics.setAverageResponseUnattended(rollOver(closedDayMetrics.getAverageResponseUnattended(),
+                historicMetrics.getAverageResponseUnattended()));
+        rolledMetrics.setAverageResponseLargePayload(rollOver(closedDayMetrics.getAverageResponseLargePayload(),
+                historicMetrics.getAverageResponseLargePayload()));
+    }
+
+    /**
+     * Roll historic average and peak TPS metrics over to the next day.
+     *
+     * @param rolledMetrics    - rolled over metrics
+     * @param closedDayMetrics - metrics of the closed day
+     * @param historicMetrics  - historic metrics
+     */
+    private static void rollOverTPSMetrics(MetricsResponseModel rolledMetrics,
+                                           MetricsResponseModel closedDayMetrics,
+                                           MetricsResponseModel historicMetrics) {
+
+        rolledMetrics.setAverageTPS(rollOver(closedDayMetrics.getAverageTPS(), historicMetrics.getAverageTPS()));
+        rolledMetrics.setAuthenticatedAverageTPS(rollOver(closedDayMetrics.getAuthenticatedAverageTPS(),
+                historicMetrics.getAuthenticatedAverageTPS()));
+        rolledMetrics.setUnauthenticatedAverageTPS(rollOver(closedDayMetrics.getUnauthenticatedAverageTPS(),
+                historicMetrics.getUnauthenticatedAverageTPS()));
+
+        rolledMetrics.setPeakTPS(rollOver(closedDayMetrics.getPeakTPS(), historicMetrics.getPeakTPS()));
+        rolledMetrics.setAuthenticatedPeakTPS(rollOver(closedDayMetrics.getAuthenticatedPeakTPS(),
+                historicMetrics.getAuthenticatedPeakTPS()));
+        rolledMetrics.setUnauthenticatedPeakTPS(rollOver(closedDayMetrics.getUnauthenticatedPeakTPS(),
+                historicMetrics.getUnauthenticatedPeakTPS()));
+    }
+
+    /**
+     * Roll historic error and rejection metrics over to the next day.
+     *
+     * @param rolledMetrics    - rolled over metrics
+     * @param closedDayMetrics - metrics of the closed day
+     * @param historicMetrics  - historic metrics
+     */
+    private static void rollOverErrorMetrics(MetricsResponseModel rolledMetrics,
+                                             MetricsResponseModel closedDayMetrics,
+                                             MetricsResponseModel historicMetrics) {
+
+        rolledMetrics.setErrors(rollOver(closedDayMetrics.getErrors(), historicMetrics.getErrors()));
+        rolledMetrics.setAuthenticatedErrors(rollOver(closedDayMetrics.getAuthenticatedErrors(),
+                historicMetrics.getAuthenticatedErrors()));
+        rolledMetrics.setUnauthenticatedErrors(rollOver(closedDayMetrics.getUnauthenticatedErrors(),
+                historicMetrics.getUnauthenticatedErrors()));
+
+        rolledMetrics.setAuthenticatedEndpointRejections(rollOver(
+                closedDayMetrics.getAuthenticatedEndpointRejections(),
+                historicMetrics.getAuthenticatedEndpointRejections()));
+        rolledMetrics.setUnauthenticatedEndpointRejections(rollOver(
+                closedDayMetrics.getUnauthenticatedEndpointRejections(),
+                historicMetrics.getUnauthenticatedEndpointRejections()));
+    }
+
+    /**
+     * Roll historic authorisation and abandoned consent flow metrics over to the next day.
+     *
+     * @param rolledMetrics    - rolled over metrics
+     * @param closedDayMetrics - metrics of the closed day
+     * @param historicMetrics  - historic metrics
+     */
+    private static void rollOverAuthorisationMetrics(MetricsResponseModel rolledMetrics,
+                                                     MetricsResponseModel closedDayMetrics,
+                                                     MetricsResponseModel historicMetrics) {
+
+        rolledMetrics.setNewAuthorisationCount(rollOver(closedDayMetrics.getNewAuthorisationCount(),
+                historicMetrics.getNewAuthorisationCount()));
+        rolledMetrics.setRevokedAuthorisationCount(rollOver(closedDayMetrics.getRevokedAuthorisationCount(),
+                historicMetrics.getRevokedAuthorisationCount()));
+        rolledMetrics.setAmendedAuthorisationCount(rollOver(closedDayMetrics.getAmendedAuthorisationCount(),
+                historicMetrics.getAmendedAuthorisationCount()));
+        rolledMetrics.setExpiredAuthorisationCount(rollOver(closedDayMetrics.getExpiredAuthorisationCount(),
+                historicMetrics.getExpiredAuthorisationCount()));
+
+        rolledMetrics.setAbandonedConsentFlowCount(rollOver(closedDayMetrics.getAbandonedConsentFlowCount(),
+                historicMetrics.getAbandonedConsentFlowCount()));
+        rolledMetrics.setPreIdentificationAbandonedConsentFlowCount(rollOver(
+                closedDayMetrics.getPreIdentificationAbandonedConsentFlowCount(),
+                historicMetrics.getPreIdentificationAbandonedConsentFlowCount()));
+        rolledMetrics.setPreAuthenticationAbandonedConsentFlowCount(rollOver(
+                closedDayMetrics.getPreAuthenticationAbandonedConsentFlowCount(),
+                historicMetrics.getPreAuthenticationAbandonedConsentFlowCount()));
+        rolledMetrics.setPreAccountSelectionAbandonedConsentFlowCount(rollOver(
+                closedDayMetrics.getPreAccountSelectionAbandonedConsentFlowCount(),
+                historicMetrics.getPreAccountSelectionAbandonedConsentFlowCount()));
+        rolledMetrics.setPreAuthorisationAbandonedConsentFlowCount(rollOver(
+                closedDayMetrics.getPreAuthorisationAbandonedConsentFlowCount(),
+                historicMetrics.getPreAuthorisationAbandonedConsentFlowCount()));
+        rolledMetrics.setRejectedAbandonedConsentFlowCount(rollOver(
+                closedDayMetrics.getRejectedAbandonedConsentFlowCount(),
+                historicMetrics.getRejectedAbandonedConsentFlowCount()));
+        rolledMetrics.setFailedTokenExchangeAbandonedConsentFlowCount(rollOver(
+                closedDayMetrics.getFailedTokenExchangeAbandonedConsentFlowCount(),
+                historicMetrics.getFailedTokenExchangeAbandonedConsentFlowCount()));
+    }
+
+    /**
+     * Add the values of the closed day in front of the historic values and drop the values older than the
+     * historic period.
+     *
+     * @param closedDayList - values of the closed day
+     * @param historicList  - historic values, latest day first
+     * @return rolled over list
+     */
+    private static <T> List<T> rollOver(List<T> closedDayList, List<T> historicList) {
+
+        List<T> rolledList = new ArrayList<>(HISTORIC_DAY_COUNT);
+        rolledList.addAll(closedDayList);
+        for (T value : historicList) {
+            if (rolledList.size() >= HISTORIC_DAY_COUNT) {
+                break;
+            }
+            rolledList.add(value);
+        }
+        return rolledList;
+    }
+
     /**
      * Check whether the response model is expired using the requestTime parameter.
      *
@@ -210,8 +428,32 @@ public class MetricsServiceUtil {
      */
     public static boolean isResponseModelExpired(MetricsResponseModel metricsResponseModel) {
 
+        return getRequestDate(metricsResponseModel).isBefore(LocalDate.now());
+    }
+
+    /**
+     * Get the date of the request the response model was created for.
+     *
+     * @param metricsResponseModel - MetricsResponseModel
+     * @return LocalDate - request date
+     */
+    public static LocalDate getRequestDate(MetricsResponseModel metricsResponseModel) {
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(MetricsConstants.REQUEST_TIMESTAMP_PATTERN);
+        return ZonedDateTime.parse(metricsResponseModel.getRequestTime(), formatter).toLocalDate();
+    }
+
+    /**
+     * Get the date in the given time zone of the request the response model was created for.
+     *
+     * @param metricsResponseModel - MetricsResponseModel
+     * @param timeZone             - time zone of the date
+     * @return LocalDate - request date
+     */
+    public static LocalDate getRequestDate(MetricsResponseModel metricsResponseModel, ZoneId timeZone) {
+
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern(MetricsConstants.REQUEST_TIMESTAMP_PATTERN);
-        LocalDate requestDate = ZonedDateTime.parse(metricsResponseModel.getRequestTime(), formatter).toLocalDate();
-        return requestDate.isBefore(LocalDate.now());
+        return ZonedDateTime.parse(metricsResponseModel.getRequestTime(), formatter)
+                .withZoneSameInstant(timeZone).toLocalDate();
     }
 }
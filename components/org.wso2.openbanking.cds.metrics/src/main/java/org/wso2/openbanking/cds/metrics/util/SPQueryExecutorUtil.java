@@ -28,8 +28,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
-import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
@@ -41,14 +42,21 @@ import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.ServiceReference;
 import org.wso2.carbon.apimgt.impl.APIManagerAnalyticsConfiguration;
 import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Util class to handle communications with stream processor.
+ * <p>
+ * A single connection-pooled http client is shared across all the calls made to the stream processor so that
+ * persistent connections are reused instead of performing a new TLS handshake for every query. The pool limits
+ * are governed by the HTTP connection pool configuration of the accelerator.
  */
 public class SPQueryExecutorUtil {
 
@@ -56,6 +64,9 @@ public class SPQueryExecutorUtil {
 
     private static APIManagerAnalyticsConfiguration analyticsConfiguration;
     private static String spApiHost;
+    private static volatile CloseableHttpClient spHttpClient;
+    private static volatile RequestConfig spRequestConfig;
+    private static volatile AuthHeaderHolder authHeaderHolder;
 
     static {
         initializeAnalyticsConfiguration();
@@ -73,31 +84,33 @@ public class SPQueryExecutorUtil {
     public static JSONObject executeQueryOnStreamProcessor(String appName, String query)
             throws IOException, ParseException, OpenBankingException {
 
-        CloseableHttpClient httpClient = HTTPClientUtils.getHttpsClient();
+        CloseableHttpClient httpClient = getHttpClient();
         HttpPost httpPost = new HttpPost(spApiHost + MetricsConstants.SP_API_PATH);
+        httpPost.setConfig(spRequestConfig);
         httpPost.setHeader(HttpHeaders.AUTHORIZATION, getAuthHeader());
         JSONObject jsonObject = new JSONObject();
         jsonObject.put("appName", appName);
         jsonObject.put("query", query);
         StringEntity requestEntity = new StringEntity(jsonObject.toJSONString(), ContentType.APPLICATION_JSON);
         httpPost.setEntity(requestEntity);
-        HttpResponse response;
 
         if (log.isDebugEnabled()) {
             log.debug(String.format("Executing query %s on SP", query));
         }
-        response = httpClient.execute(httpPost);
-        HttpEntity entity = response.getEntity();
-        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
-            String error = String.format("Error while invoking SP rest api : %s %s",
-                    response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
-            log.error(error);
-            return null;
+        try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+            HttpEntity entity = response.getEntity();
+            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+                String error = String.format("Error while invoking SP rest api : %s %s",
+                        response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
+                log.error(error);
+                // Consume the entity so that the connection is released back to the pool.
+                EntityUtils.consumeQuietly(entity);
+                return null;
+            }
+            String responseStr = EntityUtils.toString(entity);
+            JSONParser parser = new JSONParser(JSONParser.MODE_PERMISSIVE);
+            return (JSONObject) parser.parse(responseStr);
         }
-        String responseStr = EntityUtils.toString(entity);
-        JSONParser parser = new JSONParser(JSONParser.MODE_PERMISSIVE);
-        return (JSONObject) parser.parse(responseStr);
-
     }
 
     /**
@@ -114,8 +127,9 @@ public class SPQueryExecutorUtil {
         log.debug("Executing requests on Stream Processor with url " + url);
 
         try {
-            CloseableHttpClient httpClient = HTTPClientUtils.getHttpsClient();
+            CloseableHttpClient httpClient = getHttpClient();
             HttpPost request = new HttpPost(url);
+            request.setConfig(spRequestConfig);
             request.setEntity(new StringEntity(params.toString(), ContentType.APPLICATION_JSON));
             request.addHeader(HTTPConstants.HEADER_AUTHORIZATION, getAuthHeader());
 
@@ -123,22 +137,24 @@ public class SPQueryExecutorUtil {
                 log.debug("Publishing event to Stream Processor on url:" + url + ", data:" + params);
             }
 
-            HttpResponse response = httpClient.execute(request);
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
 
-            if (log.isDebugEnabled()) {
-                log.debug("Response from Stream Processor:" + response);
-            }
+                if (log.isDebugEnabled()) {
+                    log.debug("Response from Stream Processor:" + response);
+                }
 
-            HttpEntity entity = response.getEntity();
-            if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
-                String error = String.format("Error while invoking SP rest api : %s %s",
-                        response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
-                log.error(error);
-                return null;
+                HttpEntity entity = response.getEntity();
+                if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+                    String error = String.format("Error while invoking SP rest api : %s %s",
+                            response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
+                    log.error(error);
+                    EntityUtils.consumeQuietly(entity);
+                    return null;
+                }
+                String responseStr = EntityUtils.toString(entity);
+                log.debug("Returning response after executing requests on Stream Processor with url " + url);
+                return responseStr;
             }
-            String responseStr = EntityUtils.toString(entity);
-            log.debug("Returning response after executing requests on Stream Processor with url " + url);
-            return responseStr;
 
         } catch (IOException e) {
             log.error("Exception occurred while publishing/receiving API stats: " + e.getMessage(),
@@ -161,13 +177,51 @@ public class SPQueryExecutorUtil {
         return service.getAPIAnalyticsConfiguration();
     }
 
+    /**
+     * Get the basic auth header for the stream processor.
+     * The encoded header is computed once and reused until the configured credentials change.
+     *
+     * @return basic auth header value
+     */
     public static String getAuthHeader() {
-        String spUserName = analyticsConfiguration.getReporterProperties().get(MetricsConstants.SP_USERNAME_KEY);
-        String spPassword = analyticsConfiguration.getReporterProperties().get(MetricsConstants.SP_PASSWORD_KEY);
+        Map<String, String> reporterProperties = analyticsConfiguration.getReporterProperties();
+        String spUserName = reporterProperties.get(MetricsConstants.SP_USERNAME_KEY);
+        String spPassword = reporterProperties.get(MetricsConstants.SP_PASSWORD_KEY);
 
-        byte[] encodedAuth = Base64.getEncoder()
-                .encode((spUserName + ":" + spPassword).getBytes(StandardCharsets.ISO_8859_1));
-        return "Basic " + new String(encodedAuth, StandardCharsets.UTF_8);
+        AuthHeaderHolder holder = authHeaderHolder;
+        if (holder == null || !holder.isIssuedFor(spUserName, spPassword)) {
+            holder = new AuthHeaderHolder(spUserName, spPassword);
+            authHeaderHolder = holder;
+        }
+        return holder.authHeader;
+    }
+
+    /**
+     * Get the shared http client used to communicate with the stream processor.
+     * The client is created lazily on first use and reused for all subsequent calls.
+     *
+     * @return pooled http client
+     * @throws OpenBankingException if an error occurs while creating the client
+     */
+    private static CloseableHttpClient getHttpClient() throws OpenBankingException {
+
+        CloseableHttpClient httpClient = spHttpClient;
+        if (httpClient == null) {
+            synchronized (SPQueryExecutorUtil.class) {
+                httpClient = spHttpClient;
+                if (httpClient == null) {
+                    OpenBankingCDSConfigParser configParser = OpenBankingCDSConfigParser.getInstance();
+                    spRequestConfig = RequestConfig.custom()
+                            .setConnectTimeout(configParser.getMetricsSPConnectTimeout())
+                            .setSocketTimeout(configParser.getMetricsSPSocketTimeout())
+                            .setConnectionRequestTimeout(configParser.getMetricsSPConnectionRequestTimeout())
+                            .build();
+                    httpClient = HTTPClientUtils.getHttpsClient();
+                    spHttpClient = httpClient;
+                }
+            }
+        }
+        return httpClient;
     }
 
     private static void initializeAnalyticsConfiguration() {
@@ -179,4 +233,28 @@ public class SPQueryExecutorUtil {
             spApiHost = analyticsConfiguration.getReporterProperties().get(MetricsConstants.REST_API_URL_KEY);
         }
     }
+
+    /**
+     * Holds the encoded basic auth header together with the credentials it was issued for.
+     */
+    private static class AuthHeaderHolder {
+
+        private final String userName;
+        private final String password;
+        private final String authHeader;
+
+        AuthHeaderHolder(String userName, String password) {
+
+            this.userName = userName;
+            this.password = password;
+            byte[] encodedAuth = Base64.getEncoder()
+                    .encode((userName + ":" + password).getBytes(StandardCharsets.ISO_8859_1));
+            this.authHeader = "Basic " + new String(encodedAuth, StandardCharsets.UTF_8);
+        }
+
+        boolean isIssuedFor(String userName, String password) {
+
+            return Objects.equals(this.userName, userName) && Objects.equals(this.password, password);
+        }
+    }
 }
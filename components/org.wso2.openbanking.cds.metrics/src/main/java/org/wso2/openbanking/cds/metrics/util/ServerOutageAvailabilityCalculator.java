@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.util;
+
+import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
+import org.wso2.openbanking.cds.metrics.model.ServerOutageDataModel;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates server availability of time ranges from a list of server outages.
+ * <p>
+ * The outages are sorted by their start time once, so the outages of a time range are found by a binary search and
+ * the outage time of all aspects and outage types is merged in a single pass over them. An outage belongs to the time
+ * range in which it starts, and overlapping outages of the same type are counted once.
+ */
+public class ServerOutageAvailabilityCalculator {
+
+    private static final AspectEnum[] ASPECTS = {AspectEnum.ALL, AspectEnum.AUTHENTICATED,
+            AspectEnum.UNAUTHENTICATED};
+    private static final int SCHEDULED = 0;
+    private static final int INCIDENT = 1;
+
+    private final long[] outageStarts;
+    private final long[] outageEnds;
+    private final int[] outageTypes;
+    private final AspectEnum[] outageAspects;
+
+    /**
+     * Create a calculator for the given server outages. Outages which end before they start are ignored.
+     *
+     * @param serverOutageDataList - Server Outage Data List
+     */
+    public ServerOutageAvailabilityCalculator(List<ServerOutageDataModel> serverOutageDataList) {
+
+        List<ServerOutageDataModel> validOutages = new ArrayList<>(serverOutageDataList.size());
+        for (ServerOutageDataModel serverOutage : serverOutageDataList) {
+            if (serverOutage.getTimeTo() >= serverOutage.getTimeFrom()) {
+                validOutages.add(serverOutage);
+            }
+        }
+        validOutages.sort(Comparator.comparingLong(ServerOutageDataModel::getTimeFrom));
+
+        int numberOfOutages = validOutages.size();
+        outageStarts = new long[numberOfOutages];
+        outageEnds = new long[numberOfOutages];
+        outageTypes = new int[numberOfOutages];
+        outageAspects = new AspectEnum[numberOfOutages];
+        for (int i = 0; i < numberOfOutages; i++) {
+            ServerOutageDataModel serverOutage = validOutages.get(i);
+            outageStarts[i] = serverOutage.getTimeFrom();
+            outageEnds[i] = serverOutage.getTimeTo();
+            outageTypes[i] = MetricsConstants.SCHEDULED_OUTAGE.equals(serverOutage.getType()) ? SCHEDULED : INCIDENT;
+            outageAspects[i] = serverOutage.getAspect();
+        }
+    }
+
+    /**
+     * Get the server availability of each aspect between the given time period.
+     *
+     * @param fromTime - From epoch timestamp
+     * @param toTime   - To epoch timestamp
+     * @return availability values of the ALL, AUTHENTICATED and UNAUTHENTICATED aspects
+     */
+    public Map<AspectEnum, BigDecimal> getAvailability(long fromTime, long toTime) {
+
+        // Merged outage time and end of the merged outages of each aspect and outage type
+        long[][] outageTime = new long[ASPECTS.length][2];
+        long[][] mergedUntil = new long[ASPECTS.length][2];
+        for (long[] aspectMergedUntil : mergedUntil) {
+            aspectMergedUntil[SCHEDULED] = Long.MIN_VALUE;
+            aspectMergedUntil[INCIDENT] = Long.MIN_VALUE;
+        }
+
+        for (int i = getFirstOutageStartingFrom(fromTime); i < outageStarts.length && outageStarts[i] < toTime;
+             i++) {
+            for (int aspectIndex = 0; aspectIndex < ASPECTS.length; aspectIndex++) {
+                if (isOutageOfAspect(outageAspects[i], ASPECTS[aspectIndex])) {
+                    int type = outageTypes[i];
+                    long start = Math.max(outageStarts[i], mergedUntil[aspectIndex][type]);
+                    if (outageEnds[i] > start) {
+                        outageTime[aspectIndex][type] += outageEnds[i] - start;
+                        mergedUntil[aspectIndex][type] = outageEnds[i];
+                    } else if (mergedUntil[aspectIndex][type] < outageEnds[i]) {
+                        // Zero length outage after the merged outages
+                        mergedUntil[aspectIndex][type] = outageEnds[i];
+                    }
+                }
+            }
+        }
+
+        Map<AspectEnum, BigDecimal> availabilityMap = new EnumMap<>(AspectEnum.class);
+        for (int aspectIndex = 0; aspectIndex < ASPECTS.length; aspectIndex++) {
+            availabilityMap.put(ASPECTS[aspectIndex], calculateAvailability(toTime - fromTime,
+                    outageTime[aspectIndex][SCHEDULED], outageTime[aspectIndex][INCIDENT]));
+        }
+        return availabilityMap;
+    }
+
+    /**
+     * Check whether an outage affects the given aspect.
+     * Outages of the ALL aspect affect every aspect, and every outage affects the ALL aspect.
+     */
+    private static boolean isOutageOfAspect(AspectEnum outageAspect, AspectEnum aspect) {
+
+        return AspectEnum.ALL.equals(aspect) || aspect.equals(outageAspect) || AspectEnum.ALL.equals(outageAspect);
+    }
+
+    /**
+     * Find the position of the first outage starting at or after the given time.
+     */
+    private int getFirstOutageStartingFrom(long fromTime) {
+
+        int low = 0;
+        int high = outageStarts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (outageStarts[middle] < fromTime) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static BigDecimal calculateAvailability(long timeDurationOfReportingPeriod, long totalScheduledOutages,
+                                                    long totalIncidentOutages) {
+
+        // Formula to calculate the availability from total time
+        double availability = ((double) timeDurationOfReportingPeriod - (double) totalScheduledOutages
+                - (double) totalIncidentOutages) /
+                ((double) timeDurationOfReportingPeriod - (double) totalScheduledOutages);
+
+        return BigDecimal.valueOf(availability).setScale(3, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.cache;
+
+import com.google.gson.Gson;
+import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
+import org.wso2.openbanking.cds.metrics.data.MockMetricsDataProvider;
+import org.wso2.openbanking.cds.metrics.model.AuthorisationMetric;
+import org.wso2.openbanking.cds.metrics.model.MetricsResponseModel;
+import org.wso2.openbanking.cds.metrics.service.MetricsV5FetcherImpl;
+import org.wso2.openbanking.cds.metrics.service.MetricsV5ProcessorImpl;
+import org.wso2.openbanking.cds.metrics.util.MetricsServiceUtil;
+import org.wso2.openbanking.cds.metrics.util.PeriodEnum;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Test class for HistoricMetricsSnapshot.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class})
+@PowerMockIgnore({"javax.crypto.*", "jdk.internal.reflect.*"})
+public class HistoricMetricsSnapshotTest extends PowerMockTestCase {
+
+    private static final long VALIDITY_MILLIS = TimeUnit.MINUTES.toMillis(60);
+
+    private final Gson gson = new Gson();
+    private OpenBankingCDSConfigParser openBankingCDSConfigParserMock;
+
+    @BeforeMethod
+    public void setup() {
+
+        openBankingCDSConfigParserMock = PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        doReturn("GMT").when(openBankingCDSConfigParserMock).getMetricsTimeZone();
+        doReturn("2024-05-01").when(openBankingCDSConfigParserMock).getMetricsV5StartDate();
+        doReturn(300000L).when(openBankingCDSConfigParserMock).getConsentAbandonmentTime();
+        doReturn(300000L).when(openBankingCDSConfigParserMock).getAuthorizationCodeValidityPeriod();
+        doReturn(16).when(openBankingCDSConfigParserMock).getMetricsFetchExecutorPoolSize();
+        doReturn(256).when(openBankingCDSConfigParserMock).getMetricsFetchExecutorQueueCapacity();
+        doReturn(60000).when(openBankingCDSConfigParserMock).getMetricsFetchTimeout();
+    }
+
+    @Test
+    public void testSnapshotMatchesGsonRoundTrip() throws OpenBankingException {
+
+        MetricsResponseModel historicMetrics = getHistoricMetrics();
+        String historicMetricsJson = gson.toJson(historicMetrics);
+        HistoricMetricsSnapshot snapshot = new HistoricMetricsSnapshot(historicMetrics, VALIDITY_MILLIS);
+
+        String requestTime = getRequestTime();
+        MetricsResponseModel cachedMetrics = gson.fromJson(historicMetricsJson, MetricsResponseModel.class);
+        cachedMetrics.setRequestTime(requestTime);
+
+        MetricsResponseModel snapshotMetrics = snapshot.getMetricsResponseModel(requestTime);
+        Assert.assertEquals(snapshotMetrics.getRequestTime(), requestTime);
+        Assert.assertEquals(gson.toJson(snapshotMetrics), gson.toJson(cachedMetrics));
+    }
+
+    @Test
+    public void testSnapshotIsIsolatedFromSourceModel() throws OpenBankingException {
+
+        MetricsResponseModel historicMetrics = getHistoricMetrics();
+        String historicMetricsJson = gson.toJson(historicMetrics);
+        HistoricMetricsSnapshot snapshot = new HistoricMetricsSnapshot(historicMetrics, VALIDITY_MILLIS);
+
+        historicMetrics.getAvailability().set(0, BigDecimal.TEN);
+        historicMetrics.getNewAuthorisationCount().get(0).getOnceOff().setIndividual(-1);
+
+        Assert.assertEquals(gson.toJson(snapshot.getMetricsResponseModel()), historicMetricsJson);
+    }
+
+    @Test
+    public void testSnapshotListsAreUnmodifiable() throws OpenBankingException {
+
+        MetricsResponseModel snapshotMetrics = new HistoricMetricsSnapshot(getHistoricMetrics(), VALIDITY_MILLIS)
+                .getMetricsResponseModel();
+
+        Assert.expectThrows(UnsupportedOperationException.class,
+                () -> snapshotMetrics.getAvailability().add(BigDecimal.ONE));
+        Assert.expectThrows(UnsupportedOperationException.class,
+                () -> snapshotMetrics.getPerformanceHighPriority().get(0).add(BigDecimal.ONE));
+        Assert.expectThrows(UnsupportedOperationException.class,
+                () -> snapshotMetrics.getAuthenticatedErrors().get(0).put("500", 1));
+    }
+
+    @Test
+    public void testRequestCopiesDoNotModifySnapshot() throws OpenBankingException {
+
+        MetricsResponseModel historicMetrics = getHistoricMetrics();
+        String historicMetricsJson = gson.toJson(historicMetrics);
+        HistoricMetricsSnapshot snapshot = new HistoricMetricsSnapshot(historicMetrics, VALIDITY_MILLIS);
+        String requestTime = getRequestTime();
+
+        // Modify the copy the way the response mappers do.
+        MetricsResponseModel firstRequestMetrics = snapshot.getMetricsResponseModel(requestTime);
+        firstRequestMetrics.getAvailability().add(BigDecimal.ONE);
+        firstRequestMetrics.getErrors().remove(0);
+        firstRequestMetrics.getPerformanceHighPriority().get(0).clear();
+        firstRequestMetrics.getAuthenticatedErrors().get(0).put("500", 1);
+        firstRequestMetrics.getNewAuthorisationCount().get(0).getOnceOff().setIndividual(-1);
+
+        MetricsResponseModel secondRequestMetrics = snapshot.getMetricsResponseModel(requestTime);
+        secondRequestMetrics.setRequestTime(historicMetrics.getRequestTime());
+        Assert.assertEquals(gson.toJson(secondRequestMetrics), historicMetricsJson);
+        Assert.assertEquals(gson.toJson(snapshot.getMetricsResponseModel()), historicMetricsJson);
+    }
+
+    @Test
+    public void testAppendSnapshotToCurrentDayMetrics() throws OpenBankingException {
+
+        MetricsResponseModel historicMetrics = getHistoricMetrics();
+        HistoricMetricsSnapshot snapshot = new HistoricMetricsSnapshot(historicMetrics, VALIDITY_MILLIS);
+        MetricsResponseModel currentDayMetrics = snapshot.getMetricsResponseModel(getRequestTime());
+        int currentDayAvailabilityCount = currentDayMetrics.getAvailability().size();
+
+        MetricsServiceUtil.appendHistoricMetricsToCurrentDayMetrics(currentDayMetrics,
+                snapshot.getMetricsResponseModel());
+
+        Assert.assertEquals(currentDayMetrics.getAvailability().size(),
+                currentDayAvailabilityCount + historicMetrics.getAvailability().size());
+        Assert.assertEquals(snapshot.getMetricsResponseModel().getAvailability().size(),
+                historicMetrics.getAvailability().size());
+    }
+
+    @Test
+    public void testSnapshotExpiry() throws OpenBankingException {
+
+        MetricsResponseModel historicMetrics = getHistoricMetrics();
+        Assert.assertFalse(new HistoricMetricsSnapshot(historicMetrics, VALIDITY_MILLIS).isExpired());
+        Assert.assertTrue(new HistoricMetricsSnapshot(historicMetrics, -1).isExpired());
+
+        historicMetrics.setRequestTime(new SimpleDateFormat(MetricsConstants.REQUEST_TIMESTAMP_PATTERN)
+                .format(new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2))));
+        Assert.assertTrue(new HistoricMetricsSnapshot(historicMetrics, VALIDITY_MILLIS).isExpired());
+    }
+
+    @Test
+    public void testSnapshotExpiresAtMidnightOfMetricsTimeZone() throws OpenBankingException {
+
+        MetricsResponseModel historicMetrics = getHistoricMetrics();
+        ZoneId metricsTimeZone = ZoneId.of("Pacific/Kiritimati");
+        doReturn(metricsTimeZone.getId()).when(openBankingCDSConfigParserMock).getMetricsTimeZone();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(MetricsConstants.REQUEST_TIMESTAMP_PATTERN);
+        ZonedDateTime startOfToday = LocalDate.now(metricsTimeZone).atStartOfDay(metricsTimeZone);
+
+        // Request times are written in another time zone, where the start of the day is still the previous day.
+        historicMetrics.setRequestTime(startOfToday.withZoneSameInstant(ZoneOffset.UTC).format(formatter));
+        Assert.assertFalse(new HistoricMetricsSnapshot(historicMetrics, VALIDITY_MILLIS).isExpired());
+
+        historicMetrics.setRequestTime(startOfToday.minusMinutes(1).withZoneSameInstant(ZoneOffset.UTC)
+                .format(formatter));
+        Assert.assertTrue(new HistoricMetricsSnapshot(historicMetrics, VALIDITY_MILLIS).isExpired());
+    }
+
+    @Test
+    public void testSnapshotContents() throws OpenBankingException {
+
+        MetricsResponseModel historicMetrics = getHistoricMetrics();
+        MetricsResponseModel snapshotMetrics = new HistoricMetricsSnapshot(historicMetrics, VALIDITY_MILLIS)
+                .getMetricsResponseModel(getRequestTime());
+
+        Assert.assertEquals(snapshotMetrics.getCustomerCount(), historicMetrics.getCustomerCount());
+        Assert.assertEquals(snapshotMetrics.getRecipientCount(), historicMetrics.getRecipientCount());
+        Assert.assertEquals(snapshotMetrics.getSessionCount(), historicMetrics.getSessionCount());
+        Assert.assertEquals(snapshotMetrics.getAvailability(), historicMetrics.getAvailability());
+        Assert.assertEquals(snapshotMetrics.getPerformance(), historicMetrics.getPerformance());
+        Assert.assertEquals(snapshotMetrics.getPerformanceHighPriority(),
+                historicMetrics.getPerformanceHighPriority());
+        Assert.assertEquals(snapshotMetrics.getInvocationLowPriority(), historicMetrics.getInvocationLowPriority());
+        Assert.assertEquals(snapshotMetrics.getAverageTPS(), historicMetrics.getAverageTPS());
+        Assert.assertEquals(snapshotMetrics.getPeakTPS(), historicMetrics.getPeakTPS());
+        Assert.assertEquals(snapshotMetrics.getAuthenticatedErrors(), historicMetrics.getAuthenticatedErrors());
+        Assert.assertEquals(snapshotMetrics.getAbandonedConsentFlowCount(),
+                historicMetrics.getAbandonedConsentFlowCount());
+
+        Assert.assertEquals(snapshotMetrics.getNewAuthorisationCount().size(),
+                historicMetrics.getNewAuthorisationCount().size());
+        for (int i = 0; i < historicMetrics.getNewAuthorisationCount().size(); i++) {
+            AuthorisationMetric expected = historicMetrics.getNewAuthorisationCount().get(i);
+            AuthorisationMetric actual = snapshotMetrics.getNewAuthorisationCount().get(i);
+            Assert.assertNotSame(actual, expected);
+            Assert.assertEquals(actual.getOnceOff().getIndividual(), expected.getOnceOff().getIndividual());
+            Assert.assertEquals(actual.getOngoing().getNonIndividual(), expected.getOngoing().getNonIndividual());
+        }
+    }
+
+    private MetricsResponseModel getHistoricMetrics() throws OpenBankingException {
+
+        return new MetricsV5FetcherImpl(new MetricsV5ProcessorImpl(PeriodEnum.HISTORIC, new MockMetricsDataProvider(),
+                ZoneId.of("GMT"))).getResponseMetricsListModel(getRequestTime());
+    }
+
+    private static String getRequestTime() {
+
+        return new SimpleDateFormat(MetricsConstants.REQUEST_TIMESTAMP_PATTERN).format(new Date());
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.periodic.job;
+
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Test class for HistoricMetricsCacheJob.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class})
+@PowerMockIgnore({"javax.crypto.*", "jdk.internal.reflect.*"})
+public class HistoricMetricsCacheJobTest extends PowerMockTestCase {
+
+    @Test
+    public void testInvalidTimeZoneDoesNotFailTheJob() {
+
+        // The job is created before the config is available, as it is when scheduled at server startup.
+        HistoricMetricsCacheJob historicMetricsCacheJob = new HistoricMetricsCacheJob();
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        doReturn("Invalid/TimeZone").when(openBankingCDSConfigParserMock).getMetricsTimeZone();
+
+        historicMetricsCacheJob.cacheHistoricMetrics();
+
+        Mockito.verify(openBankingCDSConfigParserMock).getMetricsTimeZone();
+    }
+}
@@ -19,6 +19,7 @@
 package org.wso2.openbanking.cds.metrics.service;
 
 import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import net.minidev.json.JSONObject;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
@@ -33,6 +34,12 @@ import org.wso2.openbanking.cds.metrics.model.MetricsResponseModel;
 import org.wso2.openbanking.cds.metrics.util.PeriodEnum;
 
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.doReturn;
 
@@ -63,6 +70,9 @@ public class MetricsV5FetcherImplTest extends PowerMockTestCase {
         doReturn("2024-05-01").when(openBankingCDSConfigParserMock).getMetricsV5StartDate();
         doReturn(300000L).when(openBankingCDSConfigParserMock).getConsentAbandonmentTime();
         doReturn(300000L).when(openBankingCDSConfigParserMock).getAuthorizationCodeValidityPeriod();
+        doReturn(16).when(openBankingCDSConfigParserMock).getMetricsFetchExecutorPoolSize();
+        doReturn(256).when(openBankingCDSConfigParserMock).getMetricsFetchExecutorQueueCapacity();
+        doReturn(60000).when(openBankingCDSConfigParserMock).getMetricsFetchTimeout();
     }
 
     @Test
@@ -72,4 +82,116 @@ public class MetricsV5FetcherImplTest extends PowerMockTestCase {
                 "2024-05-30T01:56:28+05:30");
         Assert.assertNotNull(metricsResponseModel, "Metrics response model should not be null");
     }
+
+    @Test
+    public void testGetResponseMetricsListModelHonoursDeadline() throws Exception {
+
+        doReturn(500).when(openBankingCDSConfigParserMock).getMetricsFetchTimeout();
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        MetricsFetcher delayedMetricsFetcher = new MetricsV5FetcherImpl(new MetricsV5ProcessorImpl(
+                PeriodEnum.ALL, new DelayedMetricsDataProvider(releaseLatch), ZoneId.of("GMT")));
+
+        long startTime = System.nanoTime();
+        try {
+            delayedMetricsFetcher.getResponseMetricsListModel("2024-05-30T01:56:28+05:30");
+            Assert.fail("Metrics calculation should not complete before the stream processor responds");
+        } catch (OpenBankingException e) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            Assert.assertTrue(elapsedMillis < 5000, "Deadline was not honoured. Elapsed time: " + elapsedMillis);
+            Assert.assertTrue(MetricsFetchExecutor.getInstance().getTimedOutRequestCount() > 0);
+        } finally {
+            releaseLatch.countDown();
+        }
+    }
+
+    @Test
+    public void testGetResponseMetricsListModelFailsFast() throws Exception {
+
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        MetricsFetcher failingMetricsFetcher = new MetricsV5FetcherImpl(new MetricsV5ProcessorImpl(
+                PeriodEnum.ALL, new FailingMetricsDataProvider(releaseLatch), ZoneId.of("GMT")));
+        long timedOutRequestCount = MetricsFetchExecutor.getInstance().getTimedOutRequestCount();
+
+        long startTime = System.nanoTime();
+        try {
+            failingMetricsFetcher.getResponseMetricsListModel("2024-05-30T01:56:28+05:30");
+            Assert.fail("Metrics calculation should fail when the stream processor returns an error");
+        } catch (OpenBankingException e) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            // The configured timeout is 60 seconds, the pending invocation calculation should not be awaited
+            Assert.assertTrue(elapsedMillis < 5000, "Request did not fail fast. Elapsed time: " + elapsedMillis);
+            Assert.assertEquals(MetricsFetchExecutor.getInstance().getTimedOutRequestCount(), timedOutRequestCount);
+        } finally {
+            releaseLatch.countDown();
+        }
+    }
+
+    @Test
+    public void testGetResponseMetricsListModelWithStarvedCommonPool() throws Exception {
+
+        // Occupy every worker of the common pool with a blocking task.
+        CountDownLatch releaseLatch = new CountDownLatch(1);
+        List<Future<?>> blockingTasks = new ArrayList<>();
+        for (int i = 0; i <= ForkJoinPool.getCommonPoolParallelism(); i++) {
+            blockingTasks.add(ForkJoinPool.commonPool().submit(() -> {
+                releaseLatch.await();
+                return null;
+            }));
+        }
+
+        try {
+            MetricsResponseModel metricsResponseModel = metricsFetcher.getResponseMetricsListModel(
+                    "2024-05-30T01:56:28+05:30");
+            Assert.assertNotNull(metricsResponseModel.getInvocationHighPriority());
+            Assert.assertNotNull(metricsResponseModel.getAverageResponseHighPriority());
+            for (Future<?> blockingTask : blockingTasks) {
+                Assert.assertFalse(blockingTask.isDone(), "Common pool should remain starved during the fetch");
+            }
+        } finally {
+            releaseLatch.countDown();
+        }
+    }
+
+    /**
+     * Metrics data provider which simulates a stream processor that does not respond to invocation queries
+     * until it is released.
+     */
+    private static class DelayedMetricsDataProvider extends MockMetricsDataProvider {
+
+        private final CountDownLatch releaseLatch;
+
+        DelayedMetricsDataProvider(CountDownLatch releaseLatch) {
+
+            this.releaseLatch = releaseLatch;
+        }
+
+        @Override
+        public JSONObject getInvocationMetricsData() throws OpenBankingException {
+
+            try {
+                releaseLatch.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getInvocationMetricsData();
+        }
+    }
+
+    /**
+     * Metrics data provider which simulates a stream processor that returns an error for session count queries,
+     * while invocation queries are still pending.
+     */
+    private static class FailingMetricsDataProvider extends DelayedMetricsDataProvider {
+
+        FailingMetricsDataProvider(CountDownLatch releaseLatch) {
+
+            super(releaseLatch);
+        }
+
+        @Override
+        public JSONObject getSessionCountMetricsData() throws OpenBankingException {
+
+            throw new OpenBankingException("Error occurred while querying the stream processor");
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.util;
+
+import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test class for FixedScaleMetricsUtil.
+ */
+public class FixedScaleMetricsUtilTest {
+
+    @Test
+    public void testPerformance() throws OpenBankingException {
+
+        Map<PriorityEnum, List<Integer>> invocationMap = new EnumMap<>(PriorityEnum.class);
+        invocationMap.put(PriorityEnum.UNAUTHENTICATED, Arrays.asList(4, 0));
+        invocationMap.put(PriorityEnum.HIGH_PRIORITY, Arrays.asList(1, 0));
+        invocationMap.put(PriorityEnum.LOW_PRIORITY, Arrays.asList(2, 0));
+        invocationMap.put(PriorityEnum.UNATTENDED, Arrays.asList(3, 0));
+        invocationMap.put(PriorityEnum.LARGE_PAYLOAD, Arrays.asList(6, 0));
+
+        long[] performance = FixedScaleMetricsUtil.toFixedScaleArray(Arrays.asList(10, 0));
+        FixedScaleMetricsUtil.divideInPlace(performance,
+                FixedScaleMetricsUtil.getFixedScaleTotalsForEachDay(invocationMap, PriorityEnum.values()));
+
+        Assert.assertEquals(FixedScaleMetricsUtil.toBigDecimalList(performance, new BigDecimal("1.000")),
+                Arrays.asList(new BigDecimal("0.625"), new BigDecimal("1.000")));
+    }
+
+    @Test
+    public void testAverageResponseTime() throws OpenBankingException {
+
+        // Total response times are reported by the analytics server as milliseconds divided by 1000.0.
+        long[] averageResponseTimes = {FixedScaleMetricsUtil.toFixedScale(1.5),
+                FixedScaleMetricsUtil.toFixedScale(0.001) + FixedScaleMetricsUtil.toFixedScale(0.002),
+                FixedScaleMetricsUtil.toFixedScale(2.0)};
+        FixedScaleMetricsUtil.divideInPlace(averageResponseTimes,
+                FixedScaleMetricsUtil.toFixedScaleArray(Arrays.asList(4, 2, 0)));
+
+        Assert.assertEquals(FixedScaleMetricsUtil.toBigDecimalList(averageResponseTimes, new BigDecimal("0")),
+                Arrays.asList(new BigDecimal("0.375"), new BigDecimal("0.002"), new BigDecimal("0")));
+    }
+
+    @Test
+    public void testAverageTPS() {
+
+        long[] averageTPS = FixedScaleMetricsUtil.toFixedScaleArray(Arrays.asList(43200, 100, 0));
+        FixedScaleMetricsUtil.divideInPlace(averageTPS, FixedScaleMetricsUtil.SECONDS_IN_DAY);
+
+        Assert.assertEquals(FixedScaleMetricsUtil.toBigDecimalList(averageTPS, null),
+                Arrays.asList(new BigDecimal("0.500"), new BigDecimal("0.001"), new BigDecimal("0.000")));
+    }
+
+    @Test
+    public void testDivisionIsRoundedHalfUp() throws OpenBankingException {
+
+        long[] dividends = {1000L, 1000L, 2000L, -1000L, 5L};
+        long[] divisors = {16000L, 8000L, 3000L, 16000L, 2000L};
+        FixedScaleMetricsUtil.divideInPlace(dividends, divisors);
+
+        List<BigDecimal> result = FixedScaleMetricsUtil.toBigDecimalList(dividends, null);
+        Assert.assertEquals(result.get(0), new BigDecimal("0.063"));
+        Assert.assertEquals(result.get(1), new BigDecimal("0.125"));
+        Assert.assertEquals(result.get(2), new BigDecimal("0.667"));
+        Assert.assertEquals(result.get(3), new BigDecimal("-0.063"));
+        Assert.assertEquals(result.get(4), new BigDecimal("0.003"));
+    }
+
+    @Test
+    public void testDivisionByZeroIsUndefined() throws OpenBankingException {
+
+        long[] dividends = {5000L, 0L};
+        FixedScaleMetricsUtil.divideInPlace(dividends, new long[]{0L, 0L});
+
+        Assert.assertEquals(dividends[0], FixedScaleMetricsUtil.UNDEFINED);
+        Assert.assertEquals(FixedScaleMetricsUtil.toBigDecimalList(dividends, new BigDecimal("1.000")).get(1),
+                new BigDecimal("1.000"));
+    }
+
+    @Test(expectedExceptions = OpenBankingException.class)
+    public void testDivisionOfArraysWithDifferentSizes() throws OpenBankingException {
+
+        FixedScaleMetricsUtil.divideInPlace(new long[2], new long[3]);
+    }
+}
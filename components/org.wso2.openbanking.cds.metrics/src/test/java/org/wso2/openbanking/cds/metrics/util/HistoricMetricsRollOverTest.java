@@ -0,0 +1,469 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.util;
+
+import com.google.gson.Gson;
+import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.metrics.cache.HistoricMetricsSnapshot;
+import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
+import org.wso2.openbanking.cds.metrics.data.MetricsDataProvider;
+import org.wso2.openbanking.cds.metrics.model.MetricsResponseModel;
+import org.wso2.openbanking.cds.metrics.service.MetricsV5FetcherImpl;
+import org.wso2.openbanking.cds.metrics.service.MetricsV5ProcessorImpl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Test class for rolling over historic metrics.
+ * Simulates consecutive days and compares the rolled over historic metrics with the historic metrics calculated
+ * from scratch on each day.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class})
+@PowerMockIgnore({"javax.crypto.*", "jdk.internal.reflect.*"})
+public class HistoricMetricsRollOverTest extends PowerMockTestCase {
+
+    private static final ZoneId TIME_ZONE = ZoneId.of("GMT");
+    private static final LocalDate V5_START_DATE = LocalDate.parse("2024-05-01");
+    private static final String REQUEST_TIME = "2024-09-30T03:00:00.000Z";
+    private static final long VALIDITY_MILLIS = TimeUnit.MINUTES.toMillis(60);
+
+    private final Gson gson = new Gson();
+    private final SimulatedMetricsData simulatedMetricsData = new SimulatedMetricsData(V5_START_DATE,
+            LocalDate.parse("2024-10-31"));
+
+    @BeforeMethod
+    public void setup() {
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        doReturn("GMT").when(openBankingCDSConfigParserMock).getMetricsTimeZone();
+        doReturn(V5_START_DATE.toString()).when(openBankingCDSConfigParserMock).getMetricsV5StartDate();
+        doReturn(300000L).when(openBankingCDSConfigParserMock).getConsentAbandonmentTime();
+        doReturn(300000L).when(openBankingCDSConfigParserMock).getAuthorizationCodeValidityPeriod();
+        doReturn(16).when(openBankingCDSConfigParserMock).getMetricsFetchExecutorPoolSize();
+        doReturn(256).when(openBankingCDSConfigParserMock).getMetricsFetchExecutorQueueCapacity();
+        doReturn(60000).when(openBankingCDSConfigParserMock).getMetricsFetchTimeout();
+    }
+
+    @Test
+    public void testRollOverMatchesFullCalculationAcrossMonthBoundary() throws OpenBankingException {
+
+        assertRollOverMatchesFullCalculation(LocalDate.parse("2024-08-20"), LocalDate.parse("2024-09-12"));
+    }
+
+    @Test
+    public void testRollOverMatchesFullCalculationWhileHistoryIsFilling() throws OpenBankingException {
+
+        // Less than 7 days of performance metrics are available right after the Metrics V5 start date.
+        assertRollOverMatchesFullCalculation(V5_START_DATE.plusDays(2), V5_START_DATE.plusDays(10));
+    }
+
+    @Test
+    public void testRollOverKeepsHistoricPeriod() throws OpenBankingException {
+
+        LocalDate today = LocalDate.parse("2024-10-01");
+        MetricsResponseModel previousMetrics = getFullHistoricMetrics(today.minusDays(1));
+        MetricsResponseModel rolledMetrics = MetricsServiceUtil.rollOverHistoricMetrics(previousMetrics,
+                getClosedDayMetrics(today.minusDays(1)), getHistoricAvailabilityMetrics(today), REQUEST_TIME);
+
+        Assert.assertEquals(rolledMetrics.getSessionCount().size(), 7);
+        Assert.assertEquals(rolledMetrics.getPerformanceHighPriority().size(), 7);
+        Assert.assertEquals(rolledMetrics.getAuthenticatedErrors().size(), 7);
+        Assert.assertEquals(rolledMetrics.getNewAuthorisationCount().size(), 7);
+        Assert.assertEquals(rolledMetrics.getSessionCount().subList(1, 7),
+                previousMetrics.getSessionCount().subList(0, 6));
+        Assert.assertEquals(rolledMetrics.getAvailability().size(), previousMetrics.getAvailability().size() + 1);
+    }
+
+    @Test
+    public void testClosedDayMetricsOfV5StartDateAreNotAvailable() throws OpenBankingException {
+
+        // Performance of the Metrics V5 start date is only available when calculated from scratch, hence the job
+        // falls back to a full calculation on the next day.
+        Assert.expectThrows(OpenBankingException.class, () -> getClosedDayMetrics(V5_START_DATE));
+        Assert.assertEquals(getFullHistoricMetrics(V5_START_DATE.plusDays(1)).getPerformanceHighPriority().size(), 1);
+    }
+
+    /**
+     * Roll the historic metrics over day by day through a snapshot, the way the historic metrics cache job does,
+     * and compare them with the historic metrics calculated from scratch.
+     */
+    private void assertRollOverMatchesFullCalculation(LocalDate firstDay, LocalDate lastDay)
+            throws OpenBankingException {
+
+        HistoricMetricsSnapshot snapshot = new HistoricMetricsSnapshot(getFullHistoricMetrics(firstDay), firstDay,
+                0, VALIDITY_MILLIS);
+        for (LocalDate today = firstDay.plusDays(1); !today.isAfter(lastDay); today = today.plusDays(1)) {
+            LocalDate closedDate = today.minusDays(1);
+            Map<AspectEnum, List<BigDecimal>> availabilityMetrics = today.getDayOfMonth() == 1 ?
+                    getHistoricAvailabilityMetrics(today) : null;
+            MetricsResponseModel rolledMetrics = MetricsServiceUtil.rollOverHistoricMetrics(
+                    snapshot.getMetricsResponseModel(), getClosedDayMetrics(closedDate), availabilityMetrics,
+                    REQUEST_TIME);
+
+            Assert.assertEquals(gson.toJson(rolledMetrics), gson.toJson(getFullHistoricMetrics(today)),
+                    "Rolled over historic metrics differ from the full calculation on " + today);
+            snapshot = new HistoricMetricsSnapshot(rolledMetrics, today, snapshot.getRolloverCount() + 1,
+                    VALIDITY_MILLIS);
+        }
+    }
+
+    private MetricsResponseModel getFullHistoricMetrics(LocalDate today) throws OpenBankingException {
+
+        MetricsDataProvider metricsDataProvider = simulatedMetricsData.getDataProvider(PeriodEnum.HISTORIC, today);
+        return new MetricsV5FetcherImpl(new MetricsV5ProcessorImpl(PeriodEnum.HISTORIC, metricsDataProvider,
+                today.atTime(3, 0).atZone(TIME_ZONE))).getResponseMetricsListModel(REQUEST_TIME);
+    }
+
+    private MetricsResponseModel getClosedDayMetrics(LocalDate closedDate) throws OpenBankingException {
+
+        MetricsDataProvider metricsDataProvider = simulatedMetricsData.getDataProvider(PeriodEnum.CURRENT,
+                closedDate);
+        return new MetricsV5FetcherImpl(new MetricsV5ProcessorImpl(PeriodEnum.CURRENT, metricsDataProvider,
+                closedDate.atTime(LocalTime.MAX).atZone(TIME_ZONE))).getResponseMetricsListModel(REQUEST_TIME);
+    }
+
+    private Map<AspectEnum, List<BigDecimal>> getHistoricAvailabilityMetrics(LocalDate today)
+            throws OpenBankingException {
+
+        MetricsDataProvider metricsDataProvider = simulatedMetricsData.getDataProvider(PeriodEnum.HISTORIC, today);
+        return new MetricsV5ProcessorImpl(PeriodEnum.HISTORIC, metricsDataProvider, today.atStartOfDay(TIME_ZONE))
+                .getAvailabilityMetrics();
+    }
+
+    /**
+     * Deterministic metrics records for a range of days.
+     * Each data provider returns only the records within the time range its period would query for.
+     */
+    private static class SimulatedMetricsData {
+
+        private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+        private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+        private static final long ABANDONMENT_MILLIS = 300000L;
+        private static final String[] ASPECTS = {"authenticated", "unauthenticated"};
+        private static final String[] OUTAGE_ASPECTS = {"all", "authenticated", "unauthenticated"};
+        private static final String[] STATUS_CODES = {"400", "401", "404", "500"};
+        private static final String[] FLOW_STAGES = {"started", "userIdentified", "userAuthenticated",
+                "accountSelected", "consentApproved", "completed"};
+
+        private final List<JSONArray> invocations = new ArrayList<>();
+        private final List<JSONArray> invocationsByAspect = new ArrayList<>();
+        private final List<JSONArray> hourlyPerformance = new ArrayList<>();
+        private final List<JSONArray> sessionCounts = new ArrayList<>();
+        private final List<JSONObject> peakTPS = new ArrayList<>();
+        private final List<JSONArray> errors = new ArrayList<>();
+        private final List<JSONArray> errorsByAspect = new ArrayList<>();
+        private final List<JSONArray> rejections = new ArrayList<>();
+        private final List<JSONArray> authorisations = new ArrayList<>();
+        private final List<JSONArray> consentFlowStages = new ArrayList<>();
+        private final List<JSONArray> totalResponseTimes = new ArrayList<>();
+        private final List<JSONArray> successfulInvocations = new ArrayList<>();
+        private final List<JSONArray> outages = new ArrayList<>();
+
+        SimulatedMetricsData(LocalDate firstDate, LocalDate lastDate) {
+
+            for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+                addDay(date, new Random(date.toEpochDay()));
+            }
+        }
+
+        private void addDay(LocalDate date, Random random) {
+
+            long dayStart = date.atStartOfDay(TIME_ZONE).toInstant().toEpochMilli();
+            for (int hour = 0; hour < 24; hour++) {
+                long hourStart = dayStart + hour * HOUR_MILLIS;
+                for (PriorityEnum priority : PriorityEnum.values()) {
+                    int count = random.nextInt(50);
+                    invocations.add(record(priority.toString(), count, hourStart));
+                    successfulInvocations.add(record(count - random.nextInt(count + 1) / 10, hourStart));
+                    totalResponseTimes.add(record(priority.toString(), count * random.nextInt(2000) / 1000.0,
+                            hourStart));
+                    if (random.nextInt(4) == 0) {
+                        hourlyPerformance.add(record(priority.toString(), hourStart,
+                                random.nextInt(1000) / 1000.0));
+                    }
+                }
+                for (String aspect : ASPECTS) {
+                    invocationsByAspect.add(record(aspect, random.nextInt(100), hourStart));
+                    JSONObject event = new JSONObject();
+                    event.put(MetricsConstants.TOTAL_COUNT, (long) random.nextInt(30));
+                    event.put(MetricsConstants.ASPECT, aspect);
+                    event.put(MetricsConstants.TIMESTAMP, (hourStart + random.nextInt(3600000)) / 1000);
+                    JSONObject tpsRecord = new JSONObject();
+                    tpsRecord.put(MetricsConstants.EVENT, event);
+                    peakTPS.add(tpsRecord);
+                }
+                sessionCounts.add(record(random.nextInt(20), hourStart));
+                errors.add(record(random.nextInt(5), hourStart));
+                errorsByAspect.add(record(hourStart, STATUS_CODES[random.nextInt(STATUS_CODES.length)],
+                        ASPECTS[random.nextInt(ASPECTS.length)], random.nextInt(5)));
+                rejections.add(record((long) random.nextInt(3), hourStart / 1000,
+                        random.nextBoolean() ? "user@carbon.super" : ""));
+            }
+
+            for (int i = 0; i < 6; i++) {
+                authorisations.add(record(dayStart + random.nextInt(20) * HOUR_MILLIS,
+                        i % 3 == 0 ? "Revoked" : i % 3 == 1 ? "Expired" : "Authorised",
+                        i == 5 ? "consentAmendmentAuthorisation" : "consentAuthorisation",
+                        random.nextBoolean() ? "individual" : "business",
+                        i == 2 ? "once-off" : "ongoing", 1 + random.nextInt(5)));
+            }
+
+            // Consent flows end before the day does, so that every abandonment falls on the day the flow started.
+            for (int flow = 0; flow < 8; flow++) {
+                String requestUriKey = date + "-" + flow;
+                long stageTime = dayStart + (1 + random.nextInt(20)) * HOUR_MILLIS;
+                int lastStage = random.nextInt(FLOW_STAGES.length);
+                for (int stage = 0; stage <= lastStage; stage++) {
+                    consentFlowStages.add(record(requestUriKey, FLOW_STAGES[stage], stageTime));
+                    stageTime += random.nextInt((int) ABANDONMENT_MILLIS / 2);
+                }
+                if (flow == 0) {
+                    consentFlowStages.add(record(requestUriKey, "consentRejected", stageTime));
+                } else if (flow == 1 && lastStage == 4) {
+                    consentFlowStages.add(record(requestUriKey, "tokenExchangeFailed", stageTime));
+                }
+            }
+
+            if (date.getDayOfMonth() % 9 == 4) {
+                long outageStart = (dayStart + random.nextInt(20) * HOUR_MILLIS) / 1000;
+                outages.add(record("outage-" + date, outageStart, random.nextBoolean() ? "scheduled" : "incident",
+                        outageStart, outageStart + random.nextInt(7200),
+                        OUTAGE_ASPECTS[random.nextInt(OUTAGE_ASPECTS.length)]));
+            }
+        }
+
+        MetricsDataProvider getDataProvider(PeriodEnum period, LocalDate today) {
+
+            long from;
+            long to;
+            long availabilityFrom;
+            long availabilityTo;
+            long startOfToday = today.atStartOfDay(TIME_ZONE).toInstant().toEpochMilli();
+            long startOfMonth = today.withDayOfMonth(1).atStartOfDay(TIME_ZONE).toInstant().toEpochMilli();
+            if (PeriodEnum.CURRENT == period) {
+                from = startOfToday;
+                to = startOfToday + DAY_MILLIS;
+                availabilityFrom = startOfMonth;
+                availabilityTo = today.withDayOfMonth(1).plusMonths(1).atStartOfDay(TIME_ZONE).toInstant()
+                        .toEpochMilli();
+            } else {
+                from = startOfToday - 7 * DAY_MILLIS;
+                to = startOfToday;
+                availabilityFrom = today.minusYears(1).withDayOfMonth(1).atStartOfDay(TIME_ZONE).toInstant()
+                        .toEpochMilli();
+                availabilityTo = startOfMonth;
+            }
+            return new SimulatedMetricsDataProvider(from, to, availabilityFrom, availabilityTo);
+        }
+
+        private static JSONArray record(Object... values) {
+
+            JSONArray record = new JSONArray();
+            for (Object value : values) {
+                record.add(value);
+            }
+            return record;
+        }
+
+        /**
+         * Data provider returning the simulated records within the given time range.
+         */
+        private class SimulatedMetricsDataProvider implements MetricsDataProvider {
+
+            private final long from;
+            private final long to;
+            private final long availabilityFrom;
+            private final long availabilityTo;
+
+            SimulatedMetricsDataProvider(long from, long to, long availabilityFrom, long availabilityTo) {
+
+                this.from = from;
+                this.to = to;
+                this.availabilityFrom = availabilityFrom;
+                this.availabilityTo = availabilityTo;
+            }
+
+            @Override
+            public JSONObject getAvailabilityMetricsData() {
+
+                JSONArray records = new JSONArray();
+                for (JSONArray outage : outages) {
+                    long timeFromMillis = (long) outage.get(3) * 1000;
+                    if (timeFromMillis >= availabilityFrom && timeFromMillis < availabilityTo) {
+                        records.add(outage);
+                    }
+                }
+                return toRecordsObject(records);
+            }
+
+            @Override
+            public JSONObject getInvocationMetricsData() {
+
+                return filter(invocations, 2, 1);
+            }
+
+            @Override
+            public JSONObject getHourlyPerformanceByPriorityMetricsData() {
+
+                return filter(hourlyPerformance, 1, 1);
+            }
+
+            @Override
+            public JSONObject getInvocationByAspectMetricsData() {
+
+                return filter(invocationsByAspect, 2, 1);
+            }
+
+            @Override
+            public JSONObject getSessionCountMetricsData() {
+
+                return filter(sessionCounts, 1, 1);
+            }
+
+            @Override
+            public JSONArray getPeakTPSMetricsData() {
+
+                JSONArray records = new JSONArray();
+                for (JSONObject tpsRecord : peakTPS) {
+                    long timestamp = (long) ((JSONObject) tpsRecord.get(MetricsConstants.EVENT))
+                            .get(MetricsConstants.TIMESTAMP) * 1000;
+                    if (timestamp >= from && timestamp < to) {
+                        records.add(tpsRecord);
+                    }
+                }
+                return records;
+            }
+
+            @Override
+            public JSONObject getErrorMetricsData() {
+
+                return filter(errors, 1, 1);
+            }
+
+            @Override
+            public JSONObject getErrorByAspectMetricsData() {
+
+                return filter(errorsByAspect, 0, 1);
+            }
+
+            @Override
+            public JSONObject getRejectionMetricsData() {
+
+                return filter(rejections, 1, 1000);
+            }
+
+            @Override
+            public JSONObject getActiveAuthorisationCountMetricsData() {
+
+                JSONArray records = new JSONArray();
+                records.add(record("1001", "Authorised", "individual", "ongoing", 1717200000L,
+                        "consentAuthorisation"));
+                records.add(record("1002", "Revoked", "individual", "ongoing", 1717200000L,
+                        "consentAuthorisation"));
+                records.add(record("1003", "Authorised", "business", "ongoing", 1717200000L,
+                        "consentAuthorisation"));
+                return toRecordsObject(records);
+            }
+
+            @Override
+            public JSONObject getAuthorisationMetricsData() {
+
+                return filter(authorisations, 0, 1);
+            }
+
+            @Override
+            public JSONObject getAbandonedConsentFlowCountMetricsData() {
+
+                return filter(consentFlowStages, 2, 1);
+            }
+
+            @Override
+            public JSONObject getRecipientCountMetricsData() {
+
+                return toRecordsObject(record(record(4)));
+            }
+
+            @Override
+            public JSONObject getCustomerCountMetricsData() {
+
+                return toRecordsObject(record(record(9)));
+            }
+
+            @Override
+            public JSONObject getTotalResponseTimeMetricsData() {
+
+                return filter(totalResponseTimes, 2, 1);
+            }
+
+            @Override
+            public JSONObject getSuccessfulInvocationMetricsData() {
+
+                return filter(successfulInvocations, 1, 1);
+            }
+
+            /**
+             * Filter the records by the timestamp in the given column.
+             *
+             * @param records         - simulated records
+             * @param timestampColumn - index of the timestamp column
+             * @param millisPerUnit   - number of milliseconds per unit of the timestamp column
+             */
+            private JSONObject filter(List<JSONArray> records, int timestampColumn, long millisPerUnit) {
+
+                JSONArray filteredRecords = new JSONArray();
+                for (JSONArray record : records) {
+                    long timestamp = (long) record.get(timestampColumn) * millisPerUnit;
+                    if (timestamp >= from && timestamp < to) {
+                        filteredRecords.add(record);
+                    }
+                }
+                return toRecordsObject(filteredRecords);
+            }
+
+            private JSONObject toRecordsObject(JSONArray records) {
+
+                JSONObject recordsObject = new JSONObject();
+                recordsObject.put(MetricsConstants.RECORDS, records);
+                return recordsObject;
+            }
+        }
+    }
+}
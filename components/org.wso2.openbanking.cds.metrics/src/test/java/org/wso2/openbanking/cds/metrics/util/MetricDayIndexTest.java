@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.util;
+
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.common.enums.AuthorisationFlowTypeEnum;
+import org.wso2.openbanking.cds.common.enums.ConsentDurationTypeEnum;
+import org.wso2.openbanking.cds.common.enums.ConsentStatusEnum;
+import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
+import org.wso2.openbanking.cds.metrics.model.AuthorisationMetric;
+import org.wso2.openbanking.cds.metrics.model.AuthorisationMetricDataModel;
+import org.wso2.openbanking.cds.metrics.model.AuthorisationMetricDay;
+import org.wso2.openbanking.cds.metrics.model.CustomerTypeCount;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Test class for MetricDayIndex.
+ * Also compares the indexed day lookup with the previous scan over all metric days for every record.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class})
+@PowerMockIgnore({"javax.crypto.*", "jdk.internal.reflect.*"})
+public class MetricDayIndexTest extends PowerMockTestCase {
+
+    private static final ZoneId GMT = ZoneId.of("GMT");
+    // Daylight saving time starts in Sydney on 2024-10-06 and ends on 2024-04-07.
+    private static final ZoneId SYDNEY = ZoneId.of("Australia/Sydney");
+    private static final int ALL_PERIOD_DAYS = 8;
+
+    @BeforeMethod
+    public void setup() {
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        doReturn("GMT").when(openBankingCDSConfigParserMock).getMetricsTimeZone();
+        doReturn("2024-05-01").when(openBankingCDSConfigParserMock).getMetricsV5StartDate();
+        doReturn(300000L).when(openBankingCDSConfigParserMock).getConsentAbandonmentTime();
+        doReturn(300000L).when(openBankingCDSConfigParserMock).getAuthorizationCodeValidityPeriod();
+    }
+
+    @Test
+    public void testPositionMatchesDateOfTimestamp() {
+
+        assertPositionsMatchDates(GMT, LocalDate.of(2024, 10, 9));
+        assertPositionsMatchDates(SYDNEY, LocalDate.of(2024, 10, 9));
+        assertPositionsMatchDates(SYDNEY, LocalDate.of(2024, 4, 10));
+    }
+
+    @Test
+    public void testPositionOfEmptyDayList() {
+
+        MetricDayIndex dayIndex = new MetricDayIndex(Collections.<LocalDate>emptyList(), date -> date, GMT);
+        Assert.assertEquals(dayIndex.getPosition(System.currentTimeMillis()), -1);
+    }
+
+    @Test
+    public void testPopulateAuthorisationMetricDayListMatchesDayScan() {
+
+        LocalDate today = LocalDate.now(GMT);
+        List<AuthorisationMetricDataModel> records = getSyntheticAuthorisationRecords(new Random(5), 20000, today);
+
+        List<AuthorisationMetricDay> indexedDays = new ArrayList<>();
+        MetricsProcessorUtil.initializeAuthorisationMetricDayList(indexedDays, ALL_PERIOD_DAYS, today);
+        MetricsProcessorUtil.populateAuthorisationMetricDayList(records, indexedDays);
+
+        for (AuthorisationMetricDay indexedDay : indexedDays) {
+            // Select the records of the day by comparing the date of every record, as done before indexing
+            List<AuthorisationMetricDataModel> recordsOfDay = new ArrayList<>();
+            for (AuthorisationMetricDataModel record : records) {
+                if (Instant.ofEpochMilli(record.getTimestamp()).atZone(GMT).toLocalDate()
+                        .equals(indexedDay.getDate())) {
+                    recordsOfDay.add(record);
+                }
+            }
+            AuthorisationMetricDay scannedDay = new AuthorisationMetricDay();
+            scannedDay.setDate(indexedDay.getDate());
+            MetricsProcessorUtil.populateAuthorisationMetricDayList(recordsOfDay,
+                    Collections.singletonList(scannedDay));
+
+            Assert.assertEquals(describe(indexedDay), describe(scannedDay));
+        }
+    }
+
+    private static void assertPositionsMatchDates(ZoneId zoneId, LocalDate today) {
+
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < ALL_PERIOD_DAYS; i++) {
+            dates.add(today.minusDays(i));
+        }
+        MetricDayIndex dayIndex = new MetricDayIndex(dates, date -> date, zoneId);
+
+        long rangeStart = today.minusDays(ALL_PERIOD_DAYS + 1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+        long rangeEnd = today.plusDays(2).atStartOfDay(zoneId).toInstant().toEpochMilli();
+        Random random = new Random(zoneId.hashCode());
+        for (int i = 0; i < 100000; i++) {
+            long timestamp = rangeStart + (long) (random.nextDouble() * (rangeEnd - rangeStart));
+            assertPosition(dayIndex, dates, timestamp, zoneId);
+        }
+        // Day boundaries, including the ones shifted by daylight saving time
+        for (LocalDate date = today.minusDays(ALL_PERIOD_DAYS + 1); date.isBefore(today.plusDays(2));
+             date = date.plusDays(1)) {
+            long dayStart = date.atStartOfDay(zoneId).toInstant().toEpochMilli();
+            assertPosition(dayIndex, dates, dayStart - 1, zoneId);
+            assertPosition(dayIndex, dates, dayStart, zoneId);
+        }
+    }
+
+    private static void assertPosition(MetricDayIndex dayIndex, List<LocalDate> dates, long timestamp,
+                                       ZoneId zoneId) {
+
+        int expectedPosition = dates.indexOf(Instant.ofEpochMilli(timestamp).atZone(zoneId).toLocalDate());
+        Assert.assertEquals(dayIndex.getPosition(timestamp), expectedPosition,
+                "Unexpected position for timestamp " + timestamp + " in " + zoneId);
+    }
+
+    /**
+     * Generate records in the shape of the authorisation metrics data, spread over the ALL period and the days
+     * around it.
+     */
+    private static List<AuthorisationMetricDataModel> getSyntheticAuthorisationRecords(Random random,
+                                                                                       int numberOfRecords,
+                                                                                       LocalDate today) {
+
+        long rangeStart = today.minusDays(ALL_PERIOD_DAYS + 1).atStartOfDay(GMT).toInstant().toEpochMilli();
+        long rangeEnd = today.plusDays(1).atStartOfDay(GMT).toInstant().toEpochMilli();
+        ConsentStatusEnum[] statuses = ConsentStatusEnum.values();
+        AuthorisationFlowTypeEnum[] flowTypes = AuthorisationFlowTypeEnum.values();
+        ConsentDurationTypeEnum[] durationTypes = ConsentDurationTypeEnum.values();
+
+        List<AuthorisationMetricDataModel> records = new ArrayList<>(numberOfRecords);
+        for (int i = 0; i < numberOfRecords; i++) {
+            AuthorisationMetricDataModel record = new AuthorisationMetricDataModel();
+            record.setTimestamp(rangeStart + (long) (random.nextDouble() * (rangeEnd - rangeStart)));
+            record.setConsentStatus(statuses[random.nextInt(statuses.length)]);
+            record.setAuthFlowType(flowTypes[random.nextInt(flowTypes.length)]);
+            record.setCustomerProfile(random.nextBoolean() ? MetricsConstants.INDIVIDUAL :
+                    MetricsConstants.NON_INDIVIDUAL);
+            record.setConsentDurationType(durationTypes[random.nextInt(durationTypes.length)]);
+            record.setCount(1 + random.nextInt(3));
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static String describe(AuthorisationMetricDay metricDay) {
+
+        return metricDay.getDate() + " new " + describe(metricDay.getNewAuthorisationMetric()) +
+                " revoked " + describe(metricDay.getRevokedAuthorisationMetric()) +
+                " amended " + describe(metricDay.getAmendedAuthorisationMetric()) +
+                " expired " + describe(metricDay.getExpiredAuthorisationMetric());
+    }
+
+    private static String describe(AuthorisationMetric authorisationMetric) {
+
+        return describe(authorisationMetric.getOnceOff()) + "/" + describe(authorisationMetric.getOngoing());
+    }
+
+    private static String describe(CustomerTypeCount customerTypeCount) {
+
+        return customerTypeCount.getIndividual() + ":" + customerTypeCount.getNonIndividual();
+    }
+}
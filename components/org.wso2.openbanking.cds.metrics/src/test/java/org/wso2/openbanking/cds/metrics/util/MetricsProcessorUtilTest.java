@@ -18,7 +18,6 @@
 
 package org.wso2.openbanking.cds.metrics.util;
 
-import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
 import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import org.mockito.Mockito;
@@ -63,31 +62,6 @@ public class MetricsProcessorUtilTest extends PowerMockTestCase {
         metricsCountLastDateEpoch = 1715299199L;
     }
 
-    @Test
-    public void testDivideListsEqualSizeNoZeroDivisor() throws OpenBankingException {
-        List<BigDecimal> list1 = Arrays.asList(BigDecimal.valueOf(10), BigDecimal.valueOf(20));
-        List<BigDecimal> list2 = Arrays.asList(BigDecimal.valueOf(2), BigDecimal.valueOf(5));
-        List<BigDecimal> expected = Arrays.asList(new BigDecimal("5.000"), new BigDecimal("4.000"));
-        List<BigDecimal> result = MetricsProcessorUtil.divideLists(list1, list2, new BigDecimal("0"));
-        Assert.assertEquals(result, expected);
-    }
-
-    @Test(expectedExceptions = OpenBankingException.class)
-    public void testDivideListsUnequalSizes() throws OpenBankingException {
-        List<BigDecimal> list1 = Arrays.asList(BigDecimal.valueOf(10), BigDecimal.valueOf(20));
-        List<BigDecimal> list2 = Arrays.asList(BigDecimal.valueOf(2));
-        MetricsProcessorUtil.divideLists(list1, list2, new BigDecimal("0"));
-    }
-
-    @Test
-    public void testDivideListsWithZeroDivisor() throws OpenBankingException {
-        List<BigDecimal> list1 = Arrays.asList(BigDecimal.valueOf(10), BigDecimal.valueOf(20));
-        List<BigDecimal> list2 = Arrays.asList(BigDecimal.valueOf(2), BigDecimal.ZERO);
-        List<BigDecimal> expected = Arrays.asList(new BigDecimal("5.000"), new BigDecimal("0"));
-        List<BigDecimal> result = MetricsProcessorUtil.divideLists(list1, list2, new BigDecimal("0"));
-        Assert.assertEquals(result, expected);
-    }
-
     @Test
     public void testGetLastElementValueFromJsonObject() {
         JSONObject jsonObject = new JSONObject();
@@ -164,7 +138,7 @@ public class MetricsProcessorUtilTest extends PowerMockTestCase {
     }
 
     @Test
-    public void testGetPopulatedTotalResponseTimeMetricsMap() {
+    public void testGetPopulatedFixedScaleTotalResponseTimeMetricsMap() {
 
         JSONArray records = new JSONArray();
         records.add(new JSONArray().appendElement("Unattended").appendElement(112.0).appendElement(1715273999000L));
@@ -173,21 +147,21 @@ public class MetricsProcessorUtilTest extends PowerMockTestCase {
 
         when(metricsJsonObject.get("records")).thenReturn(records);
 
-        Map<PriorityEnum, List<BigDecimal>> result = MetricsProcessorUtil.getPopulatedTotalResponseTimeMetricsMap(
+        Map<PriorityEnum, long[]> result = MetricsProcessorUtil.getPopulatedFixedScaleTotalResponseTimeMetricsMap(
                 metricsJsonObject, numberOfDays, metricsCountLastDateEpoch);
 
         // Assert the size of the map
         Assert.assertEquals(result.size(), PriorityEnum.values().length);
 
-        // Assert the size of the lists in the map
+        // Assert the size of the arrays in the map
         for (PriorityEnum priority : PriorityEnum.values()) {
-            Assert.assertEquals(result.get(priority).size(), numberOfDays);
+            Assert.assertEquals(result.get(priority).length, numberOfDays);
         }
 
         // Assert specific values based on the provided JSON
-        Assert.assertEquals(result.get(PriorityEnum.UNATTENDED).get(0), BigDecimal.valueOf(112.0));
-        Assert.assertEquals(result.get(PriorityEnum.LOW_PRIORITY).get(1), BigDecimal.valueOf(234.0));
-        Assert.assertEquals(result.get(PriorityEnum.HIGH_PRIORITY).get(2), BigDecimal.valueOf(177.0));
+        Assert.assertEquals(result.get(PriorityEnum.UNATTENDED)[0], 112000L);
+        Assert.assertEquals(result.get(PriorityEnum.LOW_PRIORITY)[1], 234000L);
+        Assert.assertEquals(result.get(PriorityEnum.HIGH_PRIORITY)[2], 177000L);
     }
 
     @Test
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.util;
+
+import com.sun.net.httpserver.HttpServer;
+import com.wso2.openbanking.accelerator.common.exception.OpenBankingException;
+import com.wso2.openbanking.accelerator.common.util.HTTPClientUtils;
+import net.minidev.json.JSONObject;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.mockito.Mockito;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceReference;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.apimgt.impl.APIManagerAnalyticsConfiguration;
+import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+/**
+ * Verifies that SPQueryExecutorUtil reuses persistent connections against a local stub stream processor.
+ */
+@PrepareForTest({FrameworkUtil.class, HTTPClientUtils.class, OpenBankingCDSConfigParser.class})
+@PowerMockIgnore({"jdk.internal.reflect.*", "com.sun.net.httpserver.*", "javax.net.ssl.*"})
+public class SPQueryExecutorUtilConnectionPoolTest extends PowerMockTestCase {
+
+    private static final int QUERY_COUNT = 100;
+    private static final int CONCURRENCY = 8;
+    private static final String STUB_RESPONSE = "{\"records\":[[\"dummyValue\",1]]}";
+
+    private HttpServer stubServer;
+    private CloseableHttpClient pooledHttpClient;
+    private final Set<InetSocketAddress> openedConnections = ConcurrentHashMap.newKeySet();
+    private final Set<String> receivedAuthHeaders = ConcurrentHashMap.newKeySet();
+
+    @BeforeClass
+    public void startStubServer() throws IOException {
+
+        stubServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stubServer.createContext(MetricsConstants.SP_API_PATH, exchange -> {
+            // Each distinct client address corresponds to a distinct TCP connection.
+            openedConnections.add(exchange.getRemoteAddress());
+            receivedAuthHeaders.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            IOUtils.toByteArray(exchange.getRequestBody());
+            byte[] response = STUB_RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+        });
+        stubServer.setExecutor(Executors.newFixedThreadPool(CONCURRENCY));
+        stubServer.start();
+
+        // Mirrors the pooled client returned by the accelerator HTTPClientUtils.
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(CONCURRENCY);
+        connectionManager.setDefaultMaxPerRoute(CONCURRENCY);
+        pooledHttpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+    }
+
+    @BeforeMethod
+    public void setup() throws OpenBankingException {
+
+        mockStatic(FrameworkUtil.class);
+        Bundle bundleMock = mock(Bundle.class);
+        BundleContext bundleContextMock = mock(BundleContext.class);
+        ServiceReference<APIManagerConfigurationService> serviceReferenceMock = mock(ServiceReference.class);
+        APIManagerConfigurationService apiManagerConfigurationServiceMock = mock(APIManagerConfigurationService.class);
+        when(FrameworkUtil.getBundle(Mockito.any())).thenReturn(bundleMock);
+        when(bundleMock.getBundleContext()).thenReturn(bundleContextMock);
+        when(bundleContextMock.getServiceReference(APIManagerConfigurationService.class))
+                .thenReturn(serviceReferenceMock);
+
+        Map<String, String> reporterProperties = new HashMap<>();
+        reporterProperties.put(MetricsConstants.REST_API_URL_KEY,
+                "http://localhost:" + stubServer.getAddress().getPort());
+        reporterProperties.put(MetricsConstants.SP_USERNAME_KEY, "admin");
+        reporterProperties.put(MetricsConstants.SP_PASSWORD_KEY, "admin");
+        APIManagerAnalyticsConfiguration apiManagerAnalyticsConfigurationMock =
+                mock(APIManagerAnalyticsConfiguration.class);
+        when(apiManagerAnalyticsConfigurationMock.getReporterProperties()).thenReturn(reporterProperties);
+        when(bundleContextMock.getService(Mockito.any())).thenReturn(apiManagerConfigurationServiceMock);
+        when(apiManagerConfigurationServiceMock.getAPIAnalyticsConfiguration())
+                .thenReturn(apiManagerAnalyticsConfigurationMock);
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = mock(OpenBankingCDSConfigParser.class);
+        mockStatic(OpenBankingCDSConfigParser.class);
+        when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        Mockito.doReturn(5000).when(openBankingCDSConfigParserMock).getMetricsSPConnectTimeout();
+        Mockito.doReturn(30000).when(openBankingCDSConfigParserMock).getMetricsSPSocketTimeout();
+        Mockito.doReturn(5000).when(openBankingCDSConfigParserMock).getMetricsSPConnectionRequestTimeout();
+
+        PowerMockito.mockStatic(HTTPClientUtils.class);
+        Mockito.when(HTTPClientUtils.getHttpsClient()).thenReturn(pooledHttpClient);
+
+        openedConnections.clear();
+        receivedAuthHeaders.clear();
+    }
+
+    @AfterClass
+    public void stopStubServer() throws IOException {
+
+        pooledHttpClient.close();
+        stubServer.stop(0);
+    }
+
+    @Test
+    public void testSequentialQueriesReuseSingleConnection() throws Exception {
+
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            executeQuery();
+        }
+
+        Assert.assertEquals(openedConnections.size(), 1,
+                "Sequential queries should be served over a single persistent connection");
+        Assert.assertEquals(receivedAuthHeaders.size(), 1);
+    }
+
+    @Test
+    public void testConcurrentQueriesAreBoundedByPool() throws Exception {
+
+        ExecutorService executorService = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Callable<JSONObject>> tasks = new ArrayList<>(QUERY_COUNT);
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                tasks.add(this::executeQuery);
+            }
+            for (Future<JSONObject> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+
+            Assert.assertTrue(openedConnections.size() <= CONCURRENCY,
+                    "Connections opened (" + openedConnections.size() + ") should not exceed the pool size");
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private JSONObject executeQuery() throws Exception {
+
+        JSONObject result = SPQueryExecutorUtil.executeQueryOnStreamProcessor("dummyAppName", "dummyQuery");
+        Assert.assertNotNull(result);
+        Assert.assertNotNull(result.get(MetricsConstants.RECORDS));
+        return result;
+    }
+}
@@ -43,11 +43,11 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import org.wso2.carbon.apimgt.impl.APIManagerAnalyticsConfiguration;
 import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 import static org.powermock.api.mockito.PowerMockito.mock;
@@ -57,7 +57,7 @@ import static org.powermock.api.mockito.PowerMockito.when;
 /**
  * Test class for SPQueryExecutorUtil.
  */
-@PrepareForTest({FrameworkUtil.class, HTTPClientUtils.class})
+@PrepareForTest({FrameworkUtil.class, HTTPClientUtils.class, OpenBankingCDSConfigParser.class})
 @PowerMockIgnore("jdk.internal.reflect.*")
 public class SPQueryExecutorUtilTest extends PowerMockTestCase {
 
@@ -86,10 +86,10 @@ public class SPQueryExecutorUtilTest extends PowerMockTestCase {
         File file = new File("src/test/resources/test-query-data.json");
         byte[] crlBytes = FileUtils.readFileToString(file, String.valueOf(StandardCharsets.UTF_8))
                 .getBytes(StandardCharsets.UTF_8);
-        InputStream inStream = new ByteArrayInputStream(crlBytes);
 
+        // The http client is shared across calls, hence a fresh stream is returned for each response.
         HttpEntity httpEntityMock = Mockito.mock(HttpEntity.class);
-        Mockito.doReturn(inStream).when(httpEntityMock).getContent();
+        Mockito.doAnswer(invocation -> new ByteArrayInputStream(crlBytes)).when(httpEntityMock).getContent();
 
         CloseableHttpResponse httpResponseMock = Mockito.mock(CloseableHttpResponse.class);
         Mockito.doReturn(statusLineMock).when(httpResponseMock).getStatusLine();
@@ -100,6 +100,10 @@ public class SPQueryExecutorUtilTest extends PowerMockTestCase {
 
         PowerMockito.mockStatic(HTTPClientUtils.class);
         Mockito.when(HTTPClientUtils.getHttpsClient()).thenReturn(closeableHttpClientMock);
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = mock(OpenBankingCDSConfigParser.class);
+        mockStatic(OpenBankingCDSConfigParser.class);
+        when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
     }
 
     @Test
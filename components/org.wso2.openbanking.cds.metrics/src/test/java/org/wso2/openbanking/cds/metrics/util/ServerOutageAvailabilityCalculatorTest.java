@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.util;
+
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
+import org.wso2.openbanking.cds.metrics.model.ServerOutageDataModel;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Test class for ServerOutageAvailabilityCalculator.
+ * Compares the calculator with the previous availability calculation, which filtered and merged the outages again
+ * for every month and aspect.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class})
+@PowerMockIgnore({"javax.crypto.*", "jdk.internal.reflect.*"})
+public class ServerOutageAvailabilityCalculatorTest extends PowerMockTestCase {
+
+    private static final ZoneId GMT = ZoneId.of("GMT");
+    private static final LocalDate CURRENT_DATE = LocalDate.of(2025, 5, 20);
+    private static final int ALL_PERIOD_MONTHS = 13;
+    private static final AspectEnum[] OUTAGE_ASPECTS = {AspectEnum.ALL, AspectEnum.AUTHENTICATED,
+            AspectEnum.UNAUTHENTICATED};
+
+    @BeforeMethod
+    public void setup() {
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        doReturn("GMT").when(openBankingCDSConfigParserMock).getMetricsTimeZone();
+        doReturn("2024-05-01").when(openBankingCDSConfigParserMock).getMetricsV5StartDate();
+        doReturn(300000L).when(openBankingCDSConfigParserMock).getConsentAbandonmentTime();
+        doReturn(300000L).when(openBankingCDSConfigParserMock).getAuthorizationCodeValidityPeriod();
+    }
+
+    @Test
+    public void testAvailabilityMatchesPreviousCalculationForRandomOutages() {
+
+        Random random = new Random(21);
+        for (int trial = 0; trial < 300; trial++) {
+            List<ServerOutageDataModel> serverOutages = getRandomServerOutages(random, 1 + random.nextInt(60),
+                    trial % 2 == 0 ? TimeUnit.HOURS.toSeconds(6) : TimeUnit.DAYS.toSeconds(20));
+
+            Map<AspectEnum, List<BigDecimal>> availabilityMap = MetricsProcessorUtil
+                    .getAvailabilityMapFromServerOutages(serverOutages, ALL_PERIOD_MONTHS, getEndOfCurrentMonth(),
+                            CURRENT_DATE);
+            Assert.assertEquals(availabilityMap, getAvailabilityMapWithPreviousCalculation(serverOutages,
+                    availabilityMap.get(AspectEnum.ALL).size()));
+        }
+    }
+
+    @Test
+    public void testOverlappingAndDuplicateOutagesAreCountedOnce() {
+
+        long monthStart = CURRENT_DATE.withDayOfMonth(1).atStartOfDay(GMT).toEpochSecond();
+        long monthEnd = monthStart + TimeUnit.DAYS.toSeconds(10);
+        List<ServerOutageDataModel> serverOutages = new ArrayList<>();
+        serverOutages.add(getServerOutage(MetricsConstants.INCIDENT_OUTAGE, monthStart + 100, monthStart + 400,
+                AspectEnum.AUTHENTICATED));
+        serverOutages.add(getServerOutage(MetricsConstants.INCIDENT_OUTAGE, monthStart + 100, monthStart + 400,
+                AspectEnum.AUTHENTICATED));
+        serverOutages.add(getServerOutage(MetricsConstants.INCIDENT_OUTAGE, monthStart + 300, monthStart + 600,
+                AspectEnum.ALL));
+        serverOutages.add(getServerOutage(MetricsConstants.INCIDENT_OUTAGE, monthStart + 700, monthStart + 650,
+                AspectEnum.ALL));
+        serverOutages.add(getServerOutage(MetricsConstants.SCHEDULED_OUTAGE, monthStart + 200, monthStart + 500,
+                AspectEnum.UNAUTHENTICATED));
+
+        Map<AspectEnum, BigDecimal> availability = new ServerOutageAvailabilityCalculator(serverOutages)
+                .getAvailability(monthStart, monthEnd);
+
+        for (AspectEnum aspect : OUTAGE_ASPECTS) {
+            Assert.assertEquals(availability.get(aspect), getAvailabilityWithPreviousCalculation(serverOutages,
+                    monthStart, monthEnd, aspect));
+        }
+        Assert.assertEquals(availability.get(AspectEnum.AUTHENTICATED),
+                getExpectedAvailability(monthEnd - monthStart, 0, 500));
+        Assert.assertEquals(availability.get(AspectEnum.UNAUTHENTICATED),
+                getExpectedAvailability(monthEnd - monthStart, 300, 300));
+    }
+
+    @Test
+    public void testAvailabilityMatchesPreviousCalculationForManyLongOutages() {
+
+        List<ServerOutageDataModel> serverOutages = getRandomServerOutages(new Random(3), 10000,
+                TimeUnit.HOURS.toSeconds(6));
+
+        Map<AspectEnum, List<BigDecimal>> availability = MetricsProcessorUtil.getAvailabilityMapFromServerOutages(
+                serverOutages, ALL_PERIOD_MONTHS, getEndOfCurrentMonth(), CURRENT_DATE);
+
+        Assert.assertEquals(availability, getAvailabilityMapWithPreviousCalculation(serverOutages,
+                availability.get(AspectEnum.ALL).size()));
+    }
+
+    private static ZonedDateTime getEndOfCurrentMonth() {
+
+        return CURRENT_DATE.atTime(LocalTime.MAX).atZone(GMT);
+    }
+
+    /**
+     * Generate outages of random types and aspects spread over the ALL period, including overlapping, duplicated,
+     * zero length and invalid outages.
+     */
+    private static List<ServerOutageDataModel> getRandomServerOutages(Random random, int numberOfOutages,
+                                                                      long maxOutageSeconds) {
+
+        long periodStart = CURRENT_DATE.minusMonths(ALL_PERIOD_MONTHS + 1).atStartOfDay(GMT).toEpochSecond();
+        long periodEnd = getEndOfCurrentMonth().toEpochSecond();
+        List<ServerOutageDataModel> serverOutages = new ArrayList<>();
+        for (int i = 0; i < numberOfOutages; i++) {
+            long timeFrom = periodStart + (long) (random.nextDouble() * (periodEnd - periodStart));
+            long timeTo;
+            int shape = random.nextInt(20);
+            if (shape == 0) {
+                timeTo = timeFrom;
+            } else if (shape == 1) {
+                timeTo = timeFrom - 1 - random.nextInt(100);
+            } else {
+                timeTo = timeFrom + 1 + (long) (random.nextDouble() * maxOutageSeconds);
+            }
+            String type = random.nextBoolean() ? MetricsConstants.SCHEDULED_OUTAGE : MetricsConstants.INCIDENT_OUTAGE;
+            ServerOutageDataModel serverOutage = getServerOutage(type, timeFrom, timeTo,
+                    OUTAGE_ASPECTS[random.nextInt(OUTAGE_ASPECTS.length)]);
+            serverOutages.add(serverOutage);
+            if (random.nextInt(10) == 0) {
+                serverOutages.add(getServerOutage(type, timeFrom, timeTo, serverOutage.getAspect()));
+            }
+        }
+        return serverOutages;
+    }
+
+    private static ServerOutageDataModel getServerOutage(String type, long timeFrom, long timeTo,
+                                                         AspectEnum aspect) {
+
+        return new ServerOutageDataModel("outage-" + timeFrom, timeFrom, type, timeFrom, timeTo, aspect);
+    }
+
+    private static BigDecimal getExpectedAvailability(long period, long scheduledOutages, long incidentOutages) {
+
+        return BigDecimal.valueOf(((double) period - scheduledOutages - incidentOutages) /
+                ((double) period - scheduledOutages)).setScale(3, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Calculate the availability map of the given number of months the way it was calculated before the sweep
+     * calculator was introduced.
+     */
+    private static Map<AspectEnum, List<BigDecimal>> getAvailabilityMapWithPreviousCalculation(
+            List<ServerOutageDataModel> serverOutages, int noOfMonths) {
+
+        Map<AspectEnum, List<BigDecimal>> availabilityMap = new HashMap<>();
+        for (AspectEnum aspect : OUTAGE_ASPECTS) {
+            availabilityMap.put(aspect, new ArrayList<>());
+        }
+        ZonedDateTime currentEndOfMonth = getEndOfCurrentMonth();
+        for (int monthIndex = 0; monthIndex < noOfMonths; monthIndex++) {
+            ZonedDateTime currentStartOfMonth = currentEndOfMonth.withHour(0).withMinute(0).withSecond(0)
+                    .withDayOfMonth(1);
+            for (AspectEnum aspect : OUTAGE_ASPECTS) {
+                availabilityMap.get(aspect).add(getAvailabilityWithPreviousCalculation(serverOutages,
+                        currentStartOfMonth.toEpochSecond(), currentEndOfMonth.toEpochSecond(), aspect));
+            }
+            currentEndOfMonth = currentStartOfMonth.minusDays(1).with(LocalTime.MAX);
+        }
+        return availabilityMap;
+    }
+
+    private static BigDecimal getAvailabilityWithPreviousCalculation(List<ServerOutageDataModel> serverOutages,
+                                                                     long fromTime, long toTime, AspectEnum aspect) {
+
+        List<ServerOutageDataModel> scheduledOutages = new ArrayList<>();
+        List<ServerOutageDataModel> incidentOutages = new ArrayList<>();
+        for (ServerOutageDataModel dataModel : serverOutages) {
+            if (aspect.equals(dataModel.getAspect()) || AspectEnum.ALL.equals(dataModel.getAspect()) ||
+                    AspectEnum.ALL.equals(aspect)) {
+                if (dataModel.getTimeFrom() >= fromTime && dataModel.getTimeFrom() < toTime) {
+                    if (MetricsConstants.SCHEDULED_OUTAGE.equals(dataModel.getType())) {
+                        scheduledOutages.add(dataModel);
+                    } else {
+                        incidentOutages.add(dataModel);
+                    }
+                }
+            }
+        }
+        return getExpectedAvailability(toTime - fromTime, getOutageTimeWithPreviousCalculation(scheduledOutages),
+                getOutageTimeWithPreviousCalculation(incidentOutages));
+    }
+
+    private static long getOutageTimeWithPreviousCalculation(List<ServerOutageDataModel> serverOutages) {
+
+        long totalTime = 0;
+        long currentEndTime = 0;
+        List<ServerOutageDataModel> filteredServerOutages = serverOutages.stream()
+                .filter(outage -> outage.getTimeTo() >= outage.getTimeFrom())
+                .distinct()
+                .sorted(Comparator.comparingLong(ServerOutageDataModel::getTimeFrom))
+                .collect(Collectors.toList());
+        for (ServerOutageDataModel serverOutage : filteredServerOutages) {
+            if (serverOutage.getTimeFrom() >= currentEndTime) {
+                totalTime += serverOutage.getTimeTo() - serverOutage.getTimeFrom();
+                currentEndTime = serverOutage.getTimeTo();
+            } else if (serverOutage.getTimeTo() > currentEndTime) {
+                totalTime += serverOutage.getTimeTo() - currentEndTime;
+                currentEndTime = serverOutage.getTimeTo();
+            }
+        }
+        return totalTime;
+    }
+}
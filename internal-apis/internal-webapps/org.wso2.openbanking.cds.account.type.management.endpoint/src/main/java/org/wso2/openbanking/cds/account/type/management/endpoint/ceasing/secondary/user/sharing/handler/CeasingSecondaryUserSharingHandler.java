@@ -32,6 +32,7 @@ import org.wso2.openbanking.cds.account.type.management.endpoint.ceasing.seconda
 import org.wso2.openbanking.cds.account.type.management.endpoint.ceasing.secondary.user.sharing.models.LegalEntityListUpdateDTO;
 import org.wso2.openbanking.cds.account.type.management.endpoint.ceasing.secondary.user.sharing.models.UsersAccountsLegalEntitiesDTO;
 import org.wso2.openbanking.cds.account.type.management.endpoint.constants.AccountTypeManagementConstants;
+import org.wso2.openbanking.cds.common.utils.AccountMetadataUpdateTracker;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -79,6 +80,7 @@ public class CeasingSecondaryUserSharingHandler {
                         (AccountTypeManagementConstants.METADATA_KEY_BLOCKED_LEGAL_ENTITIES, legalEntityID);
                 accountMetadataService.
                         addOrUpdateAccountMetadata(accountID, secondaryUserID, blockedLegalEntityMap);
+                AccountMetadataUpdateTracker.notifyUpdate();
                 log.info("Legal Entity: " + legalEntityID + ", has been successfully blocked!");
             } else {
                 // Legal entities exist for corresponding accountID and secondaryUserID
@@ -95,6 +97,7 @@ public class CeasingSecondaryUserSharingHandler {
                             legalEntitiesMetaDataValue.toString());
                     accountMetadataService.addOrUpdateAccountMetadata
                             (accountID, secondaryUserID, blockedLegalEntityMap);
+                    AccountMetadataUpdateTracker.notifyUpdate();
                     log.info("Legal Entity: " + legalEntityID + ", has been successfully blocked!");
                 }
             }
@@ -161,12 +164,14 @@ public class CeasingSecondaryUserSharingHandler {
                             newBlockedLegalEntitiesSB.toString());
                     accountMetadataService.addOrUpdateAccountMetadata
                             (accountID, secondaryUserID, newBlockedLegalEntityMap);
+                    AccountMetadataUpdateTracker.notifyUpdate();
 
                     if (accountMetadataService.getAccountMetadataByKey
                             (accountID, secondaryUserID,
                                     AccountTypeManagementConstants.METADATA_KEY_BLOCKED_LEGAL_ENTITIES).isEmpty()) {
                         accountMetadataService.removeAccountMetadataByKey(accountID, secondaryUserID,
                                 AccountTypeManagementConstants.METADATA_KEY_BLOCKED_LEGAL_ENTITIES);
+                        AccountMetadataUpdateTracker.notifyUpdate();
                     }
                     log.info("Legal Entity : " + legalEntityID + ", has been unblocked!");
                 }
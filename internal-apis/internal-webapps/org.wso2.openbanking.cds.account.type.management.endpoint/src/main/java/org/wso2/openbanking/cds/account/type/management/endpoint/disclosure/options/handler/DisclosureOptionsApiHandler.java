@@ -29,6 +29,7 @@ import net.minidev.json.parser.ParseException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.openbanking.cds.account.type.management.endpoint.constants.AccountTypeManagementConstants;
+import org.wso2.openbanking.cds.common.utils.AccountMetadataUpdateTracker;
 
 import java.util.HashMap;
 import javax.ws.rs.core.Response;
@@ -63,6 +64,7 @@ public class DisclosureOptionsApiHandler {
 
                 // Call the addOrUpdateGlobalAccountMetadata method from the AccountMetadataService class
                 accountMetadataService.addOrUpdateAccountMetadata(accountId, disclosureOptionsMap);
+                AccountMetadataUpdateTracker.notifyUpdate();
             }
             return Response.ok().build();
         } catch (OpenBankingException e) {
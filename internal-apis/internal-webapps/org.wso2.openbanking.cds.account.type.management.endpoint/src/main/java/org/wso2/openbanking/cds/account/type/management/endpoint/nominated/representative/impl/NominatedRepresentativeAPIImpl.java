@@ -42,6 +42,7 @@ import org.wso2.openbanking.cds.account.type.management.endpoint.nominated.repre
 import org.wso2.openbanking.cds.account.type.management.endpoint.nominated.representative.model.NominatedRepresentativeResponseDTO;
 import org.wso2.openbanking.cds.account.type.management.endpoint.util.ValidationUtil;
 import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.common.utils.AccountMetadataUpdateTracker;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -77,6 +78,7 @@ public class NominatedRepresentativeAPIImpl implements NominatedRepresentativeAP
                 for (String accountOwner : accountDataUpdateDTO.getAccountOwners()) {
                     accountMetadataService.addOrUpdateAccountMetadata(accountID, accountOwner,
                             accountOwnerPermissionMap);
+                    AccountMetadataUpdateTracker.notifyUpdate();
                 }
                 // Persist nominated representatives
                 for (NominatedRepresentativeDTO nominatedRepresentative : accountDataUpdateDTO.
@@ -87,6 +89,7 @@ public class NominatedRepresentativeAPIImpl implements NominatedRepresentativeAP
                     String nominatedRepresentativeUserName = nominatedRepresentative.getName();
                     accountMetadataService.addOrUpdateAccountMetadata(accountID, nominatedRepresentativeUserName,
                             representativePermissionMap);
+                    AccountMetadataUpdateTracker.notifyUpdate();
                 }
             }
         } catch (OpenBankingException e) {
@@ -118,6 +121,7 @@ public class NominatedRepresentativeAPIImpl implements NominatedRepresentativeAP
                 for (String accountUser : accountUsers) {
                     accountMetadataService.addOrUpdateAccountMetadata(accountID, accountUser,
                             revokePermissionMap);
+                    AccountMetadataUpdateTracker.notifyUpdate();
                     /* Add consent ID to the consentIds list used for revocation if the user is primary member
                        of the consent and if the revocation config is enabled */
                     if (OpenBankingCDSConfigParser.getInstance().isBNRConsentRevocationEnabled()) {
@@ -139,6 +143,7 @@ public class NominatedRepresentativeAPIImpl implements NominatedRepresentativeAP
                 if (!userIdAttributesMap.containsValue(BNRPermissionsEnum.AUTHORIZE.toString())) {
                     accountMetadataService.removeAccountMetadataByKeyForAllUsers(accountID,
                             AccountTypeManagementConstants.BNR_PERMISSION);
+                    AccountMetadataUpdateTracker.notifyUpdate();
                     // Revoke the consent where the user is the last user with AUTHORIZE permission for the account
                     // Todo: Fix the usecase for multiple accounts in the consent.
                     if (consentIds.size() > 0) {
@@ -41,6 +41,7 @@ import org.wso2.openbanking.cds.account.type.management.endpoint.model.ErrorStat
 import org.wso2.openbanking.cds.account.type.management.endpoint.secondary.user.instruction.api.SecondaryUserInstructionApi;
 import org.wso2.openbanking.cds.account.type.management.endpoint.secondary.user.instruction.model.SecondaryUserAccountStatusData;
 import org.wso2.openbanking.cds.account.type.management.endpoint.util.ValidationUtil;
+import org.wso2.openbanking.cds.common.utils.AccountMetadataUpdateTracker;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -97,6 +98,7 @@ public class SecondaryUserInstructionApiImpl implements SecondaryUserInstruction
                             secondaryUserAccountStatusData.getSecondaryAccountID(),
                             secondaryUserAccountStatusData.getSecondaryUserID(),
                             secondaryUserAccountStatusData.getAccountMetadataMap()) > 0) {
+                        AccountMetadataUpdateTracker.notifyUpdate();
 
                         // handle the consents based on the otherAccountsAvailability flag
                         expireConsentsBasedOnOtherAccountAvailability(secondaryUserAccountStatusData);
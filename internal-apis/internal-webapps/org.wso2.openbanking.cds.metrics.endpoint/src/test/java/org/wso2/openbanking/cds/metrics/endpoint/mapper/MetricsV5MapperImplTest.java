@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2024, WSO2 LLC. (https://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.openbanking.cds.metrics.endpoint.mapper;
+
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.openbanking.cds.common.config.OpenBankingCDSConfigParser;
+import org.wso2.openbanking.cds.metrics.cache.HistoricMetricsSnapshot;
+import org.wso2.openbanking.cds.metrics.constants.MetricsConstants;
+import org.wso2.openbanking.cds.metrics.endpoint.model.v5.ResponseMetricsListV5DTO;
+import org.wso2.openbanking.cds.metrics.model.AuthorisationMetric;
+import org.wso2.openbanking.cds.metrics.model.CustomerTypeCount;
+import org.wso2.openbanking.cds.metrics.model.MetricsResponseModel;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Test class for MetricsV5MapperImpl.
+ */
+@PrepareForTest({OpenBankingCDSConfigParser.class})
+@PowerMockIgnore({"javax.crypto.*", "jdk.internal.reflect.*"})
+public class MetricsV5MapperImplTest extends PowerMockTestCase {
+
+    private static final String HISTORIC_PERIOD = "historic";
+    private static final int PREVIOUS_DAYS = 3;
+    // Number of months since the availability start date, excluding the current month.
+    private static final int MONTHS_FROM_AVAILABILITY_START = 5;
+
+    private final MetricsMapper metricsMapper = new MetricsV5MapperImpl();
+
+    @BeforeMethod
+    public void setup() {
+
+        OpenBankingCDSConfigParser openBankingCDSConfigParserMock = PowerMockito.mock(OpenBankingCDSConfigParser.class);
+        PowerMockito.mockStatic(OpenBankingCDSConfigParser.class);
+        PowerMockito.when(OpenBankingCDSConfigParser.getInstance()).thenReturn(openBankingCDSConfigParserMock);
+        doReturn("GMT").when(openBankingCDSConfigParserMock).getMetricsTimeZone();
+        doReturn(LocalDate.now(ZoneId.of("GMT")).withDayOfMonth(1).minusMonths(MONTHS_FROM_AVAILABILITY_START)
+                .toString()).when(openBankingCDSConfigParserMock).getAvailabilityStartDate();
+        doReturn("https://localhost:9446/cds-au/v1/admin/").when(openBankingCDSConfigParserMock)
+                .getAdminAPISelfLink();
+    }
+
+    @Test
+    public void testMapHistoricMetricsFromCachedSnapshot() {
+
+        HistoricMetricsSnapshot snapshot = new HistoricMetricsSnapshot(getHistoricMetrics(),
+                TimeUnit.MINUTES.toMillis(60));
+
+        // Map the snapshot for two requests, the first request must not change the metrics of the second.
+        for (int request = 0; request < 2; request++) {
+            ResponseMetricsListV5DTO responseMetricsListDTO = metricsMapper
+                    .getResponseMetricsListDTO(snapshot.getMetricsResponseModel(getRequestTime()), HISTORIC_PERIOD);
+
+            // Availability of the months without data since the availability start date is added as full.
+            List<String> previousMonths = responseMetricsListDTO.getData().getAvailability().getAggregate()
+                    .getPreviousMonths();
+            Assert.assertEquals(previousMonths.size(), MONTHS_FROM_AVAILABILITY_START);
+            Assert.assertEquals(previousMonths.get(0), "0.990");
+            Assert.assertEquals(previousMonths.get(MONTHS_FROM_AVAILABILITY_START - 1), "1.000");
+            Assert.assertEquals(responseMetricsListDTO.getData().getErrors().getAggregate().getPreviousDays(),
+                    Arrays.asList(1, 2, 3));
+        }
+
+        Assert.assertEquals(snapshot.getMetricsResponseModel().getAvailability(),
+                Collections.singletonList(new BigDecimal("0.99")));
+    }
+
+    private static MetricsResponseModel getHistoricMetrics() {
+
+        MetricsResponseModel metricsResponseModel = new MetricsResponseModel(getRequestTime());
+        List<BigDecimal> availability = Collections.singletonList(new BigDecimal("0.99"));
+        metricsResponseModel.setAvailability(new ArrayList<>(availability));
+        metricsResponseModel.setAuthenticatedAvailability(new ArrayList<>(availability));
+        metricsResponseModel.setUnauthenticatedAvailability(new ArrayList<>(availability));
+
+        metricsResponseModel.setSessionCount(getDayList(Integer::valueOf));
+        metricsResponseModel.setPerformance(getDayList(BigDecimal::valueOf));
+        metricsResponseModel.setPerformanceUnauthenticated(getDayList(day -> getDayList(BigDecimal::valueOf)));
+        metricsResponseModel.setPerformanceHighPriority(getDayList(day -> getDayList(BigDecimal::valueOf)));
+        metricsResponseModel.setPerformanceLowPriority(getDayList(day -> getDayList(BigDecimal::valueOf)));
+        metricsResponseModel.setPerformanceUnattended(getDayList(day -> getDayList(BigDecimal::valueOf)));
+        metricsResponseModel.setPerformanceLargePayload(getDayList(day -> getDayList(BigDecimal::valueOf)));
+
+        metricsResponseModel.setInvocationUnauthenticated(getDayList(Integer::valueOf));
+        metricsResponseModel.setInvocationHighPriority(getDayList(Integer::valueOf));
+        metricsResponseModel.setInvocationLowPriority(getDayList(Integer::valueOf));
+        metricsResponseModel.setInvocationUnattended(getDayList(Integer::valueOf));
+        metricsResponseModel.setInvocationLargePayload(getDayList(Integer::valueOf));
+
+        metricsResponseModel.setAverageResponseUnauthenticated(getDayList(BigDecimal::valueOf));
+        metricsResponseModel.setAverageResponseHighPriority(getDayList(BigDecimal::valueOf));
+        metricsResponseModel.setAverageResponseLowPriority(getDayList(BigDecimal::valueOf));
+        metricsResponseModel.setAverageResponseUnattended(getDayList(BigDecimal::valueOf));
+        metricsResponseModel.setAverageResponseLargePayload(getDayList(BigDecimal::valueOf));
+
+        metricsResponseModel.setAverageTPS(getDayList(BigDecimal::valueOf));
+        metricsResponseModel.setAuthenticatedAverageTPS(getDayList(BigDecimal::valueOf));
+        metricsResponseModel.setUnauthenticatedAverageTPS(getDayList(BigDecimal::valueOf));
+        metricsResponseModel.setPeakTPS(getDayList(BigDecimal::valueOf));
+        metricsResponseModel.setAuthenticatedPeakTPS(getDayList(BigDecimal::valueOf));
+        metricsResponseModel.setUnauthenticatedPeakTPS(getDayList(BigDecimal::valueOf));
+
+        metricsResponseModel.setErrors(getDayList(Integer::valueOf));
+        metricsResponseModel.setAuthenticatedErrors(getDayList(day -> Collections.singletonMap("500", day)));
+        metricsResponseModel.setUnauthenticatedErrors(getDayList(day -> Collections.singletonMap("500", day)));
+        metricsResponseModel.setAuthenticatedEndpointRejections(getDayList(Integer::valueOf));
+        metricsResponseModel.setUnauthenticatedEndpointRejections(getDayList(Integer::valueOf));
+
+        metricsResponseModel.setNewAuthorisationCount(getDayList(day -> new AuthorisationMetric()));
+        metricsResponseModel.setRevokedAuthorisationCount(getDayList(day -> new CustomerTypeCount(day, day)));
+        metricsResponseModel.setAmendedAuthorisationCount(getDayList(day -> new CustomerTypeCount(day, day)));
+        metricsResponseModel.setExpiredAuthorisationCount(getDayList(day -> new CustomerTypeCount(day, day)));
+
+        metricsResponseModel.setAbandonedConsentFlowCount(getDayList(Integer::valueOf));
+        metricsResponseModel.setPreIdentificationAbandonedConsentFlowCount(getDayList(Integer::valueOf));
+        metricsResponseModel.setPreAuthenticationAbandonedConsentFlowCount(getDayList(Integer::valueOf));
+        metricsResponseModel.setPreAccountSelectionAbandonedConsentFlowCount(getDayList(Integer::valueOf));
+        metricsResponseModel.setPreAuthorisationAbandonedConsentFlowCount(getDayList(Integer::valueOf));
+        metricsResponseModel.setRejectedAbandonedConsentFlowCount(getDayList(Integer::valueOf));
+        metricsResponseModel.setFailedTokenExchangeAbandonedConsentFlowCount(getDayList(Integer::valueOf));
+        return metricsResponseModel;
+    }
+
+    private static <T> List<T> getDayList(IntFunction<T> valueOfDay) {
+
+        List<T> dayList = new ArrayList<>();
+        for (int day = 1; day <= PREVIOUS_DAYS; day++) {
+            dayList.add(valueOfDay.apply(day));
+        }
+        return dayList;
+    }
+
+    private static String getRequestTime() {
+
+        return new SimpleDateFormat(MetricsConstants.REQUEST_TIMESTAMP_PATTERN).format(new Date());
+    }
+}